@@ -0,0 +1,93 @@
+package com.mmorrell.benchmarks;
+
+import com.mmorrell.phoenix.model.PhoenixMarketHeader;
+import com.mmorrell.phoenix.program.PhoenixProgram;
+import com.mmorrell.phoenix.util.Keccak;
+import com.mmorrell.phoenix.util.PhoenixUtil;
+import org.bitcoinj.core.Base58;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-call discriminator and Keccak hashing that Phoenix used to do against the memoized registry and
+ * the reused Keccak state, over the same market header bytes.
+ * <p>
+ * Run with {@code -prof gc} to see the allocation rate of each path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhoenixDiscriminatorBenchmark {
+
+    private final byte[] hash = new byte[32];
+    private byte[] marketData;
+
+    @Setup
+    public void setUp() {
+        marketData = new byte[PhoenixMarketHeader.MARKET_HEADER_SIZE];
+        new Random(36).nextBytes(marketData);
+        ByteBuffer.wrap(marketData).order(ByteOrder.LITTLE_ENDIAN)
+                .putLong(0, PhoenixUtil.getDiscriminatorValue(PhoenixUtil.MARKET_HEADER));
+    }
+
+    @Benchmark
+    public String discriminatorPerCall() {
+        return getDiscriminatorPerCall(PhoenixUtil.MARKET_HEADER);
+    }
+
+    @Benchmark
+    public String discriminatorRegistry() {
+        return PhoenixUtil.getDiscriminator(PhoenixUtil.MARKET_HEADER);
+    }
+
+    @Benchmark
+    public boolean marketCheckPerCall() {
+        return Base58.encode(Arrays.copyOfRange(marketData, 0, 8))
+                .equals(getDiscriminatorPerCall(PhoenixUtil.MARKET_HEADER));
+    }
+
+    @Benchmark
+    public boolean marketCheckRegistry() {
+        return PhoenixUtil.hasDiscriminator(marketData, PhoenixUtil.MARKET_HEADER);
+    }
+
+    @Benchmark
+    public ByteBuffer keccakPerCall() {
+        Keccak keccak = new Keccak(256);
+        keccak.update(ByteBuffer.wrap(marketData));
+        return keccak.digest();
+    }
+
+    @Benchmark
+    public byte[] keccakReused() {
+        PhoenixUtil.keccak256(marketData, 0, marketData.length, hash);
+        return hash;
+    }
+
+    // PhoenixUtil.getDiscriminator before the registry: a new Keccak, ByteBuffer absorb and squeeze, then base58
+    private static String getDiscriminatorPerCall(String input) {
+        Keccak keccak = new Keccak(256);
+        keccak.update(ByteBuffer.wrap(PhoenixProgram.PHOENIX_PROGRAM_ID.toByteArray()));
+        keccak.update(ByteBuffer.wrap(input.getBytes()));
+
+        byte[] keccakBytes = keccak.digest().array();
+        return Base58.encode(Arrays.copyOfRange(keccakBytes, 0, 8));
+    }
+}
@@ -0,0 +1,96 @@
+package com.mmorrell.benchmarks;
+
+import com.mmorrell.pyth.model.PriceDataAccount;
+import com.mmorrell.pyth.model.PriceDataFields;
+import com.mmorrell.pyth.model.PythPriceSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the field selections of {@link PriceDataAccount#readPriceDataAccount} on one price account with all 32
+ * publisher components set.
+ * <p>
+ * Run with {@code -prof gc}: only the snapshot decode should report zero bytes per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PythPriceDecodeBenchmark {
+
+    private static final int PRICE_ACCOUNT_SIZE = PriceDataAccount.PRICE_COMPONENTS_OFFSET
+            + (32 * PriceDataAccount.PRICE_COMPONENT_SIZE);
+
+    private final PythPriceSnapshot snapshot = new PythPriceSnapshot();
+    private byte[] data;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(41);
+        ByteBuffer buffer = ByteBuffer.allocate(PRICE_ACCOUNT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, 0xa1b2c3d4);
+        buffer.putInt(4, 2);
+        buffer.putInt(8, 3);
+        buffer.putInt(12, PRICE_ACCOUNT_SIZE);
+        buffer.putInt(16, 1);
+        buffer.putInt(PriceDataAccount.EXPONENT_OFFSET, -8);
+        buffer.putLong(PriceDataAccount.LAST_SLOT_OFFSET, 250_000_000L);
+        buffer.putLong(PriceDataAccount.VALID_SLOT_OFFSET, 249_999_999L);
+        putPriceInfo(buffer, PriceDataAccount.AGGREGATE_PRICE_INFO_OFFSET, 15_000_000_000L);
+
+        for (int i = 0; i < 32; i++) {
+            int offset = PriceDataAccount.PRICE_COMPONENTS_OFFSET + (i * PriceDataAccount.PRICE_COMPONENT_SIZE);
+            byte[] publisher = new byte[32];
+            random.nextBytes(publisher);
+            buffer.put(offset, publisher);
+            putPriceInfo(buffer, offset + 32, 15_000_000_000L + random.nextInt(1_000_000));
+            putPriceInfo(buffer, offset + 64, 15_000_000_000L + random.nextInt(1_000_000));
+        }
+        data = buffer.array();
+    }
+
+    @Benchmark
+    public PriceDataAccount full() {
+        return PriceDataAccount.readPriceDataAccount(data, PriceDataFields.FULL);
+    }
+
+    @Benchmark
+    public PriceDataAccount aggregate() {
+        return PriceDataAccount.readPriceDataAccount(data, PriceDataFields.AGGREGATE);
+    }
+
+    @Benchmark
+    public PythPriceSnapshot aggregateSnapshot() {
+        PriceDataAccount.readPriceDataAccount(data, PriceDataFields.AGGREGATE, snapshot);
+        return snapshot;
+    }
+
+    @Benchmark
+    public PythPriceSnapshot aggregateAndEmaSnapshot() {
+        PriceDataAccount.readPriceDataAccount(data, PriceDataFields.AGGREGATE_AND_EMA, snapshot);
+        return snapshot;
+    }
+
+    // price, confidence, status (trading), publish slot
+    private static void putPriceInfo(ByteBuffer buffer, int offset, long price) {
+        buffer.putLong(offset, price);
+        buffer.putLong(offset + 8, 5_000_000L);
+        buffer.putInt(offset + 16, 1);
+        buffer.putLong(offset + 24, 250_000_000L);
+    }
+}
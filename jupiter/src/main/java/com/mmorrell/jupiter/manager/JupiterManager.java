@@ -15,6 +15,7 @@ import org.p2p.solanaj.rpc.types.Memcmp;
 import org.p2p.solanaj.rpc.types.ProgramAccount;
 
 import java.util.*;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.stream.Collectors;
 
@@ -25,6 +26,12 @@ public class JupiterManager {
     private static final PublicKey JUPITER_PROGRAM_ID = new PublicKey("PERPHjGBqRHArX4DySjwM6UJHiR3sWAatqfdBS2qQJu");
     private static final PublicKey DCA_PROGRAM_ID = new PublicKey("DCA265Vj8a9CEuX1eb1LWRnDT7uK6q1xMipnNyatn23M");
     private static final int DCA_ACCOUNT_SIZE = 289; // Updated based on JupiterDca structure
+    private static final Duration DEFAULT_DCA_INDEX_MAX_AGE = Duration.ofSeconds(60);
+
+    // DCA queries read from the latest snapshot, which is rebuilt once it is older than the max age
+    private final Object dcaIndexLock = new Object();
+    private volatile JupiterDcaIndex dcaIndex;
+    private volatile Duration dcaIndexMaxAge = DEFAULT_DCA_INDEX_MAX_AGE;
 
     public JupiterManager() {
         this.client = new RpcClient(Cluster.MAINNET);
@@ -112,31 +119,93 @@ public class JupiterManager {
      * @throws RpcException if the RPC call fails.
      */
     public List<JupiterDca> getDcaAccounts() {
-        byte[] dcaDiscriminator = JupiterUtil.getAccountDiscriminator("Dca");
+        try {
+            return fetchDcaAccounts();
+        } catch (RpcException ex) {
+            log.warn("Error fetching DCA accounts: {}", ex.getMessage());
+            return Collections.emptyList();
+        }
+    }
 
-        // Create a memcmp filter for the discriminator at offset 0
-        Memcmp memCmpFilter = new Memcmp(0, Base58.encode(dcaDiscriminator));
+    /**
+     * Sets how old the DCA index may get before a query rebuilds it. Defaults to 60 seconds.
+     *
+     * @param maxAge the maximum age; {@link Duration#ZERO} fetches a new snapshot on every query.
+     */
+    public void setDcaIndexMaxAge(Duration maxAge) {
+        if (maxAge == null || maxAge.isNegative()) {
+            throw new IllegalArgumentException("DCA index max age must not be negative");
+        }
+        this.dcaIndexMaxAge = maxAge;
+    }
 
-        try {
-            List<ProgramAccount> accounts = client.getApi().getProgramAccounts(
-                    DCA_PROGRAM_ID,
-                    List.of(memCmpFilter),
-                    DCA_ACCOUNT_SIZE
-            );
+    /**
+     * Returns the index over all Jupiter DCA accounts, fetching a new snapshot first if the current one is older than
+     * the max age. Concurrent callers wait for a single fetch.
+     *
+     * @return the DCA index.
+     */
+    public JupiterDcaIndex getDcaIndex() {
+        JupiterDcaIndex index = dcaIndex;
+        if (index != null && !isStale(index)) {
+            return index;
+        }
 
-            List<JupiterDca> dcaAccounts = new ArrayList<>();
-            for (ProgramAccount account : accounts) {
-                byte[] data = account.getAccount().getDecodedData();
-                JupiterDca dca = JupiterDca.fromByteArray(data);
-                dca.setPublicKey(account.getPublicKey());
-                dcaAccounts.add(dca);
+        synchronized (dcaIndexLock) {
+            index = dcaIndex;
+            if (index == null || isStale(index)) {
+                index = refreshDcaIndex();
             }
+            return index;
+        }
+    }
 
-            return dcaAccounts;
-        } catch (RpcException ex) {
-            log.warn("Error fetching DCA accounts: {}", ex.getMessage());
-            return Collections.emptyList();
+    /**
+     * Fetches a new snapshot of all Jupiter DCA accounts and rebuilds the index from it.
+     * If the fetch fails, the previous snapshot is kept.
+     *
+     * @return the current DCA index; empty if no snapshot has been fetched yet.
+     */
+    public JupiterDcaIndex refreshDcaIndex() {
+        synchronized (dcaIndexLock) {
+            long snapshotTimeMillis = System.currentTimeMillis();
+            try {
+                dcaIndex = new JupiterDcaIndex(fetchDcaAccounts(), snapshotTimeMillis);
+            } catch (RpcException ex) {
+                log.warn("Error refreshing DCA index: {}", ex.getMessage());
+                if (dcaIndex == null) {
+                    return new JupiterDcaIndex(Collections.emptyList(), snapshotTimeMillis);
+                }
+            }
+            return dcaIndex;
+        }
+    }
+
+    private boolean isStale(JupiterDcaIndex index) {
+        return System.currentTimeMillis() - index.getSnapshotTimeMillis() >= dcaIndexMaxAge.toMillis();
+    }
+
+    private List<JupiterDca> fetchDcaAccounts() throws RpcException {
+        byte[] dcaDiscriminator = JupiterUtil.getAccountDiscriminator("Dca");
+
+        // Create a memcmp filter for the discriminator at offset 0
+        Memcmp memCmpFilter = new Memcmp(0, Base58.encode(dcaDiscriminator));
+
+        List<ProgramAccount> accounts = client.getApi().getProgramAccounts(
+                DCA_PROGRAM_ID,
+                List.of(memCmpFilter),
+                DCA_ACCOUNT_SIZE
+        );
+
+        List<JupiterDca> dcaAccounts = new ArrayList<>();
+        for (ProgramAccount account : accounts) {
+            byte[] data = account.getAccount().getDecodedData();
+            JupiterDca dca = JupiterDca.fromByteArray(data);
+            dca.setPublicKey(account.getPublicKey());
+            dcaAccounts.add(dca);
         }
+
+        return dcaAccounts;
     }
 
     public List<JupiterDca> getDcaAccounts(PublicKey user) {
@@ -169,51 +238,32 @@ public class JupiterManager {
     }
 
     public List<JupiterDca> getActiveDcaOrders() {
-        return getDcaAccounts().stream()
-            .filter(dca -> dca.getInUsed() <= dca.getInDeposited())
-            .collect(Collectors.toList());
+        return getDcaIndex().getActiveDcaAccounts();
     }
 
     public List<JupiterDca> getDcaOrdersByTokenPair(PublicKey inputMint, PublicKey outputMint) {
-        return getDcaAccounts().stream()
-            .filter(dca -> dca.getInputMint().equals(inputMint) && dca.getOutputMint().equals(outputMint))
-            .collect(Collectors.toList());
+        return getDcaIndex().getDcaAccountsByPair(inputMint, outputMint);
     }
 
     public double getAggregatedDcaVolume(PublicKey inputMint, PublicKey outputMint, long startTime, long endTime) {
-        return getDcaAccounts().stream()
-            .filter(dca -> dca.getInputMint().equals(inputMint) 
-                        && dca.getOutputMint().equals(outputMint)
-                        && dca.getCreatedAt() >= startTime
-                        && dca.getCreatedAt() <= endTime)
+        return getDcaIndex().getDcaAccountsByPair(inputMint, outputMint).stream()
+            .filter(dca -> dca.getCreatedAt() >= startTime && dca.getCreatedAt() <= endTime)
             .mapToDouble(dca -> (double) dca.getInDeposited() / Math.pow(10, 6))
             .sum();
     }
 
     public List<Map.Entry<Map.Entry<PublicKey, PublicKey>, Long>> getMostPopularDcaPairs(int limit) {
-        Map<Map.Entry<PublicKey, PublicKey>, Long> pairCounts = getDcaAccounts().stream()
-            .collect(Collectors.groupingBy(
-                dca -> new AbstractMap.SimpleEntry<>(dca.getInputMint(), dca.getOutputMint()),
-                Collectors.counting()
-            ));
-        
-        return pairCounts.entrySet().stream()
-            .sorted(Map.Entry.<Map.Entry<PublicKey, PublicKey>, Long>comparingByValue().reversed())
-            .limit(limit)
-            .collect(Collectors.toList());
+        return getDcaIndex().getMostPopularPairs(limit);
     }
 
     /**
      * Retrieves completed Jupiter DCA orders.
      * A DCA order is considered completed if it has fully utilized its deposited amount or has expired.
      *
-     * @return a list of completed JupiterDca objects.
+     * @return a list of completed JupiterDca objects, by next cycle time.
      */
     public List<JupiterDca> getCompletedDcaOrders() {
-        long now = Instant.now().getEpochSecond();
-        return getDcaAccounts().stream()
-                .filter(dca -> dca.getInUsed() >= dca.getInDeposited() || dca.getNextCycleAt() <= now)
-                .collect(Collectors.toList());
+        return getDcaIndex().getCompletedDcaAccounts(Instant.now().getEpochSecond());
     }
 
     /**
@@ -221,12 +271,10 @@ public class JupiterManager {
      *
      * @param startTime the start epoch time.
      * @param endTime   the end epoch time.
-     * @return a list of JupiterDca objects within the specified time range.
+     * @return a list of JupiterDca objects within the specified time range, by creation time.
      */
     public List<JupiterDca> getDcaOrdersByTimeRange(long startTime, long endTime) {
-        return getDcaAccounts().stream()
-                .filter(dca -> dca.getCreatedAt() >= startTime && dca.getCreatedAt() <= endTime)
-                .collect(Collectors.toList());
+        return getDcaIndex().getDcaAccountsCreatedBetween(startTime, endTime);
     }
 
     /**
@@ -235,9 +283,7 @@ public class JupiterManager {
      * @return a list of JupiterDca objects sorted by volume.
      */
     public List<JupiterDca> getDcaOrdersSortedByVolume() {
-        return getDcaAccounts().stream()
-                .sorted(Comparator.comparingLong(JupiterDca::getInDeposited).reversed())
-                .collect(Collectors.toList());
+        return getDcaIndex().getDcaAccountsByVolume();
     }
 
     /**
@@ -247,7 +293,7 @@ public class JupiterManager {
      * @return a UserDcaStats object containing aggregated statistics.
      */
     public JupiterUserDcaStats getUserDcaStatistics(PublicKey user) {
-        List<JupiterDca> userDcas = getDcaAccounts(user);
+        List<JupiterDca> userDcas = getDcaIndex().getDcaAccountsByUser(user);
 
         long totalOrders = userDcas.size();
         double totalVolume = userDcas.stream()
@@ -271,10 +317,7 @@ public class JupiterManager {
      * @return a list of recent JupiterDca objects.
      */
     public List<JupiterDca> getRecentDcaOrders(int limit) {
-        return getDcaAccounts().stream()
-                .sorted(Comparator.comparingLong(JupiterDca::getCreatedAt).reversed())
-                .limit(limit)
-                .collect(Collectors.toList());
+        return getDcaIndex().getRecentDcaAccounts(limit);
     }
 
     // Additional methods can be added here as needed for other use cases.
@@ -0,0 +1,214 @@
+package com.mmorrell.jupiter.model;
+
+import lombok.Getter;
+import org.p2p.solanaj.core.PublicKey;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * An in-memory index over one snapshot of every Jupiter DCA account.
+ * <p>
+ * Orders are grouped by input/output pair and by user, and sorted by creation time and by next cycle time so that time
+ * range queries are binary searches. Every list and map handed out is unmodifiable and the index never changes after
+ * it is built; refreshing builds a new index. The {@link JupiterDca} instances themselves are shared with the caller
+ * that built the index and with every query result, and are not copied, so they must not be modified.
+ */
+public class JupiterDcaIndex {
+
+    @Getter
+    private final List<JupiterDca> dcaAccounts;
+    @Getter
+    private final long snapshotTimeMillis;
+
+    @Getter
+    private final Map<Map.Entry<PublicKey, PublicKey>, List<JupiterDca>> dcaAccountsByPair;
+    @Getter
+    private final Map<PublicKey, List<JupiterDca>> dcaAccountsByUser;
+    @Getter
+    private final List<JupiterDca> activeDcaAccounts;
+    @Getter
+    private final List<JupiterDca> dcaAccountsByVolume;
+
+    // Orders sorted by creation time and by next cycle time, with their keys alongside for binary search
+    private final JupiterDca[] byCreatedAt;
+    private final long[] createdAts;
+    private final JupiterDca[] byNextCycleAt;
+    private final long[] nextCycleAts;
+
+    public JupiterDcaIndex(List<JupiterDca> dcaAccounts, long snapshotTimeMillis) {
+        this.dcaAccounts = Collections.unmodifiableList(new ArrayList<>(dcaAccounts));
+        this.snapshotTimeMillis = snapshotTimeMillis;
+
+        Map<Map.Entry<PublicKey, PublicKey>, List<JupiterDca>> byPair = new HashMap<>();
+        Map<PublicKey, List<JupiterDca>> byUser = new HashMap<>();
+        List<JupiterDca> active = new ArrayList<>();
+        for (JupiterDca dca : this.dcaAccounts) {
+            byPair.computeIfAbsent(getPair(dca.getInputMint(), dca.getOutputMint()), pair -> new ArrayList<>())
+                    .add(dca);
+            byUser.computeIfAbsent(dca.getUser(), user -> new ArrayList<>()).add(dca);
+            if (dca.getInUsed() <= dca.getInDeposited()) {
+                active.add(dca);
+            }
+        }
+        this.dcaAccountsByPair = freeze(byPair);
+        this.dcaAccountsByUser = freeze(byUser);
+        this.activeDcaAccounts = Collections.unmodifiableList(active);
+
+        this.dcaAccountsByVolume = this.dcaAccounts.stream()
+                .sorted(Comparator.comparingLong(JupiterDca::getInDeposited).reversed())
+                .collect(Collectors.toUnmodifiableList());
+
+        this.byCreatedAt = this.dcaAccounts.toArray(new JupiterDca[0]);
+        Arrays.sort(byCreatedAt, Comparator.comparingLong(JupiterDca::getCreatedAt));
+        this.createdAts = Arrays.stream(byCreatedAt).mapToLong(JupiterDca::getCreatedAt).toArray();
+
+        this.byNextCycleAt = this.dcaAccounts.toArray(new JupiterDca[0]);
+        Arrays.sort(byNextCycleAt, Comparator.comparingLong(JupiterDca::getNextCycleAt));
+        this.nextCycleAts = Arrays.stream(byNextCycleAt).mapToLong(JupiterDca::getNextCycleAt).toArray();
+    }
+
+    /**
+     * Returns the key used to group orders by pair.
+     *
+     * @param inputMint  the input mint
+     * @param outputMint the output mint
+     * @return the pair
+     */
+    public static Map.Entry<PublicKey, PublicKey> getPair(PublicKey inputMint, PublicKey outputMint) {
+        return new AbstractMap.SimpleImmutableEntry<>(inputMint, outputMint);
+    }
+
+    public List<JupiterDca> getDcaAccountsByPair(PublicKey inputMint, PublicKey outputMint) {
+        return dcaAccountsByPair.getOrDefault(getPair(inputMint, outputMint), Collections.emptyList());
+    }
+
+    public List<JupiterDca> getDcaAccountsByUser(PublicKey user) {
+        return dcaAccountsByUser.getOrDefault(user, Collections.emptyList());
+    }
+
+    /**
+     * Retrieves the orders created within a time range, in creation order.
+     *
+     * @param startTime the start epoch time, inclusive.
+     * @param endTime   the end epoch time, inclusive.
+     * @return the orders.
+     */
+    public List<JupiterDca> getDcaAccountsCreatedBetween(long startTime, long endTime) {
+        if (startTime > endTime) {
+            return Collections.emptyList();
+        }
+
+        int from = lowerBound(createdAts, startTime);
+        int to = upperBound(createdAts, endTime);
+        return Collections.unmodifiableList(Arrays.asList(byCreatedAt).subList(from, to));
+    }
+
+    /**
+     * Retrieves the most recently created orders, newest first.
+     *
+     * @param limit the maximum number of orders.
+     * @return the orders.
+     */
+    public List<JupiterDca> getRecentDcaAccounts(int limit) {
+        int count = Math.max(0, Math.min(limit, byCreatedAt.length));
+        List<JupiterDca> recent = new ArrayList<>(count);
+        for (int i = byCreatedAt.length - 1; i >= byCreatedAt.length - count; i--) {
+            recent.add(byCreatedAt[i]);
+        }
+
+        return Collections.unmodifiableList(recent);
+    }
+
+    /**
+     * Retrieves the orders whose next cycle is at or before a time, in next cycle order.
+     *
+     * @param time the epoch time.
+     * @return the orders.
+     */
+    public List<JupiterDca> getDcaAccountsDueBy(long time) {
+        int to = upperBound(nextCycleAts, time);
+        return Collections.unmodifiableList(Arrays.asList(byNextCycleAt).subList(0, to));
+    }
+
+    /**
+     * Retrieves completed orders: those that have used their whole deposit, or whose next cycle is at or before a time.
+     * Orders come in next cycle order.
+     *
+     * @param now the current epoch time.
+     * @return the completed orders.
+     */
+    public List<JupiterDca> getCompletedDcaAccounts(long now) {
+        int due = upperBound(nextCycleAts, now);
+        List<JupiterDca> completed = new ArrayList<>(Arrays.asList(byNextCycleAt).subList(0, due));
+        for (int i = due; i < byNextCycleAt.length; i++) {
+            if (byNextCycleAt[i].getInUsed() >= byNextCycleAt[i].getInDeposited()) {
+                completed.add(byNextCycleAt[i]);
+            }
+        }
+
+        return Collections.unmodifiableList(completed);
+    }
+
+    /**
+     * Retrieves the most popular pairs by number of orders.
+     *
+     * @param limit the maximum number of pairs.
+     * @return the pairs and their order counts, most orders first.
+     */
+    public List<Map.Entry<Map.Entry<PublicKey, PublicKey>, Long>> getMostPopularPairs(int limit) {
+        return dcaAccountsByPair.entrySet().stream()
+                .map(entry -> new AbstractMap.SimpleEntry<>(entry.getKey(), (long) entry.getValue().size()))
+                .sorted(Map.Entry.<Map.Entry<PublicKey, PublicKey>, Long>comparingByValue().reversed())
+                .limit(limit)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    public int size() {
+        return dcaAccounts.size();
+    }
+
+    // First index whose value is at least the key
+    private static int lowerBound(long[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    // First index whose value is greater than the key
+    private static int upperBound(long[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    private static <K> Map<K, List<JupiterDca>> freeze(Map<K, List<JupiterDca>> map) {
+        map.replaceAll((key, value) -> Collections.unmodifiableList(value));
+        return Collections.unmodifiableMap(map);
+    }
+}
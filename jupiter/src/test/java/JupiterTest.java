@@ -2,6 +2,7 @@ import com.google.common.io.Files;
 import com.mmorrell.jupiter.manager.JupiterManager;
 import com.mmorrell.jupiter.model.*;
 import com.mmorrell.jupiter.util.JupiterUtil;
+import com.mmorrell.testing.StubRpcClient;
 import lombok.extern.slf4j.Slf4j;
 import org.bitcoinj.core.Base58;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +17,9 @@ import org.p2p.solanaj.rpc.types.ProgramAccount;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -659,4 +663,86 @@ public class JupiterTest {
 
         log.info("Most Popular DCA Pairs [{}]: {}", popularPairs.size(), popularPairs);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testDcaIndexServesQueriesFromOneSnapshot() {
+        PublicKey usdc = new PublicKey("EPjFWdd5AufqSSqeM2qN1xzybapC8G4wEGGkZwyTDt1v");
+        PublicKey sol = new PublicKey("So11111111111111111111111111111111111111112");
+        PublicKey alice = new PublicKey("9WzDXwBbmkg8ZTbNMqUxvQRAyrZzDsGYdLVL9zYtAWWM");
+        PublicKey bob = new PublicKey("3uTzTX5GBSfbW7eM9R9k95H7Txe32Qw3Z25MtyD2dzwC");
+
+        // user, input, output, inDeposited, inUsed, nextCycleAt, createdAt
+        Map<PublicKey, byte[]> accounts = new LinkedHashMap<>();
+        long future = Instant.now().plusSeconds(86400).getEpochSecond();
+        accounts.put(new PublicKey("DCA265Vj8a9CEuX1eb1LWRnDT7uK6q1xMipnNyatn23M"),
+                buildDcaAccount(alice, usdc, sol, 5_000_000, 1_000_000, future, 300));
+        accounts.put(new PublicKey("PERPHjGBqRHArX4DySjwM6UJHiR3sWAatqfdBS2qQJu"),
+                buildDcaAccount(alice, sol, usdc, 2_000_000, 2_000_000, future, 100));
+        accounts.put(new PublicKey("JUP6LkbZbjS1jKKwapdHNy74zcZ3tLUZoi5QNyVTaV4"),
+                buildDcaAccount(bob, usdc, sol, 9_000_000, 0, 50, 200));
+
+        List<String> methods = new ArrayList<>();
+        PublicKey dcaProgram = new PublicKey("DCA265Vj8a9CEuX1eb1LWRnDT7uK6q1xMipnNyatn23M");
+        JupiterManager manager = new JupiterManager(StubRpcClient.accounts(accounts, dcaProgram, methods));
+        manager.setDcaIndexMaxAge(Duration.ofHours(1));
+
+        List<JupiterDca> byPair = manager.getDcaOrdersByTokenPair(usdc, sol);
+        assertEquals(2, byPair.size());
+        assertEquals(3, manager.getActiveDcaOrders().size());
+        assertEquals(14.0, manager.getAggregatedDcaVolume(usdc, sol, 0, 1000), 1e-9);
+        assertEquals(5.0, manager.getAggregatedDcaVolume(usdc, sol, 250, 1000), 1e-9);
+
+        var popularPairs = manager.getMostPopularDcaPairs(1);
+        assertEquals(1, popularPairs.size());
+        assertEquals(JupiterDcaIndex.getPair(usdc, sol), popularPairs.get(0).getKey());
+        assertEquals(2L, popularPairs.get(0).getValue());
+
+        List<JupiterDca> byTime = manager.getDcaOrdersByTimeRange(100, 200);
+        assertEquals(List.of(100L, 200L), byTime.stream().map(JupiterDca::getCreatedAt).collect(Collectors.toList()));
+        assertTrue(manager.getDcaOrdersByTimeRange(201, 299).isEmpty());
+
+        List<JupiterDca> recent = manager.getRecentDcaOrders(2);
+        assertEquals(List.of(300L, 200L), recent.stream().map(JupiterDca::getCreatedAt).collect(Collectors.toList()));
+
+        List<JupiterDca> byVolume = manager.getDcaOrdersSortedByVolume();
+        assertEquals(9_000_000, byVolume.get(0).getInDeposited());
+        assertEquals(2_000_000, byVolume.get(2).getInDeposited());
+
+        // Bob's order is past its next cycle, and Alice's SOL order has used its whole deposit
+        List<JupiterDca> completed = manager.getCompletedDcaOrders();
+        assertEquals(List.of(bob, alice), completed.stream().map(JupiterDca::getUser).collect(Collectors.toList()));
+
+        // Results are shared views of the snapshot, so none of them can be modified
+        assertThrows(UnsupportedOperationException.class, () -> recent.remove(0));
+        assertThrows(UnsupportedOperationException.class, completed::clear);
+        assertThrows(UnsupportedOperationException.class, () -> popularPairs.remove(0));
+
+        JupiterUserDcaStats stats = manager.getUserDcaStatistics(alice);
+        assertEquals(2, stats.getTotalOrders());
+        assertEquals(7.0, stats.getTotalVolumeUsd(), 1e-9);
+
+        assertEquals(List.of("getProgramAccounts"), methods, "Every query should share one snapshot");
+
+        // A zero max age fetches a new snapshot on every query
+        manager.setDcaIndexMaxAge(Duration.ZERO);
+        manager.getActiveDcaOrders();
+        manager.getActiveDcaOrders();
+        assertEquals(3, methods.size());
+    }
+
+    private static byte[] buildDcaAccount(PublicKey user, PublicKey inputMint, PublicKey outputMint, long inDeposited,
+                                          long inUsed, long nextCycleAt, long createdAt) {
+        byte[] data = new byte[289];
+        System.arraycopy(JupiterUtil.getAccountDiscriminator("Dca"), 0, data, 0, 8);
+        System.arraycopy(user.toByteArray(), 0, data, 8, 32);
+        System.arraycopy(inputMint.toByteArray(), 0, data, 40, 32);
+        System.arraycopy(outputMint.toByteArray(), 0, data, 72, 32);
+        ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN)
+                .putLong(112, nextCycleAt)
+                .putLong(120, inDeposited)
+                .putLong(144, inUsed)
+                .putLong(280, createdAt);
+        return data;
+    }
+
+}
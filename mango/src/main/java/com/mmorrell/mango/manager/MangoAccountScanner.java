@@ -0,0 +1,179 @@
+package com.mmorrell.mango.manager;
+
+import com.mmorrell.mango.model.MangoAccountHealth;
+import com.mmorrell.mango.model.MangoHealthParameters;
+import org.bitcoinj.core.Base58;
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.rpc.RpcClient;
+import org.p2p.solanaj.rpc.RpcException;
+import org.p2p.solanaj.rpc.types.AccountInfo;
+import org.p2p.solanaj.rpc.types.Filter;
+import org.p2p.solanaj.rpc.types.Memcmp;
+import org.p2p.solanaj.rpc.types.ProgramAccount;
+import org.p2p.solanaj.rpc.types.config.ProgramAccountConfig;
+import org.p2p.solanaj.rpc.types.config.RpcSendTransactionConfig;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Computes the health of every Mango v3 account of a group, ranked from least to most healthy.
+ * <p>
+ * Accounts are fetched either with one filtered getProgramAccounts call, or in chunks of getMultipleAccounts calls
+ * with several chunks in flight. Health is computed straight from the account bytes on all cores, and chunks are
+ * reduced to their health as they arrive so raw account data is not retained.
+ */
+public class MangoAccountScanner {
+
+    public static final PublicKey MANGO_V3_PROGRAM_ID =
+            new PublicKey("mv3ekLzLbnVPNxjSKvqBpU3ZeZXPQdEC3bp5MDEBG68");
+
+    private static final Logger LOGGER = Logger.getLogger(MangoAccountScanner.class.getName());
+    private static final int MULTIPLE_ACCOUNTS_CHUNK_SIZE = 100;
+    private static final int DEFAULT_PARALLELISM = 8;
+    private static final int DATA_TYPE_OFFSET = 0;
+    private static final int MANGO_GROUP_OFFSET = 8;
+    private static final String MANGO_ACCOUNT_DATA_TYPE = Base58.encode(new byte[]{1});
+
+    private final RpcClient client;
+    private final PublicKey programId;
+    private final int parallelism;
+
+    public MangoAccountScanner(RpcClient client) {
+        this(client, MANGO_V3_PROGRAM_ID, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Creates a scanner.
+     *
+     * @param client      the RPC client
+     * @param programId   the Mango v3 program
+     * @param parallelism the number of getMultipleAccounts calls in flight at once
+     */
+    public MangoAccountScanner(RpcClient client, PublicKey programId, int parallelism) {
+        this.client = client;
+        this.programId = programId;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Finds every Mango account of a group with getProgramAccounts and computes its health.
+     *
+     * @param mangoGroup the group
+     * @param parameters the group's weights, prices and indexes
+     * @return the accounts' health, least healthy first; empty if the call fails
+     */
+    public List<MangoAccountHealth> scan(PublicKey mangoGroup, MangoHealthParameters parameters) {
+        ProgramAccountConfig config = new ProgramAccountConfig(
+                List.of(
+                        new Filter(new Memcmp(DATA_TYPE_OFFSET, MANGO_ACCOUNT_DATA_TYPE)),
+                        new Filter(new Memcmp(MANGO_GROUP_OFFSET, mangoGroup.toBase58()))
+                )
+        );
+        config.setEncoding(RpcSendTransactionConfig.Encoding.base64);
+
+        List<ProgramAccount> programAccounts;
+        try {
+            programAccounts = client.getApi().getProgramAccounts(programId, config);
+        } catch (RpcException e) {
+            LOGGER.warning("Error getting Mango accounts of group " + mangoGroup + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+
+        return programAccounts.parallelStream()
+                .map(programAccount -> MangoAccountHealth.readMangoAccountHealth(
+                        programAccount.getPublicKey(),
+                        programAccount.getAccount().getDecodedData(),
+                        parameters,
+                        mangoGroup
+                ))
+                .filter(Objects::nonNull)
+                .sorted(MangoAccountHealth.BY_HEALTH)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Fetches known Mango accounts with chunked getMultipleAccounts calls and computes their health.
+     *
+     * @param publicKeys the accounts
+     * @param parameters the group's weights, prices and indexes
+     * @return the accounts' health, least healthy first; accounts that fail to load or decode are left out
+     */
+    public List<MangoAccountHealth> scan(List<PublicKey> publicKeys, MangoHealthParameters parameters) {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "mango-account-scanner");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            // Fetching uses the executor's threads; decoding hands each chunk to the common pool as it arrives
+            List<CompletableFuture<List<MangoAccountHealth>>> futures = new ArrayList<>();
+            for (int i = 0; i < publicKeys.size(); i += MULTIPLE_ACCOUNTS_CHUNK_SIZE) {
+                List<PublicKey> chunk = publicKeys.subList(
+                        i,
+                        Math.min(i + MULTIPLE_ACCOUNTS_CHUNK_SIZE, publicKeys.size())
+                );
+                futures.add(
+                        CompletableFuture.supplyAsync(() -> getChunkAccountInfos(chunk), executor)
+                                .thenApplyAsync(
+                                        accountInfos -> readChunkHealth(chunk, accountInfos, parameters),
+                                        ForkJoinPool.commonPool()
+                                )
+                );
+            }
+
+            List<MangoAccountHealth> results = new ArrayList<>(publicKeys.size());
+            for (CompletableFuture<List<MangoAccountHealth>> future : futures) {
+                results.addAll(future.join());
+            }
+
+            results.sort(MangoAccountHealth.BY_HEALTH);
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<PublicKey, Optional<AccountInfo.Value>> getChunkAccountInfos(List<PublicKey> chunk) {
+        try {
+            return client.getApi().getMultipleAccountsMap(chunk);
+        } catch (RpcException e) {
+            LOGGER.warning("Error getting Mango accounts chunk starting at " + chunk.get(0) + ": " + e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private static List<MangoAccountHealth> readChunkHealth(List<PublicKey> chunk,
+                                                            Map<PublicKey, Optional<AccountInfo.Value>> accountInfos,
+                                                            MangoHealthParameters parameters) {
+        List<MangoAccountHealth> results = new ArrayList<>(chunk.size());
+        for (PublicKey publicKey : chunk) {
+            Optional<AccountInfo.Value> value = accountInfos.getOrDefault(publicKey, Optional.empty());
+            if (value.isEmpty()) {
+                continue;
+            }
+
+            MangoAccountHealth health = MangoAccountHealth.readMangoAccountHealth(
+                    publicKey,
+                    Base64.getDecoder().decode(value.get().getData().get(0)),
+                    parameters
+            );
+            if (health != null) {
+                results.add(health);
+            }
+        }
+
+        return results;
+    }
+}
@@ -0,0 +1,314 @@
+package com.mmorrell.mango.manager;
+
+import com.mmorrell.mango.model.MangoAccountHealth;
+import com.mmorrell.mango.model.MangoCache;
+import com.mmorrell.mango.model.MangoHealthParameters;
+import com.mmorrell.mango.model.MangoPerpGroupColumns;
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.rpc.types.config.Commitment;
+import org.p2p.solanaj.ws.SubscriptionWebSocketClient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the health of many Mango v3 accounts current from account notifications, ranked from least to most healthy.
+ * <p>
+ * Health is only recomputed where it can have changed:
+ * <ul>
+ *     <li>an account update recomputes that account, and only if its bytes changed;</li>
+ *     <li>a cache update recomputes the accounts exposed to a token whose price or indexes changed;</li>
+ *     <li>a group update recomputes every account, as weights may have changed.</li>
+ * </ul>
+ * Nothing is computed until both the group and the cache have been received. Notifications can come from
+ * {@link #subscribe(SubscriptionWebSocketClient)} or from any other source calling {@link #onAccountData}.
+ */
+public class MangoAccountWatcher {
+
+    private static final Logger LOGGER = Logger.getLogger(MangoAccountWatcher.class.getName());
+
+    // Least healthy first; ties are broken by key so distinct accounts never compare equal
+    private static final Comparator<MangoAccountHealth> RANKING = MangoAccountHealth.BY_HEALTH
+            .thenComparing((a, b) -> Arrays.compare(a.getPublicKey().toByteArray(), b.getPublicKey().toByteArray()));
+
+    private final PublicKey mangoGroup;
+    private final PublicKey mangoCache;
+    private final Consumer<MangoAccountHealth> listener;
+
+    private final Map<PublicKey, Integer> accountIds = new HashMap<>();
+    private final List<PublicKey> accountKeys = new ArrayList<>();
+    private final List<byte[]> accountData = new ArrayList<>();
+    private final List<MangoAccountHealth> healths = new ArrayList<>();
+    private final TreeSet<MangoAccountHealth> ranking = new TreeSet<>(RANKING);
+
+    private final MangoPerpGroupColumns columns = new MangoPerpGroupColumns();
+    private final MangoCache cache = new MangoCache();
+    private byte[] groupData;
+    private boolean hasCache;
+    private MangoHealthParameters parameters;
+
+    private long recomputeCount;
+
+    // Set once subscribed, so that accounts watched later are subscribed too
+    private SubscriptionWebSocketClient webSocketClient;
+
+    /**
+     * Creates a watcher.
+     *
+     * @param mangoGroup the group of the watched accounts
+     * @param mangoCache the group's cache account
+     * @param listener   called with each recomputed health, on the notifying thread while holding the watcher's
+     *                   lock; may be null
+     */
+    public MangoAccountWatcher(PublicKey mangoGroup, PublicKey mangoCache, Consumer<MangoAccountHealth> listener) {
+        this.mangoGroup = mangoGroup;
+        this.mangoCache = mangoCache;
+        this.listener = listener;
+    }
+
+    /**
+     * Adds an account to the watch list. Its health is known once its data has been received. If the watcher is
+     * already subscribed, the account is subscribed as well.
+     *
+     * @param publicKey the Mango account
+     */
+    public void watch(PublicKey publicKey) {
+        SubscriptionWebSocketClient subscribedClient;
+        synchronized (this) {
+            if (accountIds.containsKey(publicKey)) {
+                return;
+            }
+
+            accountIds.put(publicKey, accountKeys.size());
+            accountKeys.add(publicKey);
+            accountData.add(null);
+            healths.add(null);
+            subscribedClient = webSocketClient;
+        }
+
+        if (subscribedClient != null) {
+            accountSubscribe(subscribedClient, publicKey);
+        }
+    }
+
+    /**
+     * Subscribes to the group, the cache and every watched account. Accounts watched afterwards are subscribed by
+     * {@link #watch(PublicKey)}.
+     *
+     * @param webSocketClient the websocket client
+     */
+    public void subscribe(SubscriptionWebSocketClient webSocketClient) {
+        List<PublicKey> publicKeys = new ArrayList<>();
+        publicKeys.add(mangoGroup);
+        publicKeys.add(mangoCache);
+        synchronized (this) {
+            this.webSocketClient = webSocketClient;
+            publicKeys.addAll(accountKeys);
+        }
+
+        for (PublicKey publicKey : publicKeys) {
+            accountSubscribe(webSocketClient, publicKey);
+        }
+    }
+
+    /**
+     * Handles an account notification.
+     *
+     * @param publicKey the notified account
+     * @param data      the notification's account value
+     */
+    @SuppressWarnings("unchecked")
+    public void onNotificationEvent(PublicKey publicKey, Object data) {
+        if (!(data instanceof Map)) {
+            return;
+        }
+
+        try {
+            Object value = ((Map<String, Object>) data).get("data");
+            if (!(value instanceof List) || ((List<?>) value).isEmpty()) {
+                return;
+            }
+
+            onAccountData(publicKey, Base64.getDecoder().decode((String) ((List<?>) value).get(0)));
+        } catch (RuntimeException e) {
+            LOGGER.warning("Error reading Mango notification for " + publicKey + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Applies new data for the group, the cache or a watched account, and recomputes the affected accounts.
+     *
+     * @param publicKey the account
+     * @param data      its data, which the watcher keeps and must not be modified afterwards
+     * @return the number of accounts whose health was recomputed
+     */
+    public synchronized int onAccountData(PublicKey publicKey, byte[] data) {
+        if (publicKey.equals(mangoGroup)) {
+            if (Arrays.equals(groupData, data)) {
+                return 0;
+            }
+
+            groupData = data;
+            columns.read(data);
+            return updateParameters() ? recomputeAll() : 0;
+        }
+
+        if (publicKey.equals(mangoCache)) {
+            long changedTokens = cache.read(data);
+            if (!hasCache) {
+                hasCache = true;
+                return updateParameters() ? recomputeAll() : 0;
+            }
+
+            if (changedTokens == 0 || !updateParameters()) {
+                return 0;
+            }
+
+            int count = 0;
+            for (int id = 0; id < accountKeys.size(); id++) {
+                MangoAccountHealth health = healths.get(id);
+                if (health != null && (health.getTokenExposure() & changedTokens) != 0) {
+                    recompute(id);
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        Integer id = accountIds.get(publicKey);
+        if (id == null || Arrays.equals(accountData.get(id), data)) {
+            return 0;
+        }
+
+        accountData.set(id, data);
+        if (parameters == null) {
+            return 0;
+        }
+
+        recompute(id);
+        return 1;
+    }
+
+    /**
+     * Returns the least healthy accounts.
+     *
+     * @param count the number of accounts
+     * @return up to {@code count} accounts, least healthy first
+     */
+    public synchronized List<MangoAccountHealth> getLeastHealthy(int count) {
+        List<MangoAccountHealth> results = new ArrayList<>(Math.min(count, ranking.size()));
+        Iterator<MangoAccountHealth> iterator = ranking.iterator();
+        while (results.size() < count && iterator.hasNext()) {
+            results.add(iterator.next());
+        }
+
+        return results;
+    }
+
+    /**
+     * Returns every account that can currently be liquidated, least healthy first.
+     *
+     * @return the accounts with negative maintenance health
+     */
+    public synchronized List<MangoAccountHealth> getLiquidatable() {
+        List<MangoAccountHealth> results = new ArrayList<>();
+        for (MangoAccountHealth health : ranking) {
+            if (!health.isLiquidatable()) {
+                break;
+            }
+            results.add(health);
+        }
+
+        return results;
+    }
+
+    /**
+     * Returns an account's latest health.
+     *
+     * @param publicKey the account
+     * @return the health, or null if the account is not watched or not computed yet
+     */
+    public synchronized MangoAccountHealth getHealth(PublicKey publicKey) {
+        Integer id = accountIds.get(publicKey);
+        return id == null ? null : healths.get(id);
+    }
+
+    public synchronized int getAccountCount() {
+        return accountKeys.size();
+    }
+
+    /**
+     * Returns how many account healths have been computed since the watcher was created.
+     */
+    public synchronized long getRecomputeCount() {
+        return recomputeCount;
+    }
+
+    private void accountSubscribe(SubscriptionWebSocketClient webSocketClient, PublicKey publicKey) {
+        webSocketClient.accountSubscribe(
+                publicKey.toBase58(),
+                data -> onNotificationEvent(publicKey, data),
+                Commitment.CONFIRMED
+        );
+    }
+
+    // Rebuilds the parameters from the latest group and cache; false until both have been received
+    private boolean updateParameters() {
+        if (groupData == null || !hasCache) {
+            return false;
+        }
+
+        parameters = MangoHealthParameters.fromColumns(
+                columns,
+                cache.getPrices(),
+                cache.getDepositIndexes(),
+                cache.getBorrowIndexes()
+        );
+        return true;
+    }
+
+    private int recomputeAll() {
+        int count = 0;
+        for (int id = 0; id < accountKeys.size(); id++) {
+            if (accountData.get(id) != null) {
+                recompute(id);
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private void recompute(int id) {
+        MangoAccountHealth previous = healths.get(id);
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+
+        MangoAccountHealth health = MangoAccountHealth.readMangoAccountHealth(
+                accountKeys.get(id),
+                accountData.get(id),
+                parameters,
+                mangoGroup
+        );
+        healths.set(id, health);
+        recomputeCount++;
+        if (health == null) {
+            return;
+        }
+
+        ranking.add(health);
+        if (listener != null) {
+            listener.accept(health);
+        }
+    }
+}
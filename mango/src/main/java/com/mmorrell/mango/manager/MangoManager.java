@@ -2,6 +2,7 @@ package com.mmorrell.mango.manager;
 
 import com.mmorrell.mango.model.MangoPerpAccount;
 import com.mmorrell.mango.model.MangoPerpGroup;
+import com.mmorrell.mango.model.MangoPerpGroupColumns;
 import com.mmorrell.mango.model.MangoGroup;
 import com.mmorrell.mango.model.MarginAccount;
 import lombok.RequiredArgsConstructor;
@@ -10,7 +11,11 @@ import org.p2p.solanaj.rpc.RpcClient;
 import org.p2p.solanaj.rpc.RpcException;
 import org.p2p.solanaj.rpc.types.AccountInfo;
 
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.logging.Logger;
 
 @RequiredArgsConstructor
@@ -18,6 +23,7 @@ public class MangoManager {
 
     private final RpcClient client;
     private static final Logger LOGGER = Logger.getLogger(MangoManager.class.getName());
+    private static final int MULTIPLE_ACCOUNTS_CHUNK_SIZE = 100;
     private static final PublicKey BTC_ETH_SOL_SRM_USDC_MANGO_GROUP =
             new PublicKey("2oogpTYm1sp6LPZAWD3bp2wsFpnV2kXL1s52yyFhW5vp");
 
@@ -36,11 +42,50 @@ public class MangoManager {
         final MarginAccount marginAccount = MarginAccount.readMarginAccount(publicKey, marginAccountData);
 
         // Populate marginAccount with Open Orders
-        marginAccount.loadOpenOrders(dexProgramId);
+        try {
+            marginAccount.loadOpenOrders(client, dexProgramId);
+        } catch (RpcException e) {
+            LOGGER.warning(e.getMessage());
+        }
 
         return marginAccount;
     }
 
+    /**
+     * Gets many margin accounts with their open orders, in one getMultipleAccounts call per 100 margin accounts plus
+     * one per 100 distinct open orders accounts.
+     *
+     * @param publicKeys   the margin accounts
+     * @param dexProgramId the Serum program that owns the open orders accounts
+     * @return the margin accounts that exist, in request order
+     * @throws RpcException if a call fails; no partial result is returned
+     */
+    public List<MarginAccount> getMarginAccounts(final List<PublicKey> publicKeys, final PublicKey dexProgramId)
+            throws RpcException {
+        final List<MarginAccount> marginAccounts = new ArrayList<>(publicKeys.size());
+
+        for (int i = 0; i < publicKeys.size(); i += MULTIPLE_ACCOUNTS_CHUNK_SIZE) {
+            final List<PublicKey> chunk = publicKeys.subList(
+                    i,
+                    Math.min(i + MULTIPLE_ACCOUNTS_CHUNK_SIZE, publicKeys.size())
+            );
+            final Map<PublicKey, Optional<AccountInfo.Value>> accountInfos =
+                    client.getApi().getMultipleAccountsMap(chunk);
+
+            for (PublicKey publicKey : chunk) {
+                accountInfos.getOrDefault(publicKey, Optional.empty()).ifPresent(value -> marginAccounts.add(
+                        MarginAccount.readMarginAccount(
+                                publicKey,
+                                Base64.getDecoder().decode(value.getData().get(0))
+                        )
+                ));
+            }
+        }
+
+        MarginAccount.loadOpenOrders(client, marginAccounts, dexProgramId);
+        return marginAccounts;
+    }
+
     private byte[] getAccountData(final PublicKey publicKey) {
         AccountInfo accountInfo = null;
 
@@ -62,6 +107,11 @@ public class MangoManager {
         return MangoPerpGroup.readMangoPerpGroup(publicKey, mangoPerpGroupData);
     }
 
+    public MangoPerpGroupColumns getMangoPerpGroupColumns(final PublicKey publicKey) {
+        byte[] mangoPerpGroupData = getAccountData(publicKey);
+        return MangoPerpGroupColumns.readMangoPerpGroupColumns(mangoPerpGroupData);
+    }
+
     public MangoPerpAccount getMangoPerpAccount(final PublicKey publicKey) {
         byte[] mangoPerpAccountData = getAccountData(publicKey);
         return MangoPerpAccount.readMangoPerpAccount(publicKey, mangoPerpAccountData);
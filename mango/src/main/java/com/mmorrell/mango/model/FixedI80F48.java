@@ -0,0 +1,174 @@
+package com.mmorrell.mango.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * A signed 128 bit fixed-point number with 48 fraction bits, as used by Mango v3, held in two longs.
+ * <p>
+ * Values decode straight from the little-endian account bytes, and arithmetic stays on the two longs. Like the
+ * Rust {@code fixed} crate, multiplication rounds towards negative infinity and overflow throws an
+ * {@link ArithmeticException}. Convert to {@link BigDecimal} only where an exact decimal is needed.
+ */
+@Getter
+@EqualsAndHashCode
+public final class FixedI80F48 implements Comparable<FixedI80F48> {
+
+    public static final int FRACTION_BITS = 48;
+    public static final FixedI80F48 ZERO = new FixedI80F48(0, 0);
+    public static final FixedI80F48 ONE = new FixedI80F48(0, 1L << FRACTION_BITS);
+
+    private static final BigDecimal ONE_RAW = new BigDecimal(BigInteger.ONE.shiftLeft(FRACTION_BITS));
+    private static final double TWO_POW_16 = 0x1p16;
+    private static final double TWO_POW_MINUS_48 = 0x1p-48;
+
+    // Two's complement raw value, hi:lo, in units of 2^-48
+    private final long hi;
+    private final long lo;
+
+    public FixedI80F48(long hi, long lo) {
+        this.hi = hi;
+        this.lo = lo;
+    }
+
+    /**
+     * Reads a value from little-endian account data.
+     *
+     * @param data   the account data
+     * @param offset the offset of the 16 byte value
+     * @return the value
+     */
+    public static FixedI80F48 read(byte[] data, int offset) {
+        return new FixedI80F48(MangoUtils.readInt64(data, offset + 8), MangoUtils.readInt64(data, offset));
+    }
+
+    /**
+     * Reads a value from little-endian account data straight into a double, without creating an object.
+     *
+     * @param data   the account data
+     * @param offset the offset of the 16 byte value
+     * @return the nearest double
+     */
+    public static double readDouble(byte[] data, int offset) {
+        return toDouble(MangoUtils.readInt64(data, offset + 8), MangoUtils.readInt64(data, offset));
+    }
+
+    public static FixedI80F48 valueOf(long value) {
+        return new FixedI80F48(value >> (64 - FRACTION_BITS), value << FRACTION_BITS);
+    }
+
+    /**
+     * Converts a decimal exactly, rounding towards negative infinity below 2^-48.
+     *
+     * @param value the decimal
+     * @return the fixed-point value
+     */
+    public static FixedI80F48 valueOf(BigDecimal value) {
+        BigInteger raw = value.multiply(ONE_RAW).setScale(0, RoundingMode.FLOOR).toBigIntegerExact();
+        if (raw.bitLength() > 127) {
+            throw new ArithmeticException("Value out of I80F48 range: " + value);
+        }
+
+        return new FixedI80F48(raw.shiftRight(64).longValue(), raw.longValue());
+    }
+
+    public static FixedI80F48 valueOf(double value) {
+        return valueOf(new BigDecimal(value));
+    }
+
+    public FixedI80F48 add(FixedI80F48 other) {
+        final long resultHi = FixedPointMath.addHi(hi, lo, other.hi, other.lo);
+        if (((hi ^ resultHi) & (other.hi ^ resultHi)) < 0) {
+            throw new ArithmeticException("I80F48 addition overflow");
+        }
+
+        return new FixedI80F48(resultHi, FixedPointMath.addLo(lo, other.lo));
+    }
+
+    public FixedI80F48 subtract(FixedI80F48 other) {
+        final long resultHi = FixedPointMath.subtractHi(hi, lo, other.hi, other.lo);
+        if (((hi ^ other.hi) & (hi ^ resultHi)) < 0) {
+            throw new ArithmeticException("I80F48 subtraction overflow");
+        }
+
+        return new FixedI80F48(resultHi, FixedPointMath.subtractLo(lo, other.lo));
+    }
+
+    public FixedI80F48 negate() {
+        return ZERO.subtract(this);
+    }
+
+    public FixedI80F48 abs() {
+        return isNegative() ? negate() : this;
+    }
+
+    /**
+     * Multiplies two values, rounding towards negative infinity.
+     *
+     * @param other the multiplier
+     * @return the product
+     * @throws ArithmeticException if the product overflows
+     */
+    public FixedI80F48 multiply(FixedI80F48 other) {
+        final FixedI80F48 a = abs();
+        final FixedI80F48 b = other.abs();
+        final boolean negative = isNegative() != other.isNegative();
+
+        final FixedI80F48 magnitude = FixedPointMath.multiplyUnsigned(
+                a.hi, a.lo, b.hi, b.lo, FRACTION_BITS, negative, true, FixedI80F48::new
+        );
+        return negative ? magnitude.negate() : magnitude;
+    }
+
+    public boolean isNegative() {
+        return hi < 0;
+    }
+
+    public boolean isZero() {
+        return hi == 0 && lo == 0;
+    }
+
+    public int signum() {
+        return isNegative() ? -1 : isZero() ? 0 : 1;
+    }
+
+    public FixedI80F48 min(FixedI80F48 other) {
+        return compareTo(other) <= 0 ? this : other;
+    }
+
+    public FixedI80F48 max(FixedI80F48 other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+
+    @Override
+    public int compareTo(FixedI80F48 other) {
+        return FixedPointMath.compareSigned(hi, lo, other.hi, other.lo);
+    }
+
+    public double toDouble() {
+        return toDouble(hi, lo);
+    }
+
+    /**
+     * Converts to a decimal without losing precision.
+     *
+     * @return the exact decimal value
+     */
+    public BigDecimal toBigDecimal() {
+        BigInteger raw = BigInteger.valueOf(hi).shiftLeft(64).or(new BigInteger(Long.toUnsignedString(lo)));
+        return new BigDecimal(raw).divide(ONE_RAW);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    private static double toDouble(long hi, long lo) {
+        return (hi * TWO_POW_16) + (MangoUtils.unsignedToDouble(lo) * TWO_POW_MINUS_48);
+    }
+}
@@ -0,0 +1,116 @@
+package com.mmorrell.mango.model;
+
+/**
+ * 128 bit arithmetic shared by {@link FixedI80F48} and {@link FixedU64F64}. Values are passed as (hi, lo) pairs of
+ * longs, and results are handed to a factory so that no intermediate arrays are allocated.
+ */
+final class FixedPointMath {
+
+    @FunctionalInterface
+    interface Factory<T> {
+        T create(long hi, long lo);
+    }
+
+    private FixedPointMath() {
+    }
+
+    /**
+     * Multiplies two unsigned 128 bit values and shifts the 256 bit product right by the number of fraction bits.
+     *
+     * @param roundUp true to round a product with discarded bits up instead of down
+     * @param signed  true if the result must fit in 127 bits, to leave room for a sign
+     * @throws ArithmeticException if the shifted product does not fit in 128 (or 127) bits
+     */
+    static <T> T multiplyUnsigned(long aHi, long aLo, long bHi, long bLo, int fractionBits, boolean roundUp,
+                                  boolean signed, Factory<T> factory) {
+        // Partial products of the 64 bit limbs
+        final long l00 = aLo * bLo;
+        final long h00 = unsignedMultiplyHigh(aLo, bLo);
+        final long l01 = aLo * bHi;
+        final long h01 = unsignedMultiplyHigh(aLo, bHi);
+        final long l10 = aHi * bLo;
+        final long h10 = unsignedMultiplyHigh(aHi, bLo);
+        final long l11 = aHi * bHi;
+        final long h11 = unsignedMultiplyHigh(aHi, bHi);
+
+        // r3:r2:r1:r0 = a * b
+        final long r0 = l00;
+        long r1 = h00 + l01;
+        long carry = Long.compareUnsigned(r1, h00) < 0 ? 1 : 0;
+        final long r1Partial = r1;
+        r1 += l10;
+        carry += Long.compareUnsigned(r1, r1Partial) < 0 ? 1 : 0;
+
+        long r2 = h01 + carry;
+        long carry2 = Long.compareUnsigned(r2, h01) < 0 ? 1 : 0;
+        long r2Partial = r2;
+        r2 += h10;
+        carry2 += Long.compareUnsigned(r2, r2Partial) < 0 ? 1 : 0;
+        r2Partial = r2;
+        r2 += l11;
+        carry2 += Long.compareUnsigned(r2, r2Partial) < 0 ? 1 : 0;
+        final long r3 = h11 + carry2;
+
+        final long resultLo;
+        final long resultHi;
+        final boolean discarded;
+        final boolean overflow;
+        if (fractionBits == 64) {
+            resultLo = r1;
+            resultHi = r2;
+            discarded = r0 != 0;
+            overflow = r3 != 0;
+        } else {
+            resultLo = (r1 << (64 - fractionBits)) | (r0 >>> fractionBits);
+            resultHi = (r2 << (64 - fractionBits)) | (r1 >>> fractionBits);
+            discarded = (r0 << (64 - fractionBits)) != 0;
+            overflow = r3 != 0 || (r2 >>> fractionBits) != 0;
+        }
+
+        if (overflow || (signed && resultHi < 0)) {
+            throw new ArithmeticException("Fixed point multiplication overflow");
+        }
+
+        if (roundUp && discarded) {
+            final long lo = resultLo + 1;
+            final long hi = lo == 0 ? resultHi + 1 : resultHi;
+            if (hi < resultHi || (signed && hi < 0)) {
+                throw new ArithmeticException("Fixed point multiplication overflow");
+            }
+            return factory.create(hi, lo);
+        }
+
+        return factory.create(resultHi, resultLo);
+    }
+
+    static long addLo(long aLo, long bLo) {
+        return aLo + bLo;
+    }
+
+    static long addHi(long aHi, long aLo, long bHi, long bLo) {
+        return aHi + bHi + (Long.compareUnsigned(aLo + bLo, aLo) < 0 ? 1 : 0);
+    }
+
+    static long subtractLo(long aLo, long bLo) {
+        return aLo - bLo;
+    }
+
+    static long subtractHi(long aHi, long aLo, long bHi, long bLo) {
+        return aHi - bHi - (Long.compareUnsigned(aLo, bLo) < 0 ? 1 : 0);
+    }
+
+    static int compareUnsigned(long aHi, long aLo, long bHi, long bLo) {
+        int result = Long.compareUnsigned(aHi, bHi);
+        return result != 0 ? result : Long.compareUnsigned(aLo, bLo);
+    }
+
+    static int compareSigned(long aHi, long aLo, long bHi, long bLo) {
+        int result = Long.compare(aHi, bHi);
+        return result != 0 ? result : Long.compareUnsigned(aLo, bLo);
+    }
+
+    // Java 17 has no Math.unsignedMultiplyHigh
+    private static long unsignedMultiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+}
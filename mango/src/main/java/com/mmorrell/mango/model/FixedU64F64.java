@@ -0,0 +1,143 @@
+package com.mmorrell.mango.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * An unsigned 128 bit fixed-point number with 64 fraction bits, as used by Mango v2, held in two longs: the integer
+ * part in {@code hi} and the fraction in {@code lo}.
+ * <p>
+ * Values decode straight from the little-endian account bytes, and arithmetic stays on the two longs. Multiplication
+ * rounds down, and overflow or a negative subtraction result throws an {@link ArithmeticException}.
+ */
+@Getter
+@EqualsAndHashCode
+public final class FixedU64F64 implements Comparable<FixedU64F64> {
+
+    public static final int FRACTION_BITS = 64;
+    public static final FixedU64F64 ZERO = new FixedU64F64(0, 0);
+    public static final FixedU64F64 ONE = new FixedU64F64(1, 0);
+
+    private static final BigDecimal ONE_RAW = new BigDecimal(BigInteger.ONE.shiftLeft(FRACTION_BITS));
+    private static final double TWO_POW_MINUS_64 = 0x1p-64;
+
+    private final long hi;
+    private final long lo;
+
+    public FixedU64F64(long hi, long lo) {
+        this.hi = hi;
+        this.lo = lo;
+    }
+
+    /**
+     * Reads a value from little-endian account data.
+     *
+     * @param data   the account data
+     * @param offset the offset of the 16 byte value
+     * @return the value
+     */
+    public static FixedU64F64 read(byte[] data, int offset) {
+        return new FixedU64F64(MangoUtils.readInt64(data, offset + 8), MangoUtils.readInt64(data, offset));
+    }
+
+    /**
+     * Reads a value from little-endian account data straight into a double, without creating an object.
+     *
+     * @param data   the account data
+     * @param offset the offset of the 16 byte value
+     * @return the nearest double
+     */
+    public static double readDouble(byte[] data, int offset) {
+        return toDouble(MangoUtils.readInt64(data, offset + 8), MangoUtils.readInt64(data, offset));
+    }
+
+    /**
+     * Converts a non-negative decimal exactly, rounding down below 2^-64.
+     *
+     * @param value the decimal
+     * @return the fixed-point value
+     */
+    public static FixedU64F64 valueOf(BigDecimal value) {
+        BigInteger raw = value.multiply(ONE_RAW).setScale(0, RoundingMode.FLOOR).toBigIntegerExact();
+        if (raw.signum() < 0 || raw.bitLength() > 128) {
+            throw new ArithmeticException("Value out of U64F64 range: " + value);
+        }
+
+        return new FixedU64F64(raw.shiftRight(64).longValue(), raw.longValue());
+    }
+
+    public static FixedU64F64 valueOf(double value) {
+        return valueOf(new BigDecimal(value));
+    }
+
+    public FixedU64F64 add(FixedU64F64 other) {
+        final long loSum = lo + other.lo;
+        final long carry = Long.compareUnsigned(loSum, lo) < 0 ? 1 : 0;
+        final long hiSum = hi + other.hi;
+        if (Long.compareUnsigned(hiSum, hi) < 0 || (carry == 1 && hiSum == -1L)) {
+            throw new ArithmeticException("U64F64 addition overflow");
+        }
+
+        return new FixedU64F64(hiSum + carry, loSum);
+    }
+
+    public FixedU64F64 subtract(FixedU64F64 other) {
+        if (compareTo(other) < 0) {
+            throw new ArithmeticException("U64F64 subtraction underflow");
+        }
+
+        return new FixedU64F64(
+                FixedPointMath.subtractHi(hi, lo, other.hi, other.lo),
+                FixedPointMath.subtractLo(lo, other.lo)
+        );
+    }
+
+    /**
+     * Multiplies two values, rounding down.
+     *
+     * @param other the multiplier
+     * @return the product
+     * @throws ArithmeticException if the product overflows
+     */
+    public FixedU64F64 multiply(FixedU64F64 other) {
+        return FixedPointMath.multiplyUnsigned(hi, lo, other.hi, other.lo, FRACTION_BITS, false, false,
+                FixedU64F64::new);
+    }
+
+    public boolean isZero() {
+        return hi == 0 && lo == 0;
+    }
+
+    @Override
+    public int compareTo(FixedU64F64 other) {
+        return FixedPointMath.compareUnsigned(hi, lo, other.hi, other.lo);
+    }
+
+    public double toDouble() {
+        return toDouble(hi, lo);
+    }
+
+    /**
+     * Converts to a decimal without losing precision.
+     *
+     * @return the exact decimal value
+     */
+    public BigDecimal toBigDecimal() {
+        BigInteger raw = new BigInteger(Long.toUnsignedString(hi)).shiftLeft(64)
+                .or(new BigInteger(Long.toUnsignedString(lo)));
+        return new BigDecimal(raw).divide(ONE_RAW);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    private static double toDouble(long hi, long lo) {
+        return MangoUtils.unsignedToDouble(hi) + (MangoUtils.unsignedToDouble(lo) * TWO_POW_MINUS_64);
+    }
+}
@@ -1,13 +1,8 @@
 package com.mmorrell.mango.model;
 
 import lombok.*;
-import org.p2p.solanaj.utils.ByteUtils;
 
 import java.math.BigDecimal;
-import java.math.BigInteger;
-import java.math.RoundingMode;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.Arrays;
 
 @Getter
@@ -18,7 +13,6 @@ import java.util.Arrays;
 public class I80F48 {
 
     public static final int I80F48_LENGTH = 16;
-    private static final int FRACTIONS = 48;
     private byte[] data;
 
     public static I80F48 readI80F48(byte[] data, int offset) {
@@ -26,21 +20,28 @@ public class I80F48 {
     }
 
     public float decodeFloat() {
-        return decodeBigDecimal().floatValue();
+        return (float) FixedI80F48.readDouble(data, 0);
     }
 
-    public BigDecimal decodeBigDecimal() {
-        ByteBuffer buffer = ByteBuffer.allocate(I80F48_LENGTH);
-        buffer.order(ByteOrder.LITTLE_ENDIAN);
-
-        for (int i = 0; i < I80F48_LENGTH; i++) {
-            buffer.put(data[I80F48_LENGTH - i - 1]);
-        }
+    public double decodeDouble() {
+        return FixedI80F48.readDouble(data, 0);
+    }
 
-        String newString = ByteUtils.bytesToHex(buffer.array());
-        BigInteger result = new BigInteger(newString, I80F48_LENGTH);
+    /**
+     * Converts to a two-long fixed-point value, for arithmetic without BigDecimal.
+     *
+     * @return the fixed-point value
+     */
+    public FixedI80F48 toFixed() {
+        return FixedI80F48.read(data, 0);
+    }
 
-        return new BigDecimal(result, FRACTIONS)
-                .divide(BigDecimal.valueOf((long) Math.pow(2, FRACTIONS), FRACTIONS), RoundingMode.HALF_UP);
+    /**
+     * Converts to a decimal without losing precision.
+     *
+     * @return the exact decimal value
+     */
+    public BigDecimal decodeBigDecimal() {
+        return toFixed().toBigDecimal();
     }
 }
@@ -0,0 +1,183 @@
+package com.mmorrell.mango.model;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.p2p.solanaj.core.PublicKey;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The maintenance and initial health of a Mango v3 account, in native quote units.
+ * <p>
+ * Health is computed from the account's deposits, borrows and perp base and quote positions, weighted by the group's
+ * spot and perp weights. Unsettled funding and funds locked in spot open orders are not counted, so accounts with
+ * markets in their margin basket may be slightly healthier than reported.
+ */
+@Builder
+@Getter
+@ToString
+public class MangoAccountHealth {
+
+    /**
+     * Orders accounts from least to most healthy, by maintenance health and then initial health.
+     */
+    public static final Comparator<MangoAccountHealth> BY_HEALTH = Comparator
+            .comparingDouble(MangoAccountHealth::getMaintHealth)
+            .thenComparingDouble(MangoAccountHealth::getInitHealth);
+
+    private static final byte MANGO_ACCOUNT_DATA_TYPE = 1;
+
+    private PublicKey publicKey;
+    private PublicKey owner;
+    private double maintAssets;
+    private double maintLiabs;
+    private double initAssets;
+    private double initLiabs;
+    private int numInMarginBasket;
+
+    // Bit i is set if the account holds token i or a position in perp market i
+    private long tokenExposure;
+
+    public double getMaintHealth() {
+        return maintAssets - maintLiabs;
+    }
+
+    public double getInitHealth() {
+        return initAssets - initLiabs;
+    }
+
+    /**
+     * Returns the maintenance health ratio as Mango reports it: {@code (assets / liabs - 1) * 100}.
+     *
+     * @return the ratio, or positive infinity for an account without liabilities
+     */
+    public double getMaintHealthRatio() {
+        return maintLiabs > 0 ? ((maintAssets / maintLiabs) - 1) * 100 : Double.POSITIVE_INFINITY;
+    }
+
+    public boolean isLiquidatable() {
+        return getMaintHealth() < 0;
+    }
+
+    /**
+     * Computes the health of a v3 account straight from its data. Only the deposits, borrows, margin basket count and
+     * perp positions are read.
+     *
+     * @param publicKey  the account's public key
+     * @param data       the account data
+     * @param parameters the group's weights, prices and indexes
+     * @return the health, or null if the data is not a Mango account of the expected size
+     */
+    public static MangoAccountHealth readMangoAccountHealth(final PublicKey publicKey, byte[] data,
+                                                           MangoHealthParameters parameters) {
+        return readMangoAccountHealth(publicKey, data, parameters, null);
+    }
+
+    /**
+     * Computes the health of a v3 account straight from its data, if it belongs to the given group.
+     *
+     * @param publicKey  the account's public key
+     * @param data       the account data
+     * @param parameters the group's weights, prices and indexes
+     * @param mangoGroup the expected group, or null to accept any
+     * @return the health, or null if the data is not a Mango account of the group
+     */
+    public static MangoAccountHealth readMangoAccountHealth(final PublicKey publicKey, byte[] data,
+                                                           MangoHealthParameters parameters,
+                                                           PublicKey mangoGroup) {
+        if (data == null
+                || data.length < MangoPerpAccount.SPOT_OPEN_ORDERS_OFFSET
+                || data[0] != MANGO_ACCOUNT_DATA_TYPE) {
+            return null;
+        }
+
+        if (mangoGroup != null) {
+            byte[] groupKey = mangoGroup.toByteArray();
+            if (!Arrays.equals(data, MangoPerpAccount.MANGO_GROUP_OFFSET,
+                    MangoPerpAccount.MANGO_GROUP_OFFSET + PublicKey.PUBLIC_KEY_LENGTH,
+                    groupKey, 0, groupKey.length)) {
+                return null;
+            }
+        }
+
+        final double[] prices = parameters.getPrices();
+        final double[] depositIndexes = parameters.getDepositIndexes();
+        final double[] borrowIndexes = parameters.getBorrowIndexes();
+
+        double maintAssets = 0;
+        double maintLiabs = 0;
+        double initAssets = 0;
+        double initLiabs = 0;
+        long tokenExposure = 0;
+
+        for (int i : parameters.getTokenIndexes()) {
+            double deposit = FixedI80F48.readDouble(data, MangoPerpAccount.DEPOSITS_OFFSET
+                    + (i * I80F48.I80F48_LENGTH));
+            double borrow = FixedI80F48.readDouble(data, MangoPerpAccount.BORROWS_OFFSET
+                    + (i * I80F48.I80F48_LENGTH));
+            if (deposit == 0 && borrow == 0) {
+                continue;
+            }
+            tokenExposure |= 1L << i;
+
+            double depositValue = deposit * depositIndexes[i] * prices[i];
+            double borrowValue = borrow * borrowIndexes[i] * prices[i];
+            if (i == MangoHealthParameters.QUOTE_INDEX) {
+                maintAssets += depositValue;
+                initAssets += depositValue;
+                maintLiabs += borrowValue;
+                initLiabs += borrowValue;
+            } else {
+                maintAssets += depositValue * parameters.getSpotMaintAssetWeights()[i];
+                initAssets += depositValue * parameters.getSpotInitAssetWeights()[i];
+                maintLiabs += borrowValue * parameters.getSpotMaintLiabWeights()[i];
+                initLiabs += borrowValue * parameters.getSpotInitLiabWeights()[i];
+            }
+        }
+
+        // Accounts decoded with a shorter layout have no perp positions to read
+        if (data.length >= MangoPerpAccount.PERP_ACCOUNTS_OFFSET
+                + (MangoHealthParameters.MAX_PAIRS * MangoPerpAccount.PERP_ACCOUNT_LAYOUT_SIZE)) {
+            for (int i : parameters.getPerpMarketIndexes()) {
+                int offset = MangoPerpAccount.PERP_ACCOUNTS_OFFSET + (i * MangoPerpAccount.PERP_ACCOUNT_LAYOUT_SIZE);
+                long basePosition = MangoUtils.readInt64(data, offset + MangoPerpAccount.PERP_BASE_POSITION_OFFSET);
+                double quotePosition = FixedI80F48.readDouble(data,
+                        offset + MangoPerpAccount.PERP_QUOTE_POSITION_OFFSET);
+                if (basePosition == 0 && quotePosition == 0) {
+                    continue;
+                }
+                tokenExposure |= 1L << i;
+
+                double baseValue = (double) basePosition * parameters.getPerpBaseLotSizes()[i] * prices[i];
+                if (baseValue > 0) {
+                    maintAssets += baseValue * parameters.getPerpMaintAssetWeights()[i];
+                    initAssets += baseValue * parameters.getPerpInitAssetWeights()[i];
+                } else if (baseValue < 0) {
+                    maintLiabs -= baseValue * parameters.getPerpMaintLiabWeights()[i];
+                    initLiabs -= baseValue * parameters.getPerpInitLiabWeights()[i];
+                }
+
+                if (quotePosition > 0) {
+                    maintAssets += quotePosition;
+                    initAssets += quotePosition;
+                } else if (quotePosition < 0) {
+                    maintLiabs -= quotePosition;
+                    initLiabs -= quotePosition;
+                }
+            }
+        }
+
+        return MangoAccountHealth.builder()
+                .publicKey(publicKey)
+                .owner(PublicKey.readPubkey(data, MangoPerpAccount.OWNER_OFFSET))
+                .maintAssets(maintAssets)
+                .maintLiabs(maintLiabs)
+                .initAssets(initAssets)
+                .initLiabs(initLiabs)
+                .numInMarginBasket(data[MangoPerpAccount.NUM_IN_MARGIN_BASKET_OFFSET] & 0xFF)
+                .tokenExposure(tokenExposure)
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.mmorrell.mango.model;
+
+import lombok.Getter;
+
+/**
+ * The prices and root bank indexes of a v3 Mango cache account, indexed like account deposits and borrows.
+ * <p>
+ * {@link #read(byte[])} decodes in place and reports which tokens changed, so that only accounts exposed to those
+ * tokens need their health recomputed.
+ */
+@Getter
+public class MangoCache {
+
+    private static final int PRICE_CACHE_OFFSET = MangoAccountMetadata.METADATA_LAYOUT_SIZE;
+    private static final int PRICE_CACHE_LAYOUT_SIZE = I80F48.I80F48_LENGTH + MangoUtils.U64_SIZE_BYTES;
+    private static final int ROOT_BANK_CACHE_OFFSET = PRICE_CACHE_OFFSET
+            + (MangoPerpGroup.MAX_PAIRS * PRICE_CACHE_LAYOUT_SIZE);
+    private static final int ROOT_BANK_CACHE_LAYOUT_SIZE = (2 * I80F48.I80F48_LENGTH) + MangoUtils.U64_SIZE_BYTES;
+    private static final int DEPOSIT_INDEX_OFFSET = 0;
+    private static final int BORROW_INDEX_OFFSET = DEPOSIT_INDEX_OFFSET + I80F48.I80F48_LENGTH;
+
+    // Price in native quote per native token; the quote token is always 1
+    private final double[] prices = new double[MangoPerpGroup.MAX_TOKENS];
+    private final double[] depositIndexes = new double[MangoPerpGroup.MAX_TOKENS];
+    private final double[] borrowIndexes = new double[MangoPerpGroup.MAX_TOKENS];
+
+    public MangoCache() {
+        prices[MangoHealthParameters.QUOTE_INDEX] = 1;
+    }
+
+    public static MangoCache readMangoCache(byte[] data) {
+        final MangoCache mangoCache = new MangoCache();
+        mangoCache.read(data);
+        return mangoCache;
+    }
+
+    /**
+     * Decodes a cache account into this cache, replacing its previous contents.
+     *
+     * @param data the cache account data
+     * @return a mask with bit {@code i} set if token {@code i}'s price or indexes changed
+     */
+    public long read(byte[] data) {
+        long changed = 0;
+
+        for (int i = 0; i < MangoPerpGroup.MAX_PAIRS; i++) {
+            double price = FixedI80F48.readDouble(data, PRICE_CACHE_OFFSET + (i * PRICE_CACHE_LAYOUT_SIZE));
+            if (price != prices[i]) {
+                prices[i] = price;
+                changed |= 1L << i;
+            }
+        }
+
+        for (int i = 0; i < MangoPerpGroup.MAX_TOKENS; i++) {
+            int offset = ROOT_BANK_CACHE_OFFSET + (i * ROOT_BANK_CACHE_LAYOUT_SIZE);
+            double depositIndex = FixedI80F48.readDouble(data, offset + DEPOSIT_INDEX_OFFSET);
+            double borrowIndex = FixedI80F48.readDouble(data, offset + BORROW_INDEX_OFFSET);
+            if (depositIndex != depositIndexes[i] || borrowIndex != borrowIndexes[i]) {
+                depositIndexes[i] = depositIndex;
+                borrowIndexes[i] = borrowIndex;
+                changed |= 1L << i;
+            }
+        }
+
+        return changed;
+    }
+}
@@ -0,0 +1,119 @@
+package com.mmorrell.mango.model;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Everything needed to compute the health of a Mango v3 account, flattened into arrays indexed like the account's
+ * deposits and borrows: the group's spot and perp weights, plus token prices and root bank indexes.
+ * <p>
+ * Market {@code i} trades token {@code i} against the quote token, which is the group's last token. Weights are
+ * spread back out from {@link MangoPerpGroupColumns} to their slot index, and the active slots are kept so that health
+ * only visits tokens and markets that are in use.
+ */
+@Getter
+public class MangoHealthParameters {
+
+    public static final int MAX_TOKENS = MangoPerpGroup.MAX_TOKENS;
+    public static final int MAX_PAIRS = MangoPerpGroup.MAX_PAIRS;
+    public static final int QUOTE_INDEX = MAX_TOKENS - 1;
+
+    // Per token: price in native quote per native token, and the root bank's deposit and borrow indexes
+    private final double[] prices = new double[MAX_TOKENS];
+    private final double[] depositIndexes = new double[MAX_TOKENS];
+    private final double[] borrowIndexes = new double[MAX_TOKENS];
+
+    // Per market
+    private final double[] spotMaintAssetWeights = new double[MAX_PAIRS];
+    private final double[] spotInitAssetWeights = new double[MAX_PAIRS];
+    private final double[] spotMaintLiabWeights = new double[MAX_PAIRS];
+    private final double[] spotInitLiabWeights = new double[MAX_PAIRS];
+    private final double[] perpMaintAssetWeights = new double[MAX_PAIRS];
+    private final double[] perpInitAssetWeights = new double[MAX_PAIRS];
+    private final double[] perpMaintLiabWeights = new double[MAX_PAIRS];
+    private final double[] perpInitLiabWeights = new double[MAX_PAIRS];
+    private final long[] perpBaseLotSizes = new long[MAX_PAIRS];
+
+    // Slots that are in use; health only visits these
+    private final int[] tokenIndexes;
+    private final int[] perpMarketIndexes;
+
+    private MangoHealthParameters(int tokenCount, int perpMarketCount) {
+        this.tokenIndexes = new int[tokenCount];
+        this.perpMarketIndexes = new int[perpMarketCount];
+    }
+
+    /**
+     * Reads the weights of a v3 perp group account and combines them with token prices and indexes.
+     *
+     * @param mangoPerpGroupData the perp group account data
+     * @param prices             token prices in native quote per native token, by token index; the quote token's
+     *                           price is always 1 and missing tokens are priced at 0
+     * @param depositIndexes     root bank deposit indexes by token index, or null for 1
+     * @param borrowIndexes      root bank borrow indexes by token index, or null for 1
+     * @return the health parameters
+     */
+    public static MangoHealthParameters readMangoHealthParameters(byte[] mangoPerpGroupData, double[] prices,
+                                                                  double[] depositIndexes, double[] borrowIndexes) {
+        return fromColumns(
+                MangoPerpGroupColumns.readMangoPerpGroupColumns(mangoPerpGroupData),
+                prices,
+                depositIndexes,
+                borrowIndexes
+        );
+    }
+
+    /**
+     * Combines a decoded perp group with token prices and indexes.
+     *
+     * @param columns        the perp group's token and market tables
+     * @param prices         token prices in native quote per native token, by token index; the quote token's price is
+     *                       always 1 and missing tokens are priced at 0
+     * @param depositIndexes root bank deposit indexes by token index, or null for 1
+     * @param borrowIndexes  root bank borrow indexes by token index, or null for 1
+     * @return the health parameters
+     */
+    public static MangoHealthParameters fromColumns(MangoPerpGroupColumns columns, double[] prices,
+                                                    double[] depositIndexes, double[] borrowIndexes) {
+        final MangoHealthParameters parameters = new MangoHealthParameters(
+                columns.getTokenCount(),
+                columns.getPerpMarketCount()
+        );
+
+        System.arraycopy(prices, 0, parameters.prices, 0, Math.min(prices.length, MAX_TOKENS));
+        parameters.prices[QUOTE_INDEX] = 1;
+        copyIndexes(depositIndexes, parameters.depositIndexes);
+        copyIndexes(borrowIndexes, parameters.borrowIndexes);
+
+        System.arraycopy(columns.getTokenIndexes(), 0, parameters.tokenIndexes, 0, columns.getTokenCount());
+        System.arraycopy(columns.getPerpMarketIndexes(), 0, parameters.perpMarketIndexes, 0,
+                columns.getPerpMarketCount());
+
+        for (int column = 0; column < columns.getSpotMarketCount(); column++) {
+            int i = columns.getSpotMarketIndexes()[column];
+            parameters.spotMaintAssetWeights[i] = columns.getSpotMaintAssetWeights()[column];
+            parameters.spotInitAssetWeights[i] = columns.getSpotInitAssetWeights()[column];
+            parameters.spotMaintLiabWeights[i] = columns.getSpotMaintLiabWeights()[column];
+            parameters.spotInitLiabWeights[i] = columns.getSpotInitLiabWeights()[column];
+        }
+
+        for (int column = 0; column < columns.getPerpMarketCount(); column++) {
+            int i = columns.getPerpMarketIndexes()[column];
+            parameters.perpMaintAssetWeights[i] = columns.getPerpMaintAssetWeights()[column];
+            parameters.perpInitAssetWeights[i] = columns.getPerpInitAssetWeights()[column];
+            parameters.perpMaintLiabWeights[i] = columns.getPerpMaintLiabWeights()[column];
+            parameters.perpInitLiabWeights[i] = columns.getPerpInitLiabWeights()[column];
+            parameters.perpBaseLotSizes[i] = columns.getPerpBaseLotSizes()[column];
+        }
+
+        return parameters;
+    }
+
+    private static void copyIndexes(double[] indexes, double[] target) {
+        Arrays.fill(target, 1);
+        if (indexes != null) {
+            System.arraycopy(indexes, 0, target, 0, Math.min(indexes.length, MAX_TOKENS));
+        }
+    }
+}
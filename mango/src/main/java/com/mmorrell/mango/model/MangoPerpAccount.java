@@ -17,17 +17,24 @@ import java.util.List;
 public class MangoPerpAccount {
 
     // Constants
-    private static final int MAX_TOKENS = 32;
-    private static final int MAX_PAIRS = MAX_TOKENS - 1;
+    static final int MAX_TOKENS = 32;
+    static final int MAX_PAIRS = MAX_TOKENS - 1;
+    static final int PERP_ACCOUNT_LAYOUT_SIZE = 96;
 
     // Offsets
     private static final int METADATA_OFFSET = 0;
-    private static final int MANGO_GROUP_OFFSET = METADATA_OFFSET + MangoAccountMetadata.METADATA_LAYOUT_SIZE;
-    private static final int OWNER_OFFSET = MANGO_GROUP_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
-    private static final int IN_MARGIN_BASKET_OFFSET = OWNER_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
-    private static final int NUM_IN_MARGIN_BASKET_OFFSET = IN_MARGIN_BASKET_OFFSET + MAX_PAIRS;
-    private static final int DEPOSITS_OFFSET = NUM_IN_MARGIN_BASKET_OFFSET + 1; // numInMarginBasket is 1 byte
-    private static final int BORROWS_OFFSET = DEPOSITS_OFFSET + (MAX_TOKENS * I80F48.I80F48_LENGTH);
+    static final int MANGO_GROUP_OFFSET = METADATA_OFFSET + MangoAccountMetadata.METADATA_LAYOUT_SIZE;
+    static final int OWNER_OFFSET = MANGO_GROUP_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
+    static final int IN_MARGIN_BASKET_OFFSET = OWNER_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
+    static final int NUM_IN_MARGIN_BASKET_OFFSET = IN_MARGIN_BASKET_OFFSET + MAX_PAIRS;
+    static final int DEPOSITS_OFFSET = NUM_IN_MARGIN_BASKET_OFFSET + 1; // numInMarginBasket is 1 byte
+    static final int BORROWS_OFFSET = DEPOSITS_OFFSET + (MAX_TOKENS * I80F48.I80F48_LENGTH);
+    static final int SPOT_OPEN_ORDERS_OFFSET = BORROWS_OFFSET + (MAX_TOKENS * I80F48.I80F48_LENGTH);
+    static final int PERP_ACCOUNTS_OFFSET = SPOT_OPEN_ORDERS_OFFSET + (MAX_PAIRS * PublicKey.PUBLIC_KEY_LENGTH);
+
+    // Within each perp account: base position (i64, in base lots), then quote position (I80F48, native quote)
+    static final int PERP_BASE_POSITION_OFFSET = 0;
+    static final int PERP_QUOTE_POSITION_OFFSET = PERP_BASE_POSITION_OFFSET + MangoUtils.U64_SIZE_BYTES;
 
 
     private PublicKey publicKey;
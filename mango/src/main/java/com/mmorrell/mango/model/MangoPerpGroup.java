@@ -24,18 +24,18 @@ import static com.mmorrell.mango.model.MangoUtils.U64_SIZE_BYTES;
 public class MangoPerpGroup {
 
     // Constants
-    private static final int MAX_TOKENS = 32;
-    private static final int MAX_PAIRS = MAX_TOKENS - 1;
+    static final int MAX_TOKENS = 32;
+    static final int MAX_PAIRS = MAX_TOKENS - 1;
 
     // Offsets
     private static final int METADATA_OFFSET = 0;
-    private static final int NUM_ORACLES_OFFSET = METADATA_OFFSET + MangoAccountMetadata.METADATA_LAYOUT_SIZE;
-    private static final int TOKENS_OFFSET = NUM_ORACLES_OFFSET + U64_SIZE_BYTES;
-    private static final int SPOT_MARKETS_OFFSET = TOKENS_OFFSET
+    static final int NUM_ORACLES_OFFSET = METADATA_OFFSET + MangoAccountMetadata.METADATA_LAYOUT_SIZE;
+    static final int TOKENS_OFFSET = NUM_ORACLES_OFFSET + U64_SIZE_BYTES;
+    static final int SPOT_MARKETS_OFFSET = TOKENS_OFFSET
             + (MAX_TOKENS * MangoTokenInfo.MANGO_TOKEN_INFO_LAYOUT_SIZE);
-    private static final int PERP_MARKETS_OFFSET = SPOT_MARKETS_OFFSET
+    static final int PERP_MARKETS_OFFSET = SPOT_MARKETS_OFFSET
             + (MAX_PAIRS * MangoSpotMarketInfo.MANGO_SPOT_MARKET_INFO_LAYOUT_SIZE);
-    private static final int ORACLES_OFFSET = PERP_MARKETS_OFFSET
+    static final int ORACLES_OFFSET = PERP_MARKETS_OFFSET
             + (MAX_PAIRS * MangoPerpMarketInfo.MANGO_PERP_MARKET_INFO_LAYOUT_SIZE);
     private static final int SIGNER_NONCE_OFFSET = ORACLES_OFFSET + (MAX_PAIRS * PublicKey.PUBLIC_KEY_LENGTH);
     private static final int SIGNER_KEY_OFFSET = SIGNER_NONCE_OFFSET + U64_SIZE_BYTES;
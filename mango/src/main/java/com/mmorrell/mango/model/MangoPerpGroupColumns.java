@@ -0,0 +1,161 @@
+package com.mmorrell.mango.model;
+
+import lombok.Getter;
+import org.p2p.solanaj.core.PublicKey;
+
+/**
+ * A columnar view of a v3 Mango perp group's token and market tables: one primitive array per field, holding the
+ * active slots only, in slot order. Each entry carries its slot index, which is also its index in account deposits,
+ * borrows and perp positions.
+ * <p>
+ * Arrays are sized for every slot up front, so {@link #read(byte[])} can decode group reloads in place without
+ * allocating. Only the first {@code count} entries of each column are meaningful.
+ */
+@Getter
+public class MangoPerpGroupColumns {
+
+    // Tokens with a mint
+    private int tokenCount;
+    private final int[] tokenIndexes = new int[MangoPerpGroup.MAX_TOKENS];
+    private final int[] tokenDecimals = new int[MangoPerpGroup.MAX_TOKENS];
+
+    // Index of the token's oracle, or -1 for the quote token and tokens without an oracle
+    private final int[] tokenOracleIndexes = new int[MangoPerpGroup.MAX_TOKENS];
+
+    // Spot markets with a market key
+    private int spotMarketCount;
+    private final int[] spotMarketIndexes = new int[MangoPerpGroup.MAX_PAIRS];
+    private final double[] spotMaintAssetWeights = new double[MangoPerpGroup.MAX_PAIRS];
+    private final double[] spotInitAssetWeights = new double[MangoPerpGroup.MAX_PAIRS];
+    private final double[] spotMaintLiabWeights = new double[MangoPerpGroup.MAX_PAIRS];
+    private final double[] spotInitLiabWeights = new double[MangoPerpGroup.MAX_PAIRS];
+    private final double[] spotLiquidationFees = new double[MangoPerpGroup.MAX_PAIRS];
+
+    // Perp markets with a market key
+    private int perpMarketCount;
+    private final int[] perpMarketIndexes = new int[MangoPerpGroup.MAX_PAIRS];
+    private final double[] perpMaintAssetWeights = new double[MangoPerpGroup.MAX_PAIRS];
+    private final double[] perpInitAssetWeights = new double[MangoPerpGroup.MAX_PAIRS];
+    private final double[] perpMaintLiabWeights = new double[MangoPerpGroup.MAX_PAIRS];
+    private final double[] perpInitLiabWeights = new double[MangoPerpGroup.MAX_PAIRS];
+    private final double[] perpLiquidationFees = new double[MangoPerpGroup.MAX_PAIRS];
+    private final long[] perpBaseLotSizes = new long[MangoPerpGroup.MAX_PAIRS];
+    private final long[] perpQuoteLotSizes = new long[MangoPerpGroup.MAX_PAIRS];
+    private final int[] perpOracleIndexes = new int[MangoPerpGroup.MAX_PAIRS];
+
+    private long numOracles;
+
+    public static MangoPerpGroupColumns readMangoPerpGroupColumns(byte[] data) {
+        final MangoPerpGroupColumns columns = new MangoPerpGroupColumns();
+        columns.read(data);
+        return columns;
+    }
+
+    /**
+     * Decodes a perp group account into this view, replacing its previous contents.
+     *
+     * @param data the perp group account data
+     */
+    public void read(byte[] data) {
+        numOracles = MangoUtils.readInt64(data, MangoPerpGroup.NUM_ORACLES_OFFSET);
+
+        tokenCount = 0;
+        for (int i = 0; i < MangoPerpGroup.MAX_TOKENS; i++) {
+            int offset = MangoPerpGroup.TOKENS_OFFSET + (i * MangoTokenInfo.MANGO_TOKEN_INFO_LAYOUT_SIZE);
+            if (isEmpty(data, offset)) {
+                continue;
+            }
+
+            tokenIndexes[tokenCount] = i;
+            tokenDecimals[tokenCount] = data[offset + MangoTokenInfo.DECIMALS_OFFSET];
+            tokenOracleIndexes[tokenCount] = getOracleIndex(data, i);
+            tokenCount++;
+        }
+
+        spotMarketCount = 0;
+        for (int i = 0; i < MangoPerpGroup.MAX_PAIRS; i++) {
+            int offset = MangoPerpGroup.SPOT_MARKETS_OFFSET
+                    + (i * MangoSpotMarketInfo.MANGO_SPOT_MARKET_INFO_LAYOUT_SIZE);
+            if (isEmpty(data, offset)) {
+                continue;
+            }
+
+            int column = spotMarketCount++;
+            spotMarketIndexes[column] = i;
+            spotMaintAssetWeights[column] = FixedI80F48.readDouble(
+                    data,
+                    offset + MangoSpotMarketInfo.MAINT_ASSET_WEIGHT_OFFSET
+            );
+            spotInitAssetWeights[column] = FixedI80F48.readDouble(
+                    data,
+                    offset + MangoSpotMarketInfo.INIT_ASSET_WEIGHT_OFFSET
+            );
+            spotMaintLiabWeights[column] = FixedI80F48.readDouble(
+                    data,
+                    offset + MangoSpotMarketInfo.MAINT_LIAB_WEIGHT_OFFSET
+            );
+            spotInitLiabWeights[column] = FixedI80F48.readDouble(
+                    data,
+                    offset + MangoSpotMarketInfo.INIT_LIAB_WEIGHT_OFFSET
+            );
+            spotLiquidationFees[column] = FixedI80F48.readDouble(
+                    data,
+                    offset + MangoSpotMarketInfo.LIQUIDATION_FEE_OFFSET
+            );
+        }
+
+        perpMarketCount = 0;
+        for (int i = 0; i < MangoPerpGroup.MAX_PAIRS; i++) {
+            int offset = MangoPerpGroup.PERP_MARKETS_OFFSET
+                    + (i * MangoPerpMarketInfo.MANGO_PERP_MARKET_INFO_LAYOUT_SIZE);
+            if (isEmpty(data, offset)) {
+                continue;
+            }
+
+            int column = perpMarketCount++;
+            perpMarketIndexes[column] = i;
+            perpMaintAssetWeights[column] = FixedI80F48.readDouble(
+                    data,
+                    offset + MangoPerpMarketInfo.MAINT_ASSET_WEIGHT_OFFSET
+            );
+            perpInitAssetWeights[column] = FixedI80F48.readDouble(
+                    data,
+                    offset + MangoPerpMarketInfo.INIT_ASSET_WEIGHT_OFFSET
+            );
+            perpMaintLiabWeights[column] = FixedI80F48.readDouble(
+                    data,
+                    offset + MangoPerpMarketInfo.MAINT_LIAB_WEIGHT_OFFSET
+            );
+            perpInitLiabWeights[column] = FixedI80F48.readDouble(
+                    data,
+                    offset + MangoPerpMarketInfo.INIT_LIAB_WEIGHT_OFFSET
+            );
+            perpLiquidationFees[column] = FixedI80F48.readDouble(
+                    data,
+                    offset + MangoPerpMarketInfo.LIQUIDATION_FEE_OFFSET
+            );
+            perpBaseLotSizes[column] = MangoUtils.readInt64(data, offset + MangoPerpMarketInfo.BASE_LOT_SIZE_OFFSET);
+            perpQuoteLotSizes[column] = MangoUtils.readInt64(data, offset + MangoPerpMarketInfo.QUOTE_LOT_SIZE_OFFSET);
+            perpOracleIndexes[column] = getOracleIndex(data, i);
+        }
+    }
+
+    // Market i is priced by oracle i
+    private static int getOracleIndex(byte[] data, int index) {
+        if (index >= MangoPerpGroup.MAX_PAIRS) {
+            return -1;
+        }
+
+        return isEmpty(data, MangoPerpGroup.ORACLES_OFFSET + (index * PublicKey.PUBLIC_KEY_LENGTH)) ? -1 : index;
+    }
+
+    private static boolean isEmpty(byte[] data, int offset) {
+        for (int i = 0; i < PublicKey.PUBLIC_KEY_LENGTH; i += MangoUtils.U64_SIZE_BYTES) {
+            if (MangoUtils.readInt64(data, offset + i) != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
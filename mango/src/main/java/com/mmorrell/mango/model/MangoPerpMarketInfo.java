@@ -18,13 +18,13 @@ public class MangoPerpMarketInfo {
             + (2 * MangoUtils.U64_SIZE_BYTES);
 
     private static final int SPOT_MARKET_OFFSET = 0;
-    private static final int MAINT_ASSET_WEIGHT_OFFSET = SPOT_MARKET_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
-    private static final int INIT_ASSET_WEIGHT_OFFSET = MAINT_ASSET_WEIGHT_OFFSET + I80F48.I80F48_LENGTH;
-    private static final int MAINT_LIAB_WEIGHT_OFFSET = INIT_ASSET_WEIGHT_OFFSET + I80F48.I80F48_LENGTH;
-    private static final int INIT_LIAB_WEIGHT_OFFSET = MAINT_LIAB_WEIGHT_OFFSET + I80F48.I80F48_LENGTH;
-    private static final int LIQUIDATION_FEE_OFFSET = INIT_LIAB_WEIGHT_OFFSET + I80F48.I80F48_LENGTH;
-    private static final int BASE_LOT_SIZE_OFFSET = LIQUIDATION_FEE_OFFSET + I80F48.I80F48_LENGTH;
-    private static final int QUOTE_LOT_SIZE_OFFSET = BASE_LOT_SIZE_OFFSET + MangoUtils.U64_SIZE_BYTES;
+    static final int MAINT_ASSET_WEIGHT_OFFSET = SPOT_MARKET_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
+    static final int INIT_ASSET_WEIGHT_OFFSET = MAINT_ASSET_WEIGHT_OFFSET + I80F48.I80F48_LENGTH;
+    static final int MAINT_LIAB_WEIGHT_OFFSET = INIT_ASSET_WEIGHT_OFFSET + I80F48.I80F48_LENGTH;
+    static final int INIT_LIAB_WEIGHT_OFFSET = MAINT_LIAB_WEIGHT_OFFSET + I80F48.I80F48_LENGTH;
+    static final int LIQUIDATION_FEE_OFFSET = INIT_LIAB_WEIGHT_OFFSET + I80F48.I80F48_LENGTH;
+    static final int BASE_LOT_SIZE_OFFSET = LIQUIDATION_FEE_OFFSET + I80F48.I80F48_LENGTH;
+    static final int QUOTE_LOT_SIZE_OFFSET = BASE_LOT_SIZE_OFFSET + MangoUtils.U64_SIZE_BYTES;
 
     private PublicKey perpMarket;
     private I80F48 maintAssetWeight;
@@ -15,11 +15,11 @@ public class MangoSpotMarketInfo {
     public static final int MANGO_SPOT_MARKET_INFO_LAYOUT_SIZE = PublicKey.PUBLIC_KEY_LENGTH
             + (5 * I80F48.I80F48_LENGTH);
     private static final int SPOT_MARKET_OFFSET = 0;
-    private static final int MAINT_ASSET_WEIGHT_OFFSET = SPOT_MARKET_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
-    private static final int INIT_ASSET_WEIGHT_OFFSET = MAINT_ASSET_WEIGHT_OFFSET + I80F48.I80F48_LENGTH;
-    private static final int MAINT_LIAB_WEIGHT_OFFSET = INIT_ASSET_WEIGHT_OFFSET + I80F48.I80F48_LENGTH;
-    private static final int INIT_LIAB_WEIGHT_OFFSET = MAINT_LIAB_WEIGHT_OFFSET + I80F48.I80F48_LENGTH;
-    private static final int LIQUIDATION_FEE_OFFSET = INIT_LIAB_WEIGHT_OFFSET + I80F48.I80F48_LENGTH;
+    static final int MAINT_ASSET_WEIGHT_OFFSET = SPOT_MARKET_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
+    static final int INIT_ASSET_WEIGHT_OFFSET = MAINT_ASSET_WEIGHT_OFFSET + I80F48.I80F48_LENGTH;
+    static final int MAINT_LIAB_WEIGHT_OFFSET = INIT_ASSET_WEIGHT_OFFSET + I80F48.I80F48_LENGTH;
+    static final int INIT_LIAB_WEIGHT_OFFSET = MAINT_LIAB_WEIGHT_OFFSET + I80F48.I80F48_LENGTH;
+    static final int LIQUIDATION_FEE_OFFSET = INIT_LIAB_WEIGHT_OFFSET + I80F48.I80F48_LENGTH;
 
     private PublicKey spotMarket;
     private I80F48 maintAssetWeight;
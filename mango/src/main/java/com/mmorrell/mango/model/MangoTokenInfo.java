@@ -15,7 +15,7 @@ public class MangoTokenInfo {
     public static final int MANGO_TOKEN_INFO_LAYOUT_SIZE = (PublicKey.PUBLIC_KEY_LENGTH * 2) + 8;
     private static final int MINT_OFFSET = 0;
     private static final int ROOT_BANK_OFFSET = MINT_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
-    private static final int DECIMALS_OFFSET = ROOT_BANK_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
+    static final int DECIMALS_OFFSET = ROOT_BANK_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
 
     private PublicKey mint;
     private PublicKey rootBank;
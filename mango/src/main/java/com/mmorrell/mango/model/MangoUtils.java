@@ -1,8 +1,29 @@
 package com.mmorrell.mango.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
 public class MangoUtils {
 
     public static final int ACCOUNT_FLAGS_SIZE_BYTES = 8;
     public static final int U64_SIZE_BYTES = 8;
 
+    private static final VarHandle INT64_LE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Reads a little-endian 64 bit integer in place, without copying.
+     */
+    public static long readInt64(byte[] data, int offset) {
+        return (long) INT64_LE.get(data, offset);
+    }
+
+    /**
+     * Converts an unsigned 64 bit integer to the nearest double.
+     */
+    public static double unsignedToDouble(long value) {
+        double result = (double) (value >>> 1) * 2.0;
+        return result + (value & 1);
+    }
 }
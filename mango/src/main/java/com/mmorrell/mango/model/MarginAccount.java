@@ -1,13 +1,23 @@
 package com.mmorrell.mango.model;
 
+import com.mmorrell.serum.model.OpenOrdersAccount;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.rpc.RpcClient;
+import org.p2p.solanaj.rpc.RpcException;
+import org.p2p.solanaj.rpc.types.AccountInfo;
 
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static com.mmorrell.mango.model.MangoUtils.ACCOUNT_FLAGS_SIZE_BYTES;
 import static org.p2p.solanaj.core.PublicKey.PUBLIC_KEY_LENGTH;
@@ -20,12 +30,15 @@ public class MarginAccount {
     // Constants
     private static final int NUM_TOKENS = 5;
     private static final int NUM_MARKETS = NUM_TOKENS - 1;
+    private static final int MULTIPLE_ACCOUNTS_CHUNK_SIZE = 100;
+    private static final PublicKey EMPTY_PUBKEY = new PublicKey("11111111111111111111111111111111");
 
     // Offsets
     private static final int MANGO_GROUP_OFFSET = ACCOUNT_FLAGS_SIZE_BYTES;
     private static final int OWNER_OFFSET = MANGO_GROUP_OFFSET + PUBLIC_KEY_LENGTH;
     private static final int DEPOSITS_OFFSET = OWNER_OFFSET + PUBLIC_KEY_LENGTH;
     private static final int BORROWS_OFFSET = DEPOSITS_OFFSET + (U64F64.U64F64_LENGTH * NUM_TOKENS);
+    private static final int OPEN_ORDERS_OFFSET = BORROWS_OFFSET + (U64F64.U64F64_LENGTH * NUM_TOKENS);
 
     private PublicKey publicKey;
     private MangoFlags accountFlags;
@@ -34,6 +47,12 @@ public class MarginAccount {
     private List<U64F64> deposits;
     private List<U64F64> borrows;
 
+    // Open orders account keys by market index, empty keys for unused markets
+    private List<PublicKey> openOrders;
+
+    // Decoded open orders by market index, null where unused or not loaded
+    private List<OpenOrdersAccount> openOrdersAccounts;
+
     public static MarginAccount readMarginAccount(final PublicKey publicKey, byte[] data) {
         if (data == null) {
             return MarginAccount.builder().build();
@@ -71,10 +90,97 @@ public class MarginAccount {
             );
         }
 
+        marginAccount.setOpenOrders(new ArrayList<>());
+        for (int i = 0; i < NUM_MARKETS; i++) {
+            marginAccount.getOpenOrders().add(
+                    PublicKey.readPubkey(data, OPEN_ORDERS_OFFSET + (i * PUBLIC_KEY_LENGTH))
+            );
+        }
+
         return marginAccount;
     }
 
+    /**
+     * Does nothing, as this account has no RPC client to load its open orders with.
+     *
+     * @param dexProgramId the Serum program that owns the open orders accounts
+     * @deprecated use {@link #loadOpenOrders(RpcClient, PublicKey)}
+     */
+    @Deprecated
     public void loadOpenOrders(final PublicKey dexProgramId) {
         // Load open orders
     }
+
+    /**
+     * Loads this account's open orders accounts with one getMultipleAccounts call.
+     *
+     * @param client       the RPC client
+     * @param dexProgramId the Serum program that must own the open orders accounts
+     * @throws RpcException if the call fails
+     */
+    public void loadOpenOrders(final RpcClient client, final PublicKey dexProgramId) throws RpcException {
+        loadOpenOrders(client, List.of(this), dexProgramId);
+    }
+
+    /**
+     * Loads the open orders accounts of many margin accounts at once. Each key is fetched and decoded once, however
+     * many accounts reference it, with one getMultipleAccounts call per 100 distinct keys.
+     *
+     * @param client         the RPC client
+     * @param marginAccounts the margin accounts to populate
+     * @param dexProgramId   the Serum program that must own the open orders accounts
+     * @throws RpcException if a call fails; no account is populated then
+     */
+    public static void loadOpenOrders(final RpcClient client, final List<MarginAccount> marginAccounts,
+                                      final PublicKey dexProgramId) throws RpcException {
+        final Set<PublicKey> keys = new LinkedHashSet<>();
+        for (MarginAccount marginAccount : marginAccounts) {
+            if (marginAccount.getOpenOrders() == null) {
+                continue;
+            }
+
+            for (PublicKey openOrders : marginAccount.getOpenOrders()) {
+                if (!openOrders.equals(EMPTY_PUBKEY)) {
+                    keys.add(openOrders);
+                }
+            }
+        }
+
+        final List<PublicKey> keyList = new ArrayList<>(keys);
+        final String dexProgram = dexProgramId.toBase58();
+        final Map<PublicKey, OpenOrdersAccount> openOrdersAccounts = new HashMap<>(keyList.size() * 2);
+        for (int i = 0; i < keyList.size(); i += MULTIPLE_ACCOUNTS_CHUNK_SIZE) {
+            final List<PublicKey> chunk = keyList.subList(
+                    i,
+                    Math.min(i + MULTIPLE_ACCOUNTS_CHUNK_SIZE, keyList.size())
+            );
+            final Map<PublicKey, Optional<AccountInfo.Value>> accountInfos =
+                    client.getApi().getMultipleAccountsMap(chunk);
+
+            for (PublicKey publicKey : chunk) {
+                final Optional<AccountInfo.Value> value = accountInfos.getOrDefault(publicKey, Optional.empty());
+                if (value.isEmpty() || !dexProgram.equals(value.get().getOwner())) {
+                    continue;
+                }
+
+                final OpenOrdersAccount openOrdersAccount = OpenOrdersAccount.readOpenOrdersAccount(
+                        Base64.getDecoder().decode(value.get().getData().get(0))
+                );
+                openOrdersAccount.setOwnPubkey(publicKey);
+                openOrdersAccounts.put(publicKey, openOrdersAccount);
+            }
+        }
+
+        for (MarginAccount marginAccount : marginAccounts) {
+            if (marginAccount.getOpenOrders() == null) {
+                continue;
+            }
+
+            final List<OpenOrdersAccount> accounts = new ArrayList<>(NUM_MARKETS);
+            for (PublicKey openOrders : marginAccount.getOpenOrders()) {
+                accounts.add(openOrdersAccounts.get(openOrders));
+            }
+            marginAccount.setOpenOrdersAccounts(accounts);
+        }
+    }
 }
@@ -4,13 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
-import org.p2p.solanaj.utils.ByteUtils;
 
 import java.math.BigDecimal;
-import java.math.BigInteger;
-import java.math.RoundingMode;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.Arrays;
 
 @Getter
@@ -27,24 +22,28 @@ public class U64F64 {
     }
 
     public float decodeFloat() {
-        return decodeBigDecimal().floatValue();
+        return (float) FixedU64F64.readDouble(data, 0);
     }
 
-    public BigDecimal decodeBigDecimal() {
-        ByteBuffer buffer = ByteBuffer.allocate(16);
-        buffer.order(ByteOrder.LITTLE_ENDIAN);
-
-        for (int i = 0; i < 16; i++) {
-            buffer.put(data[16 - i - 1]);
-        }
+    public double decodeDouble() {
+        return FixedU64F64.readDouble(data, 0);
+    }
 
-        // divisor
-        double divisor = Math.pow(2, 64);
-        String newString = ByteUtils.bytesToHex(buffer.array());
-        BigInteger result = new BigInteger(newString, 16);
-        BigDecimal divided = new BigDecimal(result)
-                .divide(new BigDecimal(divisor), RoundingMode.HALF_EVEN);
+    /**
+     * Converts to a two-long fixed-point value, for arithmetic without BigDecimal.
+     *
+     * @return the fixed-point value
+     */
+    public FixedU64F64 toFixed() {
+        return FixedU64F64.read(data, 0);
+    }
 
-        return divided;
+    /**
+     * Converts to a decimal without losing precision.
+     *
+     * @return the exact decimal value
+     */
+    public BigDecimal decodeBigDecimal() {
+        return toFixed().toBigDecimal();
     }
 }
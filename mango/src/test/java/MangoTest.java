@@ -1,14 +1,33 @@
+import com.mmorrell.mango.manager.MangoAccountScanner;
+import com.mmorrell.mango.manager.MangoAccountWatcher;
 import com.mmorrell.mango.manager.MangoManager;
 import com.mmorrell.mango.model.*;
+import com.mmorrell.serum.model.OpenOrdersAccount;
+import com.mmorrell.testing.StubRpcClient;
 import org.junit.jupiter.api.*;
 import org.p2p.solanaj.core.PublicKey;
 import org.p2p.solanaj.rpc.Cluster;
 import org.p2p.solanaj.rpc.RpcClient;
 import org.p2p.solanaj.rpc.RpcException;
 import org.p2p.solanaj.rpc.types.AccountInfo;
-
+import org.p2p.solanaj.rpc.types.config.Commitment;
+import org.p2p.solanaj.ws.SubscriptionWebSocketClient;
+import org.p2p.solanaj.ws.listeners.NotificationEventListener;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -22,6 +41,16 @@ public class MangoTest {
     private static final PublicKey BTC_ETH_SOL_SRM_USDC_MANGO_GROUP =
             new PublicKey("2oogpTYm1sp6LPZAWD3bp2wsFpnV2kXL1s52yyFhW5vp");
 
+    // Mango v3 layout, as decoded by MangoPerpGroup and MangoPerpAccount
+    private static final int TOKENS_OFFSET = 16;
+    private static final int SPOT_MARKETS_OFFSET = TOKENS_OFFSET + (32 * 72);
+    private static final int PERP_MARKETS_OFFSET = SPOT_MARKETS_OFFSET + (31 * 112);
+    private static final int ORACLES_OFFSET = PERP_MARKETS_OFFSET + (31 * 128);
+    private static final int DEPOSITS_OFFSET = 104;
+    private static final int BORROWS_OFFSET = DEPOSITS_OFFSET + (32 * 16);
+    private static final int PERP_ACCOUNTS_OFFSET = BORROWS_OFFSET + (32 * 16) + (31 * 32);
+    private static final int MANGO_ACCOUNT_SIZE = PERP_ACCOUNTS_OFFSET + (31 * 96);
+
     @Test
     public void mangoGroupTest() throws RpcException {
         LOGGER.info(
@@ -308,4 +337,482 @@ public class MangoTest {
         PublicKey pubkey2 = PublicKey.readPubkey(rawData2, 0);
         LOGGER.info("Pubkey2 = " + pubkey2.toBase58());
     }
+
+    @Test
+    public void fixedPointArithmeticTest() {
+        // 0.9 as stored in a Mango v3 perp group
+        byte[] weight = new byte[]{102, 102, 102, 102, 102, -26, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+        I80F48 maintAssetWeight = I80F48.readI80F48(weight, 0);
+        assertEquals(0.9, maintAssetWeight.decodeDouble(), 1e-12);
+        assertEquals(
+                new BigDecimal(BigInteger.valueOf(0xE66666666666L)).divide(new BigDecimal(BigInteger.ONE.shiftLeft(48))),
+                maintAssetWeight.decodeBigDecimal()
+        );
+
+        FixedI80F48 minusOneAndHalf = FixedI80F48.valueOf(-1.5);
+        assertTrue(minusOneAndHalf.isNegative());
+        assertEquals(-1.5, minusOneAndHalf.toDouble(), 0);
+        assertEquals(new BigDecimal("-1.5"), minusOneAndHalf.toBigDecimal());
+        assertEquals(FixedI80F48.valueOf(3), minusOneAndHalf.multiply(FixedI80F48.valueOf(-2)));
+        assertEquals(FixedI80F48.ZERO, minusOneAndHalf.add(FixedI80F48.valueOf(1.5)));
+
+        // Random operands checked against BigInteger arithmetic on the raw values
+        Random random = new Random(42);
+        BigInteger one = BigInteger.ONE.shiftLeft(48);
+        for (int i = 0; i < 10_000; i++) {
+            BigInteger a = new BigInteger(20 + random.nextInt(80), random);
+            BigInteger b = new BigInteger(20 + random.nextInt(80), random);
+            a = random.nextBoolean() ? a.negate() : a;
+            b = random.nextBoolean() ? b.negate() : b;
+            FixedI80F48 x = fromRaw(a);
+            FixedI80F48 y = fromRaw(b);
+
+            assertEquals(fromRaw(a.add(b)), x.add(y));
+            assertEquals(fromRaw(a.subtract(b)), x.subtract(y));
+            assertEquals(Integer.signum(a.compareTo(b)), Integer.signum(x.compareTo(y)));
+
+            BigInteger product = a.multiply(b);
+            BigInteger[] quotient = product.divideAndRemainder(one);
+            BigInteger floor = product.signum() < 0 && quotient[1].signum() != 0
+                    ? quotient[0].subtract(BigInteger.ONE)
+                    : quotient[0];
+            if (floor.bitLength() <= 127) {
+                assertEquals(fromRaw(floor), x.multiply(y));
+            } else {
+                assertThrows(ArithmeticException.class, () -> x.multiply(y));
+            }
+            assertEquals(new BigDecimal(a).divide(new BigDecimal(one)), x.toBigDecimal());
+        }
+
+        // U64F64: 1.25 * 2.5 from little-endian bytes
+        byte[] data = new byte[32];
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(0, 1L << 62).putLong(8, 1);
+        buffer.putLong(16, 1L << 63).putLong(24, 2);
+        U64F64 index = U64F64.readU64F64(data, 0);
+        assertEquals(new BigDecimal("1.25"), index.decodeBigDecimal());
+        FixedU64F64 product = index.toFixed().multiply(FixedU64F64.read(data, 16));
+        assertEquals(new BigDecimal("3.125"), product.toBigDecimal());
+        assertEquals(3.125, product.toDouble(), 0);
+        assertEquals(new BigDecimal("1.875"), product.subtract(index.toFixed()).toBigDecimal());
+        assertThrows(ArithmeticException.class, () -> index.toFixed().subtract(product));
+        assertThrows(ArithmeticException.class, () -> new FixedU64F64(-1L, -1L).add(FixedU64F64.ONE));
+    }
+
+    @Test
+    public void loadOpenOrdersTest() throws RpcException {
+        PublicKey dexProgramId = new PublicKey("9xQeWvG816bUx9EPjHmaT23yvVM2ZWbrrpZb9PusVFin");
+        PublicKey sharedOpenOrders = new PublicKey("DaWUKXCyXsnzcvLUyeJRWou8KTn7XtadgTsdhJ6RHS7b");
+        PublicKey openOrders = new PublicKey("9XJt2tvSZghsMAhWto1VuPBrwXsiimPtsTR8XwGgDxK2");
+        PublicKey foreignOpenOrders = new PublicKey("Fbq2VQNuq6WW2fHj9CDrTLSmtjvMwFajS3gXuCMTRMQV");
+        PublicKey market = new PublicKey("ECAikQUnS8HGLnzGrqEYA6Daz8nRRu9GsbfLbwMfK23P");
+
+        // Both margin accounts reference the shared open orders account; the second also has a foreign one
+        PublicKey firstKey = new PublicKey("2oogpTYm1sp6LPZAWD3bp2wsFpnV2kXL1s52yyFhW5vp");
+        PublicKey secondKey = new PublicKey("mv3ekLzLbnVPNxjSKvqBpU3ZeZXPQdEC3bp5MDEBG68");
+        PublicKey missingKey = new PublicKey("HBVTSWJy8LDJKpqCZ5EXCwxD4BZVsg9BZBNQfyphA4SY");
+        Map<PublicKey, byte[]> accounts = new LinkedHashMap<>();
+        accounts.put(firstKey, buildMarginAccount(sharedOpenOrders, null, null, openOrders));
+        accounts.put(secondKey, buildMarginAccount(null, sharedOpenOrders, foreignOpenOrders, null));
+        accounts.put(sharedOpenOrders, buildOpenOrdersAccount(market, 1_000, 2_500));
+        accounts.put(openOrders, buildOpenOrdersAccount(market, 7, 9));
+        accounts.put(foreignOpenOrders, buildOpenOrdersAccount(market, 1, 1));
+
+        Map<PublicKey, PublicKey> owners = Map.of(
+                sharedOpenOrders, dexProgramId,
+                openOrders, dexProgramId
+        );
+        List<String> methods = new ArrayList<>();
+        MangoManager stubMangoManager = new MangoManager(StubRpcClient.accounts(
+                accounts,
+                key -> owners.getOrDefault(key, MangoAccountScanner.MANGO_V3_PROGRAM_ID),
+                methods
+        ));
+
+        // Margin accounts and their open orders in two round trips
+        List<MarginAccount> marginAccounts = stubMangoManager.getMarginAccounts(
+                List.of(firstKey, missingKey, secondKey),
+                dexProgramId
+        );
+        assertEquals(List.of("getMultipleAccounts", "getMultipleAccounts"), methods);
+        assertEquals(2, marginAccounts.size());
+
+        MarginAccount first = marginAccounts.get(0);
+        MarginAccount second = marginAccounts.get(1);
+        assertEquals(firstKey, first.getPublicKey());
+        assertEquals(sharedOpenOrders, first.getOpenOrders().get(0));
+        assertEquals(4, first.getOpenOrdersAccounts().size());
+        assertNull(first.getOpenOrdersAccounts().get(1));
+
+        OpenOrdersAccount shared = first.getOpenOrdersAccounts().get(0);
+        assertEquals(market, shared.getMarket());
+        assertEquals(sharedOpenOrders, shared.getOwnPubkey());
+        assertEquals(1_000, shared.getBaseTokenTotal());
+        assertEquals(2_500, shared.getQuoteTokenTotal());
+        assertEquals(7, first.getOpenOrdersAccounts().get(3).getBaseTokenTotal());
+
+        // Decoded once and shared; accounts owned by another program are not loaded
+        assertSame(shared, second.getOpenOrdersAccounts().get(1));
+        assertNull(second.getOpenOrdersAccounts().get(2));
+
+        // A single account is loaded with one call
+        methods.clear();
+        MarginAccount single = stubMangoManager.getMarginAccount(secondKey, dexProgramId);
+        assertEquals(List.of("getAccountInfo", "getMultipleAccounts"), methods);
+        assertEquals(2_500, single.getOpenOrdersAccounts().get(1).getQuoteTokenTotal());
+
+        // A failed call is reported rather than returning the accounts loaded so far
+        MangoManager unreachable = new MangoManager(new RpcClient("http://127.0.0.1:1"));
+        assertThrows(RpcException.class, () -> unreachable.getMarginAccounts(List.of(firstKey), dexProgramId));
+    }
+
+    @Test
+    public void mangoPerpGroupColumnsTest() {
+        // Tokens 0, 2 and quote; spot market 2 only; perp markets 0 and 2, with an oracle for market 2
+        byte[] groupData = buildMangoGroup();
+        ByteBuffer buffer = ByteBuffer.wrap(groupData).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(8, 1);
+        for (int token : new int[]{0, 2, 31}) {
+            groupData[TOKENS_OFFSET + (token * 72)] = (byte) (token + 1);
+            groupData[TOKENS_OFFSET + (token * 72) + 64] = (byte) (token == 31 ? 6 : 9);
+        }
+        groupData[SPOT_MARKETS_OFFSET + (2 * 112)] = 1;
+        putI80F48(groupData, SPOT_MARKETS_OFFSET + (2 * 112) + 32, 0.8);
+        putI80F48(groupData, SPOT_MARKETS_OFFSET + (2 * 112) + 96, 0.05);
+        for (int market : new int[]{0, 2}) {
+            int offset = PERP_MARKETS_OFFSET + (market * 128);
+            groupData[offset] = 1;
+            putI80F48(groupData, offset + 80, 1.1 + market);
+            buffer.putLong(offset + 112, 10L + market);
+            buffer.putLong(offset + 120, 100L + market);
+        }
+        groupData[ORACLES_OFFSET + (2 * 32) + 5] = 1;
+
+        MangoPerpGroupColumns columns = MangoPerpGroupColumns.readMangoPerpGroupColumns(groupData);
+        assertEquals(1, columns.getNumOracles());
+        assertEquals(3, columns.getTokenCount());
+        assertArrayEquals(new int[]{0, 2, 31}, Arrays.copyOf(columns.getTokenIndexes(), 3));
+        assertArrayEquals(new int[]{9, 9, 6}, Arrays.copyOf(columns.getTokenDecimals(), 3));
+        assertArrayEquals(new int[]{-1, 2, -1}, Arrays.copyOf(columns.getTokenOracleIndexes(), 3));
+
+        assertEquals(1, columns.getSpotMarketCount());
+        assertEquals(2, columns.getSpotMarketIndexes()[0]);
+        assertEquals(0.8, columns.getSpotMaintAssetWeights()[0], 1e-12);
+        assertEquals(0.05, columns.getSpotLiquidationFees()[0], 1e-12);
+
+        assertEquals(2, columns.getPerpMarketCount());
+        assertArrayEquals(new int[]{0, 2}, Arrays.copyOf(columns.getPerpMarketIndexes(), 2));
+        assertArrayEquals(new long[]{10, 12}, Arrays.copyOf(columns.getPerpBaseLotSizes(), 2));
+        assertArrayEquals(new long[]{100, 102}, Arrays.copyOf(columns.getPerpQuoteLotSizes(), 2));
+        assertArrayEquals(new int[]{-1, 2}, Arrays.copyOf(columns.getPerpOracleIndexes(), 2));
+
+        // Agrees with the object graph decode, which also drops empty market slots
+        MangoPerpGroup mangoPerpGroup = MangoPerpGroup.readMangoPerpGroup(
+                BTC_ETH_SOL_SRM_USDC_MANGO_GROUP,
+                groupData
+        );
+        assertEquals(mangoPerpGroup.getPerpMarkets().size(), columns.getPerpMarketCount());
+        for (int column = 0; column < columns.getPerpMarketCount(); column++) {
+            MangoPerpMarketInfo perpMarketInfo = mangoPerpGroup.getPerpMarkets().get(column);
+            assertEquals(perpMarketInfo.getInitLiabWeight().decodeDouble(), columns.getPerpInitLiabWeights()[column]);
+            assertEquals(perpMarketInfo.getBaseLotSize(), columns.getPerpBaseLotSizes()[column]);
+        }
+
+        // Health parameters spread the columns back out by slot
+        MangoHealthParameters parameters = MangoHealthParameters.fromColumns(columns, new double[32], null, null);
+        assertArrayEquals(new int[]{0, 2, 31}, parameters.getTokenIndexes());
+        assertArrayEquals(new int[]{0, 2}, parameters.getPerpMarketIndexes());
+        assertEquals(0.8, parameters.getSpotMaintAssetWeights()[2], 1e-12);
+        assertEquals(3.1, parameters.getPerpInitLiabWeights()[2], 1e-12);
+
+        // Reloads decode in place: the removed perp market drops out of the columns
+        groupData[PERP_MARKETS_OFFSET] = 0;
+        int[] perpMarketIndexes = columns.getPerpMarketIndexes();
+        columns.read(groupData);
+        assertSame(perpMarketIndexes, columns.getPerpMarketIndexes());
+        assertEquals(1, columns.getPerpMarketCount());
+        assertEquals(2, columns.getPerpMarketIndexes()[0]);
+        assertEquals(3.1, columns.getPerpInitLiabWeights()[0], 1e-12);
+    }
+
+    @Test
+    public void mangoAccountWatcherTest() {
+        PublicKey group = new PublicKey("ECAikQUnS8HGLnzGrqEYA6Daz8nRRu9GsbfLbwMfK23P");
+        PublicKey cache = new PublicKey("EBDRoayCDDUvDgCimta45ajQeXbexv7aKqJubruqpyvu");
+
+        // Tokens 0, 1 and quote, with spot markets 0 and 1 weighted 0.9 / 0.8 / 1.1 / 1.2
+        byte[] groupData = buildMangoGroup();
+        groupData[TOKENS_OFFSET + (31 * 72)] = 1;
+        for (int market = 0; market < 2; market++) {
+            int offset = SPOT_MARKETS_OFFSET + (market * 112);
+            groupData[TOKENS_OFFSET + (market * 72)] = 1;
+            groupData[offset] = 1;
+            putWeights(groupData, offset, 0.9, 0.8, 1.1, 1.2);
+        }
+
+        // Borrows token 0, holds token 1, holds quote only
+        PublicKey borrowerKey = new PublicKey("2oogpTYm1sp6LPZAWD3bp2wsFpnV2kXL1s52yyFhW5vp");
+        PublicKey holderKey = new PublicKey("mv3ekLzLbnVPNxjSKvqBpU3ZeZXPQdEC3bp5MDEBG68");
+        PublicKey quoteKey = new PublicKey("9XJt2tvSZghsMAhWto1VuPBrwXsiimPtsTR8XwGgDxK2");
+        byte[] borrower = buildMangoAccount(group);
+        putI80F48(borrower, DEPOSITS_OFFSET + (31 * 16), 1000);
+        putI80F48(borrower, BORROWS_OFFSET, 10);
+        byte[] holder = buildMangoAccount(group);
+        putI80F48(holder, DEPOSITS_OFFSET + 16, 5);
+        byte[] quoteHolder = buildMangoAccount(group);
+        putI80F48(quoteHolder, DEPOSITS_OFFSET + (31 * 16), 300);
+
+        List<MangoAccountHealth> notified = new ArrayList<>();
+        MangoAccountWatcher watcher = new MangoAccountWatcher(group, cache, notified::add);
+        watcher.watch(borrowerKey);
+        watcher.watch(holderKey);
+        watcher.watch(quoteKey);
+        watcher.watch(quoteKey);
+        assertEquals(3, watcher.getAccountCount());
+
+        // Nothing is computed before both the group and the cache are known
+        assertEquals(0, watcher.onAccountData(borrowerKey, borrower.clone()));
+        assertEquals(0, watcher.onAccountData(holderKey, holder));
+        assertEquals(0, watcher.onAccountData(quoteKey, quoteHolder));
+        assertEquals(0, watcher.onAccountData(group, groupData.clone()));
+        assertNull(watcher.getHealth(borrowerKey));
+
+        // Notifications arrive as account values with base64 data, like a websocket would deliver them
+        watcher.onNotificationEvent(cache, toNotification(buildMangoCache(50, 20)));
+        assertEquals(3, watcher.getRecomputeCount());
+        assertEquals(1000 - (500 * 1.1), watcher.getHealth(borrowerKey).getMaintHealth(), 1e-6);
+        assertEquals(100 * 0.9, watcher.getHealth(holderKey).getMaintHealth(), 1e-6);
+        assertEquals(
+                List.of(holderKey, quoteKey, borrowerKey),
+                watcher.getLeastHealthy(3).stream().map(MangoAccountHealth::getPublicKey).collect(Collectors.toList())
+        );
+
+        // Unchanged bytes are not recomputed
+        assertEquals(0, watcher.onAccountData(borrowerKey, borrower.clone()));
+        assertEquals(0, watcher.onAccountData(group, groupData.clone()));
+
+        // Token 0's price moves: only the borrower is exposed, and it becomes liquidatable
+        assertEquals(1, watcher.onAccountData(cache, buildMangoCache(100, 20)));
+        assertEquals(4, watcher.getRecomputeCount());
+        assertEquals(1000 - (1000 * 1.1), watcher.getHealth(borrowerKey).getMaintHealth(), 1e-6);
+        assertEquals(borrowerKey, watcher.getLeastHealthy(1).get(0).getPublicKey());
+        assertEquals(List.of(watcher.getHealth(borrowerKey)), watcher.getLiquidatable());
+
+        // A cache update without changes recomputes nothing
+        assertEquals(0, watcher.onAccountData(cache, buildMangoCache(100, 20)));
+
+        // The borrower repays half; only that account is recomputed
+        putI80F48(borrower, BORROWS_OFFSET, 5);
+        watcher.onNotificationEvent(borrowerKey, toNotification(borrower));
+        assertEquals(5, watcher.getRecomputeCount());
+        assertTrue(watcher.getLiquidatable().isEmpty());
+        assertEquals(holderKey, watcher.getLeastHealthy(1).get(0).getPublicKey());
+        assertEquals(3, watcher.getLeastHealthy(10).size());
+
+        // A group update recomputes everything
+        putI80F48(groupData, SPOT_MARKETS_OFFSET + 112 + 32, 0.5);
+        assertEquals(3, watcher.onAccountData(group, groupData.clone()));
+        assertEquals(100 * 0.5, watcher.getHealth(holderKey).getMaintHealth(), 1e-6);
+        assertEquals(8, notified.size());
+
+        // Accounts watched after subscribing are subscribed too; the websocket is never connected
+        List<String> subscribed = new ArrayList<>();
+        SubscriptionWebSocketClient webSocketClient = new SubscriptionWebSocketClient(URI.create("ws://localhost")) {
+            @Override
+            public void accountSubscribe(String key, NotificationEventListener listener, Commitment commitment) {
+                subscribed.add(key);
+            }
+        };
+        watcher.subscribe(webSocketClient);
+        assertEquals(5, subscribed.size());
+
+        PublicKey lateKey = new PublicKey("HBVTSWJy8LDJKpqCZ5EXCwxD4BZVsg9BZBNQfyphA4SY");
+        watcher.watch(lateKey);
+        watcher.watch(lateKey);
+        assertEquals(6, subscribed.size());
+        assertEquals(lateKey.toBase58(), subscribed.get(5));
+    }
+
+    @Test
+    public void mangoAccountScannerTest() {
+        // Token 0 and the quote token; market 0: spot weights 0.9 / 0.8 / 1.1 / 1.2, perp weights
+        // 0.95 / 0.9 / 1.05 / 1.1, 100 base lot size
+        byte[] groupData = buildMangoGroup();
+        groupData[TOKENS_OFFSET] = 1;
+        groupData[TOKENS_OFFSET + (31 * 72)] = 1;
+        groupData[SPOT_MARKETS_OFFSET] = 1;
+        groupData[PERP_MARKETS_OFFSET] = 1;
+        putWeights(groupData, SPOT_MARKETS_OFFSET, 0.9, 0.8, 1.1, 1.2);
+        putWeights(groupData, PERP_MARKETS_OFFSET, 0.95, 0.9, 1.05, 1.1);
+        ByteBuffer.wrap(groupData).order(ByteOrder.LITTLE_ENDIAN).putLong(PERP_MARKETS_OFFSET + 112, 100);
+
+        // Token 0 is worth 50 native quote per native token
+        double[] prices = new double[32];
+        prices[0] = 50;
+        MangoHealthParameters parameters = MangoHealthParameters.readMangoHealthParameters(
+                groupData, prices, null, null
+        );
+        assertEquals(0.9, parameters.getSpotMaintAssetWeights()[0], 1e-12);
+        assertEquals(1.1, parameters.getPerpInitLiabWeights()[0], 1e-12);
+        assertEquals(100, parameters.getPerpBaseLotSizes()[0]);
+        assertEquals(1, parameters.getPrices()[MangoHealthParameters.QUOTE_INDEX]);
+
+        PublicKey group = new PublicKey("ECAikQUnS8HGLnzGrqEYA6Daz8nRRu9GsbfLbwMfK23P");
+        PublicKey otherGroup = new PublicKey("Fbq2VQNuq6WW2fHj9CDrTLSmtjvMwFajS3gXuCMTRMQV");
+
+        // 1000 quote deposited, 10 token borrowed
+        byte[] borrower = buildMangoAccount(group);
+        putI80F48(borrower, DEPOSITS_OFFSET + (31 * 16), 1000);
+        putI80F48(borrower, BORROWS_OFFSET, 10);
+        borrower[103] = 1;
+
+        // 20 token deposited
+        byte[] depositor = buildMangoAccount(group);
+        putI80F48(depositor, DEPOSITS_OFFSET, 20);
+
+        // Short 5 perp lots (500 native) against 26000 quote
+        byte[] perpShort = buildMangoAccount(group);
+        ByteBuffer.wrap(perpShort).order(ByteOrder.LITTLE_ENDIAN).putLong(PERP_ACCOUNTS_OFFSET, -5);
+        putI80F48(perpShort, PERP_ACCOUNTS_OFFSET + 8, 26000);
+
+        byte[] foreign = buildMangoAccount(otherGroup);
+        putI80F48(foreign, DEPOSITS_OFFSET, 1);
+
+        Map<PublicKey, byte[]> accounts = new LinkedHashMap<>();
+        PublicKey borrowerKey = new PublicKey("2oogpTYm1sp6LPZAWD3bp2wsFpnV2kXL1s52yyFhW5vp");
+        PublicKey depositorKey = new PublicKey("mv3ekLzLbnVPNxjSKvqBpU3ZeZXPQdEC3bp5MDEBG68");
+        PublicKey perpShortKey = new PublicKey("9XJt2tvSZghsMAhWto1VuPBrwXsiimPtsTR8XwGgDxK2");
+        accounts.put(borrowerKey, borrower);
+        accounts.put(depositorKey, depositor);
+        accounts.put(perpShortKey, perpShort);
+        accounts.put(new PublicKey("DaWUKXCyXsnzcvLUyeJRWou8KTn7XtadgTsdhJ6RHS7b"), foreign);
+
+        List<String> methods = new ArrayList<>();
+        MangoAccountScanner scanner = new MangoAccountScanner(
+                StubRpcClient.accounts(accounts, MangoAccountScanner.MANGO_V3_PROGRAM_ID, methods),
+                MangoAccountScanner.MANGO_V3_PROGRAM_ID,
+                4
+        );
+
+        // getProgramAccounts: the other group's account is dropped, and the rest come back least healthy first
+        List<MangoAccountHealth> ranked = scanner.scan(group, parameters);
+        assertEquals(List.of("getProgramAccounts"), methods);
+        assertEquals(
+                List.of(perpShortKey, borrowerKey, depositorKey),
+                ranked.stream().map(MangoAccountHealth::getPublicKey).collect(Collectors.toList())
+        );
+
+        MangoAccountHealth perpShortHealth = ranked.get(0);
+        assertEquals(26000 - (25000 * 1.05), perpShortHealth.getMaintHealth(), 1e-6);
+        assertEquals(26000 - (25000 * 1.1), perpShortHealth.getInitHealth(), 1e-6);
+        assertTrue(perpShortHealth.isLiquidatable());
+
+        MangoAccountHealth borrowerHealth = ranked.get(1);
+        assertEquals(1000 - (500 * 1.1), borrowerHealth.getMaintHealth(), 1e-6);
+        assertEquals(1000 - (500 * 1.2), borrowerHealth.getInitHealth(), 1e-6);
+        assertEquals(((1000 / (500 * 1.1)) - 1) * 100, borrowerHealth.getMaintHealthRatio(), 1e-6);
+        assertEquals(1, borrowerHealth.getNumInMarginBasket());
+
+        MangoAccountHealth depositorHealth = ranked.get(2);
+        assertEquals(1000 * 0.9, depositorHealth.getMaintHealth(), 1e-6);
+        assertEquals(1000 * 0.8, depositorHealth.getInitHealth(), 1e-6);
+        assertEquals(Double.POSITIVE_INFINITY, depositorHealth.getMaintHealthRatio());
+
+        // getMultipleAccounts in chunks, over many random accounts
+        Random random = new Random(46);
+        Map<PublicKey, byte[]> bulkAccounts = new LinkedHashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            byte[] data = buildMangoAccount(group);
+            putI80F48(data, DEPOSITS_OFFSET + (31 * 16), random.nextInt(10_000));
+            putI80F48(data, BORROWS_OFFSET, random.nextInt(200));
+            byte[] key = new byte[32];
+            random.nextBytes(key);
+            bulkAccounts.put(new PublicKey(key), data);
+        }
+
+        List<String> bulkMethods = new ArrayList<>();
+        MangoAccountScanner bulkScanner = new MangoAccountScanner(
+                StubRpcClient.accounts(bulkAccounts, MangoAccountScanner.MANGO_V3_PROGRAM_ID, bulkMethods),
+                MangoAccountScanner.MANGO_V3_PROGRAM_ID,
+                8
+        );
+        List<MangoAccountHealth> bulkRanked = bulkScanner.scan(new ArrayList<>(bulkAccounts.keySet()), parameters);
+
+        assertEquals(bulkAccounts.size(), bulkRanked.size());
+        assertEquals(50, bulkMethods.size());
+        assertTrue(bulkMethods.stream().allMatch("getMultipleAccounts"::equals));
+        for (int i = 1; i < bulkRanked.size(); i++) {
+            assertTrue(MangoAccountHealth.BY_HEALTH.compare(bulkRanked.get(i - 1), bulkRanked.get(i)) <= 0);
+        }
+    }
+
+    private static FixedI80F48 fromRaw(BigInteger raw) {
+        return new FixedI80F48(raw.shiftRight(64).longValue(), raw.longValue());
+    }
+
+    // An empty v3 group: every token, spot market, perp market and oracle slot unset
+    private static byte[] buildMangoGroup() {
+        return new byte[ORACLES_OFFSET + (31 * 32) + 168];
+    }
+
+    // Maint asset, init asset, maint liab and init liab weights of a spot or perp market info
+    private static void putWeights(byte[] groupData, int marketOffset, double maintAssetWeight,
+                                   double initAssetWeight, double maintLiabWeight, double initLiabWeight) {
+        putI80F48(groupData, marketOffset + 32, maintAssetWeight);
+        putI80F48(groupData, marketOffset + 48, initAssetWeight);
+        putI80F48(groupData, marketOffset + 64, maintLiabWeight);
+        putI80F48(groupData, marketOffset + 80, initLiabWeight);
+    }
+
+    private static byte[] buildMangoAccount(PublicKey mangoGroup) {
+        byte[] data = new byte[MANGO_ACCOUNT_SIZE];
+        data[0] = 1;
+        data[2] = 1;
+        System.arraycopy(mangoGroup.toByteArray(), 0, data, 8, 32);
+        return data;
+    }
+
+    private static void putI80F48(byte[] data, int offset, double value) {
+        FixedI80F48 fixed = FixedI80F48.valueOf(value);
+        ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN)
+                .putLong(offset, fixed.getLo())
+                .putLong(offset + 8, fixed.getHi());
+    }
+
+    private static byte[] buildMarginAccount(PublicKey... openOrders) {
+        // Flags, group, owner, 5 deposits, 5 borrows, then an open orders key per market
+        byte[] data = new byte[8 + 32 + 32 + (10 * 16) + (4 * 32) + 72];
+        data[0] = 5;
+        for (int i = 0; i < openOrders.length; i++) {
+            if (openOrders[i] != null) {
+                System.arraycopy(openOrders[i].toByteArray(), 0, data, 232 + (i * 32), 32);
+            }
+        }
+        return data;
+    }
+
+    private static byte[] buildOpenOrdersAccount(PublicKey market, long baseTokenTotal, long quoteTokenTotal) {
+        byte[] data = new byte[3228];
+        System.arraycopy(market.toByteArray(), 0, data, 13, 32);
+        ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN)
+                .putLong(85, baseTokenTotal)
+                .putLong(101, quoteTokenTotal);
+        return data;
+    }
+
+    // Prices of tokens 0 and 1, with every deposit and borrow index at 1
+    private static byte[] buildMangoCache(double price0, double price1) {
+        byte[] data = new byte[8 + (31 * 24) + (32 * 40) + (31 * 40)];
+        putI80F48(data, 8, price0);
+        putI80F48(data, 8 + 24, price1);
+        for (int token = 0; token < 32; token++) {
+            putI80F48(data, 8 + (31 * 24) + (token * 40), 1);
+            putI80F48(data, 8 + (31 * 24) + (token * 40) + 16, 1);
+        }
+        return data;
+    }
+
+    private static Map<String, Object> toNotification(byte[] data) {
+        return Map.of("data", List.of(Base64.getEncoder().encodeToString(data), "base64"));
+    }
 }
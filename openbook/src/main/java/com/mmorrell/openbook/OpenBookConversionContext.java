@@ -0,0 +1,110 @@
+package com.mmorrell.openbook;
+
+import com.mmorrell.openbook.model.OpenBookMarket;
+import lombok.Getter;
+
+/**
+ * Converts between the lots stored on-chain and UI amounts for one OpenBook v2 market. The decimal multipliers are
+ * computed once when the context is created, so converting an order costs one multiplication and one division.
+ * Results are identical to {@link OpenBookUtil#priceLotsToNumber(long, byte, byte, long, long)}.
+ */
+@Getter
+public class OpenBookConversionContext {
+
+    private final byte baseDecimals;
+    private final byte quoteDecimals;
+    private final long baseLotSize;
+    private final long quoteLotSize;
+
+    private final double baseMultiplier;
+    private final double quoteMultiplier;
+
+    // baseLotSize * 10^quoteDecimals, the denominator of every price conversion
+    private final double priceDenominator;
+
+    public OpenBookConversionContext(byte baseDecimals, byte quoteDecimals, long baseLotSize, long quoteLotSize) {
+        this.baseDecimals = baseDecimals;
+        this.quoteDecimals = quoteDecimals;
+        this.baseLotSize = baseLotSize;
+        this.quoteLotSize = quoteLotSize;
+        this.baseMultiplier = OpenBookUtil.getBaseSplTokenMultiplier(baseDecimals);
+        this.quoteMultiplier = OpenBookUtil.getQuoteSplTokenMultiplier(quoteDecimals);
+        this.priceDenominator = baseLotSize * quoteMultiplier;
+    }
+
+    /**
+     * Creates a conversion context from a market's decimals and lot sizes.
+     *
+     * @param market the market
+     * @return the market's conversion context
+     */
+    public static OpenBookConversionContext fromMarket(OpenBookMarket market) {
+        return new OpenBookConversionContext(
+                market.getBaseDecimals(),
+                market.getQuoteDecimals(),
+                market.getBaseLotSize(),
+                market.getQuoteLotSize()
+        );
+    }
+
+    /**
+     * Converts a price in lots to a UI price.
+     *
+     * @param priceLots the price, in quote lots per base lot
+     * @return the UI price
+     */
+    public double priceLotsToNumber(long priceLots) {
+        return ((priceLots * quoteLotSize) * baseMultiplier) / priceDenominator;
+    }
+
+    /**
+     * Converts a UI price to a price in lots, rounding to the nearest lot. Rounding, rather than truncating, keeps
+     * prices like 2.3 that have no exact binary representation on their lot.
+     *
+     * @param price the UI price
+     * @return the price, in quote lots per base lot
+     */
+    public long priceNumberToLots(double price) {
+        return Math.round((price * priceDenominator) / (quoteLotSize * baseMultiplier));
+    }
+
+    /**
+     * Converts a quantity in base lots to a UI size.
+     *
+     * @param baseLots the quantity, in base lots
+     * @return the UI size
+     */
+    public double baseLotsToNumber(long baseLots) {
+        return (baseLots * baseLotSize) / baseMultiplier;
+    }
+
+    /**
+     * Converts a UI size to a quantity in base lots, rounding to the nearest lot.
+     *
+     * @param size the UI size
+     * @return the quantity, in base lots
+     */
+    public long baseNumberToLots(double size) {
+        return Math.round((size * baseMultiplier) / baseLotSize);
+    }
+
+    /**
+     * Converts a native base amount to a UI amount.
+     *
+     * @param baseNative the base amount, in native units
+     * @return the UI amount
+     */
+    public double baseNativeToNumber(long baseNative) {
+        return baseNative / baseMultiplier;
+    }
+
+    /**
+     * Converts a native quote amount to a UI amount.
+     *
+     * @param quoteNative the quote amount, in native units
+     * @return the UI amount
+     */
+    public double quoteNativeToNumber(long quoteNative) {
+        return quoteNative / quoteMultiplier;
+    }
+}
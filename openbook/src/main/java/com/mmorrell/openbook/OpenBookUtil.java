@@ -1,7 +1,8 @@
 package com.mmorrell.openbook;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.math.BigInteger;
-import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
@@ -31,6 +32,17 @@ public class OpenBookUtil {
             (byte) 0x3F, (byte) 0xC9
     };
 
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+    };
+
+    private static final VarHandle INT16_LE =
+            MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT32_LE =
+            MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT64_LE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
 
     /**
      * Encodes the "global::initialize" sighash
@@ -65,25 +77,81 @@ public class OpenBookUtil {
         return new BigInteger(reverseBytes(readBytes(buf, offset, 16)));
     }
 
+    /**
+     * Reads the low 64 bits of a little-endian u128, without allocating.
+     *
+     * @param data   the byte array to read from
+     * @param offset the offset of the u128
+     * @return the low 64 bits of the value
+     */
+    public static long readUint128Low(byte[] data, int offset) {
+        return readInt64(data, offset);
+    }
+
+    /**
+     * Reads the high 64 bits of a little-endian u128, without allocating.
+     *
+     * @param data   the byte array to read from
+     * @param offset the offset of the u128
+     * @return the high 64 bits of the value
+     */
+    public static long readUint128High(byte[] data, int offset) {
+        return readInt64(data, offset + 8);
+    }
+
+    /**
+     * Reads a little-endian i64 (or the bits of a u64), without allocating.
+     *
+     * @param data   the byte array to read from
+     * @param offset the offset of the value
+     * @return the value
+     */
+    public static long readInt64(byte[] data, int offset) {
+        return (long) INT64_LE.get(data, offset);
+    }
+
+    /**
+     * Reads a little-endian f64, without allocating.
+     *
+     * @param data   the byte array to read from
+     * @param offset the offset of the value
+     * @return the value
+     */
+    public static double readFloat64(byte[] data, int offset) {
+        return Double.longBitsToDouble(readInt64(data, offset));
+    }
+
+    /**
+     * Reads a little-endian i32, without allocating.
+     *
+     * @param data   the byte array to read from
+     * @param offset the offset of the value
+     * @return the value
+     */
     public static int readInt32(byte[] data, int offset) {
-        // convert 4 bytes into an int.
-        // create a byte buffer and wrap the array
-        ByteBuffer bb = ByteBuffer.wrap(
-                Arrays.copyOfRange(
-                        data,
-                        offset,
-                        offset + 4
-                )
-        );
-
-        // if the file uses little endian as apposed to network
-        // (big endian, Java's native) format,
-        // then set the byte order of the ByteBuffer
-        bb.order(ByteOrder.LITTLE_ENDIAN);
-
-        // read your integers using ByteBuffer's getInt().
-        // four bytes converted into an integer!
-        return bb.getInt(0);
+        return (int) INT32_LE.get(data, offset);
+    }
+
+    /**
+     * Reads a little-endian u32, without allocating.
+     *
+     * @param data   the byte array to read from
+     * @param offset the offset of the value
+     * @return the value
+     */
+    public static long readUint32(byte[] data, int offset) {
+        return Integer.toUnsignedLong(readInt32(data, offset));
+    }
+
+    /**
+     * Reads a little-endian u16, without allocating.
+     *
+     * @param data   the byte array to read from
+     * @param offset the offset of the value
+     * @return the value
+     */
+    public static int readUint16(byte[] data, int offset) {
+        return Short.toUnsignedInt((short) INT16_LE.get(data, offset));
     }
 
     /**
@@ -105,11 +173,25 @@ public class OpenBookUtil {
     }
 
     public static double getBaseSplTokenMultiplier(byte baseDecimals) {
-        return Math.pow(10, baseDecimals);
+        return getSplTokenMultiplier(baseDecimals);
     }
 
     public static double getQuoteSplTokenMultiplier(byte quoteDecimals) {
-        return Math.pow(10, quoteDecimals);
+        return getSplTokenMultiplier(quoteDecimals);
+    }
+
+    /**
+     * Returns 10^decimals, using a lookup table for the decimals SPL tokens use.
+     *
+     * @param decimals the number of decimal places of the token
+     * @return the multiplier between UI and native amounts
+     */
+    public static double getSplTokenMultiplier(byte decimals) {
+        if (decimals >= 0 && decimals < POWERS_OF_TEN.length) {
+            return POWERS_OF_TEN[decimals];
+        }
+
+        return Math.pow(10, decimals);
     }
 
 }
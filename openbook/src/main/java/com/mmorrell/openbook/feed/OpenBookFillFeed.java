@@ -0,0 +1,201 @@
+package com.mmorrell.openbook.feed;
+
+import com.mmorrell.openbook.manager.OpenBookManager;
+import com.mmorrell.openbook.model.OpenBookAnyEvent;
+import com.mmorrell.openbook.model.OpenBookEventHeap;
+import com.mmorrell.openbook.model.OpenBookEventNode;
+import com.mmorrell.openbook.model.OpenBookFillEvent;
+import com.mmorrell.openbook.model.OpenBookMarket;
+import lombok.extern.slf4j.Slf4j;
+import org.p2p.solanaj.core.PublicKey;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams the fills of one OpenBook v2 market. Each poll reads the market's event heap and publishes only the fills
+ * with a sequence number above the last one delivered, in sequence order, to a ring buffer shared by all subscribers.
+ * Sequence numbers that were pushed and consumed between two polls are reported to the gap listeners.
+ */
+@Slf4j
+public class OpenBookFillFeed {
+
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    private final OpenBookManager openBookManager;
+    private final PublicKey marketId;
+    private final OpenBookFillRingBuffer ringBuffer;
+    private final List<OpenBookFillGapListener> gapListeners = new CopyOnWriteArrayList<>();
+    private final boolean startFromLatest;
+
+    private boolean initialized;
+    private long lastSeqNum = -1;
+    private ScheduledExecutorService scheduler;
+
+    public OpenBookFillFeed(OpenBookManager openBookManager, PublicKey marketId) {
+        this(openBookManager, marketId, DEFAULT_CAPACITY, true);
+    }
+
+    /**
+     * Creates a fill feed for a market.
+     *
+     * @param openBookManager the manager used to read the market's event heap
+     * @param marketId        the market to stream fills for
+     * @param capacity        the number of fills retained for slow subscribers
+     * @param startFromLatest if true, fills already in the heap at the first poll are skipped
+     */
+    public OpenBookFillFeed(OpenBookManager openBookManager, PublicKey marketId, int capacity,
+                            boolean startFromLatest) {
+        this.openBookManager = openBookManager;
+        this.marketId = marketId;
+        this.ringBuffer = new OpenBookFillRingBuffer(capacity);
+        this.startFromLatest = startFromLatest;
+    }
+
+    /**
+     * Creates a subscriber that receives every fill published after this call.
+     *
+     * @return the new subscriber
+     */
+    public OpenBookFillRingBuffer.Subscriber subscribe() {
+        return ringBuffer.subscribe();
+    }
+
+    public void addGapListener(OpenBookFillGapListener gapListener) {
+        gapListeners.add(gapListener);
+    }
+
+    public void removeGapListener(OpenBookFillGapListener gapListener) {
+        gapListeners.remove(gapListener);
+    }
+
+    /**
+     * Reads the market's event heap and publishes any new fills.
+     *
+     * @return the number of fills published, or 0 if the heap could not be read
+     */
+    public synchronized int poll() {
+        Optional<OpenBookMarket> market = openBookManager.getMarket(marketId, true, false);
+        if (market.isEmpty()) {
+            log.warn("Market not cached: {}", marketId);
+            return 0;
+        }
+
+        Optional<OpenBookEventHeap> eventHeap = openBookManager.getEventHeap(market.get().getEventHeap());
+        return eventHeap.map(this::onEventHeap).orElse(0);
+    }
+
+    /**
+     * Publishes the fills in the given event heap snapshot that have not been delivered yet.
+     *
+     * @param eventHeap the event heap snapshot
+     * @return the number of fills published
+     */
+    public synchronized int onEventHeap(OpenBookEventHeap eventHeap) {
+        long heapSeqNum = eventHeap.getSeqNum();
+        List<OpenBookEventNode> usedEventNodes = eventHeap.getUsedEventNodes();
+
+        if (!initialized) {
+            initialized = true;
+            if (startFromLatest) {
+                lastSeqNum = heapSeqNum - 1;
+                return 0;
+            }
+
+            lastSeqNum = usedEventNodes.isEmpty()
+                    ? heapSeqNum - 1
+                    : usedEventNodes.get(0).getEvent().getSeqNum() - 1;
+        }
+
+        long expectedSeqNum = lastSeqNum + 1;
+        int published = 0;
+
+        for (OpenBookEventNode eventNode : usedEventNodes) {
+            OpenBookAnyEvent event = eventNode.getEvent();
+            long seqNum = event.getSeqNum();
+            if (seqNum < expectedSeqNum) {
+                continue;
+            }
+
+            if (seqNum > expectedSeqNum) {
+                reportGap(expectedSeqNum, seqNum - 1);
+            }
+
+            if (event.isFill()) {
+                OpenBookFillEvent fillEvent = OpenBookFillEvent.readOpenBookFillEvent(event);
+                ringBuffer.publish(fillEvent);
+                published++;
+            }
+
+            expectedSeqNum = seqNum + 1;
+        }
+
+        // Events pushed after the last one still in the heap, and already consumed
+        if (heapSeqNum > expectedSeqNum) {
+            reportGap(expectedSeqNum, heapSeqNum - 1);
+            expectedSeqNum = heapSeqNum;
+        }
+
+        lastSeqNum = expectedSeqNum - 1;
+        return published;
+    }
+
+    /**
+     * Starts polling the event heap on a background thread.
+     *
+     * @param period the time between polls
+     * @param unit   the unit of the period
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (scheduler != null) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "openbook-fill-feed-" + marketId.toBase58());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            } catch (Exception e) {
+                log.error("Error polling fills for {}: {}", marketId, e.getMessage(), e);
+            }
+        }, 0, period, unit);
+    }
+
+    /**
+     * Stops the background polling started with {@link #start(long, TimeUnit)}.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last event the feed has seen, delivered or reported as a gap.
+     *
+     * @return the last sequence number, or -1 before the first poll
+     */
+    public synchronized long getLastSeqNum() {
+        return lastSeqNum;
+    }
+
+    public PublicKey getMarketId() {
+        return marketId;
+    }
+
+    private void reportGap(long fromSeqNum, long toSeqNum) {
+        log.warn("Missed events {} to {} in market {}", fromSeqNum, toSeqNum, marketId);
+        for (OpenBookFillGapListener gapListener : gapListeners) {
+            gapListener.onGap(marketId, fromSeqNum, toSeqNum);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.mmorrell.openbook.feed;
+
+import org.p2p.solanaj.core.PublicKey;
+
+/**
+ * Receives the sequence number ranges that were consumed from an event heap before a fill feed could observe them.
+ * The missing events may have been fills or out events.
+ */
+@FunctionalInterface
+public interface OpenBookFillGapListener {
+
+    /**
+     * Called when a fill feed detects missing events.
+     *
+     * @param marketId     the market whose event heap has the gap
+     * @param fromSeqNum   the first missing sequence number, inclusive
+     * @param toSeqNum     the last missing sequence number, inclusive
+     */
+    void onGap(PublicKey marketId, long fromSeqNum, long toSeqNum);
+}
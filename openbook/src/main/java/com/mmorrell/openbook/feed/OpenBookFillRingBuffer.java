@@ -0,0 +1,127 @@
+package com.mmorrell.openbook.feed;
+
+import com.mmorrell.openbook.model.OpenBookFillEvent;
+
+import java.util.function.Consumer;
+
+/**
+ * A bounded, single-writer ring buffer of fill events that any number of subscribers read from independently. Each
+ * subscriber keeps its own cursor, so every subscriber sees every published fill once and in order. A subscriber that
+ * falls more than {@code capacity} fills behind skips ahead to the oldest retained fill and records the overrun.
+ */
+public class OpenBookFillRingBuffer {
+
+    private final OpenBookFillEvent[] slots;
+    private final int mask;
+
+    // Sequence of the next fill to be published. Written by the publishing thread only.
+    private volatile long writeSequence;
+
+    /**
+     * Creates a ring buffer holding the given number of fills, rounded up to a power of two.
+     *
+     * @param capacity the minimum number of fills retained for slow subscribers
+     */
+    public OpenBookFillRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new OpenBookFillEvent[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Publishes a fill to all subscribers. Must only be called from one thread at a time.
+     *
+     * @param fillEvent the fill to publish
+     */
+    public void publish(OpenBookFillEvent fillEvent) {
+        long sequence = writeSequence;
+        slots[(int) (sequence & mask)] = fillEvent;
+        writeSequence = sequence + 1;
+    }
+
+    /**
+     * Creates a subscriber that receives fills published after this call.
+     *
+     * @return the new subscriber
+     */
+    public Subscriber subscribe() {
+        return new Subscriber(writeSequence);
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    public long getWriteSequence() {
+        return writeSequence;
+    }
+
+    /**
+     * An independent read cursor over the ring buffer. A subscriber is meant to be polled by one thread.
+     */
+    public class Subscriber {
+
+        private long readSequence;
+        private long overrunCount;
+
+        private Subscriber(long readSequence) {
+            this.readSequence = readSequence;
+        }
+
+        /**
+         * Delivers every fill published since the last poll to the given consumer, oldest first.
+         *
+         * @param consumer the consumer receiving the fills
+         * @return the number of fills delivered
+         */
+        public int poll(Consumer<OpenBookFillEvent> consumer) {
+            int delivered = 0;
+            long available = writeSequence;
+
+            while (readSequence < available) {
+                if (available - readSequence > slots.length) {
+                    skipOverrun(available);
+                }
+
+                OpenBookFillEvent fillEvent = slots[(int) (readSequence & mask)];
+
+                // The writer may have lapped us while we were reading the slot
+                available = writeSequence;
+                if (available - readSequence > slots.length) {
+                    skipOverrun(available);
+                    continue;
+                }
+
+                readSequence++;
+                delivered++;
+                consumer.accept(fillEvent);
+            }
+
+            return delivered;
+        }
+
+        /**
+         * Returns the number of fills that were not delivered to this subscriber because it fell too far behind.
+         *
+         * @return the number of overwritten fills
+         */
+        public long getOverrunCount() {
+            return overrunCount;
+        }
+
+        /**
+         * Returns the number of fills published but not yet delivered to this subscriber.
+         *
+         * @return the subscriber's backlog
+         */
+        public long getBacklog() {
+            return Math.min(writeSequence - readSequence, slots.length);
+        }
+
+        private void skipOverrun(long available) {
+            long oldestRetained = available - slots.length;
+            overrunCount += oldestRetained - readSequence;
+            readSequence = oldestRetained;
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.mmorrell.openbook.manager;
 
 import com.google.common.io.Files;
+import com.mmorrell.openbook.OpenBookConversionContext;
 import com.mmorrell.openbook.OpenBookUtil;
 import com.mmorrell.openbook.model.BookSide;
 import com.mmorrell.openbook.model.OpenBookEventHeap;
 import com.mmorrell.openbook.model.OpenBookMarket;
 import com.mmorrell.openbook.model.OpenBookOpenOrdersAccount;
+import com.mmorrell.openbook.model.OpenBookOpenOrdersIndexer;
+import com.mmorrell.openbook.model.OpenBookPositionTable;
 import com.mmorrell.openbook.program.OpenbookProgram;
 import lombok.extern.slf4j.Slf4j;
 import org.bitcoinj.core.Base58;
@@ -17,11 +20,13 @@ import org.p2p.solanaj.programs.MemoProgram;
 import org.p2p.solanaj.rpc.RpcClient;
 import org.p2p.solanaj.rpc.RpcException;
 import org.p2p.solanaj.rpc.types.AccountInfo;
+import org.p2p.solanaj.rpc.types.Memcmp;
 import org.p2p.solanaj.rpc.types.ProgramAccount;
 import org.p2p.solanaj.rpc.types.config.Commitment;
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -39,9 +44,11 @@ public class OpenBookManager {
 
     private final RpcClient client;
     private final Map<PublicKey, OpenBookMarket> marketCache = new HashMap<>();
+    private final Map<PublicKey, OpenBookConversionContext> conversionContextCache = new HashMap<>();
 
     private final static int CONSUME_EVENTS_DEFAULT_FEE = 11;
     private final static int DEFAULT_PRIORITY_LIMIT = 50_000;
+    private final static int MULTIPLE_ACCOUNTS_CHUNK_SIZE = 100;
 
     public OpenBookManager(RpcClient client) {
         this.client = client;
@@ -71,9 +78,23 @@ public class OpenBookManager {
                     new PublicKey(programAccount.getPubkey())
             );
             marketCache.put(openBookMarket.getMarketId(), openBookMarket);
+            conversionContextCache.put(
+                    openBookMarket.getMarketId(),
+                    OpenBookConversionContext.fromMarket(openBookMarket)
+            );
         });
     }
 
+    /**
+     * Retrieves the cached price and size conversion context of a market.
+     *
+     * @param marketId the Public Key ID of the market
+     * @return an Optional containing the market's conversion context, or an empty Optional if the market is not cached
+     */
+    public Optional<OpenBookConversionContext> getConversionContext(PublicKey marketId) {
+        return Optional.ofNullable(conversionContextCache.get(marketId));
+    }
+
     /**
      * Retrieves a list of open book markets.
      *
@@ -116,6 +137,11 @@ public class OpenBookManager {
                     Optional<AccountInfo.Value> askOrderBookValue = books.get(openBookMarket.getAsks());
 
                     if (bidOrderBookValue.isPresent() && askOrderBookValue.isPresent()) {
+                        OpenBookConversionContext conversionContext = conversionContextCache.computeIfAbsent(
+                                marketId,
+                                key -> OpenBookConversionContext.fromMarket(openBookMarket)
+                        );
+
                         byte[] bidData =
                                 Base64.getDecoder().decode(bidOrderBookValue.get().getData().get(0).getBytes());
                         BookSide bids = BookSide.readBookSide(bidData);
@@ -123,7 +149,7 @@ public class OpenBookManager {
                         bids.setQuoteDecimals(openBookMarket.getQuoteDecimals());
                         bids.setBaseLotSize(openBookMarket.getBaseLotSize());
                         bids.setQuoteLotSize(openBookMarket.getQuoteLotSize());
-                        openBookMarket.setBidOrders(bids.getOrders());
+                        openBookMarket.setBidOrders(bids.getOrders(conversionContext));
 
                         byte[] askData =
                                 Base64.getDecoder().decode(askOrderBookValue.get().getData().get(0).getBytes());
@@ -132,7 +158,7 @@ public class OpenBookManager {
                         asks.setQuoteDecimals(openBookMarket.getQuoteDecimals());
                         asks.setBaseLotSize(openBookMarket.getBaseLotSize());
                         asks.setQuoteLotSize(openBookMarket.getQuoteLotSize());
-                        openBookMarket.setAskOrders(asks.getOrders());
+                        openBookMarket.setAskOrders(asks.getOrders(conversionContext));
                     }
                 }
 
@@ -187,6 +213,130 @@ public class OpenBookManager {
         }
     }
 
+    /**
+     * Retrieves the OpenOrdersIndexer account of the given owner.
+     *
+     * @param owner The owner of the open orders accounts.
+     * @return An Optional containing the OpenBookOpenOrdersIndexer, or an empty Optional if the owner has no indexer.
+     */
+    public Optional<OpenBookOpenOrdersIndexer> getOpenOrdersIndexer(PublicKey owner) {
+        try {
+            AccountInfo accountInfo = client.getApi().getAccountInfo(
+                    OpenbookProgram.getOpenOrdersIndexerAddress(owner),
+                    Map.of("commitment", Commitment.PROCESSED)
+            );
+
+            if (accountInfo.getValue() == null) {
+                return Optional.empty();
+            }
+
+            return Optional.of(OpenBookOpenOrdersIndexer.readOpenBookOpenOrdersIndexer(accountInfo.getDecodedData()));
+        } catch (Exception e) {
+            log.error("Error getting OOA indexer: {}", e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Finds the public keys of every open orders account belonging to the given owner. The owner's OpenOrdersIndexer
+     * is used when it exists, otherwise the program accounts are filtered on the owner offset.
+     *
+     * @param owner The owner of the open orders accounts.
+     * @return A list of open orders account public keys, empty if none were found.
+     */
+    public List<PublicKey> getOpenOrdersAccountKeys(PublicKey owner) {
+        Optional<OpenBookOpenOrdersIndexer> indexer = getOpenOrdersIndexer(owner);
+        if (indexer.isPresent()) {
+            return indexer.get().getAddresses();
+        }
+
+        try {
+            return client.getApi().getProgramAccounts(
+                            OpenbookProgram.OPENBOOK_V2_PROGRAM_ID,
+                            List.of(new Memcmp(OpenBookOpenOrdersAccount.OWNER_OFFSET, owner.toBase58())),
+                            OpenBookOpenOrdersAccount.SIZE
+                    ).stream()
+                    .map(ProgramAccount::getPublicKey)
+                    .toList();
+        } catch (RpcException e) {
+            log.error("Error getting OOAs for {}: {}", owner, e.getMessage(), e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Retrieves many OpenBookOpenOrdersAccounts, fetching them in chunks of getMultipleAccounts calls.
+     *
+     * @param openOrdersAccounts The public keys of the open orders accounts to retrieve.
+     * @return The decoded accounts. Accounts that do not exist or fail to load are left out.
+     */
+    public List<OpenBookOpenOrdersAccount> getOpenOrdersAccounts(List<PublicKey> openOrdersAccounts) {
+        List<OpenBookOpenOrdersAccount> results = new ArrayList<>(openOrdersAccounts.size());
+
+        for (int i = 0; i < openOrdersAccounts.size(); i += MULTIPLE_ACCOUNTS_CHUNK_SIZE) {
+            List<PublicKey> chunk = openOrdersAccounts.subList(
+                    i,
+                    Math.min(i + MULTIPLE_ACCOUNTS_CHUNK_SIZE, openOrdersAccounts.size())
+            );
+
+            Map<PublicKey, Optional<AccountInfo.Value>> accountInfos;
+            try {
+                accountInfos = client.getApi().getMultipleAccountsMap(chunk);
+            } catch (RpcException e) {
+                log.error("Error getting OOAs chunk starting at {}: {}", i, e.getMessage(), e);
+                continue;
+            }
+
+            for (PublicKey publicKey : chunk) {
+                Optional<AccountInfo.Value> value = accountInfos.getOrDefault(publicKey, Optional.empty());
+                if (value.isEmpty()) {
+                    continue;
+                }
+
+                byte[] data = Base64.getDecoder().decode(value.get().getData().get(0));
+                OpenBookOpenOrdersAccount openOrdersAccount =
+                        OpenBookOpenOrdersAccount.readOpenBookOpenOrdersAccount(data);
+                openOrdersAccount.setPublicKey(publicKey);
+                results.add(openOrdersAccount);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Builds a per-market position table from every open orders account of the given owner.
+     *
+     * @param owner The owner of the open orders accounts.
+     * @return The aggregated position table.
+     */
+    public OpenBookPositionTable getPositionTable(PublicKey owner) {
+        OpenBookPositionTable positionTable = new OpenBookPositionTable();
+        loadPositionTable(getOpenOrdersAccountKeys(owner), positionTable);
+        return positionTable;
+    }
+
+    /**
+     * Clears the given position table and refills it from the given open orders accounts. Callers that refresh often
+     * should discover the account keys once and reuse both the key list and the table.
+     *
+     * @param openOrdersAccounts The public keys of the open orders accounts to aggregate.
+     * @param positionTable      The table to refill.
+     */
+    public void loadPositionTable(List<PublicKey> openOrdersAccounts, OpenBookPositionTable positionTable) {
+        List<OpenBookOpenOrdersAccount> accounts = getOpenOrdersAccounts(openOrdersAccounts);
+
+        positionTable.clear();
+        for (OpenBookOpenOrdersAccount account : accounts) {
+            positionTable.add(account);
+
+            OpenBookMarket market = marketCache.get(account.getMarket());
+            if (market != null) {
+                positionTable.setLotSizes(market.getMarketId(), market.getBaseLotSize(), market.getQuoteLotSize());
+            }
+        }
+    }
+
     /**
      * Consume events in an OpenBook market.
      *
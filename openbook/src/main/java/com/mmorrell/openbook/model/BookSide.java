@@ -1,9 +1,12 @@
 package com.mmorrell.openbook.model;
 
+import com.mmorrell.openbook.OpenBookConversionContext;
 import com.mmorrell.openbook.OpenBookUtil;
 import lombok.Builder;
 import lombok.Data;
+import org.p2p.solanaj.core.PublicKey;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -88,13 +91,39 @@ public class BookSide {
      * @return The list of OpenBookOrders
      */
     public List<OpenBookOrder> getOrders() {
-        return getLeafNodes().stream()
-                .map(leafNode -> OpenBookOrder.builder()
-                        .price(OpenBookUtil.priceLotsToNumber(leafNode.getPrice(), baseDecimals, quoteDecimals,
-                                baseLotSize, quoteLotSize))
-                        .size((leafNode.getQuantity() * baseLotSize) / OpenBookUtil.getBaseSplTokenMultiplier(baseDecimals))
-                        .trader(leafNode.getOwner())
-                        .build())
-                .toList();
+        return getOrders(new OpenBookConversionContext(baseDecimals, quoteDecimals, baseLotSize, quoteLotSize));
+    }
+
+    /**
+     * Retrieves the list of OpenBookOrders, converting prices and sizes with the given market context. Leaf nodes
+     * are read in place, without materializing LeafNode objects.
+     *
+     * @param conversionContext The conversion context of the parent market
+     * @return The list of OpenBookOrders
+     */
+    public List<OpenBookOrder> getOrders(OpenBookConversionContext conversionContext) {
+        List<AnyNode> nodes = orderTreeNodes.getNodes();
+        List<OpenBookOrder> orders = new ArrayList<>();
+
+        for (AnyNode anyNode : nodes) {
+            if (anyNode.getNodeTag() != NodeTag.LeafNode) {
+                continue;
+            }
+
+            byte[] nodeData = anyNode.getData();
+            orders.add(
+                    OpenBookOrder.builder()
+                            .price(conversionContext.priceLotsToNumber(
+                                    OpenBookUtil.readInt64(nodeData, LeafNode.PRICE_OFFSET)
+                            ))
+                            .size(conversionContext.baseLotsToNumber(
+                                    OpenBookUtil.readInt64(nodeData, LeafNode.QUANTITY_OFFSET)
+                            ))
+                            .trader(PublicKey.readPubkey(nodeData, LeafNode.OWNER_OFFSET))
+                            .build()
+            );
+        }
+
+        return orders;
     }
 }
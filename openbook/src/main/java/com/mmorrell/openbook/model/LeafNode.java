@@ -1,11 +1,10 @@
 package com.mmorrell.openbook.model;
 
+import com.mmorrell.openbook.OpenBookUtil;
 import lombok.Builder;
 import lombok.Data;
-import org.bitcoinj.core.Utils;
 import org.p2p.solanaj.core.PublicKey;
 
-import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
@@ -15,6 +14,12 @@ import java.util.Arrays;
 @Builder
 public class LeafNode {
 
+    // Offsets within AnyNode data, which starts after the tag byte
+    public static final int OWNER_OFFSET = 23;
+    public static final int QUANTITY_OFFSET = 55;
+    // Upper 64 bits of the u128 key
+    public static final int PRICE_OFFSET = 15;
+
     private int tag;
     private byte ownerSlot;
     private int timeInForce;
@@ -38,14 +43,14 @@ public class LeafNode {
         byte[] data = anyNode.getData(); // starts at offset 1 of 88
         byte tag = anyNode.getTag(); // ignore offset 0
         byte ownerSlot = data[0];
-        int timeInForce = Utils.readUint16(data, 1);
+        int timeInForce = OpenBookUtil.readUint16(data, 1);
         byte[] key = Arrays.copyOfRange(data, 6, 22);
-        PublicKey owner = PublicKey.readPubkey(data, 23);
-        long quantity = Utils.readInt64(data, 55);
-        long timeStamp = Utils.readInt64(data, 63);
-        long pegLimit = Utils.readInt64(data, 71);
-        long clientOrderId = Utils.readInt64(data, 79);
-        long price = Utils.readInt64(ByteBuffer.allocate(17).put(key).array(), 9);
+        PublicKey owner = PublicKey.readPubkey(data, OWNER_OFFSET);
+        long quantity = OpenBookUtil.readInt64(data, QUANTITY_OFFSET);
+        long timeStamp = OpenBookUtil.readInt64(data, 63);
+        long pegLimit = OpenBookUtil.readInt64(data, 71);
+        long clientOrderId = OpenBookUtil.readInt64(data, 79);
+        long price = OpenBookUtil.readInt64(data, PRICE_OFFSET);
 
         return LeafNode.builder()
                 .tag(tag)
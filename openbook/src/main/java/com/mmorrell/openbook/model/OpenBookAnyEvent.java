@@ -1,5 +1,6 @@
 package com.mmorrell.openbook.model;
 
+import com.mmorrell.openbook.OpenBookUtil;
 import lombok.Data;
 
 import java.util.Arrays;
@@ -13,6 +14,9 @@ public class OpenBookAnyEvent {
 
     public static final int SIZE = 144;
 
+    // Fill and out events both store their sequence number at offset 16, i.e. offset 15 of the padding
+    private static final int PADDING_SEQ_NUM_OFFSET = 15;
+
     // 0 = fill, 1 = out
     private byte eventType;
     private byte[] padding;
@@ -29,4 +33,22 @@ public class OpenBookAnyEvent {
         openBookAnyEvent.setPadding(Arrays.copyOfRange(data, 1, SIZE));
         return openBookAnyEvent;
     }
+
+    /**
+     * Returns the sequence number the event heap assigned to this event.
+     *
+     * @return the event's sequence number
+     */
+    public long getSeqNum() {
+        return OpenBookUtil.readInt64(padding, PADDING_SEQ_NUM_OFFSET);
+    }
+
+    /**
+     * Returns true if this event is a fill event.
+     *
+     * @return true for fill events, false for out events
+     */
+    public boolean isFill() {
+        return eventType == (byte) 0;
+    }
 }
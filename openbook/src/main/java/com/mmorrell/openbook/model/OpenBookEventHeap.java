@@ -1,11 +1,11 @@
 package com.mmorrell.openbook.model;
 
+import com.mmorrell.openbook.OpenBookUtil;
 import lombok.Builder;
 import lombok.Data;
-import org.bitcoinj.core.Utils;
 import org.p2p.solanaj.core.PublicKey;
-import org.p2p.solanaj.utils.ByteUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -50,11 +50,11 @@ public class OpenBookEventHeap {
      */
     public static OpenBookEventHeap readOpenBookEventHeap(byte[] data) {
         return OpenBookEventHeap.builder()
-                .freeHead((short) Utils.readUint16(data, FREE_HEAD_OFFSET))
-                .usedHead((short) Utils.readUint16(data, USED_HEAD_OFFSET))
-                .count((short) Utils.readUint16(data, COUNT_OFFSET))
-                .padding((short) Utils.readUint16(data, PADDING_OFFSET))
-                .seqNum(ByteUtils.readUint64(data, SEQ_NUM_OFFSET).longValue())
+                .freeHead((short) OpenBookUtil.readUint16(data, FREE_HEAD_OFFSET))
+                .usedHead((short) OpenBookUtil.readUint16(data, USED_HEAD_OFFSET))
+                .count((short) OpenBookUtil.readUint16(data, COUNT_OFFSET))
+                .padding((short) OpenBookUtil.readUint16(data, PADDING_OFFSET))
+                .seqNum(OpenBookUtil.readInt64(data, SEQ_NUM_OFFSET))
                 .eventNodes(
                         OpenBookEventNode.readEventNodes(
                                 Arrays.copyOfRange(
@@ -67,6 +67,24 @@ public class OpenBookEventHeap {
                 .build();
     }
 
+    /**
+     * Returns the event nodes currently in use, walking the heap's linked list from the used head. Events are
+     * returned in the order they were pushed, i.e. in ascending sequence number.
+     *
+     * @return The list of used OpenBookEventNode objects.
+     */
+    public List<OpenBookEventNode> getUsedEventNodes() {
+        List<OpenBookEventNode> usedNodes = new ArrayList<>(count);
+        int slot = Short.toUnsignedInt(usedHead);
+        for (int i = 0; i < count && slot < eventNodes.size(); i++) {
+            OpenBookEventNode node = eventNodes.get(slot);
+            usedNodes.add(node);
+            slot = Short.toUnsignedInt(node.getNext());
+        }
+
+        return usedNodes;
+    }
+
     /**
      * Returns a list of OpenBookFillEvent objects.
      *
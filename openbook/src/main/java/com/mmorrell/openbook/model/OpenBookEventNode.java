@@ -1,8 +1,8 @@
 package com.mmorrell.openbook.model;
 
+import com.mmorrell.openbook.OpenBookUtil;
 import lombok.Builder;
 import lombok.Data;
-import org.bitcoinj.core.Utils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -50,8 +50,8 @@ public class OpenBookEventNode {
             );
 
             OpenBookEventNode node = OpenBookEventNode.builder()
-                    .next((short) Utils.readUint16(nodeBytes, NEXT_OFFSET))
-                    .prev((short) Utils.readUint16(nodeBytes, PREV_OFFSET))
+                    .next((short) OpenBookUtil.readUint16(nodeBytes, NEXT_OFFSET))
+                    .prev((short) OpenBookUtil.readUint16(nodeBytes, PREV_OFFSET))
                     .event(anyEvent)
                     .build();
             results.add(node);
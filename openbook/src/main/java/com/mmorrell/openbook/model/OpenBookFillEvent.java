@@ -3,10 +3,10 @@ package com.mmorrell.openbook.model;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hashing;
+import com.mmorrell.openbook.OpenBookUtil;
 import lombok.Builder;
 import lombok.Data;
 import org.p2p.solanaj.core.PublicKey;
-import org.p2p.solanaj.utils.ByteUtils;
 
 /**
  * The OpenBookFillEvent class represents an event that occurs when
@@ -55,19 +55,31 @@ public class OpenBookFillEvent {
                 .takerSide(data[1])
                 .makerOut(data[2])
                 .makerSlot(data[3])
-                .timeStamp(ByteUtils.readUint64(data, 8).longValue())
-                .seqNum(ByteUtils.readUint64(data, 16).longValue())
+                .timeStamp(OpenBookUtil.readInt64(data, 8))
+                .seqNum(OpenBookUtil.readInt64(data, 16))
                 .maker(PublicKey.readPubkey(data, 24))
-                .makerTimeStamp(ByteUtils.readUint64(data, 56).longValue())
+                .makerTimeStamp(OpenBookUtil.readInt64(data, 56))
                 .taker(PublicKey.readPubkey(data, 64))
-                .takerClientOrderId(ByteUtils.readUint64(data, 96).longValue())
-                .price(ByteUtils.readUint64(data, 104).longValue())
-                .pegLimit(ByteUtils.readUint64(data, 112).longValue())
-                .quantity(ByteUtils.readUint64(data, 120).longValue())
-                .makerClientOrderId(ByteUtils.readUint64(data, 128).longValue())
+                .takerClientOrderId(OpenBookUtil.readInt64(data, 96))
+                .price(OpenBookUtil.readInt64(data, 104))
+                .pegLimit(OpenBookUtil.readInt64(data, 112))
+                .quantity(OpenBookUtil.readInt64(data, 120))
+                .makerClientOrderId(OpenBookUtil.readInt64(data, 128))
                 .build();
     }
 
+    /**
+     * Reads an OpenBookFillEvent from the given event heap event.
+     *
+     * @param anyEvent the event heap event, which must be a fill event
+     * @return the constructed OpenBookFillEvent object
+     */
+    public static OpenBookFillEvent readOpenBookFillEvent(OpenBookAnyEvent anyEvent) {
+        byte[] combined = new byte[OpenBookAnyEvent.SIZE];
+        System.arraycopy(anyEvent.getPadding(), 0, combined, 1, anyEvent.getPadding().length);
+        return readOpenBookFillEvent(combined);
+    }
+
     public String generateTradeHash() {
         final HashFunction sha256 = Hashing.sha256();
         final HashCode tradeHash = sha256.newHasher()
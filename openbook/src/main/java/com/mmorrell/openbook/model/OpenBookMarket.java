@@ -3,11 +3,8 @@ package com.mmorrell.openbook.model;
 import com.mmorrell.openbook.OpenBookUtil;
 import lombok.Builder;
 import lombok.Data;
-import org.bitcoinj.core.Utils;
 import org.p2p.solanaj.core.PublicKey;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
@@ -68,16 +65,13 @@ public class OpenBookMarket {
      * @return the OpenBookMarket object built from the data
      */
     public static OpenBookMarket readOpenBookMarket(byte[] data, PublicKey marketId) {
-        ByteBuffer buffer = ByteBuffer.wrap(data);
-        buffer.order(ByteOrder.LITTLE_ENDIAN);
-
         return OpenBookMarket.builder()
                 .marketId(marketId)
                 .bump(data[8])
                 .baseDecimals(data[9])
                 .quoteDecimals(data[10])
                 .marketAuthority(PublicKey.readPubkey(data, 16))
-                .timeExpiry(Utils.readInt64(data, 48))
+                .timeExpiry(OpenBookUtil.readInt64(data, 48))
                 .collectFeeAdmin(PublicKey.readPubkey(data, 56))
                 .openOrdersAdmin(PublicKey.readPubkey(data, 88))
                 .consumeEventsAdmin(PublicKey.readPubkey(data, 120))
@@ -88,26 +82,26 @@ public class OpenBookMarket {
                 .eventHeap(PublicKey.readPubkey(data, 264))
                 .oracleA(PublicKey.readPubkey(data, 296))
                 .oracleB(PublicKey.readPubkey(data, 328))
-                .confFilter(buffer.getDouble(360)) // 8 bytes
-                .maxStalenessSlots(buffer.getLong(368)) // 8 bytes + 72 padding
-                .quoteLotSize(Utils.readInt64(data, 448))
-                .baseLotSize(Utils.readInt64(data, 456))
-                .seqNum(Utils.readInt64(data, 464))
-                .registrationTime(Utils.readInt64(data, 472))
-                .makerFee(Utils.readInt64(data, 480))
-                .takerFee(Utils.readInt64(data, 488))
-                .feesAccrued(OpenBookUtil.readUint128(data, 496).longValue())
-                .feesToReferrers(OpenBookUtil.readUint128(data, 512).longValue())
-                .referrerRebatesAccrued(Utils.readInt64(data, 528))
-                .feesAvailable(Utils.readInt64(data, 536))
-                .makerVolume(OpenBookUtil.readUint128(data, 544).longValue())
-                .takerVolume(OpenBookUtil.readUint128(data, 560).longValue())
+                .confFilter(OpenBookUtil.readFloat64(data, 360)) // 8 bytes
+                .maxStalenessSlots(OpenBookUtil.readInt64(data, 368)) // 8 bytes + 72 padding
+                .quoteLotSize(OpenBookUtil.readInt64(data, 448))
+                .baseLotSize(OpenBookUtil.readInt64(data, 456))
+                .seqNum(OpenBookUtil.readInt64(data, 464))
+                .registrationTime(OpenBookUtil.readInt64(data, 472))
+                .makerFee(OpenBookUtil.readInt64(data, 480))
+                .takerFee(OpenBookUtil.readInt64(data, 488))
+                .feesAccrued(OpenBookUtil.readUint128Low(data, 496))
+                .feesToReferrers(OpenBookUtil.readUint128Low(data, 512))
+                .referrerRebatesAccrued(OpenBookUtil.readInt64(data, 528))
+                .feesAvailable(OpenBookUtil.readInt64(data, 536))
+                .makerVolume(OpenBookUtil.readUint128Low(data, 544))
+                .takerVolume(OpenBookUtil.readUint128Low(data, 560))
                 .baseMint(PublicKey.readPubkey(data, 576))
                 .quoteMint(PublicKey.readPubkey(data, 608))
                 .marketBaseVault(PublicKey.readPubkey(data, 640))
-                .baseDepositTotal(Utils.readInt64(data, 672))
+                .baseDepositTotal(OpenBookUtil.readInt64(data, 672))
                 .marketQuoteVault(PublicKey.readPubkey(data, 680))
-                .quoteDepositTotal(Utils.readInt64(data, 712))
+                .quoteDepositTotal(OpenBookUtil.readInt64(data, 712))
                 .build();
     }
 
@@ -0,0 +1,58 @@
+package com.mmorrell.openbook.model;
+
+import com.mmorrell.openbook.OpenBookUtil;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigInteger;
+
+/**
+ * Represents one of the 24 OpenOrder slots in an OpenBook v2 open orders account.
+ */
+@Data
+@Builder
+public class OpenBookOpenOrder {
+
+    public static final int SIZE = 40;
+
+    private static final int ID_OFFSET = 0;
+    private static final int CLIENT_ID_OFFSET = 16;
+    private static final int LOCKED_PRICE_OFFSET = 24;
+    private static final int IS_FREE_OFFSET = 32;
+    private static final int SIDE_AND_TREE_OFFSET = 33;
+    // 6 bytes padding
+
+    private BigInteger id;
+    private long clientId;
+    private long lockedPrice;
+    private boolean free;
+
+    // 0 = BidFixed, 1 = AskFixed, 2 = BidOraclePegged, 3 = AskOraclePegged
+    private byte sideAndTree;
+
+    /**
+     * Reads an OpenBookOpenOrder from the given data, starting at the given offset.
+     *
+     * @param data   the byte array containing the open orders account
+     * @param offset the offset of the OpenOrder struct within the data
+     * @return the OpenBookOpenOrder object
+     */
+    public static OpenBookOpenOrder readOpenBookOpenOrder(byte[] data, int offset) {
+        return OpenBookOpenOrder.builder()
+                .id(OpenBookUtil.readUint128(data, offset + ID_OFFSET))
+                .clientId(OpenBookUtil.readInt64(data, offset + CLIENT_ID_OFFSET))
+                .lockedPrice(OpenBookUtil.readInt64(data, offset + LOCKED_PRICE_OFFSET))
+                .free(data[offset + IS_FREE_OFFSET] != 0)
+                .sideAndTree(data[offset + SIDE_AND_TREE_OFFSET])
+                .build();
+    }
+
+    /**
+     * Returns true if the order rests on the bids side of the book.
+     *
+     * @return true for bids, false for asks
+     */
+    public boolean isBid() {
+        return sideAndTree % 2 == 0;
+    }
+}
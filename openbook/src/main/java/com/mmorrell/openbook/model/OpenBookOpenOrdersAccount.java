@@ -1,10 +1,14 @@
 package com.mmorrell.openbook.model;
 
+import com.mmorrell.openbook.OpenBookUtil;
 import lombok.Builder;
 import lombok.Data;
 import org.p2p.solanaj.core.PublicKey;
 import org.p2p.solanaj.utils.ByteUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Represents an open book open orders account.
  *
@@ -16,17 +20,34 @@ import org.p2p.solanaj.utils.ByteUtils;
 @Builder
 public class OpenBookOpenOrdersAccount {
 
+    public static final int SIZE = 1264;
+    public static final int OWNER_OFFSET = 8;
+    public static final int NUM_OPEN_ORDERS = 24;
+
+    private static final int MARKET_OFFSET = 40;
+    private static final int NAME_OFFSET = 72;
+    private static final int DELEGATE_OFFSET = 104;
+    private static final int ACCOUNT_NUM_OFFSET = 136;
+    private static final int BUMP_OFFSET = 140;
+    private static final int VERSION_OFFSET = 141;
+    private static final int POSITION_OFFSET = 144;
+    private static final int OPEN_ORDERS_OFFSET = POSITION_OFFSET + OpenBookPosition.SIZE;
+
+    // Set by the caller, not part of the account data
+    private PublicKey publicKey;
+
     private PublicKey owner;
     private PublicKey market;
     private String name; // 32 bytes
     private PublicKey delegate;
     private int accountNum;
     private byte bump;
-    // 3 bytes of padding
+    private byte version;
+    // 2 bytes of padding
     private byte[] padding;
 
-    // position x 1 DTO TBD
-    // openOrders x 24 DTO TBD
+    private OpenBookPosition position;
+    private List<OpenBookOpenOrder> openOrders;
 
     /**
      * Reads an OpenBookOpenOrdersAccount from the given byte data.
@@ -35,11 +56,46 @@ public class OpenBookOpenOrdersAccount {
      * @return The OpenBookOpenOrdersAccount object.
      */
     public static OpenBookOpenOrdersAccount readOpenBookOpenOrdersAccount(byte[] data) {
-        return OpenBookOpenOrdersAccount.builder()
-                .owner(PublicKey.readPubkey(data, 8))
-                .market(PublicKey.readPubkey(data, 40))
-                .name(new String(ByteUtils.readBytes(data, 72, 32)))
+        OpenBookOpenOrdersAccountBuilder builder = OpenBookOpenOrdersAccount.builder()
+                .owner(PublicKey.readPubkey(data, OWNER_OFFSET))
+                .market(PublicKey.readPubkey(data, MARKET_OFFSET))
+                .name(new String(ByteUtils.readBytes(data, NAME_OFFSET, 32)));
+
+        // Truncated data only carries the header
+        if (data.length < SIZE) {
+            return builder.build();
+        }
+
+        List<OpenBookOpenOrder> openOrders = new ArrayList<>(NUM_OPEN_ORDERS);
+        for (int i = 0; i < NUM_OPEN_ORDERS; i++) {
+            openOrders.add(
+                    OpenBookOpenOrder.readOpenBookOpenOrder(data, OPEN_ORDERS_OFFSET + (i * OpenBookOpenOrder.SIZE))
+            );
+        }
+
+        return builder
+                .delegate(PublicKey.readPubkey(data, DELEGATE_OFFSET))
+                .accountNum((int) OpenBookUtil.readUint32(data, ACCOUNT_NUM_OFFSET))
+                .bump(data[BUMP_OFFSET])
+                .version(data[VERSION_OFFSET])
+                .position(OpenBookPosition.readOpenBookPosition(data, POSITION_OFFSET))
+                .openOrders(openOrders)
                 .build();
     }
 
+    /**
+     * Returns the open order slots that currently hold a resting order.
+     *
+     * @return the list of resting orders
+     */
+    public List<OpenBookOpenOrder> getRestingOrders() {
+        if (openOrders == null) {
+            return List.of();
+        }
+
+        return openOrders.stream()
+                .filter(openOrder -> !openOrder.isFree())
+                .toList();
+    }
+
 }
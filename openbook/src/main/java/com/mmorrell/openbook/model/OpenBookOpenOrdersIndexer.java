@@ -0,0 +1,46 @@
+package com.mmorrell.openbook.model;
+
+import com.mmorrell.openbook.OpenBookUtil;
+import lombok.Builder;
+import lombok.Data;
+import org.p2p.solanaj.core.PublicKey;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents an OpenBook v2 OpenOrdersIndexer account, which lists every open orders account created by an owner.
+ */
+@Data
+@Builder
+public class OpenBookOpenOrdersIndexer {
+
+    private static final int BUMP_OFFSET = 8;
+    private static final int CREATED_COUNTER_OFFSET = 9;
+    private static final int ADDRESSES_LENGTH_OFFSET = 13;
+    private static final int ADDRESSES_OFFSET = 17;
+
+    private byte bump;
+    private long createdCounter;
+    private List<PublicKey> addresses;
+
+    /**
+     * Reads an OpenBookOpenOrdersIndexer from the given byte data.
+     *
+     * @param data The byte data to read from.
+     * @return The OpenBookOpenOrdersIndexer object.
+     */
+    public static OpenBookOpenOrdersIndexer readOpenBookOpenOrdersIndexer(byte[] data) {
+        int numAddresses = (int) OpenBookUtil.readUint32(data, ADDRESSES_LENGTH_OFFSET);
+        List<PublicKey> addresses = new ArrayList<>(numAddresses);
+        for (int i = 0; i < numAddresses; i++) {
+            addresses.add(PublicKey.readPubkey(data, ADDRESSES_OFFSET + (i * PublicKey.PUBLIC_KEY_LENGTH)));
+        }
+
+        return OpenBookOpenOrdersIndexer.builder()
+                .bump(data[BUMP_OFFSET])
+                .createdCounter(OpenBookUtil.readUint32(data, CREATED_COUNTER_OFFSET))
+                .addresses(addresses)
+                .build();
+    }
+}
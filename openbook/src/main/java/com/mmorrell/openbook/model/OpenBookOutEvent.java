@@ -1,12 +1,10 @@
 package com.mmorrell.openbook.model;
 
+import com.mmorrell.openbook.OpenBookUtil;
 import lombok.Builder;
 import lombok.Data;
 import org.p2p.solanaj.core.PublicKey;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-
 /**
  * OpenBookOutEvent represents an event of a Maker action (i.e. Cxl) for a particular token and side.
  */
@@ -29,23 +27,15 @@ public class OpenBookOutEvent {
      * @return the deserialized OpenBookOutEvent object
      */
     public static OpenBookOutEvent readOpenBookOutEvent(byte[] data) {
-        ByteBuffer buffer = ByteBuffer.wrap(data);
-        buffer.order(ByteOrder.LITTLE_ENDIAN);
-
-        byte eventType = buffer.get();
-        byte side = buffer.get();
-        byte ownerSlot = buffer.get();
-
-        buffer.position(buffer.position() + 5); // Skip 5 bytes of padding
-
-        long timestamp = buffer.getLong();
-        long seqNum = buffer.getLong();
-        byte[] ownerBytes = new byte[32]; // PublicKey byte array size is 32
-        buffer.get(ownerBytes);
-        PublicKey owner = new PublicKey(ownerBytes);
-        long quantity = buffer.getLong();
-
-        buffer.position(buffer.position() + 80); // Skip 80 bytes of padding
+        byte eventType = data[0];
+        byte side = data[1];
+        byte ownerSlot = data[2];
+        // 5 bytes of padding
+        long timestamp = OpenBookUtil.readInt64(data, 8);
+        long seqNum = OpenBookUtil.readInt64(data, 16);
+        PublicKey owner = PublicKey.readPubkey(data, 24);
+        long quantity = OpenBookUtil.readInt64(data, 56);
+        // 80 bytes of padding
 
         return OpenBookOutEvent.builder()
                 .eventType(eventType)
@@ -0,0 +1,61 @@
+package com.mmorrell.openbook.model;
+
+import com.mmorrell.openbook.OpenBookUtil;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Represents the Position struct embedded in an OpenBook v2 open orders account. It tracks the lots locked in
+ * resting orders and the native token amounts that are free to be settled.
+ */
+@Data
+@Builder
+public class OpenBookPosition {
+
+    public static final int SIZE = 160;
+
+    private static final int BIDS_BASE_LOTS_OFFSET = 0;
+    private static final int ASKS_BASE_LOTS_OFFSET = 8;
+    private static final int BASE_FREE_NATIVE_OFFSET = 16;
+    private static final int QUOTE_FREE_NATIVE_OFFSET = 24;
+    private static final int LOCKED_MAKER_FEES_OFFSET = 32;
+    private static final int REFERRER_REBATES_AVAILABLE_OFFSET = 40;
+    private static final int PENALTY_HEAP_COUNT_OFFSET = 48;
+    private static final int MAKER_VOLUME_OFFSET = 56;
+    private static final int TAKER_VOLUME_OFFSET = 72;
+    private static final int BIDS_QUOTE_LOTS_OFFSET = 88;
+    // 64 bytes reserved
+
+    private long bidsBaseLots;
+    private long asksBaseLots;
+    private long baseFreeNative;
+    private long quoteFreeNative;
+    private long lockedMakerFees;
+    private long referrerRebatesAvailable;
+    private long penaltyHeapCount;
+    private long makerVolume;
+    private long takerVolume;
+    private long bidsQuoteLots;
+
+    /**
+     * Reads an OpenBookPosition from the given data, starting at the given offset.
+     *
+     * @param data   the byte array containing the open orders account
+     * @param offset the offset of the Position struct within the data
+     * @return the OpenBookPosition object
+     */
+    public static OpenBookPosition readOpenBookPosition(byte[] data, int offset) {
+        return OpenBookPosition.builder()
+                .bidsBaseLots(OpenBookUtil.readInt64(data, offset + BIDS_BASE_LOTS_OFFSET))
+                .asksBaseLots(OpenBookUtil.readInt64(data, offset + ASKS_BASE_LOTS_OFFSET))
+                .baseFreeNative(OpenBookUtil.readInt64(data, offset + BASE_FREE_NATIVE_OFFSET))
+                .quoteFreeNative(OpenBookUtil.readInt64(data, offset + QUOTE_FREE_NATIVE_OFFSET))
+                .lockedMakerFees(OpenBookUtil.readInt64(data, offset + LOCKED_MAKER_FEES_OFFSET))
+                .referrerRebatesAvailable(OpenBookUtil.readInt64(data, offset + REFERRER_REBATES_AVAILABLE_OFFSET))
+                .penaltyHeapCount(OpenBookUtil.readInt64(data, offset + PENALTY_HEAP_COUNT_OFFSET))
+                .makerVolume(OpenBookUtil.readUint128Low(data, offset + MAKER_VOLUME_OFFSET))
+                .takerVolume(OpenBookUtil.readUint128Low(data, offset + TAKER_VOLUME_OFFSET))
+                .bidsQuoteLots(OpenBookUtil.readInt64(data, offset + BIDS_QUOTE_LOTS_OFFSET))
+                .build();
+    }
+}
@@ -0,0 +1,233 @@
+package com.mmorrell.openbook.model;
+
+import org.p2p.solanaj.core.PublicKey;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aggregates the positions of many open orders accounts into one row per market. Each column is a primitive array,
+ * so a table can be cleared and refilled on every refresh without allocating per account.
+ */
+public class OpenBookPositionTable {
+
+    private static final int DEFAULT_CAPACITY = 32;
+
+    private final Map<PublicKey, Integer> marketRows = new HashMap<>();
+    private PublicKey[] markets;
+    private long[] baseFreeNative;
+    private long[] quoteFreeNative;
+    private long[] bidsBaseLots;
+    private long[] asksBaseLots;
+    private long[] bidsQuoteLots;
+    private long[] lockedMakerFees;
+    private long[] baseLotSize;
+    private long[] quoteLotSize;
+    private int[] bidOrderCount;
+    private int[] askOrderCount;
+    private int[] accountCount;
+    private int size;
+
+    public OpenBookPositionTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public OpenBookPositionTable(int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    /**
+     * Adds the position and resting orders of an open orders account to the row of its market.
+     *
+     * @param account the decoded open orders account
+     * @return the row index of the account's market
+     */
+    public int add(OpenBookOpenOrdersAccount account) {
+        int row = getOrCreateRow(account.getMarket());
+        accountCount[row]++;
+
+        OpenBookPosition position = account.getPosition();
+        if (position != null) {
+            baseFreeNative[row] += position.getBaseFreeNative();
+            quoteFreeNative[row] += position.getQuoteFreeNative();
+            bidsBaseLots[row] += position.getBidsBaseLots();
+            asksBaseLots[row] += position.getAsksBaseLots();
+            bidsQuoteLots[row] += position.getBidsQuoteLots();
+            lockedMakerFees[row] += position.getLockedMakerFees();
+        }
+
+        for (OpenBookOpenOrder openOrder : account.getRestingOrders()) {
+            if (openOrder.isBid()) {
+                bidOrderCount[row]++;
+            } else {
+                askOrderCount[row]++;
+            }
+        }
+
+        return row;
+    }
+
+    /**
+     * Sets the lot sizes used to convert locked lots into native amounts for a market's row.
+     *
+     * @param market       the market public key
+     * @param baseLotSize  the market's base lot size
+     * @param quoteLotSize the market's quote lot size
+     */
+    public void setLotSizes(PublicKey market, long baseLotSize, long quoteLotSize) {
+        int row = getOrCreateRow(market);
+        this.baseLotSize[row] = baseLotSize;
+        this.quoteLotSize[row] = quoteLotSize;
+    }
+
+    /**
+     * Removes all rows, keeping the allocated columns for reuse.
+     */
+    public void clear() {
+        Arrays.fill(markets, 0, size, null);
+        Arrays.fill(baseFreeNative, 0, size, 0);
+        Arrays.fill(quoteFreeNative, 0, size, 0);
+        Arrays.fill(bidsBaseLots, 0, size, 0);
+        Arrays.fill(asksBaseLots, 0, size, 0);
+        Arrays.fill(bidsQuoteLots, 0, size, 0);
+        Arrays.fill(lockedMakerFees, 0, size, 0);
+        Arrays.fill(baseLotSize, 0, size, 0);
+        Arrays.fill(quoteLotSize, 0, size, 0);
+        Arrays.fill(bidOrderCount, 0, size, 0);
+        Arrays.fill(askOrderCount, 0, size, 0);
+        Arrays.fill(accountCount, 0, size, 0);
+        marketRows.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the row index for a market.
+     *
+     * @param market the market public key
+     * @return the row index, or -1 if the table holds no position in the market
+     */
+    public int indexOf(PublicKey market) {
+        Integer row = marketRows.get(market);
+        return row == null ? -1 : row;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public PublicKey getMarket(int row) {
+        return markets[row];
+    }
+
+    public long getBaseFreeNative(int row) {
+        return baseFreeNative[row];
+    }
+
+    public long getQuoteFreeNative(int row) {
+        return quoteFreeNative[row];
+    }
+
+    public long getBidsBaseLots(int row) {
+        return bidsBaseLots[row];
+    }
+
+    public long getAsksBaseLots(int row) {
+        return asksBaseLots[row];
+    }
+
+    public long getBidsQuoteLots(int row) {
+        return bidsQuoteLots[row];
+    }
+
+    public long getLockedMakerFees(int row) {
+        return lockedMakerFees[row];
+    }
+
+    public int getBidOrderCount(int row) {
+        return bidOrderCount[row];
+    }
+
+    public int getAskOrderCount(int row) {
+        return askOrderCount[row];
+    }
+
+    public int getAccountCount(int row) {
+        return accountCount[row];
+    }
+
+    /**
+     * Returns the native base amount locked in resting asks. Requires the lot sizes to have been set.
+     *
+     * @param row the row index
+     * @return the locked base amount, in native units
+     */
+    public long getBaseLockedNative(int row) {
+        return asksBaseLots[row] * baseLotSize[row];
+    }
+
+    /**
+     * Returns the native quote amount locked in resting bids, including locked maker fees. Requires the lot sizes to
+     * have been set.
+     *
+     * @param row the row index
+     * @return the locked quote amount, in native units
+     */
+    public long getQuoteLockedNative(int row) {
+        return (bidsQuoteLots[row] * quoteLotSize[row]) + lockedMakerFees[row];
+    }
+
+    public long getBaseTotalNative(int row) {
+        return baseFreeNative[row] + getBaseLockedNative(row);
+    }
+
+    public long getQuoteTotalNative(int row) {
+        return quoteFreeNative[row] + getQuoteLockedNative(row);
+    }
+
+    private int getOrCreateRow(PublicKey market) {
+        Integer existingRow = marketRows.get(market);
+        if (existingRow != null) {
+            return existingRow;
+        }
+
+        if (size == markets.length) {
+            grow(size * 2);
+        }
+
+        int row = size++;
+        markets[row] = market;
+        marketRows.put(market, row);
+        return row;
+    }
+
+    private void allocate(int capacity) {
+        markets = new PublicKey[capacity];
+        baseFreeNative = new long[capacity];
+        quoteFreeNative = new long[capacity];
+        bidsBaseLots = new long[capacity];
+        asksBaseLots = new long[capacity];
+        bidsQuoteLots = new long[capacity];
+        lockedMakerFees = new long[capacity];
+        baseLotSize = new long[capacity];
+        quoteLotSize = new long[capacity];
+        bidOrderCount = new int[capacity];
+        askOrderCount = new int[capacity];
+        accountCount = new int[capacity];
+    }
+
+    private void grow(int capacity) {
+        markets = Arrays.copyOf(markets, capacity);
+        baseFreeNative = Arrays.copyOf(baseFreeNative, capacity);
+        quoteFreeNative = Arrays.copyOf(quoteFreeNative, capacity);
+        bidsBaseLots = Arrays.copyOf(bidsBaseLots, capacity);
+        asksBaseLots = Arrays.copyOf(asksBaseLots, capacity);
+        bidsQuoteLots = Arrays.copyOf(bidsQuoteLots, capacity);
+        lockedMakerFees = Arrays.copyOf(lockedMakerFees, capacity);
+        baseLotSize = Arrays.copyOf(baseLotSize, capacity);
+        quoteLotSize = Arrays.copyOf(quoteLotSize, capacity);
+        bidOrderCount = Arrays.copyOf(bidOrderCount, capacity);
+        askOrderCount = Arrays.copyOf(askOrderCount, capacity);
+        accountCount = Arrays.copyOf(accountCount, capacity);
+    }
+}
@@ -47,18 +47,7 @@ public class OpenbookProgram extends Program {
         keys.add(new AccountMeta(caller.getPublicKey(),true, false));
 
         // open_orders_indexer
-        try {
-            PublicKey ourKey = PublicKey.findProgramAddress(
-                    List.of(
-                            "OpenOrdersIndexer".getBytes(),
-                            caller.getPublicKey().toByteArray()
-                    ),
-                    OPENBOOK_V2_PROGRAM_ID
-            ).getAddress();
-            keys.add(new AccountMeta(ourKey, false, true));
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        keys.add(new AccountMeta(getOpenOrdersIndexerAddress(caller.getPublicKey()), false, true));
 
         // TODO change below key to `market`
         keys.add(new AccountMeta(SystemProgram.PROGRAM_ID, false, false));
@@ -74,6 +63,26 @@ public class OpenbookProgram extends Program {
         );
     }
 
+    /**
+     * Derives the address of the OpenOrdersIndexer account for the given owner.
+     *
+     * @param owner The owner of the open orders accounts.
+     * @return The public key of the owner's OpenOrdersIndexer account.
+     */
+    public static PublicKey getOpenOrdersIndexerAddress(PublicKey owner) {
+        try {
+            return PublicKey.findProgramAddress(
+                    List.of(
+                            "OpenOrdersIndexer".getBytes(),
+                            owner.toByteArray()
+                    ),
+                    OPENBOOK_V2_PROGRAM_ID
+            ).getAddress();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Creates a transaction instruction for consuming events in OpenbookProgram.
      *
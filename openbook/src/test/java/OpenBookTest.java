@@ -1,12 +1,19 @@
 import com.google.common.io.Files;
 import com.google.common.io.Resources;
+import com.mmorrell.openbook.OpenBookConversionContext;
+import com.mmorrell.openbook.OpenBookUtil;
+import com.mmorrell.openbook.feed.OpenBookFillFeed;
+import com.mmorrell.openbook.feed.OpenBookFillRingBuffer;
 import com.mmorrell.openbook.manager.OpenBookManager;
 import com.mmorrell.openbook.model.BookSide;
 import com.mmorrell.openbook.model.LeafNode;
 import com.mmorrell.openbook.model.NodeTag;
 import com.mmorrell.openbook.model.OpenBookEventHeap;
+import com.mmorrell.openbook.model.OpenBookEventNode;
 import com.mmorrell.openbook.model.OpenBookMarket;
 import com.mmorrell.openbook.model.OpenBookOpenOrdersAccount;
+import com.mmorrell.openbook.model.OpenBookOrder;
+import com.mmorrell.openbook.model.OpenBookPositionTable;
 import com.mmorrell.openbook.program.OpenbookProgram;
 import lombok.extern.slf4j.Slf4j;
 import org.bitcoinj.core.Base58;
@@ -21,6 +28,8 @@ import org.p2p.solanaj.rpc.types.ProgramAccount;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -375,4 +384,193 @@ public class OpenBookTest {
         Optional<String> result = openBookManager.consumeEvents(caller, marketId, 10, null);
         assertTrue(result.isPresent(), "Consume events should return a transaction ID");
     }
+
+    /**
+     * Tests decoding synthetic open orders accounts and aggregating them into a position table.
+     */
+    @Test
+    public void testPositionTableAggregation() {
+        PublicKey owner = PublicKey.valueOf("7uixr2n3aawRYFKu5L6Wjwf37Fe6Twh6Ns3upAPq9H7k");
+        PublicKey solUsdc = PublicKey.valueOf("C3YPL3kYCSYKsmHcHrPWx1632GUXGqi2yMXJbfeCc57q");
+        PublicKey otherMarket = PublicKey.valueOf("3w9Z8FPRuSTbrGQLPhRDEQzSRYyhXzuiqmFVaku5Rjb2");
+
+        OpenBookOpenOrdersAccount first = OpenBookOpenOrdersAccount.readOpenBookOpenOrdersAccount(
+                buildOpenOrdersAccount(owner, solUsdc, 10, 5, 1_000, 2_000, 300, new byte[]{0, 1, 1})
+        );
+        OpenBookOpenOrdersAccount second = OpenBookOpenOrdersAccount.readOpenBookOpenOrdersAccount(
+                buildOpenOrdersAccount(owner, solUsdc, 1, 2, 3, 4, 5, new byte[]{2})
+        );
+        OpenBookOpenOrdersAccount third = OpenBookOpenOrdersAccount.readOpenBookOpenOrdersAccount(
+                buildOpenOrdersAccount(owner, otherMarket, 0, 7, 0, 0, 0, new byte[]{1})
+        );
+
+        assertEquals(owner, first.getOwner());
+        assertEquals(3, first.getRestingOrders().size());
+        assertEquals(24, first.getOpenOrders().size());
+
+        OpenBookPositionTable positionTable = new OpenBookPositionTable(1);
+        positionTable.add(first);
+        positionTable.add(second);
+        positionTable.add(third);
+        positionTable.setLotSizes(solUsdc, 1_000_000, 1);
+
+        assertEquals(2, positionTable.size());
+        int row = positionTable.indexOf(solUsdc);
+        assertEquals(2, positionTable.getAccountCount(row));
+        assertEquals(11, positionTable.getBidsBaseLots(row));
+        assertEquals(7, positionTable.getAsksBaseLots(row));
+        assertEquals(1_003, positionTable.getBaseFreeNative(row));
+        assertEquals(2_004, positionTable.getQuoteFreeNative(row));
+        assertEquals(2, positionTable.getBidOrderCount(row));
+        assertEquals(2, positionTable.getAskOrderCount(row));
+        assertEquals(7_000_000, positionTable.getBaseLockedNative(row));
+        assertEquals(305, positionTable.getQuoteLockedNative(row));
+        assertEquals(1, positionTable.getAskOrderCount(positionTable.indexOf(otherMarket)));
+
+        positionTable.clear();
+        assertEquals(0, positionTable.size());
+        assertEquals(-1, positionTable.indexOf(solUsdc));
+    }
+
+    private static byte[] buildOpenOrdersAccount(PublicKey owner, PublicKey market, long bidsBaseLots,
+                                                 long asksBaseLots, long baseFree, long quoteFree,
+                                                 long bidsQuoteLots, byte[] restingOrderSides) {
+        ByteBuffer buffer = ByteBuffer.allocate(OpenBookOpenOrdersAccount.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(8, owner.toByteArray());
+        buffer.put(40, market.toByteArray());
+        buffer.putLong(144, bidsBaseLots);
+        buffer.putLong(152, asksBaseLots);
+        buffer.putLong(160, baseFree);
+        buffer.putLong(168, quoteFree);
+        buffer.putLong(232, bidsQuoteLots);
+
+        for (int i = 0; i < OpenBookOpenOrdersAccount.NUM_OPEN_ORDERS; i++) {
+            int offset = 304 + (i * 40);
+            boolean resting = i < restingOrderSides.length;
+            buffer.put(offset + 32, (byte) (resting ? 0 : 1));
+            buffer.put(offset + 33, resting ? restingOrderSides[i] : 0);
+        }
+
+        return buffer.array();
+    }
+
+    /**
+     * Tests that the fill feed delivers each fill once, in sequence order, and reports consumed sequence numbers.
+     */
+    @Test
+    public void testFillFeedDeliversNewFillsAndReportsGaps() {
+        PublicKey marketId = PublicKey.valueOf("C3YPL3kYCSYKsmHcHrPWx1632GUXGqi2yMXJbfeCc57q");
+        OpenBookFillFeed fillFeed = new OpenBookFillFeed(openBookManager, marketId, 4, false);
+        OpenBookFillRingBuffer.Subscriber tape = fillFeed.subscribe();
+        OpenBookFillRingBuffer.Subscriber markouts = fillFeed.subscribe();
+        List<long[]> gaps = new ArrayList<>();
+        fillFeed.addGapListener((market, fromSeqNum, toSeqNum) -> gaps.add(new long[]{fromSeqNum, toSeqNum}));
+
+        // seqNum 1 is an out event
+        assertEquals(2, fillFeed.onEventHeap(buildEventHeap(3, new long[]{0, 1, 2}, new boolean[]{true, false, true})));
+        assertEquals(2, fillFeed.onEventHeap(
+                buildEventHeap(5, new long[]{0, 1, 2, 3, 4}, new boolean[]{true, false, true, true, true})
+        ));
+
+        List<Long> delivered = new ArrayList<>();
+        assertEquals(4, tape.poll(fillEvent -> delivered.add(fillEvent.getSeqNum())));
+        assertEquals(List.of(0L, 2L, 3L, 4L), delivered);
+        assertEquals(0, tape.poll(fillEvent -> fail("Fill delivered twice")));
+
+        // 5 and 6 were consumed before this poll, 8 was pushed and consumed after 7
+        assertEquals(1, fillFeed.onEventHeap(buildEventHeap(9, new long[]{7}, new boolean[]{true})));
+        assertEquals(2, gaps.size());
+        assertArrayEquals(new long[]{5, 6}, gaps.get(0));
+        assertArrayEquals(new long[]{8, 8}, gaps.get(1));
+        assertEquals(8, fillFeed.getLastSeqNum());
+
+        // The second subscriber never polled, so only the newest 4 fills are left for it
+        List<Long> lateDelivered = new ArrayList<>();
+        assertEquals(4, markouts.poll(fillEvent -> lateDelivered.add(fillEvent.getSeqNum())));
+        assertEquals(List.of(2L, 3L, 4L, 7L), lateDelivered);
+        assertEquals(1, markouts.getOverrunCount());
+    }
+
+    private static OpenBookEventHeap buildEventHeap(long heapSeqNum, long[] seqNums, boolean[] fills) {
+        ByteBuffer buffer = ByteBuffer.allocate(24 + (600 * OpenBookEventNode.SIZE) + 64)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        // Store the events in reverse slot order so the linked list, not the slot order, decides the sequence
+        int usedHead = seqNums.length - 1;
+        buffer.putShort(10, (short) usedHead);
+        buffer.putShort(12, (short) seqNums.length);
+        buffer.putLong(16, heapSeqNum);
+
+        for (int i = 0; i < seqNums.length; i++) {
+            int slot = seqNums.length - 1 - i;
+            int offset = 24 + (slot * OpenBookEventNode.SIZE);
+            buffer.putShort(offset, (short) (slot - 1));
+            buffer.put(offset + 8, (byte) (fills[i] ? 0 : 1));
+            buffer.putLong(offset + 8 + 16, seqNums[i]);
+        }
+
+        return OpenBookEventHeap.readOpenBookEventHeap(buffer.array());
+    }
+
+    /**
+     * Tests that the allocation-free readers and the conversion context match the original decoding and pricing.
+     */
+    @Test
+    public void testConversionContextMatchesPriceLotsToNumber() {
+        byte[] data = new byte[32];
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(1, -123_456);
+        buffer.putLong(5, 0x0102030405060708L);
+        buffer.putDouble(13, 0.15);
+        buffer.putShort(21, (short) 0xFFFE);
+        assertEquals(-123_456, OpenBookUtil.readInt32(data, 1));
+        assertEquals(0x0102030405060708L, OpenBookUtil.readInt64(data, 5));
+        assertEquals(0.15, OpenBookUtil.readFloat64(data, 13));
+        assertEquals(0xFFFE, OpenBookUtil.readUint16(data, 21));
+
+        byte baseDecimals = 9;
+        byte quoteDecimals = 6;
+        long baseLotSize = 1_000_000;
+        long quoteLotSize = 1;
+        OpenBookConversionContext conversionContext = new OpenBookConversionContext(
+                baseDecimals, quoteDecimals, baseLotSize, quoteLotSize
+        );
+
+        byte[] bookSideData = new byte[312 + 16 + 512 + (1024 * 88)];
+        long[][] leaves = {{676, 7}, {69_000, 2}, {2_000, 181}};
+        for (int i = 0; i < leaves.length; i++) {
+            int nodeOffset = 312 + 16 + 512 + (i * 88);
+            ByteBuffer node = ByteBuffer.wrap(bookSideData).order(ByteOrder.LITTLE_ENDIAN);
+            node.put(nodeOffset, NodeTag.LeafNode.getTag());
+            node.putLong(nodeOffset + 16, leaves[i][0]);
+            node.putLong(nodeOffset + 56, leaves[i][1]);
+        }
+
+        BookSide bookSide = BookSide.readBookSide(bookSideData);
+        bookSide.setBaseDecimals(baseDecimals);
+        bookSide.setQuoteDecimals(quoteDecimals);
+        bookSide.setBaseLotSize(baseLotSize);
+        bookSide.setQuoteLotSize(quoteLotSize);
+
+        List<LeafNode> leafNodes = bookSide.getLeafNodes();
+        List<OpenBookOrder> orders = bookSide.getOrders(conversionContext);
+        assertEquals(leaves.length, orders.size());
+        for (int i = 0; i < leaves.length; i++) {
+            assertEquals(leaves[i][0], leafNodes.get(i).getPrice());
+            assertEquals(
+                    OpenBookUtil.priceLotsToNumber(leaves[i][0], baseDecimals, quoteDecimals, baseLotSize,
+                            quoteLotSize),
+                    orders.get(i).getPrice()
+            );
+            assertEquals(
+                    (leaves[i][1] * baseLotSize) / Math.pow(10, baseDecimals),
+                    orders.get(i).getSize()
+            );
+            assertEquals(leaves[i][0], conversionContext.priceNumberToLots(orders.get(i).getPrice()));
+        }
+        assertEquals(orders, bookSide.getOrders());
+
+        // 2.3 * 100 is 229.99999999999997 in double; conversions round to the nearest lot instead of truncating
+        assertEquals(230, new OpenBookConversionContext((byte) 2, (byte) 2, 1, 1).baseNumberToLots(2.3));
+        assertEquals(23, new OpenBookConversionContext((byte) 1, (byte) 2, 1, 1).priceNumberToLots(2.3));
+    }
 }
@@ -0,0 +1,19 @@
+package com.mmorrell.phoenix.feed;
+
+import org.p2p.solanaj.core.PublicKey;
+
+/**
+ * Receives the market sequence number ranges that a {@link PhoenixEventStream} never saw events for.
+ */
+@FunctionalInterface
+public interface PhoenixEventGapListener {
+
+    /**
+     * Called when the stream detects missing instructions.
+     *
+     * @param marketId            the market with the gap
+     * @param fromSequenceNumber  the first missing sequence number, inclusive
+     * @param toSequenceNumber    the last missing sequence number, inclusive
+     */
+    void onGap(PublicKey marketId, long fromSequenceNumber, long toSequenceNumber);
+}
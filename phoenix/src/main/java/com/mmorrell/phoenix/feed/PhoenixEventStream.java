@@ -0,0 +1,227 @@
+package com.mmorrell.phoenix.feed;
+
+import com.mmorrell.phoenix.model.PhoenixMarketEvent;
+import com.mmorrell.phoenix.model.PhoenixMarketEventType;
+import com.mmorrell.phoenix.program.PhoenixProgram;
+import com.mmorrell.phoenix.program.PhoenixSeatManagerProgram;
+import lombok.extern.slf4j.Slf4j;
+import org.bitcoinj.core.Base58;
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.rpc.types.ConfirmedTransaction;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Turns Phoenix log instructions into a stream of typed market events.
+ * <p>
+ * Phoenix records every fill, place, reduce and eviction by invoking itself with a log instruction signed by
+ * {@link PhoenixSeatManagerProgram#PHOENIX_LOG_AUTHORITY_ID}. Those show up as inner instructions of the transaction,
+ * so the stream can be fed whole transactions, raw log instruction data, or a recorded file of log instructions.
+ * <p>
+ * Each log batch starts with a header carrying the market's sequence number, which increases by one per instruction.
+ * Later batches of the same instruction may omit the header and continue the previous one: within a transaction that is
+ * the previous batch of the same outer instruction, and for raw log instructions the previous one passed in.
+ * Events are delivered once, in (sequence number, event index) order per market: replayed or overlapping inputs are
+ * dropped, and skipped sequence numbers are reported to the gap listeners.
+ */
+@Slf4j
+public class PhoenixEventStream {
+
+    private final List<PhoenixMarketEventListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<PhoenixEventGapListener> gapListeners = new CopyOnWriteArrayList<>();
+
+    // Last delivered (sequence number, event index) per market
+    private final Map<PublicKey, long[]> lastDelivered = new HashMap<>();
+
+    // Header of the last raw log instruction, for raw batches that continue an instruction without their own header
+    private PhoenixMarketEvent lastHeader;
+    private long eventCount;
+
+    public void addListener(PhoenixMarketEventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(PhoenixMarketEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void addGapListener(PhoenixEventGapListener gapListener) {
+        gapListeners.add(gapListener);
+    }
+
+    public void removeGapListener(PhoenixEventGapListener gapListener) {
+        gapListeners.remove(gapListener);
+    }
+
+    /**
+     * Decodes the Phoenix log instructions among a transaction's inner instructions.
+     *
+     * @param transaction a transaction fetched with getTransaction
+     * @return the number of events delivered
+     */
+    public synchronized int onTransaction(ConfirmedTransaction transaction) {
+        if (transaction.getMeta() == null || transaction.getMeta().getInnerInstructions() == null) {
+            return 0;
+        }
+
+        List<String> accountKeys = transaction.getTransaction().getMessage().getAccountKeys();
+        int delivered = 0;
+
+        for (Object innerInstructionSet : transaction.getMeta().getInnerInstructions()) {
+            if (!(innerInstructionSet instanceof Map<?, ?> set)
+                    || !(set.get("instructions") instanceof List<?> instructions)) {
+                continue;
+            }
+
+            // Each set holds the inner instructions of one outer instruction, so headers never carry across sets
+            PhoenixMarketEvent header = null;
+
+            for (Object instruction : instructions) {
+                if (!(instruction instanceof Map<?, ?> innerInstruction)) {
+                    continue;
+                }
+
+                String programId = getAccountKey(accountKeys, innerInstruction.get("programIdIndex"));
+                if (!PhoenixProgram.PHOENIX_PROGRAM_ID.toBase58().equals(programId)
+                        || !(innerInstruction.get("accounts") instanceof List<?> accounts)
+                        || accounts.isEmpty()
+                        || !PhoenixSeatManagerProgram.PHOENIX_LOG_AUTHORITY_ID.toBase58()
+                        .equals(getAccountKey(accountKeys, accounts.get(0)))) {
+                    continue;
+                }
+
+                List<PhoenixMarketEvent> events = PhoenixMarketEvent.readPhoenixMarketEvents(
+                        Base58.decode((String) innerInstruction.get("data")),
+                        header
+                );
+                header = getLastHeader(events, header);
+                delivered += deliver(events);
+            }
+        }
+
+        return delivered;
+    }
+
+    /**
+     * Decodes one Phoenix log instruction and delivers its new events.
+     *
+     * @param data the instruction data, starting with the log instruction tag
+     * @return the number of events delivered
+     */
+    public synchronized int onLogInstruction(byte[] data) {
+        List<PhoenixMarketEvent> events = PhoenixMarketEvent.readPhoenixMarketEvents(data, lastHeader);
+        lastHeader = getLastHeader(events, lastHeader);
+        return deliver(events);
+    }
+
+    /**
+     * Replays a recorded file of log instructions, one base58 encoded instruction per line. Blank lines and lines
+     * starting with {@code #} are ignored.
+     *
+     * @param file the recorded file
+     * @return the number of events delivered
+     * @throws IOException if the file cannot be read
+     */
+    public int replay(Path file) throws IOException {
+        int delivered = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                try {
+                    delivered += onLogInstruction(Base58.decode(line));
+                } catch (Exception e) {
+                    log.error("Error replaying phoenix log instruction: {}", e.getMessage());
+                }
+            }
+        }
+
+        return delivered;
+    }
+
+    private int deliver(List<PhoenixMarketEvent> events) {
+        int delivered = 0;
+
+        for (PhoenixMarketEvent event : events) {
+            if (event.getType() == PhoenixMarketEventType.HEADER) {
+                continue;
+            }
+            if (event.getMarket() == null) {
+                log.warn("Dropping phoenix event without a header: {}", event.getType());
+                continue;
+            }
+
+            long[] last = lastDelivered.computeIfAbsent(event.getMarket(), market -> new long[]{-1, -1});
+            long sequenceNumber = event.getSequenceNumber();
+            if (sequenceNumber < last[0] || (sequenceNumber == last[0] && event.getIndex() <= last[1])) {
+                continue;
+            }
+            if (last[0] >= 0 && sequenceNumber > last[0] + 1) {
+                reportGap(event.getMarket(), last[0] + 1, sequenceNumber - 1);
+            }
+
+            last[0] = sequenceNumber;
+            last[1] = event.getIndex();
+            eventCount++;
+            delivered++;
+
+            for (PhoenixMarketEventListener listener : listeners) {
+                listener.onEvent(event);
+            }
+        }
+
+        return delivered;
+    }
+
+    /**
+     * Returns the last sequence number delivered for a market.
+     *
+     * @param marketId the market
+     * @return the sequence number, or -1 if no event was delivered for the market
+     */
+    public synchronized long getLastSequenceNumber(PublicKey marketId) {
+        long[] last = lastDelivered.get(marketId);
+        return last == null ? -1 : last[0];
+    }
+
+    public synchronized long getEventCount() {
+        return eventCount;
+    }
+
+    private static String getAccountKey(List<String> accountKeys, Object index) {
+        if (!(index instanceof Number number)) {
+            return null;
+        }
+
+        int i = number.intValue();
+        return i >= 0 && i < accountKeys.size() ? accountKeys.get(i) : null;
+    }
+
+    private static PhoenixMarketEvent getLastHeader(List<PhoenixMarketEvent> events, PhoenixMarketEvent header) {
+        for (PhoenixMarketEvent event : events) {
+            if (event.getType() == PhoenixMarketEventType.HEADER) {
+                header = event;
+            }
+        }
+
+        return header;
+    }
+
+    private void reportGap(PublicKey marketId, long fromSequenceNumber, long toSequenceNumber) {
+        log.warn("Missed phoenix events {} to {} in market {}", fromSequenceNumber, toSequenceNumber, marketId);
+        for (PhoenixEventGapListener gapListener : gapListeners) {
+            gapListener.onGap(marketId, fromSequenceNumber, toSequenceNumber);
+        }
+    }
+}
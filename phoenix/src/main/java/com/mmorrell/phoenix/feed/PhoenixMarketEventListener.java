@@ -0,0 +1,17 @@
+package com.mmorrell.phoenix.feed;
+
+import com.mmorrell.phoenix.model.PhoenixMarketEvent;
+
+/**
+ * Receives each market event decoded by a {@link PhoenixEventStream}.
+ */
+@FunctionalInterface
+public interface PhoenixMarketEventListener {
+
+    /**
+     * Called in sequence order for each market, on the thread that fed the stream.
+     *
+     * @param event the decoded event, with its batch header fields filled in
+     */
+    void onEvent(PhoenixMarketEvent event);
+}
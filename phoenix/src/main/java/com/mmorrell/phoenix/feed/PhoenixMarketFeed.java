@@ -0,0 +1,186 @@
+package com.mmorrell.phoenix.feed;
+
+import com.mmorrell.phoenix.model.PhoenixMarketHeader;
+import com.mmorrell.phoenix.model.PhoenixOrderBook;
+import com.mmorrell.phoenix.util.PhoenixUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.rpc.types.config.Commitment;
+import org.p2p.solanaj.ws.SubscriptionWebSocketClient;
+import org.p2p.solanaj.ws.listeners.NotificationEventListener;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Keeps one Phoenix market current from account notifications.
+ * <p>
+ * Each update is decoded into whichever of two preallocated {@link PhoenixOrderBook}s is not currently published,
+ * and the book is then published atomically. Readers on other threads go through {@link #read(Function)}, which
+ * retries if the writer reused the book while it was being read, so every result comes from one complete update
+ * without taking a lock.
+ * <p>
+ * The feed is a {@link NotificationEventListener}, so it can be driven by a {@link SubscriptionWebSocketClient} or by
+ * any other source of account notifications.
+ * <p>
+ * Updates can arrive out of order, e.g. an RPC snapshot fetched before a websocket notification but applied after it.
+ * Data from an older slot than the last applied one, or with a lower market sequence number, is ignored. Websocket
+ * notifications do not carry their slot, so they are ordered by the market sequence number alone.
+ */
+@Slf4j
+public class PhoenixMarketFeed implements NotificationEventListener {
+
+    public static final long UNKNOWN_SLOT = -1;
+
+    private final PublicKey marketId;
+    private final PhoenixOrderBook[] books = {new PhoenixOrderBook(), new PhoenixOrderBook()};
+    private final AtomicReference<PhoenixOrderBook> published = new AtomicReference<>();
+    private final List<PhoenixMarketFeedListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Slot and market sequence number of the last applied update; older data is ignored
+    private long lastSlot = UNKNOWN_SLOT;
+    private long lastMarketSequenceNumber = -1;
+
+    private int backIndex;
+    private long updateCount;
+
+    public PhoenixMarketFeed(PublicKey marketId) {
+        this.marketId = marketId;
+    }
+
+    /**
+     * Subscribes to the market account on the given websocket client.
+     *
+     * @param client the websocket client
+     */
+    public void subscribe(SubscriptionWebSocketClient client) {
+        client.accountSubscribe(marketId.toBase58(), this, Commitment.PROCESSED);
+    }
+
+    public void addListener(PhoenixMarketFeedListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(PhoenixMarketFeedListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void onNotificationEvent(Object data) {
+        if (data == null) {
+            return;
+        }
+
+        try {
+            Map<String, Object> objectMap = (Map<String, Object>) data;
+            String base64 = (String) ((List) objectMap.get("data")).get(0);
+            onAccountData(Base64.getDecoder().decode(base64));
+        } catch (Exception ex) {
+            log.error("Error reading phoenix market notification for {}: {}", marketId, ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Decodes the market account data into the back buffer and publishes it, unless it is older than the last update.
+     *
+     * @param data the market account data
+     * @return true if the data was applied
+     */
+    public boolean onAccountData(byte[] data) {
+        return onAccountData(UNKNOWN_SLOT, data);
+    }
+
+    /**
+     * Decodes the market account data into the back buffer and publishes it, unless it is older than the last update.
+     *
+     * @param slot the context slot the data was read at, or {@link #UNKNOWN_SLOT}
+     * @param data the market account data
+     * @return true if the data was applied
+     */
+    public synchronized boolean onAccountData(long slot, byte[] data) {
+        long marketSequenceNumber = PhoenixUtil.readInt64(data, PhoenixMarketHeader.MARKET_SEQUENCE_NUMBER_OFFSET);
+        if ((slot != UNKNOWN_SLOT && slot < lastSlot) || marketSequenceNumber < lastMarketSequenceNumber) {
+            log.debug("Ignoring stale phoenix market data for {} at slot {}", marketId, slot);
+            return false;
+        }
+
+        PhoenixOrderBook book = books[backIndex];
+        book.read(data);
+        published.set(book);
+        backIndex ^= 1;
+        updateCount++;
+        lastSlot = Math.max(lastSlot, slot);
+        lastMarketSequenceNumber = marketSequenceNumber;
+
+        for (PhoenixMarketFeedListener listener : listeners) {
+            try {
+                listener.onUpdate(marketId, book);
+            } catch (Exception ex) {
+                log.error("Error in phoenix market listener for {}: {}", marketId, ex.getMessage(), ex);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Applies the given function to the latest published book, retrying until it ran against a book that did not
+     * change underneath it. The function may be called more than once and should not have side effects.
+     *
+     * @param reader the function reading the book
+     * @param <T>    the result type
+     * @return the function's result, or empty if no update has been received yet
+     */
+    public <T> Optional<T> read(Function<PhoenixOrderBook, T> reader) {
+        while (true) {
+            PhoenixOrderBook book = published.get();
+            if (book == null) {
+                return Optional.empty();
+            }
+
+            long version = book.getVersion();
+            if ((version & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            T result;
+            try {
+                result = reader.apply(book);
+            } catch (RuntimeException ex) {
+                // A torn read can index past the data of an older update; only fail if the book was stable
+                if (book.validate(version)) {
+                    throw ex;
+                }
+                continue;
+            }
+
+            if (book.validate(version)) {
+                return Optional.ofNullable(result);
+            }
+        }
+    }
+
+    /**
+     * Returns the latest published book. It is only guaranteed to stay unchanged until the next update; use
+     * {@link #read(Function)} to read it from another thread.
+     *
+     * @return the latest book, or empty if no update has been received yet
+     */
+    public Optional<PhoenixOrderBook> getBook() {
+        return Optional.ofNullable(published.get());
+    }
+
+    public PublicKey getMarketId() {
+        return marketId;
+    }
+
+    public synchronized long getUpdateCount() {
+        return updateCount;
+    }
+}
@@ -0,0 +1,20 @@
+package com.mmorrell.phoenix.feed;
+
+import com.mmorrell.phoenix.model.PhoenixOrderBook;
+import org.p2p.solanaj.core.PublicKey;
+
+/**
+ * Receives each book published by a {@link PhoenixMarketFeed}.
+ */
+@FunctionalInterface
+public interface PhoenixMarketFeedListener {
+
+    /**
+     * Called on the feed's decoding thread, right after a new book is published. The book is only guaranteed to stay
+     * unchanged until the next update, so listeners should not keep it.
+     *
+     * @param marketId the market that was updated
+     * @param book     the newly published book
+     */
+    void onUpdate(PublicKey marketId, PhoenixOrderBook book);
+}
@@ -0,0 +1,340 @@
+package com.mmorrell.phoenix.manager;
+
+import com.mmorrell.phoenix.model.CondensedPhoenixOrder;
+import com.mmorrell.phoenix.model.MultipleOrderPacketRecord;
+import com.mmorrell.phoenix.model.PhoenixLadder;
+import com.mmorrell.phoenix.program.PhoenixProgram;
+import lombok.extern.slf4j.Slf4j;
+import org.p2p.solanaj.core.Account;
+import org.p2p.solanaj.core.AccountMeta;
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.core.Transaction;
+import org.p2p.solanaj.core.TransactionInstruction;
+import org.p2p.solanaj.rpc.RpcClient;
+import org.p2p.solanaj.rpc.RpcException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Places ladders of post-only orders on Phoenix markets.
+ * <p>
+ * A ladder is split into the smallest number of transactions that fit the packet size limit, filling each one with
+ * the best remaining bid and ask levels in turn, so the top of the book goes out in the first transaction. The
+ * transactions are signed with one blockhash and submitted concurrently.
+ * <p>
+ * For cancel-replace, cancelAllOrdersWithFreeFunds is placed in the first transaction, atomically with the levels
+ * that fit next to it. When the ladder needs more than one transaction, the others are only submitted once the first
+ * one has been confirmed without error, so they cannot land before the cancel and be cancelled by it, nor double the
+ * resting size when the cancel failed.
+ * <p>
+ * Transactions are sent from a dedicated executor, as each send blocks on an RPC call. A manager that created its
+ * own executor shuts it down on {@link #close()}.
+ */
+@Slf4j
+public class PhoenixLadderManager implements AutoCloseable {
+
+    // Maximum size of a serialized transaction
+    public static final int PACKET_DATA_SIZE = 1232;
+
+    private static final int CONDENSED_ORDER_SIZE = 18;
+    private static final long CONFIRMATION_TIMEOUT_MS = 30_000;
+    private static final long CONFIRMATION_POLL_MS = 250;
+
+    private final RpcClient rpcClient;
+    private final Executor executor;
+    // Only set when this manager created the executor, and so has to shut it down
+    private final ExecutorService ownedExecutor;
+
+    /**
+     * Creates a ladder manager with its own send executor, which {@link #close()} shuts down.
+     *
+     * @param rpcClient the RPC client
+     */
+    public PhoenixLadderManager(RpcClient rpcClient) {
+        this.rpcClient = rpcClient;
+        this.ownedExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "phoenix-ladder-send");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor = ownedExecutor;
+    }
+
+    /**
+     * Creates a ladder manager that sends transactions from the given executor.
+     *
+     * @param rpcClient the RPC client
+     * @param executor  runs the blocking transaction sends; should not be the common fork-join pool. It stays owned
+     *                  by the caller and is not shut down by {@link #close()}
+     */
+    public PhoenixLadderManager(RpcClient rpcClient, Executor executor) {
+        this.rpcClient = rpcClient;
+        this.executor = executor;
+        this.ownedExecutor = null;
+    }
+
+    /**
+     * Shuts down the send executor if this manager created it. Ladders already being placed finish sending.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Splits a ladder into the instructions of each transaction needed to place it.
+     *
+     * @param ladder the ladder to place
+     * @return the instructions of each transaction, in submission order
+     */
+    public static List<List<TransactionInstruction>> packLadder(PhoenixLadder ladder) {
+        // Best levels first, alternating sides
+        List<CondensedPhoenixOrder> bids = ladder.getBids();
+        List<CondensedPhoenixOrder> asks = ladder.getAsks();
+        List<Boolean> isBid = new ArrayList<>(bids.size() + asks.size());
+        for (int i = 0; i < Math.max(bids.size(), asks.size()); i++) {
+            if (i < bids.size()) {
+                isBid.add(true);
+            }
+            if (i < asks.size()) {
+                isBid.add(false);
+            }
+        }
+
+        List<List<TransactionInstruction>> transactions = new ArrayList<>();
+        int next = 0;
+        int nextBid = 0;
+        int nextAsk = 0;
+
+        while (next < isBid.size() || (transactions.isEmpty() && ladder.isCancelAllFirst())) {
+            List<TransactionInstruction> instructions = new ArrayList<>(ladder.getPrefixInstructions());
+            if (transactions.isEmpty() && ladder.isCancelAllFirst()) {
+                instructions.add(PhoenixProgram.cancelAllOrdersWithFreeFunds(ladder.getMarket(), ladder.getTrader()));
+            }
+
+            int emptySize = getTransactionSize(
+                    withPlacement(instructions, ladder, List.of(), List.of()),
+                    ladder.getTrader()
+            );
+            int emptyDataLength = emptyPlacementDataLength();
+
+            int count = 0;
+            while (next + count < isBid.size()) {
+                int dataLength = emptyDataLength + ((count + 1) * CONDENSED_ORDER_SIZE);
+                int size = emptySize - getCompactLength(emptyDataLength) + getCompactLength(dataLength)
+                        + ((count + 1) * CONDENSED_ORDER_SIZE);
+                if (size > PACKET_DATA_SIZE) {
+                    break;
+                }
+                count++;
+            }
+
+            if (count == 0 && next < isBid.size()) {
+                if (instructions.size() > ladder.getPrefixInstructions().size()) {
+                    // Only the cancel fits next to the prefix; send it on its own
+                    transactions.add(instructions);
+                    continue;
+                }
+                throw new IllegalArgumentException("Prefix instructions leave no room for orders");
+            }
+
+            List<CondensedPhoenixOrder> txBids = new ArrayList<>();
+            List<CondensedPhoenixOrder> txAsks = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                if (isBid.get(next + i)) {
+                    txBids.add(bids.get(nextBid++));
+                } else {
+                    txAsks.add(asks.get(nextAsk++));
+                }
+            }
+            next += count;
+
+            transactions.add(count == 0 ? instructions : withPlacement(instructions, ladder, txBids, txAsks));
+        }
+
+        return transactions;
+    }
+
+    /**
+     * Places a ladder, submitting its transactions concurrently.
+     *
+     * @param ladder the ladder to place
+     * @param signer the trader's account
+     * @return the signature of each transaction, in packing order; empty for transactions that failed or were not sent
+     */
+    public List<Optional<String>> placeLadder(PhoenixLadder ladder, Account signer) {
+        List<List<TransactionInstruction>> packed = packLadder(ladder);
+        if (packed.isEmpty()) {
+            return List.of();
+        }
+
+        String blockhash;
+        try {
+            blockhash = rpcClient.getApi().getLatestBlockhash().getValue().getBlockhash();
+        } catch (RpcException e) {
+            log.error("Unable to get blockhash for ladder: {}", e.getMessage(), e);
+            return Collections.nCopies(packed.size(), Optional.empty());
+        }
+
+        List<Optional<String>> signatures = new ArrayList<>();
+        int first = 0;
+        if (ladder.isCancelAllFirst() && packed.size() > 1) {
+            Optional<String> cancelSignature = sendTransaction(packed.get(0), signer, blockhash);
+            signatures.add(cancelSignature);
+            first = 1;
+
+            if (cancelSignature.isEmpty() || !awaitConfirmation(cancelSignature.get())) {
+                log.error("Cancel-replace transaction failed or was not confirmed, not placing the remaining levels");
+                signatures.addAll(Collections.nCopies(packed.size() - 1, Optional.empty()));
+                return signatures;
+            }
+        }
+
+        List<CompletableFuture<Optional<String>>> futures = new ArrayList<>();
+        for (List<TransactionInstruction> instructions : packed.subList(first, packed.size())) {
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> sendTransaction(instructions, signer, blockhash),
+                    executor
+            ));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        futures.forEach(future -> signatures.add(future.join()));
+        return signatures;
+    }
+
+    /**
+     * Returns the size of a legacy transaction holding the given instructions, once signed.
+     *
+     * @param instructions the instructions
+     * @param feePayer     the fee payer
+     * @return the serialized size in bytes
+     */
+    public static int getTransactionSize(List<TransactionInstruction> instructions, PublicKey feePayer) {
+        Set<PublicKey> accounts = new HashSet<>();
+        Set<PublicKey> signers = new HashSet<>();
+        accounts.add(feePayer);
+        signers.add(feePayer);
+
+        int instructionsSize = getCompactLength(instructions.size());
+        for (TransactionInstruction instruction : instructions) {
+            accounts.add(instruction.getProgramId());
+            for (AccountMeta accountMeta : instruction.getKeys()) {
+                accounts.add(accountMeta.getPublicKey());
+                if (accountMeta.isSigner()) {
+                    signers.add(accountMeta.getPublicKey());
+                }
+            }
+
+            int numKeys = instruction.getKeys().size();
+            int dataLength = instruction.getData().length;
+            instructionsSize += 1 + getCompactLength(numKeys) + numKeys + getCompactLength(dataLength) + dataLength;
+        }
+
+        return getCompactLength(signers.size()) + (signers.size() * Transaction.SIGNATURE_LENGTH)
+                + 3
+                + getCompactLength(accounts.size()) + (accounts.size() * PublicKey.PUBLIC_KEY_LENGTH)
+                + PublicKey.PUBLIC_KEY_LENGTH
+                + instructionsSize;
+    }
+
+    private Optional<String> sendTransaction(List<TransactionInstruction> instructions, Account signer,
+                                             String blockhash) {
+        Transaction transaction = new Transaction();
+        instructions.forEach(transaction::addInstruction);
+
+        try {
+            return Optional.of(rpcClient.getApi().sendTransaction(transaction, List.of(signer), blockhash));
+        } catch (RpcException e) {
+            log.error("Error placing ladder: {}", e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    // True once the transaction is confirmed or finalized without error; false if it failed or timed out
+    @SuppressWarnings("unchecked")
+    private boolean awaitConfirmation(String signature) {
+        long deadline = System.currentTimeMillis() + CONFIRMATION_TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                // Read the raw result, as SignatureStatuses does not expose err
+                Map<String, Object> statuses = rpcClient.call(
+                        "getSignatureStatuses",
+                        List.of(List.of(signature), Map.of("searchTransactionHistory", false)),
+                        Map.class
+                );
+                Object values = statuses == null ? null : statuses.get("value");
+                if (values instanceof List && !((List<?>) values).isEmpty()
+                        && ((List<?>) values).get(0) instanceof Map) {
+                    Map<?, ?> status = (Map<?, ?>) ((List<?>) values).get(0);
+                    if (status.get("err") != null) {
+                        log.error("Transaction {} failed: {}", signature, status.get("err"));
+                        return false;
+                    }
+
+                    Object confirmationStatus = status.get("confirmationStatus");
+                    if ("confirmed".equals(confirmationStatus) || "finalized".equals(confirmationStatus)) {
+                        return true;
+                    }
+                }
+                Thread.sleep(CONFIRMATION_POLL_MS);
+            } catch (RpcException e) {
+                log.error("Error checking signature status: {}", e.getMessage(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        return false;
+    }
+
+    private static List<TransactionInstruction> withPlacement(List<TransactionInstruction> instructions,
+                                                              PhoenixLadder ladder,
+                                                              List<CondensedPhoenixOrder> bids,
+                                                              List<CondensedPhoenixOrder> asks) {
+        List<TransactionInstruction> result = new ArrayList<>(instructions);
+        result.add(
+                PhoenixProgram.placeMultiplePostOnlyOrders(
+                        ladder.getMarket(),
+                        ladder.getTrader(),
+                        ladder.getBaseAccount(),
+                        ladder.getQuoteAccount(),
+                        ladder.getBaseVault(),
+                        ladder.getQuoteVault(),
+                        MultipleOrderPacketRecord.builder()
+                                .bids(bids)
+                                .asks(asks)
+                                .build()
+                )
+        );
+        return result;
+    }
+
+    private static int emptyPlacementDataLength() {
+        return MultipleOrderPacketRecord.builder()
+                .bids(List.of())
+                .asks(List.of())
+                .build()
+                .getBufferSize() + 1;
+    }
+
+    private static int getCompactLength(int value) {
+        if (value < 0x80) {
+            return 1;
+        }
+        return value < 0x4000 ? 2 : 3;
+    }
+}
@@ -1,33 +1,75 @@
 package com.mmorrell.phoenix.manager;
 
+import com.mmorrell.phoenix.feed.PhoenixMarketFeed;
 import com.mmorrell.phoenix.model.PhoenixMarket;
+import com.mmorrell.phoenix.model.PhoenixMarketHeader;
 import com.mmorrell.phoenix.program.PhoenixProgram;
 import com.mmorrell.phoenix.util.PhoenixUtil;
-import lombok.Data;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.p2p.solanaj.core.PublicKey;
 import org.p2p.solanaj.rpc.RpcClient;
 import org.p2p.solanaj.rpc.RpcException;
+import org.p2p.solanaj.rpc.types.AccountInfo;
 import org.p2p.solanaj.rpc.types.ProgramAccount;
 import org.p2p.solanaj.rpc.types.config.Commitment;
+import org.p2p.solanaj.ws.SubscriptionWebSocketClient;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
-@Data
+@Getter
 @Slf4j
 public class PhoenixManager {
 
     private final RpcClient rpcClient;
-    private final Map<PublicKey, PhoenixMarket> marketCache = new HashMap<>();
+    private final Map<PublicKey, PhoenixMarket> marketCache = new ConcurrentHashMap<>();
+    private final Map<PublicKey, PhoenixMarketFeed> marketFeeds = new ConcurrentHashMap<>();
+
+    // Registry mode: headers of every market, books loaded on first use
+    private final boolean headersOnly;
+    private final Map<PublicKey, PhoenixMarketHeader> marketHeaders = new ConcurrentHashMap<>();
+    private final List<Consumer<PublicKey>> newMarketListeners = new CopyOnWriteArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private final ScheduledExecutorService registryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "phoenix-registry-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    @Getter(AccessLevel.NONE)
+    private ScheduledFuture<?> registryRefresh;
 
     public PhoenixManager(RpcClient rpcClient) {
+        this(rpcClient, false);
+    }
+
+    /**
+     * Creates a manager.
+     *
+     * @param rpcClient   the RPC client
+     * @param headersOnly if true, only market headers are fetched at startup (using a data slice), and each market's
+     *                    book is loaded the first time it is requested; otherwise every market is fully decoded
+     */
+    public PhoenixManager(RpcClient rpcClient, boolean headersOnly) {
         this.rpcClient = rpcClient;
-        cacheMarkets();
+        this.headersOnly = headersOnly;
+        if (headersOnly) {
+            cacheMarketHeaders();
+        } else {
+            cacheMarkets();
+        }
     }
 
     public void cacheMarkets() {
@@ -36,7 +78,7 @@ public class PhoenixManager {
             markets = rpcClient.getApi().getProgramAccountsBase64(
                     PhoenixProgram.PHOENIX_PROGRAM_ID,
                     0,
-                    PhoenixUtil.getDiscriminator("phoenix::program::accounts::MarketHeader")
+                    PhoenixUtil.getDiscriminator(PhoenixUtil.MARKET_HEADER)
             );
         } catch (RpcException e) {
             log.error("Error caching phoenix market headers: {}", e.getMessage(), e);
@@ -53,12 +95,125 @@ public class PhoenixManager {
                 );
                 phoenixMarket.setMarketId(new PublicKey(programAccount.getPubkey()));
                 marketCache.put(phoenixMarket.getMarketId(), phoenixMarket);
+                marketHeaders.put(phoenixMarket.getMarketId(), phoenixMarket.getPhoenixMarketHeader());
             } catch (Exception ex) {
                 log.error("Error reading PHX account: {}", ex.getMessage(), ex);
             }
         });
     }
 
+    /**
+     * Fetches the header of every Phoenix market, using a data slice so that books are not downloaded, and registers
+     * any market that was not known yet.
+     *
+     * @return the markets discovered by this call
+     */
+    public List<PublicKey> cacheMarketHeaders() {
+        List<ProgramAccount> markets = new ArrayList<>();
+        try {
+            Map<String, Object> config = Map.of(
+                    "encoding", "base64",
+                    "commitment", Commitment.CONFIRMED.getValue(),
+                    "dataSlice", Map.of("offset", 0, "length", PhoenixMarketHeader.MARKET_HEADER_SIZE),
+                    "filters", List.of(
+                            Map.of("memcmp", Map.of(
+                                    "offset", 0,
+                                    "bytes", PhoenixUtil.getDiscriminator(PhoenixUtil.MARKET_HEADER)
+                            ))
+                    )
+            );
+
+            List<Object> accounts = rpcClient.call(
+                    "getProgramAccounts",
+                    List.of(PhoenixProgram.PHOENIX_PROGRAM_ID.toBase58(), config),
+                    List.class
+            );
+            for (Object account : accounts) {
+                markets.add(new ProgramAccount((AbstractMap) account));
+            }
+        } catch (RpcException e) {
+            log.error("Error caching phoenix market headers: {}", e.getMessage(), e);
+        }
+
+        return registerMarketHeaders(markets);
+    }
+
+    /**
+     * Registers the market headers of the given accounts. Markets already known have their header replaced.
+     *
+     * @param markets program accounts holding at least the market header
+     * @return the markets that were not known yet
+     */
+    public List<PublicKey> registerMarketHeaders(List<ProgramAccount> markets) {
+        List<PublicKey> newMarkets = new ArrayList<>();
+        markets.forEach(programAccount -> {
+            try {
+                PublicKey marketId = new PublicKey(programAccount.getPubkey());
+                PhoenixMarketHeader header = PhoenixMarketHeader.readPhoenixMarketHeader(
+                        programAccount.getAccount().getDecodedData()
+                );
+
+                if (marketHeaders.put(marketId, header) == null) {
+                    newMarkets.add(marketId);
+                }
+            } catch (Exception ex) {
+                log.error("Error reading PHX market header: {}", ex.getMessage(), ex);
+            }
+        });
+
+        newMarkets.forEach(marketId -> {
+            log.info("New phoenix market: {}", marketId);
+            for (Consumer<PublicKey> listener : newMarketListeners) {
+                try {
+                    listener.accept(marketId);
+                } catch (Exception ex) {
+                    log.error("Error in new market listener: {}", ex.getMessage(), ex);
+                }
+            }
+        });
+
+        return newMarkets;
+    }
+
+    public void addNewMarketListener(Consumer<PublicKey> listener) {
+        newMarketListeners.add(listener);
+    }
+
+    public void removeNewMarketListener(Consumer<PublicKey> listener) {
+        newMarketListeners.remove(listener);
+    }
+
+    /**
+     * Starts refreshing the market headers in the background, on a single daemon thread.
+     *
+     * @param period the time between refreshes
+     * @param unit   the unit of the period
+     */
+    public synchronized void startRegistryRefresh(long period, TimeUnit unit) {
+        if (registryRefresh != null) {
+            return;
+        }
+
+        registryRefresh = registryScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                cacheMarketHeaders();
+            } catch (Exception ex) {
+                log.error("Error refreshing phoenix market headers: {}", ex.getMessage(), ex);
+            }
+        }, period, period, unit);
+    }
+
+    public synchronized void stopRegistryRefresh() {
+        if (registryRefresh != null) {
+            registryRefresh.cancel(true);
+            registryRefresh = null;
+        }
+    }
+
+    public synchronized boolean isRegistryRefreshRunning() {
+        return registryRefresh != null;
+    }
+
     public List<PhoenixMarket> getPhoenixMarkets() {
         return marketCache.values().stream().toList();
     }
@@ -67,6 +222,11 @@ public class PhoenixManager {
         if (useCache) {
             if (marketCache.containsKey(marketId)) {
                 return Optional.of(marketCache.get(marketId));
+            } else if (headersOnly && marketHeaders.containsKey(marketId)) {
+                // Registry mode: load the book on first use, once, while concurrent first callers wait for it
+                return Optional.ofNullable(
+                        marketCache.computeIfAbsent(marketId, key -> getMarket(key, false).orElse(null))
+                );
             } else {
                 return Optional.empty();
             }
@@ -86,4 +246,41 @@ public class PhoenixManager {
             }
         }
     }
+
+    /**
+     * Returns a live feed for the given market, subscribing to its account on first use. The feed is seeded with the
+     * current account data, so it has a book before the first notification arrives. The seed is ignored if a newer
+     * notification was applied first.
+     *
+     * @param webSocketClient the websocket client to subscribe with
+     * @param marketId        the market to follow
+     * @return the market's feed
+     */
+    public PhoenixMarketFeed getMarketFeed(SubscriptionWebSocketClient webSocketClient, PublicKey marketId) {
+        PhoenixMarketFeed feed = marketFeeds.get(marketId);
+        if (feed != null) {
+            return feed;
+        }
+
+        PhoenixMarketFeed newFeed = new PhoenixMarketFeed(marketId);
+        feed = marketFeeds.putIfAbsent(marketId, newFeed);
+        if (feed != null) {
+            return feed;
+        }
+
+        // Only the caller that registered the feed subscribes and seeds it, outside of the map's lock
+        newFeed.subscribe(webSocketClient);
+        try {
+            AccountInfo accountInfo = rpcClient.getApi()
+                    .getAccountInfo(marketId, Map.of("commitment", Commitment.PROCESSED));
+            long slot = accountInfo.getContext() != null
+                    ? accountInfo.getContext().getSlot()
+                    : PhoenixMarketFeed.UNKNOWN_SLOT;
+            newFeed.onAccountData(slot, accountInfo.getDecodedData());
+        } catch (Exception e) {
+            log.error("Unable to seed phoenix market feed {}", marketId, e);
+        }
+
+        return newFeed;
+    }
 }
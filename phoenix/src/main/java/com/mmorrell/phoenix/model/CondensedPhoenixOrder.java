@@ -13,6 +13,21 @@ public class CondensedPhoenixOrder {
     private long priceInTicks;
     private long sizeInBaseLots;
 
+    /**
+     * Builds an order at the nearest tick and base lot to the given UI price and size.
+     *
+     * @param scale the market's scale
+     * @param price the price, in quote tokens per base token
+     * @param size  the size, in base tokens
+     * @return the order
+     */
+    public static CondensedPhoenixOrder of(PhoenixMarketScale scale, double price, double size) {
+        return builder()
+                .priceInTicks(scale.priceToTicks(price))
+                .sizeInBaseLots(scale.sizeToBaseLots(size))
+                .build();
+    }
+
     public byte[] toBytes() {
         ByteBuffer buffer = ByteBuffer.allocate(18);
         buffer.order(ByteOrder.LITTLE_ENDIAN);
@@ -19,6 +19,24 @@ public class LimitOrderPacketRecord {
     private boolean useOnlyDepositedFunds;
     private byte orderType;
 
+    /**
+     * Starts a limit order at the nearest tick and base lot to the given UI price and size, using the same
+     * conversions the book is decoded with.
+     *
+     * @param scale the market's scale
+     * @param side  0 = Bid, 1 = Ask
+     * @param price the price, in quote tokens per base token
+     * @param size  the size, in base tokens
+     * @return a builder with the side, price and size set
+     */
+    public static LimitOrderPacketRecordBuilder builderFor(PhoenixMarketScale scale, byte side, double price,
+                                                           double size) {
+        return builder()
+                .side(side)
+                .priceInTicks(scale.priceToTicks(price))
+                .numBaseLots(scale.sizeToBaseLots(size));
+    }
+
     public byte[] toBytes() {
         ByteBuffer buffer = ByteBuffer.allocate(26);
         buffer.order(ByteOrder.LITTLE_ENDIAN);
@@ -0,0 +1,480 @@
+package com.mmorrell.phoenix.model;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * An order-by-order (L3) view of a Phoenix book that answers queue position questions in O(log n).
+ * <p>
+ * Each side keeps its orders in a treap ordered by price (best first) and then by time priority, so the orders of one
+ * tick form a contiguous run ranked the way the market fills them. Phoenix stores bid sequence numbers inverted
+ * ({@code !seq}), so bids rank by the decoded sequence number {@code ~seq}. Every tree node also carries the order count and
+ * total base lots of its subtree, which turns "how much is ahead of order X" into a single root-to-leaf walk.
+ * <p>
+ * {@link #update(PhoenixOrderBookSide, PhoenixOrderBookSide)} diffs a new snapshot against the current state and only
+ * touches the tree for orders that were added, removed or resized, so successive snapshots never rebuild it.
+ */
+@Slf4j
+public class PhoenixL3Book {
+
+    private final L3Side bids = new L3Side(true);
+    private final L3Side asks = new L3Side(false);
+
+    /**
+     * Applies a decoded market book.
+     *
+     * @param book the decoded book
+     * @return the number of orders added, removed or resized
+     */
+    public int update(PhoenixOrderBook book) {
+        return update(book.getBids(), book.getAsks());
+    }
+
+    /**
+     * Applies decoded order book sides, changing only the orders that differ from the last snapshot.
+     *
+     * @param bidSide the decoded bids
+     * @param askSide the decoded asks
+     * @return the number of orders added, removed or resized
+     */
+    public int update(PhoenixOrderBookSide bidSide, PhoenixOrderBookSide askSide) {
+        return bids.update(bidSide) + asks.update(askSide);
+    }
+
+    /**
+     * Returns the base lots resting ahead of an order at its own price level.
+     *
+     * @param side                {@link PhoenixTraderTable#SIDE_BID} or {@link PhoenixTraderTable#SIDE_ASK}
+     * @param orderSequenceNumber the order's sequence number
+     * @return the base lots ahead, or -1 if the order is not in the book
+     */
+    public long getSizeAhead(byte side, long orderSequenceNumber) {
+        L3Side l3Side = getSide(side);
+        int node = l3Side.find(orderSequenceNumber);
+        if (node < 0) {
+            return -1;
+        }
+
+        long price = l3Side.price[node];
+        return l3Side.lotsBefore(price, orderSequenceNumber) - l3Side.lotsBefore(price, l3Side.levelStart());
+    }
+
+    /**
+     * Returns the base lots resting ahead of an order across the whole side, including better price levels.
+     *
+     * @param side                {@link PhoenixTraderTable#SIDE_BID} or {@link PhoenixTraderTable#SIDE_ASK}
+     * @param orderSequenceNumber the order's sequence number
+     * @return the base lots ahead, or -1 if the order is not in the book
+     */
+    public long getTotalSizeAhead(byte side, long orderSequenceNumber) {
+        L3Side l3Side = getSide(side);
+        int node = l3Side.find(orderSequenceNumber);
+        return node < 0 ? -1 : l3Side.lotsBefore(l3Side.price[node], orderSequenceNumber);
+    }
+
+    /**
+     * Returns the number of orders ahead of an order at its own price level.
+     *
+     * @param side                {@link PhoenixTraderTable#SIDE_BID} or {@link PhoenixTraderTable#SIDE_ASK}
+     * @param orderSequenceNumber the order's sequence number
+     * @return the queue position (0 for the first order of the level), or -1 if the order is not in the book
+     */
+    public int getQueuePosition(byte side, long orderSequenceNumber) {
+        L3Side l3Side = getSide(side);
+        int node = l3Side.find(orderSequenceNumber);
+        if (node < 0) {
+            return -1;
+        }
+
+        long price = l3Side.price[node];
+        return l3Side.countBefore(price, orderSequenceNumber) - l3Side.countBefore(price, l3Side.levelStart());
+    }
+
+    /**
+     * Returns the total base lots resting at a price level.
+     *
+     * @param side         {@link PhoenixTraderTable#SIDE_BID} or {@link PhoenixTraderTable#SIDE_ASK}
+     * @param priceInTicks the level's price
+     * @return the base lots at the level, 0 if there are none
+     */
+    public long getLevelSize(byte side, long priceInTicks) {
+        L3Side l3Side = getSide(side);
+        return l3Side.lotsBefore(priceInTicks, l3Side.levelEnd())
+                - l3Side.lotsBefore(priceInTicks, l3Side.levelStart());
+    }
+
+    /**
+     * Returns the number of orders resting at a price level.
+     *
+     * @param side         {@link PhoenixTraderTable#SIDE_BID} or {@link PhoenixTraderTable#SIDE_ASK}
+     * @param priceInTicks the level's price
+     * @return the number of orders at the level
+     */
+    public int getLevelOrderCount(byte side, long priceInTicks) {
+        L3Side l3Side = getSide(side);
+        return l3Side.countBefore(priceInTicks, l3Side.levelEnd())
+                - l3Side.countBefore(priceInTicks, l3Side.levelStart());
+    }
+
+    /**
+     * Returns the size of a resting order.
+     *
+     * @param side                {@link PhoenixTraderTable#SIDE_BID} or {@link PhoenixTraderTable#SIDE_ASK}
+     * @param orderSequenceNumber the order's sequence number
+     * @return the order's base lots, or -1 if the order is not in the book
+     */
+    public long getNumBaseLots(byte side, long orderSequenceNumber) {
+        L3Side l3Side = getSide(side);
+        int node = l3Side.find(orderSequenceNumber);
+        return node < 0 ? -1 : l3Side.lots[node];
+    }
+
+    /**
+     * Returns the trader index of a resting order.
+     *
+     * @param side                {@link PhoenixTraderTable#SIDE_BID} or {@link PhoenixTraderTable#SIDE_ASK}
+     * @param orderSequenceNumber the order's sequence number
+     * @return the order's trader index, or 0 if the order is not in the book
+     */
+    public long getTraderIndex(byte side, long orderSequenceNumber) {
+        L3Side l3Side = getSide(side);
+        int node = l3Side.find(orderSequenceNumber);
+        return node < 0 ? 0 : l3Side.traderIndex[node];
+    }
+
+    public int getOrderCount(byte side) {
+        L3Side l3Side = getSide(side);
+        return l3Side.count(l3Side.root);
+    }
+
+    public long getTotalSize(byte side) {
+        L3Side l3Side = getSide(side);
+        return l3Side.sum(l3Side.root);
+    }
+
+    private L3Side getSide(byte side) {
+        return side == PhoenixTraderTable.SIDE_BID ? bids : asks;
+    }
+
+    /**
+     * One side of the book: an array-backed treap keyed by (price priority, sequence number), with subtree counts and
+     * lot sums, plus a sequence number index for finding an order's node.
+     */
+    private static final class L3Side {
+
+        private static final int NIL = -1;
+
+        private final boolean bid;
+        private final Map<Long, Integer> nodesBySequenceNumber = new HashMap<>();
+
+        private int root = NIL;
+        private int generation;
+
+        // Results of split, to avoid allocating a pair
+        private int splitLeft;
+        private int splitRight;
+
+        // Free node indexes, used as a stack
+        private int[] freeNodes = new int[0];
+        private int freeCount;
+        private int allocated;
+
+        // Indexed by node
+        private int[] left = new int[0];
+        private int[] right = new int[0];
+        private int[] priority = new int[0];
+        private int[] subtreeCount = new int[0];
+        private int[] seen = new int[0];
+        private long[] price = new long[0];
+        private long[] sequenceNumber = new long[0];
+        private long[] traderIndex = new long[0];
+        private long[] lots = new long[0];
+        private long[] subtreeLots = new long[0];
+
+        private L3Side(boolean bid) {
+            this.bid = bid;
+        }
+
+        private int update(PhoenixOrderBookSide side) {
+            generation++;
+            int changes = 0;
+
+            int[] liveNodes = side.getLiveNodes();
+            for (int i = 0; i < side.getLiveCount(); i++) {
+                int slot = liveNodes[i];
+                long orderSequenceNumber = side.getOrderSequenceNumber(slot);
+                long orderPrice = side.getPriceInTicks(slot);
+                long orderLots = side.getNumBaseLots(slot);
+
+                Integer existing = nodesBySequenceNumber.get(orderSequenceNumber);
+                if (existing != null && price[existing] != orderPrice) {
+                    // Same sequence number at another price can only be a new order
+                    root = remove(root, price[existing], orderSequenceNumber);
+                    release(existing);
+                    existing = null;
+                }
+
+                if (existing == null) {
+                    int node = allocate(orderPrice, orderSequenceNumber, side.getTraderIndex(slot), orderLots);
+                    nodesBySequenceNumber.put(orderSequenceNumber, node);
+                    root = insert(root, node);
+                    changes++;
+                } else {
+                    seen[existing] = generation;
+                    traderIndex[existing] = side.getTraderIndex(slot);
+                    if (lots[existing] != orderLots) {
+                        setLots(orderPrice, orderSequenceNumber, orderLots);
+                        changes++;
+                    }
+                }
+            }
+
+            // Orders missing from the snapshot were filled or cancelled
+            Iterator<Map.Entry<Long, Integer>> iterator = nodesBySequenceNumber.entrySet().iterator();
+            while (iterator.hasNext()) {
+                int node = iterator.next().getValue();
+                if (seen[node] != generation) {
+                    root = remove(root, price[node], sequenceNumber[node]);
+                    release(node);
+                    iterator.remove();
+                    changes++;
+                }
+            }
+
+            return changes;
+        }
+
+        private int find(long orderSequenceNumber) {
+            Integer node = nodesBySequenceNumber.get(orderSequenceNumber);
+            return node == null ? -1 : node;
+        }
+
+        // Orders: best price first, then time priority
+        private int compare(long price1, long sequenceNumber1, long price2, long sequenceNumber2) {
+            if (price1 != price2) {
+                return bid ? Long.compare(price2, price1) : Long.compare(price1, price2);
+            }
+            return Long.compare(timePriority(sequenceNumber1), timePriority(sequenceNumber2));
+        }
+
+        // Bids carry !seq on chain, so the decoded sequence number is ~seq; earlier orders rank first
+        private long timePriority(long orderSequenceNumber) {
+            return bid ? ~orderSequenceNumber : orderSequenceNumber;
+        }
+
+        // Sequence numbers that rank before and after every order of a level
+        private long levelStart() {
+            return bid ? ~Long.MIN_VALUE : Long.MIN_VALUE;
+        }
+
+        private long levelEnd() {
+            return bid ? ~Long.MAX_VALUE : Long.MAX_VALUE;
+        }
+
+        // Total lots of orders ordered strictly before (price, sequence number)
+        private long lotsBefore(long keyPrice, long keySequenceNumber) {
+            long total = 0;
+            int node = root;
+            while (node != NIL) {
+                if (compare(price[node], sequenceNumber[node], keyPrice, keySequenceNumber) < 0) {
+                    total += sum(left[node]) + lots[node];
+                    node = right[node];
+                } else {
+                    node = left[node];
+                }
+            }
+            return total;
+        }
+
+        // Number of orders ordered strictly before (price, sequence number)
+        private int countBefore(long keyPrice, long keySequenceNumber) {
+            int total = 0;
+            int node = root;
+            while (node != NIL) {
+                if (compare(price[node], sequenceNumber[node], keyPrice, keySequenceNumber) < 0) {
+                    total += count(left[node]) + 1;
+                    node = right[node];
+                } else {
+                    node = left[node];
+                }
+            }
+            return total;
+        }
+
+        private int count(int node) {
+            return node == NIL ? 0 : subtreeCount[node];
+        }
+
+        private long sum(int node) {
+            return node == NIL ? 0 : subtreeLots[node];
+        }
+
+        private void pull(int node) {
+            subtreeCount[node] = count(left[node]) + count(right[node]) + 1;
+            subtreeLots[node] = sum(left[node]) + sum(right[node]) + lots[node];
+        }
+
+        private int insert(int tree, int node) {
+            if (tree == NIL) {
+                return node;
+            }
+
+            if (priority[node] > priority[tree]) {
+                split(tree, price[node], sequenceNumber[node]);
+                left[node] = splitLeft;
+                right[node] = splitRight;
+                pull(node);
+                return node;
+            }
+
+            if (compare(price[node], sequenceNumber[node], price[tree], sequenceNumber[tree]) < 0) {
+                left[tree] = insert(left[tree], node);
+            } else {
+                right[tree] = insert(right[tree], node);
+            }
+            pull(tree);
+            return tree;
+        }
+
+        private int remove(int tree, long keyPrice, long keySequenceNumber) {
+            if (tree == NIL) {
+                log.error("Order not found in L3 book: {}", keySequenceNumber);
+                return NIL;
+            }
+
+            int comparison = compare(keyPrice, keySequenceNumber, price[tree], sequenceNumber[tree]);
+            if (comparison == 0) {
+                return merge(left[tree], right[tree]);
+            }
+
+            if (comparison < 0) {
+                left[tree] = remove(left[tree], keyPrice, keySequenceNumber);
+            } else {
+                right[tree] = remove(right[tree], keyPrice, keySequenceNumber);
+            }
+            pull(tree);
+            return tree;
+        }
+
+        // Changes an order's size and fixes the subtree sums along its path
+        private void setLots(long keyPrice, long keySequenceNumber, long newLots) {
+            int node = root;
+            while (node != NIL) {
+                int comparison = compare(keyPrice, keySequenceNumber, price[node], sequenceNumber[node]);
+                if (comparison == 0) {
+                    break;
+                }
+                node = comparison < 0 ? left[node] : right[node];
+            }
+            if (node == NIL) {
+                return;
+            }
+
+            long delta = newLots - lots[node];
+            lots[node] = newLots;
+
+            int current = root;
+            while (current != NIL) {
+                subtreeLots[current] += delta;
+                int comparison = compare(keyPrice, keySequenceNumber, price[current], sequenceNumber[current]);
+                if (comparison == 0) {
+                    break;
+                }
+                current = comparison < 0 ? left[current] : right[current];
+            }
+        }
+
+        // Splits into the orders before (price, sequence number) and the rest
+        private void split(int tree, long keyPrice, long keySequenceNumber) {
+            if (tree == NIL) {
+                splitLeft = NIL;
+                splitRight = NIL;
+                return;
+            }
+
+            if (compare(price[tree], sequenceNumber[tree], keyPrice, keySequenceNumber) < 0) {
+                split(right[tree], keyPrice, keySequenceNumber);
+                right[tree] = splitLeft;
+                pull(tree);
+                splitLeft = tree;
+            } else {
+                split(left[tree], keyPrice, keySequenceNumber);
+                left[tree] = splitRight;
+                pull(tree);
+                splitRight = tree;
+            }
+        }
+
+        private int merge(int first, int second) {
+            if (first == NIL) {
+                return second;
+            }
+            if (second == NIL) {
+                return first;
+            }
+
+            if (priority[first] > priority[second]) {
+                right[first] = merge(right[first], second);
+                pull(first);
+                return first;
+            }
+
+            left[second] = merge(first, left[second]);
+            pull(second);
+            return second;
+        }
+
+        private int allocate(long orderPrice, long orderSequenceNumber, long orderTraderIndex, long orderLots) {
+            int node;
+            if (freeCount > 0) {
+                node = freeNodes[--freeCount];
+            } else {
+                if (allocated == price.length) {
+                    grow();
+                }
+                node = allocated++;
+            }
+
+            left[node] = NIL;
+            right[node] = NIL;
+            priority[node] = mix(orderSequenceNumber ^ (orderPrice * 0x9E3779B97F4A7C15L));
+            seen[node] = generation;
+            price[node] = orderPrice;
+            sequenceNumber[node] = orderSequenceNumber;
+            traderIndex[node] = orderTraderIndex;
+            lots[node] = orderLots;
+            pull(node);
+            return node;
+        }
+
+        private void release(int node) {
+            freeNodes[freeCount++] = node;
+        }
+
+        private void grow() {
+            int capacity = Math.max(64, price.length * 2);
+            freeNodes = Arrays.copyOf(freeNodes, capacity);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            priority = Arrays.copyOf(priority, capacity);
+            subtreeCount = Arrays.copyOf(subtreeCount, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+            price = Arrays.copyOf(price, capacity);
+            sequenceNumber = Arrays.copyOf(sequenceNumber, capacity);
+            traderIndex = Arrays.copyOf(traderIndex, capacity);
+            lots = Arrays.copyOf(lots, capacity);
+            subtreeLots = Arrays.copyOf(subtreeLots, capacity);
+        }
+
+        // Deterministic heap priority from the order's key (splitmix64 finalizer)
+        private static int mix(long value) {
+            value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+            value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+            return (int) (value ^ (value >>> 31));
+        }
+    }
+}
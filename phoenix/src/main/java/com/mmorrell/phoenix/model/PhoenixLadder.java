@@ -0,0 +1,39 @@
+package com.mmorrell.phoenix.model;
+
+import lombok.Builder;
+import lombok.Data;
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.core.TransactionInstruction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A set of post-only bid and ask levels to place on a Phoenix market, along with the accounts needed to place them.
+ * Levels are listed best first on each side.
+ */
+@Data
+@Builder
+public class PhoenixLadder {
+
+    private PublicKey market;
+    private PublicKey trader;
+    private PublicKey baseAccount;
+    private PublicKey quoteAccount;
+    private PublicKey baseVault;
+    private PublicKey quoteVault;
+
+    @Builder.Default
+    private List<CondensedPhoenixOrder> bids = new ArrayList<>();
+
+    @Builder.Default
+    private List<CondensedPhoenixOrder> asks = new ArrayList<>();
+
+    // If true, cancelAllOrdersWithFreeFunds runs before the first levels are placed (cancel-replace)
+    private boolean cancelAllFirst;
+
+    // Added at the start of every transaction, e.g. compute budget instructions
+    @Builder.Default
+    private List<TransactionInstruction> prefixInstructions = new ArrayList<>();
+
+}
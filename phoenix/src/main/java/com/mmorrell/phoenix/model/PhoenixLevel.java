@@ -0,0 +1,19 @@
+package com.mmorrell.phoenix.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * An aggregated price level of a Phoenix order book.
+ */
+@Data
+@Builder
+public class PhoenixLevel {
+
+    private long priceInTicks;
+    private long numBaseLots;
+
+    private double price;
+    private double size;
+
+}
@@ -9,14 +9,11 @@ import org.bitcoinj.core.Utils;
 import org.p2p.solanaj.core.PublicKey;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 
 @Data
 @Builder
@@ -25,6 +22,9 @@ public class PhoenixMarket {
 
     // B trees start at offset 880
     private static final int START_OFFSET = 832;
+    private static final int BIDS_OFFSET = 880;
+    private static final int BIDS_CAPACITY_OFFSET = 16;
+    private static final int ASKS_CAPACITY_OFFSET = 24;
     private long baseLotsPerBaseUnit;
     private long tickSizeInQuoteLotsPerBaseUnit;
     private long orderSequenceNumber;
@@ -32,6 +32,10 @@ public class PhoenixMarket {
     private long collectedQuoteLotFees;
     private long unclaimedQuoteLotFees;
 
+    private PhoenixOrderBookSide bids;
+    private PhoenixOrderBookSide asks;
+    private PhoenixTraderTable traderTable;
+
     private List<Pair<FIFOOrderId, FIFORestingOrder>> bidList;
     private List<Pair<FIFOOrderId, FIFORestingOrder>> bidListSanitized;
     private List<PhoenixOrder> bidListNormalized;
@@ -42,31 +46,109 @@ public class PhoenixMarket {
 
     private List<Pair<PublicKey, PhoenixTraderState>> traders;
     private List<Pair<PublicKey, PhoenixTraderState>> tradersSanitized;
+    // Seat of trader index i at i - 1, null for free seats
+    private List<Pair<PublicKey, PhoenixTraderState>> traderSlots;
     private Map<PublicKey, PhoenixTraderState> tradersNormalized;
 
     private PhoenixMarketHeader phoenixMarketHeader;
+    private PhoenixMarketScale scale;
     private PublicKey marketId;
 
     public Optional<Pair<FIFOOrderId, FIFORestingOrder>> getBestBid() {
-        if (bidListSanitized.isEmpty()) {
-            return Optional.empty();
+        return getBestOrder(bids);
+    }
+
+    public Optional<Pair<FIFOOrderId, FIFORestingOrder>> getBestAsk() {
+        return getBestOrder(asks);
+    }
+
+    /**
+     * Returns the best bid levels, aggregated by price, from the highest price down.
+     *
+     * @param maxLevels the maximum number of levels to return
+     * @return the bid levels
+     */
+    public List<PhoenixLevel> getBidLevels(int maxLevels) {
+        return getLevels(bids, maxLevels);
+    }
+
+    /**
+     * Returns the best ask levels, aggregated by price, from the lowest price up.
+     *
+     * @param maxLevels the maximum number of levels to return
+     * @return the ask levels
+     */
+    public List<PhoenixLevel> getAskLevels(int maxLevels) {
+        return getLevels(asks, maxLevels);
+    }
+
+    /**
+     * Returns the locked and free lots of a seated trader.
+     *
+     * @param trader the trader's public key
+     * @return the trader's state, or empty if the trader has no seat
+     */
+    public Optional<PhoenixTraderState> getTraderState(PublicKey trader) {
+        return Optional.ofNullable(traderTable.getTraderState(traderTable.getTraderIndex(trader)));
+    }
+
+    /**
+     * Returns a trader's resting orders on both sides, bids first, each side from best to worst.
+     *
+     * @param trader the trader's public key
+     * @return the trader's resting orders
+     */
+    public List<PhoenixTraderOrder> getTraderOrders(PublicKey trader) {
+        int traderIndex = traderTable.getTraderIndex(trader);
+        List<PhoenixTraderOrder> orders = new ArrayList<>(traderTable.getOrderCount(traderIndex));
+
+        for (int entry = traderTable.getFirstEntry(traderIndex); entry >= 0; entry = traderTable.getNextEntry(entry)) {
+            PhoenixOrderBookSide side = traderTable.getEntrySide(entry) == PhoenixTraderTable.SIDE_BID ? bids : asks;
+            int slot = traderTable.getEntrySlot(entry);
+            orders.add(
+                    PhoenixTraderOrder.builder()
+                            .side(traderTable.getEntrySide(entry))
+                            .priceInTicks(side.getPriceInTicks(slot))
+                            .orderSequenceNumber(side.getOrderSequenceNumber(slot))
+                            .numBaseLots(side.getNumBaseLots(slot))
+                            .queuePosition(traderTable.getEntryQueuePosition(entry))
+                            .baseLotsAhead(traderTable.getEntryBaseLotsAhead(entry))
+                            .price(calculatePrice(side.getPriceInTicks(slot), this))
+                            .size(calculateSize(side.getNumBaseLots(slot), this))
+                            .build()
+            );
         }
 
-        return Optional.of(bidListSanitized.stream()
-                .sorted((o1, o2) -> Math.toIntExact(o2.getFirst().getPriceInTicks() - o1.getFirst().getPriceInTicks()))
-                .toList()
-                .get(0));
+        return orders;
     }
 
-    public Optional<Pair<FIFOOrderId, FIFORestingOrder>> getBestAsk() {
-        if (askListSanitized.isEmpty()) {
+    private Optional<Pair<FIFOOrderId, FIFORestingOrder>> getBestOrder(PhoenixOrderBookSide side) {
+        int best = side.getBestNode();
+        if (best < 0) {
             return Optional.empty();
         }
 
-        return Optional.of(askListSanitized.stream()
-                .sorted((o1, o2) -> Math.toIntExact(o1.getFirst().getPriceInTicks() - o2.getFirst().getPriceInTicks()))
-                .toList()
-                .get(0));
+        return Optional.of(new Pair<>(side.getFifoOrderId(best), side.getFifoRestingOrder(best)));
+    }
+
+    private List<PhoenixLevel> getLevels(PhoenixOrderBookSide side, int maxLevels) {
+        long[] levelPrices = new long[maxLevels];
+        long[] levelLots = new long[maxLevels];
+        int numLevels = side.readLevels(maxLevels, levelPrices, levelLots);
+
+        List<PhoenixLevel> levels = new ArrayList<>(numLevels);
+        for (int i = 0; i < numLevels; i++) {
+            levels.add(
+                    PhoenixLevel.builder()
+                            .priceInTicks(levelPrices[i])
+                            .numBaseLots(levelLots[i])
+                            .price(calculatePrice(levelPrices[i], this))
+                            .size(calculateSize(levelLots[i], this))
+                            .build()
+            );
+        }
+
+        return levels;
     }
 
     public static PhoenixMarket readPhoenixMarket(byte[] data) {
@@ -85,32 +167,50 @@ public class PhoenixMarket {
                 .askListNormalized(new ArrayList<>())
                 .traders(new ArrayList<>())
                 .tradersSanitized(new ArrayList<>())
+                .traderSlots(new ArrayList<>())
                 .tradersNormalized(new HashMap<>())
                 .phoenixMarketHeader(PhoenixMarketHeader.readPhoenixMarketHeader(data))
                 .build();
 
-        long bidsSize =
-                16 + 16 + (16 + FIFOOrderId.FIFO_ORDER_ID_SIZE + FIFORestingOrder.FIFO_RESTING_ORDER_SIZE) * phoenixMarket.getPhoenixMarketHeader().getBidsSize();
-        byte[] bidBuffer = Arrays.copyOfRange(data, 880, (int) bidsSize);
+        PhoenixMarketHeader header = phoenixMarket.getPhoenixMarketHeader();
+        phoenixMarket.setScale(PhoenixMarketScale.of(header, phoenixMarket.getTickSizeInQuoteLotsPerBaseUnit()));
+        int bidsSize = PhoenixOrderBookSide.getSize(header.getBidsSize());
+        int asksSize = PhoenixOrderBookSide.getSize(header.getAsksSize());
 
-        long asksSize =
-                16 + 16 + (16 + FIFOOrderId.FIFO_ORDER_ID_SIZE + FIFORestingOrder.FIFO_RESTING_ORDER_SIZE) * phoenixMarket.getPhoenixMarketHeader().getAsksSize();
-        byte[] askBuffer = Arrays.copyOfRange(data, 880 + (int) bidsSize, 880 + (int) bidsSize + (int) asksSize);
+        phoenixMarket.setBids(new PhoenixOrderBookSide());
+        phoenixMarket.setAsks(new PhoenixOrderBookSide());
+        readOrderBook(data, phoenixMarket.getBids(), phoenixMarket.getAsks());
 
-        long tradersSize =
-                16 + 16 + (16 + 32 + PhoenixTraderState.PHOENIX_TRADER_STATE_SIZE) * phoenixMarket.getPhoenixMarketHeader().getNumSeats();
-        byte[] traderBuffer = Arrays.copyOfRange(data, 880 + (int) bidsSize + (int) asksSize,
-                880 + (int) bidsSize + (int) asksSize + (int) tradersSize);
+        readOrderList(phoenixMarket.getBids(), phoenixMarket.getBidList(), phoenixMarket.getBidListSanitized());
+        readOrderList(phoenixMarket.getAsks(), phoenixMarket.getAskList(), phoenixMarket.getAskListSanitized());
 
-        readBidBuffer(bidBuffer, phoenixMarket);
-        readAskBuffer(askBuffer, phoenixMarket);
-        readTraderBuffer(traderBuffer, phoenixMarket);
+        int tradersOffset = BIDS_OFFSET + bidsSize + asksSize;
+        phoenixMarket.setTraderTable(new PhoenixTraderTable());
+        phoenixMarket.getTraderTable().read(data, tradersOffset, Math.toIntExact(header.getNumSeats()));
+        phoenixMarket.getTraderTable().indexOrders(phoenixMarket.getBids(), phoenixMarket.getAsks());
+        readTraderList(data, tradersOffset, phoenixMarket);
         normalizeOrders(phoenixMarket);
         normalizeTraders(phoenixMarket);
 
         return phoenixMarket;
     }
 
+    /**
+     * Decodes the bids and asks of a market account in place, without building the order lists. The given sides are
+     * reused, so decoding the same market on every update only allocates when its capacity grows.
+     *
+     * @param data the market account data
+     * @param bids the side to decode the bids into
+     * @param asks the side to decode the asks into
+     */
+    public static void readOrderBook(byte[] data, PhoenixOrderBookSide bids, PhoenixOrderBookSide asks) {
+        int bidsCapacity = Math.toIntExact(PhoenixUtil.readInt64(data, BIDS_CAPACITY_OFFSET));
+        int asksCapacity = Math.toIntExact(PhoenixUtil.readInt64(data, ASKS_CAPACITY_OFFSET));
+
+        bids.read(data, BIDS_OFFSET, bidsCapacity);
+        asks.read(data, BIDS_OFFSET + PhoenixOrderBookSide.getSize(bidsCapacity), asksCapacity);
+    }
+
     private static void normalizeTraders(PhoenixMarket market) {
         Map<PublicKey, PhoenixTraderState> stateMap = market.getTradersNormalized();
         market.getTradersSanitized().forEach(traderStatePair -> {
@@ -121,9 +221,9 @@ public class PhoenixMarket {
     private static void normalizeOrders(PhoenixMarket market) {
         market.setBidListNormalized(new ArrayList<>());
         market.getBidListSanitized().forEach(order -> {
-            // Ensure the trader index is valid
-            int traderIndex = (int) (order.getSecond().getTraderIndex() - 1);
-            if (traderIndex >= 0 && traderIndex < market.getTraders().size()) {
+            // Ensure the trader index is a seated trader
+            PublicKey trader = market.getTraderTable().getTrader(order.getSecond().getTraderIndex());
+            if (trader != null) {
                 double price = calculatePrice(order, market);
                 double size = calculateSize(order, market);
 
@@ -131,20 +231,20 @@ public class PhoenixMarket {
                         PhoenixOrder.builder()
                                 .price(price)
                                 .size(size)
-                                .trader(market.getTraders().get(traderIndex).getFirst())
+                                .trader(trader)
                                 .build()
                 );
             } else {
-                log.error("Invalid trader index for bid order: " + traderIndex);
+                log.error("Invalid trader index for bid order: " + order.getSecond().getTraderIndex());
             }
         });
         market.getBidListNormalized().sort(Comparator.comparingDouble(PhoenixOrder::getPrice));
 
         market.setAskListNormalized(new ArrayList<>());
         market.getAskListSanitized().forEach(order -> {
-            // Ensure the trader index is valid
-            int traderIndex = (int) (order.getSecond().getTraderIndex() - 1);
-            if (traderIndex >= 0 && traderIndex < market.getTraders().size()) {
+            // Ensure the trader index is a seated trader
+            PublicKey trader = market.getTraderTable().getTrader(order.getSecond().getTraderIndex());
+            if (trader != null) {
                 double price = calculatePrice(order, market);
                 double size = calculateSize(order, market);
 
@@ -152,249 +252,96 @@ public class PhoenixMarket {
                         PhoenixOrder.builder()
                                 .price(price)
                                 .size(size)
-                                .trader(market.getTraders().get(traderIndex).getFirst())
+                                .trader(trader)
                                 .build()
                 );
             } else {
-                log.error("Invalid trader index for ask order: " + traderIndex);
+                log.error("Invalid trader index for ask order: " + order.getSecond().getTraderIndex());
             }
         });
         market.getAskListNormalized().sort(Comparator.comparingDouble(PhoenixOrder::getPrice));
     }
 
     private static double calculatePrice(Pair<FIFOOrderId, FIFORestingOrder> order, PhoenixMarket market) {
-        return ((double) order.getFirst().getPriceInTicks() *
-                market.getTickSizeInQuoteLotsPerBaseUnit() *
-                market.getPhoenixMarketHeader().getQuoteLotSize()) /
-                (Math.pow(10, market.getPhoenixMarketHeader().getQuoteDecimals()) *
-                        market.getPhoenixMarketHeader().getRawBaseUnitsPerBaseUnit());
+        return calculatePrice(order.getFirst().getPriceInTicks(), market);
     }
 
-    private static double calculateSize(Pair<FIFOOrderId, FIFORestingOrder> order, PhoenixMarket market) {
-        return ((double) order.getSecond().getNumBaseLots() * market.getPhoenixMarketHeader().getBaseLotSize()) /
-                Math.pow(10, market.getPhoenixMarketHeader().getBaseDecimals());
+    private static double calculatePrice(long priceInTicks, PhoenixMarket market) {
+        return market.getScale().ticksToPrice(priceInTicks);
     }
 
-    private static void readTraderBuffer(byte[] traderBuffer, PhoenixMarket market) {
-        int offset = 0;
-        offset += 16; // skip rbtree header
-        offset += 8;  // Skip node allocator size
-
-        int bumpIndex = PhoenixUtil.readInt32(traderBuffer, offset);
-        offset += 4;
-
-        int freeListHead = PhoenixUtil.readInt32(traderBuffer, offset);
-        offset += 4;
-
-        List<Pair<Integer, Integer>> freeListPointersList = new ArrayList<>();
-
-        for (int index = 0; offset < traderBuffer.length && index < bumpIndex; index++) {
-            List<Integer> registers = new ArrayList<>();
-            for (int i = 0; i < 4; i++) {
-                registers.add(PhoenixUtil.readInt32(traderBuffer, offset));
-                offset += 4;
-            }
-
-            PublicKey traderPubkey = PublicKey.readPubkey(traderBuffer, offset);
-            offset += 32;
-
-            PhoenixTraderState phoenixTraderState = PhoenixTraderState.readPhoenixTraderState(
-                    Arrays.copyOfRange(traderBuffer, offset, offset + PhoenixTraderState.PHOENIX_TRADER_STATE_SIZE)
-            );
-            offset += PhoenixTraderState.PHOENIX_TRADER_STATE_SIZE;
-
-            market.getTraders().add(new Pair<>(traderPubkey, phoenixTraderState));
-            freeListPointersList.add(new Pair<>(index, registers.get(0)));
-        }
-
-        Set<Integer> freeNodes = new HashSet<>();
-        int indexToRemove = freeListHead - 1;
-        int counter = 0;
-
-        while (freeListHead != 0) {
-            // Ensure freeListHead is within bounds
-            if (freeListHead - 1 < freeListPointersList.size()) {
-                Pair<Integer, Integer> next = freeListPointersList.get(freeListHead - 1);
-                indexToRemove = next.component1();
-                freeListHead = next.component2();
-
-                freeNodes.add(indexToRemove);
-                counter += 1;
-
-                if (counter > bumpIndex) {
-                    log.error("Infinite Loop Detected");
-                }
-            } else {
-                log.error("freeListHead out of bounds: " + freeListHead);
-                break; // Exit the loop if out of bounds
-            }
-        }
-
-        List<Pair<PublicKey, PhoenixTraderState>> traderList = market.getTraders();
-        for (int i = 0; i < traderList.size(); i++) {
-            Pair<PublicKey, PhoenixTraderState> entry = traderList.get(i);
-            if (!freeNodes.contains(i)) {
-                // tree.set kv
-                market.tradersSanitized.add(entry);
-            }
-        }
+    private static double calculateSize(Pair<FIFOOrderId, FIFORestingOrder> order, PhoenixMarket market) {
+        return calculateSize(order.getSecond().getNumBaseLots(), market);
     }
 
-    private static void readBidBuffer(byte[] bidBuffer, PhoenixMarket market) {
-        int offset = 0;
-        offset += 16; // skip rbtree header
-        offset += 8;  // Skip node allocator size
-
-        int bumpIndex = PhoenixUtil.readInt32(bidBuffer, offset);
-        offset += 4;
-
-        int freeListHead = PhoenixUtil.readInt32(bidBuffer, offset);
-        offset += 4;
-
-        List<Pair<Integer, Integer>> freeListPointersList = new ArrayList<>();
-
-        for (int index = 0; offset < bidBuffer.length && index < bumpIndex; index++) {
-            List<Integer> registers = new ArrayList<>();
-            for (int i = 0; i < 4; i++) {
-                registers.add(PhoenixUtil.readInt32(bidBuffer, offset));
-                offset += 4;
-            }
-
-            FIFOOrderId fifoOrderId = FIFOOrderId.readFifoOrderId(
-                    Arrays.copyOfRange(bidBuffer, offset, offset + 16)
-            );
-            offset += FIFOOrderId.FIFO_ORDER_ID_SIZE;
-
-            FIFORestingOrder fifoRestingOrder = FIFORestingOrder.readFifoRestingOrder(
-                    Arrays.copyOfRange(bidBuffer, offset, offset + 32)
-            );
-            offset += FIFORestingOrder.FIFO_RESTING_ORDER_SIZE;
-
-            market.getBidList().add(new Pair<>(fifoOrderId, fifoRestingOrder));
-            freeListPointersList.add(new Pair<>(index, registers.get(0)));
-        }
-
-        Set<Integer> freeNodes = new HashSet<>();
-        int indexToRemove = freeListHead - 1;
-        int counter = 0;
-
-        while (freeListHead != 0) {
-            // Ensure freeListHead is within bounds
-            if (freeListHead - 1 < freeListPointersList.size()) {
-                Pair<Integer, Integer> next = freeListPointersList.get(freeListHead - 1);
-                indexToRemove = next.component1();
-                freeListHead = next.component2();
-
-                freeNodes.add(indexToRemove);
-                counter += 1;
+    private static double calculateSize(long numBaseLots, PhoenixMarket market) {
+        return market.getScale().baseLotsToSize(numBaseLots);
+    }
 
-                if (counter > bumpIndex) {
-                    log.error("Infinite Loop Detected");
-                }
-            } else {
-                log.error("freeListHead out of bounds: " + freeListHead);
-                break; // Exit the loop if out of bounds
+    private static void readTraderList(byte[] data, int tradersOffset, PhoenixMarket market) {
+        PhoenixTraderTable traderTable = market.getTraderTable();
+        for (int slot = 0; slot < traderTable.getNumSlots(); slot++) {
+            PhoenixTraderState traderState = PhoenixTraderState.builder()
+                    .quoteLotsLocked(traderTable.getQuoteLotsLocked()[slot])
+                    .quoteLotsFree(traderTable.getQuoteLotsFree()[slot])
+                    .baseLotsLocked(traderTable.getBaseLotsLocked()[slot])
+                    .baseLotsFree(traderTable.getBaseLotsFree()[slot])
+                    .build();
+
+            // Free seats keep the key last stored in their node
+            if (traderTable.isFree(slot)) {
+                int nodeOffset = tradersOffset + PhoenixTraderTable.HEADER_SIZE
+                        + (slot * PhoenixTraderTable.TRADER_NODE_SIZE);
+                PublicKey staleKey = PublicKey.readPubkey(data, nodeOffset + PhoenixTraderTable.PUBKEY_OFFSET);
+                market.getTraders().add(new Pair<>(staleKey, traderState));
+                market.getTraderSlots().add(null);
+                continue;
             }
-        }
 
-        List<Pair<FIFOOrderId, FIFORestingOrder>> bidOrdersList = market.getBidList();
-        for (int i = 0; i < bidOrdersList.size(); i++) {
-            Pair<FIFOOrderId, FIFORestingOrder> entry = bidOrdersList.get(i);
-            if (!freeNodes.contains(i)) {
-                // tree.set kv
-                market.bidListSanitized.add(entry);
-            }
+            Pair<PublicKey, PhoenixTraderState> entry = new Pair<>(traderTable.getTraders()[slot], traderState);
+            market.getTraders().add(entry);
+            market.getTradersSanitized().add(entry);
+            market.getTraderSlots().add(entry);
         }
     }
 
-    private static void readAskBuffer(byte[] bidBuffer, PhoenixMarket market) {
-        int offset = 0;
-        offset += 16; // skip rbtree header
-        offset += 8;  // Skip node allocator size
-
-        int bumpIndex = PhoenixUtil.readInt32(bidBuffer, offset);
-        offset += 4;
-
-        int freeListHead = PhoenixUtil.readInt32(bidBuffer, offset);
-        offset += 4;
-
-        List<Pair<Integer, Integer>> freeListPointersList = new ArrayList<>();
-
-        for (int index = 0; offset < bidBuffer.length && index < bumpIndex; index++) {
-            List<Integer> registers = new ArrayList<>();
-            for (int i = 0; i < 4; i++) {
-                registers.add(PhoenixUtil.readInt32(bidBuffer, offset));
-                offset += 4;
-            }
-
-            FIFOOrderId fifoOrderId = FIFOOrderId.readFifoOrderId(
-                    Arrays.copyOfRange(bidBuffer, offset, offset + 16)
-            );
-            offset += FIFOOrderId.FIFO_ORDER_ID_SIZE;
-
-            FIFORestingOrder fifoRestingOrder = FIFORestingOrder.readFifoRestingOrder(
-                    Arrays.copyOfRange(bidBuffer, offset, offset + 32)
+    private static void readOrderList(PhoenixOrderBookSide side,
+                                      List<Pair<FIFOOrderId, FIFORestingOrder>> orderList,
+                                      List<Pair<FIFOOrderId, FIFORestingOrder>> sanitizedOrderList) {
+        for (int slot = 0; slot < side.getNumSlots(); slot++) {
+            Pair<FIFOOrderId, FIFORestingOrder> entry = new Pair<>(
+                    side.getFifoOrderId(slot),
+                    side.getFifoRestingOrder(slot)
             );
-            offset += FIFORestingOrder.FIFO_RESTING_ORDER_SIZE;
-
-            market.askList.add(new Pair<>(fifoOrderId, fifoRestingOrder));
-            freeListPointersList.add(new Pair<>(index, registers.get(0)));
-        }
-
-        Set<Integer> freeNodes = new HashSet<>();
-        int indexToRemove = freeListHead - 1;
-        int counter = 0;
-
-        while (freeListHead != 0) {
-            // Ensure freeListHead is within bounds
-            if (freeListHead - 1 < freeListPointersList.size()) {
-                Pair<Integer, Integer> next = freeListPointersList.get(freeListHead - 1);
-                indexToRemove = next.component1();
-                freeListHead = next.component2();
-
-                freeNodes.add(indexToRemove);
-                counter += 1;
-
-                if (counter > bumpIndex) {
-                    log.error("Infinite Loop Detected");
-                }
-            } else {
-                log.error("freeListHead out of bounds: " + freeListHead);
-                break; // Exit the loop if out of bounds
+            orderList.add(entry);
+            if (!side.isFree(slot)) {
+                sanitizedOrderList.add(entry);
             }
         }
+    }
 
-        List<Pair<FIFOOrderId, FIFORestingOrder>> askOrdersList = market.getAskList();
-        for (int i = 0; i < askOrdersList.size(); i++) {
-            Pair<FIFOOrderId, FIFORestingOrder> entry = askOrdersList.get(i);
-            if (!freeNodes.contains(i)) {
-                // tree.set kv
-                market.askListSanitized.add(entry);
-            }
+    /**
+     * Returns the market's unit conversions, building them from the header if the market was not decoded with
+     * {@link #readPhoenixMarket(byte[])}.
+     *
+     * @return the market's scale
+     */
+    public PhoenixMarketScale getScale() {
+        if (scale == null) {
+            scale = PhoenixMarketScale.of(phoenixMarketHeader, tickSizeInQuoteLotsPerBaseUnit);
         }
+        return scale;
     }
 
     public long convertPriceToPriceInTicks(double price) {
-        // Multiply by denominator
-        double result = price * (Math.pow(10, phoenixMarketHeader.getQuoteDecimals()) *
-                phoenixMarketHeader.getRawBaseUnitsPerBaseUnit());
-
-        // Divide out getTickSizeInQuoteLotsPerBaseUnit and getQuoteLotSize
-        result = result / tickSizeInQuoteLotsPerBaseUnit;
-        result = result / phoenixMarketHeader.getQuoteLotSize();
-
-        return Math.round(result);
+        return getScale().priceToTicks(price);
     }
 
     public long convertSizeToNumBaseLots(double size) {
-        double result = size * Math.pow(10, phoenixMarketHeader.getBaseDecimals());
-        result = result / phoenixMarketHeader.getBaseLotSize();
-
-        return Math.round(result);
+        return getScale().sizeToBaseLots(size);
     }
 
     public long convertSizeToNumQuoteLots(double size) {
-        return Math.round(size * Math.pow(10, phoenixMarketHeader.getQuoteDecimals()) /
-                phoenixMarketHeader.getQuoteLotSize());
+        return getScale().sizeToQuoteLots(size);
     }
 }
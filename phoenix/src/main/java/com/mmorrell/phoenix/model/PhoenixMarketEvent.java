@@ -0,0 +1,212 @@
+package com.mmorrell.phoenix.model;
+
+import com.mmorrell.phoenix.util.PhoenixUtil;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.p2p.solanaj.core.PublicKey;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A market event emitted by the Phoenix program through its log instruction.
+ * <p>
+ * Every batch of events starts with a header describing the instruction that produced it (market, signer, market
+ * sequence number, slot and timestamp). The header fields are copied onto each event of the batch, so events can be
+ * handled on their own.
+ */
+@Data
+@Builder
+@Slf4j
+public class PhoenixMarketEvent {
+
+    // PhoenixInstruction::Log
+    public static final byte LOG_INSTRUCTION = 15;
+
+    private static final int HEADER_SIZE = 1 + 8 + 8 + 8 + 32 + 32 + 2;
+    private static final int FILL_SIZE = 2 + 32 + 8 + 8 + 8 + 8;
+    private static final int PLACE_SIZE = 2 + 8 + 16 + 8 + 8;
+    private static final int REDUCE_SIZE = 2 + 8 + 8 + 8 + 8;
+    private static final int EVICT_SIZE = 2 + 32 + 8 + 8 + 8;
+    private static final int FILL_SUMMARY_SIZE = 2 + 16 + 8 + 8 + 8;
+    private static final int FEE_SIZE = 2 + 8;
+    private static final int TIME_IN_FORCE_SIZE = 2 + 8 + 8 + 8;
+    private static final int EXPIRED_ORDER_SIZE = 2 + 32 + 8 + 8 + 8;
+
+    private PhoenixMarketEventType type;
+
+    // From the batch header
+    private byte instruction;
+    private long sequenceNumber;
+    private long timestamp;
+    private long slot;
+    private PublicKey market;
+    private PublicKey signer;
+    private int totalEvents;
+
+    // Index of the event within the instruction
+    private int index;
+
+    // Fill, Evict, ExpiredOrder
+    private PublicKey makerId;
+
+    // Fill, Place, Reduce, Evict, TimeInForce, ExpiredOrder
+    private long orderSequenceNumber;
+
+    // Fill, Place, Reduce, Evict, ExpiredOrder
+    private long priceInTicks;
+
+    // Filled (Fill), placed (Place), removed (Reduce, ExpiredOrder), evicted (Evict) or total filled (FillSummary)
+    private long baseLots;
+
+    // Fill, Reduce
+    private long baseLotsRemaining;
+
+    // Place, FillSummary
+    private BigInteger clientOrderId;
+
+    // Total quote lots filled (FillSummary) or fees collected (Fee)
+    private long quoteLots;
+
+    // FillSummary
+    private long feeInQuoteLots;
+
+    // TimeInForce
+    private long lastValidSlot;
+    private long lastValidUnixTimestampInSeconds;
+
+    /**
+     * Decodes the events of a Phoenix log instruction: the Log tag, followed by a borsh Vec of PhoenixMarketEvent.
+     *
+     * @param data the instruction data
+     * @return the events after the header, or an empty list if the data is not a log instruction
+     */
+    public static List<PhoenixMarketEvent> readPhoenixMarketEvents(byte[] data) {
+        return readPhoenixMarketEvents(data, null);
+    }
+
+    /**
+     * Decodes the events of a Phoenix log instruction, using the given header if the batch does not start with one.
+     *
+     * @param data   the instruction data
+     * @param header the header of the previous batch of the same instruction, or null
+     * @return the events, with the batch header first if it has one
+     */
+    public static List<PhoenixMarketEvent> readPhoenixMarketEvents(byte[] data, PhoenixMarketEvent header) {
+        List<PhoenixMarketEvent> events = new ArrayList<>();
+        if (data.length < 5 || data[0] != LOG_INSTRUCTION) {
+            return events;
+        }
+
+        long numEvents = Integer.toUnsignedLong(PhoenixUtil.readInt32(data, 1));
+        int offset = 5;
+
+        for (long i = 0; i < numEvents && offset < data.length; i++) {
+            PhoenixMarketEventType type = PhoenixMarketEventType.fromTag(data[offset] & 0xFF);
+            if (type == null) {
+                log.error("Unknown phoenix market event tag: {}", data[offset] & 0xFF);
+                break;
+            }
+            offset++;
+
+            int size = getSize(type);
+            if (offset + size > data.length) {
+                log.error("Truncated phoenix market event: {}", type);
+                break;
+            }
+
+            PhoenixMarketEventBuilder builder = PhoenixMarketEvent.builder().type(type);
+            if (type == PhoenixMarketEventType.HEADER) {
+                header = builder
+                        .instruction(data[offset])
+                        .sequenceNumber(PhoenixUtil.readInt64(data, offset + 1))
+                        .timestamp(PhoenixUtil.readInt64(data, offset + 9))
+                        .slot(PhoenixUtil.readInt64(data, offset + 17))
+                        .market(PublicKey.readPubkey(data, offset + 25))
+                        .signer(PublicKey.readPubkey(data, offset + 57))
+                        .totalEvents(PhoenixUtil.readUint16(data, offset + 89))
+                        .build();
+                events.add(header);
+                offset += size;
+                continue;
+            }
+
+            if (header != null) {
+                builder.instruction(header.getInstruction())
+                        .sequenceNumber(header.getSequenceNumber())
+                        .timestamp(header.getTimestamp())
+                        .slot(header.getSlot())
+                        .market(header.getMarket())
+                        .signer(header.getSigner())
+                        .totalEvents(header.getTotalEvents());
+            }
+            if (size > 0) {
+                builder.index(PhoenixUtil.readUint16(data, offset));
+            }
+
+            int body = offset + 2;
+            switch (type) {
+                case FILL -> builder
+                        .makerId(PublicKey.readPubkey(data, body))
+                        .orderSequenceNumber(PhoenixUtil.readInt64(data, body + 32))
+                        .priceInTicks(PhoenixUtil.readInt64(data, body + 40))
+                        .baseLots(PhoenixUtil.readInt64(data, body + 48))
+                        .baseLotsRemaining(PhoenixUtil.readInt64(data, body + 56));
+                case PLACE -> builder
+                        .orderSequenceNumber(PhoenixUtil.readInt64(data, body))
+                        .clientOrderId(PhoenixUtil.readUint128(data, body + 8))
+                        .priceInTicks(PhoenixUtil.readInt64(data, body + 24))
+                        .baseLots(PhoenixUtil.readInt64(data, body + 32));
+                case REDUCE -> builder
+                        .orderSequenceNumber(PhoenixUtil.readInt64(data, body))
+                        .priceInTicks(PhoenixUtil.readInt64(data, body + 8))
+                        .baseLots(PhoenixUtil.readInt64(data, body + 16))
+                        .baseLotsRemaining(PhoenixUtil.readInt64(data, body + 24));
+                case EVICT, EXPIRED_ORDER -> builder
+                        .makerId(PublicKey.readPubkey(data, body))
+                        .orderSequenceNumber(PhoenixUtil.readInt64(data, body + 32))
+                        .priceInTicks(PhoenixUtil.readInt64(data, body + 40))
+                        .baseLots(PhoenixUtil.readInt64(data, body + 48));
+                case FILL_SUMMARY -> builder
+                        .clientOrderId(PhoenixUtil.readUint128(data, body))
+                        .baseLots(PhoenixUtil.readInt64(data, body + 16))
+                        .quoteLots(PhoenixUtil.readInt64(data, body + 24))
+                        .feeInQuoteLots(PhoenixUtil.readInt64(data, body + 32));
+                case FEE -> builder
+                        .quoteLots(PhoenixUtil.readInt64(data, body));
+                case TIME_IN_FORCE -> builder
+                        .orderSequenceNumber(PhoenixUtil.readInt64(data, body))
+                        .lastValidSlot(PhoenixUtil.readInt64(data, body + 8))
+                        .lastValidUnixTimestampInSeconds(PhoenixUtil.readInt64(data, body + 16));
+                default -> {
+                }
+            }
+
+            events.add(builder.build());
+            offset += size;
+        }
+
+        return events;
+    }
+
+    public boolean isFill() {
+        return type == PhoenixMarketEventType.FILL;
+    }
+
+    private static int getSize(PhoenixMarketEventType type) {
+        return switch (type) {
+            case UNINITIALIZED -> 0;
+            case HEADER -> HEADER_SIZE;
+            case FILL -> FILL_SIZE;
+            case PLACE -> PLACE_SIZE;
+            case REDUCE -> REDUCE_SIZE;
+            case EVICT -> EVICT_SIZE;
+            case FILL_SUMMARY -> FILL_SUMMARY_SIZE;
+            case FEE -> FEE_SIZE;
+            case TIME_IN_FORCE -> TIME_IN_FORCE_SIZE;
+            case EXPIRED_ORDER -> EXPIRED_ORDER_SIZE;
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package com.mmorrell.phoenix.model;
+
+/**
+ * The variants of Phoenix's PhoenixMarketEvent enum, in borsh tag order.
+ */
+public enum PhoenixMarketEventType {
+
+    UNINITIALIZED,
+    HEADER,
+    FILL,
+    PLACE,
+    REDUCE,
+    EVICT,
+    FILL_SUMMARY,
+    FEE,
+    TIME_IN_FORCE,
+    EXPIRED_ORDER;
+
+    private static final PhoenixMarketEventType[] VALUES = values();
+
+    /**
+     * Returns the event type with the given borsh tag.
+     *
+     * @param tag the tag
+     * @return the event type, or null if the tag is unknown
+     */
+    public static PhoenixMarketEventType fromTag(int tag) {
+        return tag >= 0 && tag < VALUES.length ? VALUES[tag] : null;
+    }
+}
@@ -11,6 +11,7 @@ import org.p2p.solanaj.core.PublicKey;
 public class PhoenixMarketHeader {
 
     public static final int MARKET_HEADER_SIZE = 328;
+    public static final int MARKET_SEQUENCE_NUMBER_OFFSET = 272;
     private long discriminant;
     private long status;
     private long bidsSize;
@@ -61,7 +62,7 @@ public class PhoenixMarketHeader {
                 .tickSize(Utils.readInt64(data, 200))
                 .authority(PublicKey.readPubkey(data, 208))
                 .feeDestination(PublicKey.readPubkey(data, 240))
-                .marketSequenceNumber(Utils.readInt64(data, 272))
+                .marketSequenceNumber(Utils.readInt64(data, MARKET_SEQUENCE_NUMBER_OFFSET))
                 .successor(PublicKey.readPubkey(data, 280))
                 .rawBaseUnitsPerBaseUnit(PhoenixUtil.readInt32(data, 312))
                 .build();
@@ -0,0 +1,190 @@
+package com.mmorrell.phoenix.model;
+
+import com.mmorrell.phoenix.util.PhoenixUtil;
+import lombok.Getter;
+
+/**
+ * Precomputed unit conversions for one Phoenix market, between its integer units (ticks, base lots, quote lots) and
+ * UI units (quote tokens per base token, base tokens, quote tokens).
+ * <p>
+ * A price in ticks is {@code ticks * tickSizeInQuoteLotsPerBaseUnit * quoteLotSize} quote atoms per
+ * {@code rawBaseUnitsPerBaseUnit} base units, so it is exactly representable as a long mantissa with
+ * {@link #getPriceDecimals()} decimals whenever rawBaseUnitsPerBaseUnit is a power of ten (it always is on the live
+ * markets). Sizes are exact mantissas in base or quote atoms. The long conversions are exact; the double conversions
+ * need a single multiply or divide and no {@code Math.pow}.
+ */
+@Getter
+public class PhoenixMarketScale {
+
+    private final int baseDecimals;
+    private final int quoteDecimals;
+    private final long baseLotSize;
+    private final long quoteLotSize;
+    private final long tickSizeInQuoteLotsPerBaseUnit;
+    private final long rawBaseUnitsPerBaseUnit;
+
+    // Price mantissa per tick, and its number of decimals
+    private final long priceMantissaPerTick;
+    private final int priceDecimals;
+
+    private final long baseScale;
+    private final long quoteScale;
+    private final double priceScale;
+
+    // UI units per integer unit
+    private final double pricePerTick;
+    private final double sizePerBaseLot;
+    private final double sizePerQuoteLot;
+
+    public PhoenixMarketScale(int baseDecimals, int quoteDecimals, long baseLotSize, long quoteLotSize,
+                              long tickSizeInQuoteLotsPerBaseUnit, long rawBaseUnitsPerBaseUnit) {
+        this.baseDecimals = baseDecimals;
+        this.quoteDecimals = quoteDecimals;
+        this.baseLotSize = baseLotSize;
+        this.quoteLotSize = quoteLotSize;
+        this.tickSizeInQuoteLotsPerBaseUnit = tickSizeInQuoteLotsPerBaseUnit;
+        this.rawBaseUnitsPerBaseUnit = Math.max(1, rawBaseUnitsPerBaseUnit);
+
+        this.baseScale = PhoenixUtil.pow10(baseDecimals);
+        this.quoteScale = PhoenixUtil.pow10(quoteDecimals);
+        this.priceMantissaPerTick = tickSizeInQuoteLotsPerBaseUnit * quoteLotSize;
+
+        // Divide by rawBaseUnitsPerBaseUnit by moving the decimal point when it is a power of ten
+        int rawDecimals = PhoenixUtil.log10Exact(this.rawBaseUnitsPerBaseUnit);
+        this.priceDecimals = quoteDecimals + Math.max(rawDecimals, 0);
+        this.priceScale = rawDecimals >= 0
+                ? (double) PhoenixUtil.pow10(priceDecimals)
+                : (double) quoteScale * this.rawBaseUnitsPerBaseUnit;
+
+        this.pricePerTick = priceMantissaPerTick / priceScale;
+        this.sizePerBaseLot = (double) baseLotSize / baseScale;
+        this.sizePerQuoteLot = (double) quoteLotSize / quoteScale;
+    }
+
+    /**
+     * Creates the scale of a market from its header and tick size.
+     *
+     * @param header                         the market header
+     * @param tickSizeInQuoteLotsPerBaseUnit the market's tick size, in quote lots per base unit
+     * @return the market's scale
+     */
+    public static PhoenixMarketScale of(PhoenixMarketHeader header, long tickSizeInQuoteLotsPerBaseUnit) {
+        return new PhoenixMarketScale(
+                header.getBaseDecimals(),
+                header.getQuoteDecimals(),
+                header.getBaseLotSize(),
+                header.getQuoteLotSize(),
+                tickSizeInQuoteLotsPerBaseUnit,
+                header.getRawBaseUnitsPerBaseUnit()
+        );
+    }
+
+    /**
+     * Returns true if this scale was built from the given market parameters, so decoders can keep it across updates.
+     */
+    public boolean matches(int baseDecimals, int quoteDecimals, long baseLotSize, long quoteLotSize,
+                           long tickSizeInQuoteLotsPerBaseUnit, long rawBaseUnitsPerBaseUnit) {
+        return this.baseDecimals == baseDecimals
+                && this.quoteDecimals == quoteDecimals
+                && this.baseLotSize == baseLotSize
+                && this.quoteLotSize == quoteLotSize
+                && this.tickSizeInQuoteLotsPerBaseUnit == tickSizeInQuoteLotsPerBaseUnit
+                && this.rawBaseUnitsPerBaseUnit == Math.max(1, rawBaseUnitsPerBaseUnit);
+    }
+
+    /**
+     * Converts a price in ticks to an exact price mantissa, with {@link #getPriceDecimals()} decimals.
+     *
+     * @param priceInTicks the price in ticks
+     * @return the price mantissa
+     */
+    public long ticksToPriceMantissa(long priceInTicks) {
+        return Math.multiplyExact(priceInTicks, priceMantissaPerTick);
+    }
+
+    /**
+     * Converts a price mantissa, with {@link #getPriceDecimals()} decimals, to the nearest tick.
+     *
+     * @param priceMantissa the price mantissa
+     * @return the price in ticks, rounded half up
+     */
+    public long priceMantissaToTicks(long priceMantissa) {
+        return Math.floorDiv(priceMantissa + (priceMantissaPerTick / 2), priceMantissaPerTick);
+    }
+
+    /**
+     * Returns true if the price mantissa is a whole number of ticks.
+     *
+     * @param priceMantissa the price mantissa, with {@link #getPriceDecimals()} decimals
+     * @return true if the price is on a tick
+     */
+    public boolean isOnTick(long priceMantissa) {
+        return Math.floorMod(priceMantissa, priceMantissaPerTick) == 0;
+    }
+
+    /**
+     * Converts base lots to base atoms (a size mantissa with {@link #getBaseDecimals()} decimals).
+     *
+     * @param numBaseLots the size in base lots
+     * @return the size in base atoms
+     */
+    public long baseLotsToAtoms(long numBaseLots) {
+        return Math.multiplyExact(numBaseLots, baseLotSize);
+    }
+
+    /**
+     * Converts base atoms to whole base lots, rounding down.
+     *
+     * @param baseAtoms the size in base atoms
+     * @return the size in base lots
+     */
+    public long baseAtomsToLots(long baseAtoms) {
+        return Math.floorDiv(baseAtoms, baseLotSize);
+    }
+
+    /**
+     * Converts quote lots to quote atoms (a size mantissa with {@link #getQuoteDecimals()} decimals).
+     *
+     * @param numQuoteLots the size in quote lots
+     * @return the size in quote atoms
+     */
+    public long quoteLotsToAtoms(long numQuoteLots) {
+        return Math.multiplyExact(numQuoteLots, quoteLotSize);
+    }
+
+    /**
+     * Converts quote atoms to whole quote lots, rounding down.
+     *
+     * @param quoteAtoms the size in quote atoms
+     * @return the size in quote lots
+     */
+    public long quoteAtomsToLots(long quoteAtoms) {
+        return Math.floorDiv(quoteAtoms, quoteLotSize);
+    }
+
+    // Multiplied in double, which is exact up to 2^53 and cannot overflow like a long product
+
+    public double ticksToPrice(long priceInTicks) {
+        return priceInTicks * (double) priceMantissaPerTick / priceScale;
+    }
+
+    public double baseLotsToSize(long numBaseLots) {
+        return numBaseLots * (double) baseLotSize / baseScale;
+    }
+
+    public double quoteLotsToSize(long numQuoteLots) {
+        return numQuoteLots * (double) quoteLotSize / quoteScale;
+    }
+
+    public long priceToTicks(double price) {
+        return Math.round(price * priceScale / priceMantissaPerTick);
+    }
+
+    public long sizeToBaseLots(double size) {
+        return Math.round(size * baseScale / baseLotSize);
+    }
+
+    public long sizeToQuoteLots(double size) {
+        return Math.round(size * quoteScale / quoteLotSize);
+    }
+}
@@ -0,0 +1,100 @@
+package com.mmorrell.phoenix.model;
+
+import com.mmorrell.phoenix.util.PhoenixUtil;
+import lombok.Getter;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * A reusable decode target for a Phoenix market's book: both order book sides, the trader table and the market
+ * parameters needed to interpret them. {@link #read(byte[])} decodes a market account in place and only allocates
+ * when the market's capacity grows.
+ * <p>
+ * The book carries a version that is odd while a decode is in progress, so that readers on other threads can detect
+ * (and retry) a read that overlapped with a write.
+ */
+@Getter
+public class PhoenixOrderBook {
+
+    private static final int NUM_SEATS_OFFSET = 32;
+    private static final int BASE_DECIMALS_OFFSET = 40;
+    private static final int BASE_LOT_SIZE_OFFSET = 112;
+    private static final int QUOTE_DECIMALS_OFFSET = 120;
+    private static final int QUOTE_LOT_SIZE_OFFSET = 192;
+    private static final int RAW_BASE_UNITS_PER_BASE_UNIT_OFFSET = 312;
+    private static final int BASE_LOTS_PER_BASE_UNIT_OFFSET = 832;
+    private static final int TICK_SIZE_OFFSET = 840;
+    private static final int ORDER_SEQUENCE_NUMBER_OFFSET = 848;
+    private static final int BIDS_OFFSET = 880;
+
+    private final PhoenixOrderBookSide bids = new PhoenixOrderBookSide();
+    private final PhoenixOrderBookSide asks = new PhoenixOrderBookSide();
+    private final PhoenixTraderTable traderTable = new PhoenixTraderTable();
+
+    private int baseDecimals;
+    private int quoteDecimals;
+    private long baseLotSize;
+    private long quoteLotSize;
+    private long rawBaseUnitsPerBaseUnit;
+    private long baseLotsPerBaseUnit;
+    private long tickSizeInQuoteLotsPerBaseUnit;
+    private long orderSequenceNumber;
+
+    // Rebuilt only when the market's parameters change
+    private PhoenixMarketScale scale;
+
+    // Number of market updates decoded into this book
+    private long updateCount;
+
+    private volatile long version;
+
+    /**
+     * Decodes a Phoenix market account into this book.
+     *
+     * @param data the market account data
+     */
+    public void read(byte[] data) {
+        long currentVersion = version;
+        version = currentVersion + 1;
+        VarHandle.storeStoreFence();
+
+        try {
+            baseDecimals = PhoenixUtil.readInt32(data, BASE_DECIMALS_OFFSET);
+            quoteDecimals = PhoenixUtil.readInt32(data, QUOTE_DECIMALS_OFFSET);
+            baseLotSize = PhoenixUtil.readInt64(data, BASE_LOT_SIZE_OFFSET);
+            quoteLotSize = PhoenixUtil.readInt64(data, QUOTE_LOT_SIZE_OFFSET);
+            rawBaseUnitsPerBaseUnit = PhoenixUtil.readInt32(data, RAW_BASE_UNITS_PER_BASE_UNIT_OFFSET);
+            baseLotsPerBaseUnit = PhoenixUtil.readInt64(data, BASE_LOTS_PER_BASE_UNIT_OFFSET);
+            tickSizeInQuoteLotsPerBaseUnit = PhoenixUtil.readInt64(data, TICK_SIZE_OFFSET);
+            orderSequenceNumber = PhoenixUtil.readInt64(data, ORDER_SEQUENCE_NUMBER_OFFSET);
+            if (scale == null || !scale.matches(baseDecimals, quoteDecimals, baseLotSize, quoteLotSize,
+                    tickSizeInQuoteLotsPerBaseUnit, rawBaseUnitsPerBaseUnit)) {
+                scale = new PhoenixMarketScale(baseDecimals, quoteDecimals, baseLotSize, quoteLotSize,
+                        tickSizeInQuoteLotsPerBaseUnit, rawBaseUnitsPerBaseUnit);
+            }
+
+            PhoenixMarket.readOrderBook(data, bids, asks);
+
+            int tradersOffset = BIDS_OFFSET + PhoenixOrderBookSide.getSize(bids.getCapacity())
+                    + PhoenixOrderBookSide.getSize(asks.getCapacity());
+            traderTable.read(data, tradersOffset, Math.toIntExact(PhoenixUtil.readInt64(data, NUM_SEATS_OFFSET)));
+            traderTable.indexOrders(bids, asks);
+
+            updateCount++;
+        } finally {
+            // Always leave an even version, so a failed decode is seen as a change rather than a write in progress
+            version = currentVersion + 2;
+        }
+    }
+
+    /**
+     * Returns true if no decode is in progress and none has completed since the given version was read.
+     *
+     * @param expectedVersion the version read before reading the book
+     * @return true if the reads made since then are consistent
+     */
+    public boolean validate(long expectedVersion) {
+        VarHandle.acquireFence();
+        return (expectedVersion & 1) == 0 && version == expectedVersion;
+    }
+}
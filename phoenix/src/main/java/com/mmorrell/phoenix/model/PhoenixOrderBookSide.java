@@ -0,0 +1,364 @@
+package com.mmorrell.phoenix.model;
+
+import com.mmorrell.phoenix.util.PhoenixUtil;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.OptionalLong;
+
+/**
+ * One side (bids or asks) of a Phoenix order book, decoded in place from the market account.
+ * <p>
+ * Each side is a red-black tree stored in a node allocator: a 16 byte tree header, the allocator's size, bump index
+ * and free list head, followed by fixed-size nodes of 4 registers, a {@link FIFOOrderId} and a
+ * {@link FIFORestingOrder}. Node addresses are 1-based; slot {@code i} in the arrays below holds node address
+ * {@code i + 1}. Free nodes are marked in a bitset, and live slots are listed in {@link #getLiveNodes()}.
+ * <p>
+ * The tree orders both sides best first (bids by descending price, asks by ascending price, then by time priority), so
+ * the leftmost node is the best order and an in-order walk of the tree links visits the book from best to worst.
+ * <p>
+ * An instance can be reused across updates: {@link #read(byte[], int, int)} only allocates when the market's capacity
+ * grows past what the arrays already hold.
+ */
+@Slf4j
+@Getter
+public class PhoenixOrderBookSide {
+
+    public static final int NUM_REGISTERS = 4;
+    public static final int REGISTERS_SIZE = NUM_REGISTERS * 4;
+    public static final int NODE_SIZE =
+            REGISTERS_SIZE + FIFOOrderId.FIFO_ORDER_ID_SIZE + FIFORestingOrder.FIFO_RESTING_ORDER_SIZE;
+    public static final int HEADER_SIZE = 16 + 16;
+
+    // Sentinel node address, used for empty tree links and the end of the free list
+    public static final int SENTINEL = 0;
+
+    // Red-black tree registers
+    public static final int LEFT = 0;
+    public static final int RIGHT = 1;
+    public static final int PARENT = 2;
+    public static final int COLOR = 3;
+
+    private static final int ROOT_OFFSET = 0;
+    private static final int BUMP_INDEX_OFFSET = 24;
+    private static final int FREE_LIST_HEAD_OFFSET = 28;
+
+    private static final int PRICE_IN_TICKS_OFFSET = REGISTERS_SIZE;
+    private static final int ORDER_SEQUENCE_NUMBER_OFFSET = PRICE_IN_TICKS_OFFSET + 8;
+    private static final int TRADER_INDEX_OFFSET = REGISTERS_SIZE + FIFOOrderId.FIFO_ORDER_ID_SIZE;
+    private static final int NUM_BASE_LOTS_OFFSET = TRADER_INDEX_OFFSET + 8;
+
+    private int capacity;
+    private int root;
+    private int bumpIndex;
+    private int freeListHead;
+
+    // Number of allocated slots (bumpIndex - 1), free or not
+    private int numSlots;
+
+    // Number of live orders, and their slots in allocator order
+    private int liveCount;
+    private int[] liveNodes = new int[0];
+
+    // One bit per slot, set when the node is on the free list
+    private long[] freeNodes = new long[0];
+
+    // Indexed by slot
+    private int[] registers = new int[0];
+    private long[] priceInTicks = new long[0];
+    private long[] orderSequenceNumber = new long[0];
+    private long[] traderIndex = new long[0];
+    private long[] numBaseLots = new long[0];
+
+    /**
+     * Returns the size in bytes of an order book side with the given capacity.
+     *
+     * @param capacity the maximum number of orders, from the market header
+     * @return the size of the side in the market account
+     */
+    public static int getSize(long capacity) {
+        return Math.toIntExact(HEADER_SIZE + NODE_SIZE * capacity);
+    }
+
+    /**
+     * Decodes an order book side from the given account data.
+     *
+     * @param data     the market account data
+     * @param offset   the offset of the side within the data
+     * @param capacity the maximum number of orders, from the market header
+     * @return the decoded side
+     */
+    public static PhoenixOrderBookSide readPhoenixOrderBookSide(byte[] data, int offset, int capacity) {
+        PhoenixOrderBookSide side = new PhoenixOrderBookSide();
+        side.read(data, offset, capacity);
+        return side;
+    }
+
+    /**
+     * Decodes an order book side into this instance, reusing its arrays.
+     *
+     * @param data     the market account data
+     * @param offset   the offset of the side within the data
+     * @param capacity the maximum number of orders, from the market header
+     * @return the number of live orders
+     */
+    public int read(byte[] data, int offset, int capacity) {
+        ensureCapacity(capacity);
+        this.capacity = capacity;
+
+        root = PhoenixUtil.readInt32(data, offset + ROOT_OFFSET);
+        bumpIndex = PhoenixUtil.readInt32(data, offset + BUMP_INDEX_OFFSET);
+        freeListHead = PhoenixUtil.readInt32(data, offset + FREE_LIST_HEAD_OFFSET);
+
+        int nodesOffset = offset + HEADER_SIZE;
+        int availableSlots = Math.max(0, (data.length - nodesOffset) / NODE_SIZE);
+        numSlots = Math.max(0, Math.min(bumpIndex - 1, Math.min(capacity, availableSlots)));
+
+        int words = (numSlots + 63) >>> 6;
+        for (int i = 0; i < words; i++) {
+            freeNodes[i] = 0L;
+        }
+
+        // Mark free nodes, following register 0 of each free node
+        int next = freeListHead;
+        int counter = 0;
+        while (next != SENTINEL) {
+            int slot = next - 1;
+            if (slot < 0 || slot >= numSlots) {
+                log.error("freeListHead out of bounds: " + next);
+                break;
+            }
+            if (++counter > numSlots) {
+                log.error("Infinite Loop Detected");
+                break;
+            }
+
+            freeNodes[slot >>> 6] |= 1L << slot;
+            next = PhoenixUtil.readInt32(data, nodesOffset + (slot * NODE_SIZE));
+        }
+
+        liveCount = 0;
+        for (int slot = 0; slot < numSlots; slot++) {
+            int nodeOffset = nodesOffset + (slot * NODE_SIZE);
+            int registerIndex = slot * NUM_REGISTERS;
+            for (int i = 0; i < NUM_REGISTERS; i++) {
+                registers[registerIndex + i] = PhoenixUtil.readInt32(data, nodeOffset + (i * 4));
+            }
+
+            priceInTicks[slot] = PhoenixUtil.readInt64(data, nodeOffset + PRICE_IN_TICKS_OFFSET);
+            orderSequenceNumber[slot] = PhoenixUtil.readInt64(data, nodeOffset + ORDER_SEQUENCE_NUMBER_OFFSET);
+            traderIndex[slot] = PhoenixUtil.readInt64(data, nodeOffset + TRADER_INDEX_OFFSET);
+            numBaseLots[slot] = PhoenixUtil.readInt64(data, nodeOffset + NUM_BASE_LOTS_OFFSET);
+
+            if (!isFree(slot)) {
+                liveNodes[liveCount++] = slot;
+            }
+        }
+
+        return liveCount;
+    }
+
+    /**
+     * Returns true if the slot is on the allocator's free list.
+     *
+     * @param slot the slot (node address - 1)
+     * @return true if the slot is free
+     */
+    public boolean isFree(int slot) {
+        return (freeNodes[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * Returns one of the 4 registers of the node in the given slot.
+     *
+     * @param slot     the slot (node address - 1)
+     * @param register the register, 0 to 3
+     * @return the register's value
+     */
+    public int getRegister(int slot, int register) {
+        return registers[(slot * NUM_REGISTERS) + register];
+    }
+
+    public long getPriceInTicks(int slot) {
+        return priceInTicks[slot];
+    }
+
+    public long getOrderSequenceNumber(int slot) {
+        return orderSequenceNumber[slot];
+    }
+
+    public long getTraderIndex(int slot) {
+        return traderIndex[slot];
+    }
+
+    public long getNumBaseLots(int slot) {
+        return numBaseLots[slot];
+    }
+
+    /**
+     * Builds a {@link FIFOOrderId} for the order in the given slot.
+     *
+     * @param slot the slot (node address - 1)
+     * @return the order id
+     */
+    public FIFOOrderId getFifoOrderId(int slot) {
+        return FIFOOrderId.builder()
+                .priceInTicks(priceInTicks[slot])
+                .orderSequenceNumber(orderSequenceNumber[slot])
+                .build();
+    }
+
+    /**
+     * Builds a {@link FIFORestingOrder} for the order in the given slot.
+     *
+     * @param slot the slot (node address - 1)
+     * @return the resting order
+     */
+    public FIFORestingOrder getFifoRestingOrder(int slot) {
+        return FIFORestingOrder.builder()
+                .traderIndex(traderIndex[slot])
+                .numBaseLots(numBaseLots[slot])
+                .build();
+    }
+
+    /**
+     * Returns the slot of the best order (highest bid or lowest ask), walking the left links from the root.
+     *
+     * @return the slot of the best order, or -1 if the side is empty
+     */
+    public int getBestNode() {
+        int slot = toSlot(root);
+        if (slot < 0) {
+            return -1;
+        }
+
+        for (int depth = 0; depth < numSlots; depth++) {
+            int left = toSlot(getRegister(slot, LEFT));
+            if (left < 0) {
+                return slot;
+            }
+            slot = left;
+        }
+
+        log.error("Cycle detected in order book tree");
+        return -1;
+    }
+
+    /**
+     * Returns the slot of the order that follows the given one, from best to worst.
+     *
+     * @param slot the slot of the current order
+     * @return the slot of the next order, or -1 if the given order is the worst one
+     */
+    public int getNextNode(int slot) {
+        int right = toSlot(getRegister(slot, RIGHT));
+        if (right >= 0) {
+            int next = right;
+            for (int depth = 0; depth < numSlots; depth++) {
+                int left = toSlot(getRegister(next, LEFT));
+                if (left < 0) {
+                    return next;
+                }
+                next = left;
+            }
+
+            log.error("Cycle detected in order book tree");
+            return -1;
+        }
+
+        // Climb until we leave a left subtree
+        int child = slot;
+        for (int depth = 0; depth < numSlots; depth++) {
+            int parent = toSlot(getRegister(child, PARENT));
+            if (parent < 0) {
+                return -1;
+            }
+            if (toSlot(getRegister(parent, LEFT)) == child) {
+                return parent;
+            }
+            child = parent;
+        }
+
+        log.error("Cycle detected in order book tree");
+        return -1;
+    }
+
+    /**
+     * Returns the best price on this side.
+     *
+     * @return the best price in ticks, or empty if the side is empty
+     */
+    public OptionalLong getBestPriceInTicks() {
+        int best = getBestNode();
+        return best < 0 ? OptionalLong.empty() : OptionalLong.of(priceInTicks[best]);
+    }
+
+    /**
+     * Writes the slots of the live orders, from best to worst, into the given array.
+     *
+     * @param slots the array to write to; at most {@code slots.length} orders are written
+     * @return the number of slots written
+     */
+    public int readOrderedNodes(int[] slots) {
+        int count = 0;
+        for (int slot = getBestNode(); slot >= 0 && count < slots.length && count < liveCount;
+             slot = getNextNode(slot)) {
+            slots[count++] = slot;
+        }
+
+        return count;
+    }
+
+    /**
+     * Aggregates the best price levels of this side into the given arrays, walking the tree from the best order.
+     *
+     * @param maxLevels   the maximum number of levels to read
+     * @param levelPrices the array receiving each level's price in ticks
+     * @param levelLots   the array receiving each level's total size in base lots
+     * @return the number of levels written
+     */
+    public int readLevels(int maxLevels, long[] levelPrices, long[] levelLots) {
+        int limit = Math.min(maxLevels, Math.min(levelPrices.length, levelLots.length));
+        int levels = 0;
+        int visited = 0;
+
+        for (int slot = getBestNode(); slot >= 0 && visited < liveCount; slot = getNextNode(slot), visited++) {
+            if (levels > 0 && levelPrices[levels - 1] == priceInTicks[slot]) {
+                levelLots[levels - 1] += numBaseLots[slot];
+                continue;
+            }
+            if (levels == limit) {
+                break;
+            }
+
+            levelPrices[levels] = priceInTicks[slot];
+            levelLots[levels] = numBaseLots[slot];
+            levels++;
+        }
+
+        return levels;
+    }
+
+    // Converts a node address to a slot, or -1 for the sentinel and addresses outside the allocated slots
+    private int toSlot(int address) {
+        if (address == SENTINEL || address > numSlots || address < 0) {
+            return -1;
+        }
+
+        return address - 1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (priceInTicks.length >= capacity) {
+            return;
+        }
+
+        liveNodes = new int[capacity];
+        freeNodes = new long[(capacity + 63) >>> 6];
+        registers = new int[capacity * NUM_REGISTERS];
+        priceInTicks = new long[capacity];
+        orderSequenceNumber = new long[capacity];
+        traderIndex = new long[capacity];
+        numBaseLots = new long[capacity];
+    }
+}
@@ -0,0 +1,26 @@
+package com.mmorrell.phoenix.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * A trader's resting order, with its place in the queue of its price level.
+ */
+@Data
+@Builder
+public class PhoenixTraderOrder {
+
+    // 0 = Bid, 1 = Ask
+    private byte side;
+    private long priceInTicks;
+    private long orderSequenceNumber;
+    private long numBaseLots;
+
+    // Number of orders, and their total size, ahead of this one at the same price
+    private int queuePosition;
+    private long baseLotsAhead;
+
+    private double price;
+    private double size;
+
+}
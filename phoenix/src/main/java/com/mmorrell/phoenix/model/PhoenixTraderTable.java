@@ -0,0 +1,347 @@
+package com.mmorrell.phoenix.model;
+
+import com.mmorrell.phoenix.util.PhoenixUtil;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.p2p.solanaj.core.PublicKey;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The seated traders of a Phoenix market, decoded in place into dense arrays indexed by trader index.
+ * <p>
+ * Orders refer to their trader by its 1-based node address in the traders tree, so trader index {@code i} lives in
+ * slot {@code i - 1} of the arrays below. After {@link #indexOrders(PhoenixOrderBookSide, PhoenixOrderBookSide)}, each
+ * trader also links to its resting orders on both sides, best first, with their position in the price level's queue.
+ * <p>
+ * An instance can be reused across updates. Trader public keys are only rebuilt when the key stored in a slot
+ * changes, so decoding the same market again does not allocate unless seats change.
+ */
+@Slf4j
+@Getter
+public class PhoenixTraderTable {
+
+    public static final int TRADER_NODE_SIZE =
+            PhoenixOrderBookSide.REGISTERS_SIZE + PublicKey.PUBLIC_KEY_LENGTH + PhoenixTraderState.PHOENIX_TRADER_STATE_SIZE;
+    public static final int HEADER_SIZE = 16 + 16;
+    public static final int PUBKEY_OFFSET = PhoenixOrderBookSide.REGISTERS_SIZE;
+
+    public static final byte SIDE_BID = 0;
+    public static final byte SIDE_ASK = 1;
+
+    private static final int BUMP_INDEX_OFFSET = 24;
+    private static final int FREE_LIST_HEAD_OFFSET = 28;
+
+    private static final int STATE_OFFSET = PUBKEY_OFFSET + PublicKey.PUBLIC_KEY_LENGTH;
+
+    private int capacity;
+    private int numSlots;
+    private int liveCount;
+
+    // One bit per slot, set when the seat node is on the free list
+    private long[] freeNodes = new long[0];
+
+    // Indexed by slot (trader index - 1)
+    private byte[] traderKeyBytes = new byte[0];
+    private PublicKey[] traders = new PublicKey[0];
+    private long[] quoteLotsLocked = new long[0];
+    private long[] quoteLotsFree = new long[0];
+    private long[] baseLotsLocked = new long[0];
+    private long[] baseLotsFree = new long[0];
+
+    private final Map<PublicKey, Integer> traderIndexes = new HashMap<>();
+
+    // Per trader: first and last order entry, and the number of resting orders
+    private int[] firstEntry = new int[0];
+    private int[] lastEntry = new int[0];
+    private int[] orderCount = new int[0];
+
+    // Order entries, linked per trader through nextEntry
+    private int numEntries;
+    private byte[] entrySide = new byte[0];
+    private int[] entrySlot = new int[0];
+    private int[] entryQueuePosition = new int[0];
+    private long[] entryBaseLotsAhead = new long[0];
+    private int[] nextEntry = new int[0];
+
+    /**
+     * Returns the size in bytes of the traders region with the given number of seats.
+     *
+     * @param numSeats the number of seats, from the market header
+     * @return the size of the region in the market account
+     */
+    public static int getSize(long numSeats) {
+        return Math.toIntExact(HEADER_SIZE + TRADER_NODE_SIZE * numSeats);
+    }
+
+    /**
+     * Decodes the traders region into this instance, reusing its arrays.
+     *
+     * @param data     the market account data
+     * @param offset   the offset of the traders region within the data
+     * @param numSeats the number of seats, from the market header
+     * @return the number of seated traders
+     */
+    public int read(byte[] data, int offset, int numSeats) {
+        ensureCapacity(numSeats);
+        this.capacity = numSeats;
+
+        int bumpIndex = PhoenixUtil.readInt32(data, offset + BUMP_INDEX_OFFSET);
+        int freeListHead = PhoenixUtil.readInt32(data, offset + FREE_LIST_HEAD_OFFSET);
+
+        int nodesOffset = offset + HEADER_SIZE;
+        int availableSlots = Math.max(0, (data.length - nodesOffset) / TRADER_NODE_SIZE);
+        int previousSlots = numSlots;
+        numSlots = Math.max(0, Math.min(bumpIndex - 1, Math.min(numSeats, availableSlots)));
+
+        Arrays.fill(freeNodes, 0, (numSlots + 63) >>> 6, 0L);
+
+        int next = freeListHead;
+        int counter = 0;
+        while (next != PhoenixOrderBookSide.SENTINEL) {
+            int slot = next - 1;
+            if (slot < 0 || slot >= numSlots) {
+                log.error("freeListHead out of bounds: " + next);
+                break;
+            }
+            if (++counter > numSlots) {
+                log.error("Infinite Loop Detected");
+                break;
+            }
+
+            freeNodes[slot >>> 6] |= 1L << slot;
+            next = PhoenixUtil.readInt32(data, nodesOffset + (slot * TRADER_NODE_SIZE));
+        }
+
+        liveCount = 0;
+        for (int slot = 0; slot < numSlots; slot++) {
+            int nodeOffset = nodesOffset + (slot * TRADER_NODE_SIZE);
+            int stateOffset = nodeOffset + STATE_OFFSET;
+            quoteLotsLocked[slot] = PhoenixUtil.readInt64(data, stateOffset);
+            quoteLotsFree[slot] = PhoenixUtil.readInt64(data, stateOffset + 8);
+            baseLotsLocked[slot] = PhoenixUtil.readInt64(data, stateOffset + 16);
+            baseLotsFree[slot] = PhoenixUtil.readInt64(data, stateOffset + 24);
+
+            if (isFree(slot)) {
+                removeTrader(slot);
+                continue;
+            }
+
+            liveCount++;
+            int keyOffset = slot * PublicKey.PUBLIC_KEY_LENGTH;
+            int pubkeyOffset = nodeOffset + PUBKEY_OFFSET;
+            if (traders[slot] != null && Arrays.equals(
+                    traderKeyBytes, keyOffset, keyOffset + PublicKey.PUBLIC_KEY_LENGTH,
+                    data, pubkeyOffset, pubkeyOffset + PublicKey.PUBLIC_KEY_LENGTH)) {
+                continue;
+            }
+
+            removeTrader(slot);
+            System.arraycopy(data, pubkeyOffset, traderKeyBytes, keyOffset, PublicKey.PUBLIC_KEY_LENGTH);
+            traders[slot] = PublicKey.readPubkey(data, pubkeyOffset);
+            traderIndexes.put(traders[slot], slot + 1);
+        }
+
+        for (int slot = numSlots; slot < previousSlots; slot++) {
+            removeTrader(slot);
+        }
+
+        numEntries = 0;
+        Arrays.fill(orderCount, 0, numSlots, 0);
+        return liveCount;
+    }
+
+    /**
+     * Links every resting order to its trader, walking each side from best to worst so that orders are listed best
+     * first and their queue position at their price level is known.
+     *
+     * @param bids the decoded bids
+     * @param asks the decoded asks
+     */
+    public void indexOrders(PhoenixOrderBookSide bids, PhoenixOrderBookSide asks) {
+        ensureEntryCapacity(bids.getLiveCount() + asks.getLiveCount());
+        numEntries = 0;
+        Arrays.fill(orderCount, 0, numSlots, 0);
+
+        indexSide(bids, SIDE_BID);
+        indexSide(asks, SIDE_ASK);
+    }
+
+    private void indexSide(PhoenixOrderBookSide side, byte sideId) {
+        long levelPrice = 0;
+        int queuePosition = 0;
+        long baseLotsAhead = 0;
+        int visited = 0;
+
+        for (int slot = side.getBestNode(); slot >= 0 && visited < side.getLiveCount();
+             slot = side.getNextNode(slot), visited++) {
+            long price = side.getPriceInTicks(slot);
+            if (visited == 0 || price != levelPrice) {
+                levelPrice = price;
+                queuePosition = 0;
+                baseLotsAhead = 0;
+            }
+
+            int traderSlot = (int) (side.getTraderIndex(slot) - 1);
+            if (traderSlot >= 0 && traderSlot < numSlots && !isFree(traderSlot)) {
+                int entry = numEntries++;
+                entrySide[entry] = sideId;
+                entrySlot[entry] = slot;
+                entryQueuePosition[entry] = queuePosition;
+                entryBaseLotsAhead[entry] = baseLotsAhead;
+                nextEntry[entry] = -1;
+
+                if (orderCount[traderSlot] == 0) {
+                    firstEntry[traderSlot] = entry;
+                } else {
+                    nextEntry[lastEntry[traderSlot]] = entry;
+                }
+                lastEntry[traderSlot] = entry;
+                orderCount[traderSlot]++;
+            } else {
+                log.error("Invalid trader index for order: " + side.getTraderIndex(slot));
+            }
+
+            queuePosition++;
+            baseLotsAhead += side.getNumBaseLots(slot);
+        }
+    }
+
+    /**
+     * Returns true if the seat slot is on the allocator's free list.
+     *
+     * @param slot the slot (trader index - 1)
+     * @return true if the slot is free
+     */
+    public boolean isFree(int slot) {
+        return (freeNodes[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * Returns the trader index (1-based) of a seated trader.
+     *
+     * @param trader the trader's public key
+     * @return the trader index, or 0 if the trader has no seat
+     */
+    public int getTraderIndex(PublicKey trader) {
+        Integer traderIndex = traderIndexes.get(trader);
+        return traderIndex == null ? 0 : traderIndex;
+    }
+
+    /**
+     * Returns the public key of the trader with the given trader index.
+     *
+     * @param traderIndex the 1-based trader index, as stored in orders
+     * @return the trader, or null if the index is not a seated trader
+     */
+    public PublicKey getTrader(long traderIndex) {
+        int slot = (int) (traderIndex - 1);
+        if (traderIndex < 1 || slot >= numSlots || isFree(slot)) {
+            return null;
+        }
+
+        return traders[slot];
+    }
+
+    /**
+     * Builds the {@link PhoenixTraderState} of the trader with the given trader index.
+     *
+     * @param traderIndex the 1-based trader index
+     * @return the trader's state, or null if the index is not a seated trader
+     */
+    public PhoenixTraderState getTraderState(long traderIndex) {
+        if (getTrader(traderIndex) == null) {
+            return null;
+        }
+
+        int slot = (int) (traderIndex - 1);
+        return PhoenixTraderState.builder()
+                .quoteLotsLocked(quoteLotsLocked[slot])
+                .quoteLotsFree(quoteLotsFree[slot])
+                .baseLotsLocked(baseLotsLocked[slot])
+                .baseLotsFree(baseLotsFree[slot])
+                .build();
+    }
+
+    /**
+     * Returns the number of resting orders of the trader with the given trader index.
+     *
+     * @param traderIndex the 1-based trader index
+     * @return the number of resting orders
+     */
+    public int getOrderCount(long traderIndex) {
+        return getTrader(traderIndex) == null ? 0 : orderCount[(int) (traderIndex - 1)];
+    }
+
+    /**
+     * Returns the first order entry of the trader with the given trader index. Entries are chained through
+     * {@link #getNextEntry(int)}.
+     *
+     * @param traderIndex the 1-based trader index
+     * @return the first entry, or -1 if the trader has no resting orders
+     */
+    public int getFirstEntry(long traderIndex) {
+        return getOrderCount(traderIndex) == 0 ? -1 : firstEntry[(int) (traderIndex - 1)];
+    }
+
+    public int getNextEntry(int entry) {
+        return nextEntry[entry];
+    }
+
+    public byte getEntrySide(int entry) {
+        return entrySide[entry];
+    }
+
+    public int getEntrySlot(int entry) {
+        return entrySlot[entry];
+    }
+
+    public int getEntryQueuePosition(int entry) {
+        return entryQueuePosition[entry];
+    }
+
+    public long getEntryBaseLotsAhead(int entry) {
+        return entryBaseLotsAhead[entry];
+    }
+
+    private void removeTrader(int slot) {
+        PublicKey trader = traders[slot];
+        if (trader == null) {
+            return;
+        }
+
+        traderIndexes.remove(trader, slot + 1);
+        traders[slot] = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (quoteLotsLocked.length >= capacity) {
+            return;
+        }
+
+        freeNodes = new long[(capacity + 63) >>> 6];
+        traderKeyBytes = Arrays.copyOf(traderKeyBytes, capacity * PublicKey.PUBLIC_KEY_LENGTH);
+        traders = Arrays.copyOf(traders, capacity);
+        quoteLotsLocked = new long[capacity];
+        quoteLotsFree = new long[capacity];
+        baseLotsLocked = new long[capacity];
+        baseLotsFree = new long[capacity];
+        firstEntry = new int[capacity];
+        lastEntry = new int[capacity];
+        orderCount = new int[capacity];
+    }
+
+    private void ensureEntryCapacity(int capacity) {
+        if (entrySlot.length >= capacity) {
+            return;
+        }
+
+        entrySide = new byte[capacity];
+        entrySlot = new int[capacity];
+        entryQueuePosition = new int[capacity];
+        entryBaseLotsAhead = new long[capacity];
+        nextEntry = new int[capacity];
+    }
+}
@@ -23,15 +23,16 @@ public class PhoenixProgram extends Program {
     private static final PublicKey TOKEN_PROGRAM_ID =
             PublicKey.valueOf("TokenkegQfeZyiNwAJbNbGKPFXCWuBvf9Ss623VQ5DA");
 
-    public static TransactionInstruction placeLimitOrder(PublicKey market, PublicKey trader,
-                                                         PublicKey baseAccount,
-                                                         PublicKey quoteAccount, PublicKey baseVault,
-                                                         PublicKey quoteVault, LimitOrderPacketRecord limitOrderPacketRecord) {
-        List<AccountMeta> accountMetas = new ArrayList<>();
-
-        PublicKey seatPda = null;
+    /**
+     * Returns the seat PDA of a trader on a market.
+     *
+     * @param market the market
+     * @param trader the trader
+     * @return the seat address, or null if it could not be derived
+     */
+    public static PublicKey getSeatAddress(PublicKey market, PublicKey trader) {
         try {
-            seatPda = PublicKey.findProgramAddress(
+            return PublicKey.findProgramAddress(
                     List.of(
                             "seat".getBytes(),
                             market.toByteArray(),
@@ -40,8 +41,18 @@ public class PhoenixProgram extends Program {
                     PHOENIX_PROGRAM_ID
             ).getAddress();
         } catch (Exception e) {
-            log.error("Error claiming seat: {}", e.getMessage(), e);
+            log.error("Error finding seat: {}", e.getMessage(), e);
+            return null;
         }
+    }
+
+    public static TransactionInstruction placeLimitOrder(PublicKey market, PublicKey trader,
+                                                         PublicKey baseAccount,
+                                                         PublicKey quoteAccount, PublicKey baseVault,
+                                                         PublicKey quoteVault, LimitOrderPacketRecord limitOrderPacketRecord) {
+        List<AccountMeta> accountMetas = new ArrayList<>();
+
+        PublicKey seatPda = getSeatAddress(market, trader);
 
         accountMetas.add(new AccountMeta(PHOENIX_PROGRAM_ID, false, false));
         accountMetas.add(new AccountMeta(PhoenixSeatManagerProgram.PHOENIX_LOG_AUTHORITY_ID, false, false));
@@ -171,19 +182,7 @@ public class PhoenixProgram extends Program {
                                                                      MultipleOrderPacketRecord multipleOrderPacketRecord) {
         List<AccountMeta> accountMetas = new ArrayList<>();
 
-        PublicKey seatPda = null;
-        try {
-            seatPda = PublicKey.findProgramAddress(
-                    List.of(
-                            "seat".getBytes(),
-                            market.toByteArray(),
-                            trader.toByteArray()
-                    ),
-                    PHOENIX_PROGRAM_ID
-            ).getAddress();
-        } catch (Exception e) {
-            log.error("Error claiming seat: {}", e.getMessage(), e);
-        }
+        PublicKey seatPda = getSeatAddress(market, trader);
 
         accountMetas.add(new AccountMeta(PHOENIX_PROGRAM_ID, false, false));
         accountMetas.add(new AccountMeta(PhoenixSeatManagerProgram.PHOENIX_LOG_AUTHORITY_ID, false, false));
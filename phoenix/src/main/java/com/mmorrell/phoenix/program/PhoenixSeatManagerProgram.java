@@ -44,19 +44,7 @@ public class PhoenixSeatManagerProgram extends Program {
                                                    PublicKey payer) {
         List<AccountMeta> accountMetas = new ArrayList<>();
 
-        PublicKey seatPda = null;
-        try {
-            seatPda = PublicKey.findProgramAddress(
-                    List.of(
-                            "seat".getBytes(),
-                            market.toByteArray(),
-                            trader.toByteArray()
-                    ),
-                    PHOENIX_PROGRAM_ID
-            ).getAddress();
-        } catch (Exception e) {
-            log.error("Error claiming seat: {}", e.getMessage());
-        }
+        PublicKey seatPda = PhoenixProgram.getSeatAddress(market, trader);
 
         PublicKey seatDepositCollector = null;
         try {
@@ -1,5 +1,7 @@
 package com.mmorrell.phoenix.util;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.nio.*;
 
 /**
@@ -25,6 +27,7 @@ import java.nio.*;
 public class Keccak {
 	private static final int MAX_STATE_SIZE = 1600;
 	private static final int MAX_STATE_SIZE_WORDS = MAX_STATE_SIZE / 64;
+	private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
 
 	protected int rateSizeBits, digestSizeBits;
 	private long[] state = new long[MAX_STATE_SIZE_WORDS];
@@ -98,11 +101,56 @@ public class Keccak {
 	}
 
 	public void update(byte[] in) {
-		update(ByteBuffer.wrap(in));
+		update(in, 0, in.length);
 	}
 
+	/**
+	 * Absorbs bytes straight from an array, without wrapping it in a ByteBuffer. Together with
+	 * {@link #digest(byte[], int, int)} and {@link #reset()}, this lets one instance hash repeatedly without allocating.
+	 */
 	public void update(byte[] in, int offset, int length) {
-		update(ByteBuffer.wrap(in, offset, length));
+		if (length <= 0)
+			return;
+
+		if (padded)
+			throw new IllegalStateException("Cannot update while padded");
+
+		if ((rateBits & 0x7) > 0)
+			throw new IllegalStateException("Cannot update while in bit-mode");
+
+		long[] state = this.state;
+		int rateBytes = rateBits >>> 3;
+		int rateSizeBytes = rateSizeBits >>> 3;
+		int end = offset + length;
+
+		//leading bytes, up to a word boundary
+		while (offset < end && (rateBytes & 0x7) > 0) {
+			state[rateBytes >>> 3] ^= (long) (in[offset++] & 0xff) << ((rateBytes & 0x7) << 3);
+			rateBytes++;
+		}
+
+		//whole words
+		while (end - offset >= 8) {
+			if (rateBytes >= rateSizeBytes) {
+				keccak(state);
+				rateBytes = 0;
+			}
+			state[rateBytes >>> 3] ^= (long) LONG_LE.get(in, offset);
+			offset += 8;
+			rateBytes += 8;
+		}
+
+		//trailing bytes
+		while (offset < end) {
+			if (rateBytes >= rateSizeBytes) {
+				keccak(state);
+				rateBytes = 0;
+			}
+			state[rateBytes >>> 3] ^= (long) (in[offset++] & 0xff) << ((rateBytes & 0x7) << 3);
+			rateBytes++;
+		}
+
+		this.rateBits = rateBytes << 3;
 	}
 
 	public void update(ByteBuffer in) {
@@ -254,11 +302,40 @@ public class Keccak {
 	}
 
 	public void digest(byte[] out) {
-		digest(ByteBuffer.wrap(out));
+		digest(out, 0, out.length);
 	}
 
+	/**
+	 * Squeezes bytes straight into an array, without wrapping it in a ByteBuffer.
+	 */
 	public void digest(byte[] out, int offset, int length) {
-		digest(ByteBuffer.wrap(out, offset, length));
+		if (length <= 0)
+			return;
+
+		long[] state = this.state;
+		int rateBytes;
+		if (!padded) {
+			pad();
+			padded = true;
+			rateBytes = 0;
+		} else {
+			if ((rateBits & 0x7) > 0)
+				throw new IllegalStateException("Cannot digest while in bit-mode");
+			rateBytes = rateBits >>> 3;
+		}
+
+		int rateSizeBytes = rateSizeBits >>> 3;
+		int end = offset + length;
+		while (offset < end) {
+			if (rateBytes >= rateSizeBytes) {
+				squeeze();
+				rateBytes = 0;
+			}
+			out[offset++] = (byte) (state[rateBytes >>> 3] >>> ((rateBytes & 0x7) << 3));
+			rateBytes++;
+		}
+
+		this.rateBits = rateBytes << 3;
 	}
 
 	public void digest(ByteBuffer out) {
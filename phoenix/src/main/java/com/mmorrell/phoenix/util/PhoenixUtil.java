@@ -3,42 +3,185 @@ package com.mmorrell.phoenix.util;
 import com.mmorrell.phoenix.program.PhoenixProgram;
 import org.bitcoinj.core.Base58;
 
-import java.nio.ByteBuffer;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigInteger;
 import java.nio.ByteOrder;
-import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PhoenixUtil {
 
+    // Phoenix account types; instructions are tagged with a single byte and have no discriminator
+    public static final String MARKET_HEADER = "phoenix::program::accounts::MarketHeader";
+    public static final String SEAT = "phoenix::program::accounts::Seat";
+
+    private static final ThreadLocal<Keccak> KECCAK = ThreadLocal.withInitial(() -> new Keccak(256));
+    private static final Map<String, Discriminator> DISCRIMINATORS = new ConcurrentHashMap<>();
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private static final VarHandle INT16_LE =
+            MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT32_LE =
+            MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT64_LE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    static {
+        for (String accountType : List.of(MARKET_HEADER, SEAT)) {
+            DISCRIMINATORS.put(accountType, computeDiscriminator(accountType));
+        }
+    }
+
+    /**
+     * Reads a little-endian i32, without allocating.
+     *
+     * @param data   the byte array to read from
+     * @param offset the offset of the value
+     * @return the value
+     */
     public static int readInt32(byte[] data, int offset) {
-        // convert 4 bytes into an int.
-        // create a byte buffer and wrap the array
-        ByteBuffer bb = ByteBuffer.wrap(
-                Arrays.copyOfRange(
-                        data,
-                        offset,
-                        offset + 4
-                )
-        );
-
-        // if the file uses little endian as apposed to network
-        // (big endian, Java's native) format,
-        // then set the byte order of the ByteBuffer
-        bb.order(ByteOrder.LITTLE_ENDIAN);
-
-        // read your integers using ByteBuffer's getInt().
-        // four bytes converted into an integer!
-        return bb.getInt(0);
+        return (int) INT32_LE.get(data, offset);
+    }
+
+    /**
+     * Reads a little-endian i64 (or the bits of a u64), without allocating.
+     *
+     * @param data   the byte array to read from
+     * @param offset the offset of the value
+     * @return the value
+     */
+    public static long readInt64(byte[] data, int offset) {
+        return (long) INT64_LE.get(data, offset);
+    }
+
+    /**
+     * Reads a little-endian u16, without allocating.
+     *
+     * @param data   the byte array to read from
+     * @param offset the offset of the value
+     * @return the value
+     */
+    public static int readUint16(byte[] data, int offset) {
+        return Short.toUnsignedInt((short) INT16_LE.get(data, offset));
+    }
+
+    /**
+     * Reads a little-endian u128.
+     *
+     * @param data   the byte array to read from
+     * @param offset the offset of the value
+     * @return the value
+     */
+    public static BigInteger readUint128(byte[] data, int offset) {
+        byte[] bigEndian = new byte[17];
+        for (int i = 0; i < 16; i++) {
+            bigEndian[16 - i] = data[offset + i];
+        }
+        return new BigInteger(bigEndian);
+    }
+
+    /**
+     * Returns 10 to the given power, from a table.
+     *
+     * @param exponent the exponent, 0 to 18
+     * @return the power of ten
+     */
+    public static long pow10(int exponent) {
+        if (exponent < 0 || exponent >= POWERS_OF_TEN.length) {
+            throw new ArithmeticException("10^" + exponent + " does not fit in a long");
+        }
+        return POWERS_OF_TEN[exponent];
     }
 
+    /**
+     * Returns the exponent of a power of ten.
+     *
+     * @param value the value
+     * @return n such that 10^n == value, or -1 if the value is not a power of ten
+     */
+    public static int log10Exact(long value) {
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            if (POWERS_OF_TEN[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the base58 encoded discriminator of a Phoenix account type, as used in memcmp filters. Discriminators
+     * are computed once per type name.
+     *
+     * @param input the account type name, e.g. {@link #MARKET_HEADER}
+     * @return the base58 encoded first 8 bytes of keccak256(program id || type name)
+     */
     public static String getDiscriminator(String input) {
-        Keccak keccak = new Keccak(256);
+        return getDiscriminatorEntry(input).base58;
+    }
+
+    /**
+     * Returns the discriminator of a Phoenix account type as a little-endian u64, the way it sits at offset 0 of the
+     * account.
+     *
+     * @param input the account type name
+     * @return the discriminator
+     */
+    public static long getDiscriminatorValue(String input) {
+        return getDiscriminatorEntry(input).value;
+    }
+
+    /**
+     * Returns true if the account data starts with the discriminator of the given type, without allocating.
+     *
+     * @param data  the account data
+     * @param input the account type name
+     * @return true if the account is of the given type
+     */
+    public static boolean hasDiscriminator(byte[] data, String input) {
+        return data.length >= 8 && readInt64(data, 0) == getDiscriminatorValue(input);
+    }
+
+    /**
+     * Hashes part of an array with Keccak-256 into {@code out}, reusing a per-thread {@link Keccak} state.
+     *
+     * @param in     the input
+     * @param offset the offset of the input within the array
+     * @param length the length of the input
+     * @param out    receives the 32 byte hash
+     */
+    public static void keccak256(byte[] in, int offset, int length, byte[] out) {
+        Keccak keccak = KECCAK.get();
+        keccak.reset();
+        keccak.update(in, offset, length);
+        keccak.digest(out, 0, 32);
+    }
+
+    private static Discriminator getDiscriminatorEntry(String input) {
+        Discriminator discriminator = DISCRIMINATORS.get(input);
+        return discriminator != null
+                ? discriminator
+                : DISCRIMINATORS.computeIfAbsent(input, PhoenixUtil::computeDiscriminator);
+    }
+
+    private static Discriminator computeDiscriminator(String input) {
+        Keccak keccak = KECCAK.get();
+        keccak.reset();
         keccak.update(PhoenixProgram.PHOENIX_PROGRAM_ID.toByteArray());
         keccak.update(input.getBytes());
 
-        ByteBuffer keccakBuffer = keccak.digest();
-        keccakBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        byte[] keccakBytes = keccakBuffer.array();
+        byte[] keccakBytes = new byte[8];
+        keccak.digest(keccakBytes);
+
+        return new Discriminator(Base58.encode(keccakBytes), readInt64(keccakBytes, 0));
+    }
 
-        return Base58.encode(Arrays.copyOfRange(keccakBytes, 0, 8));
+    private record Discriminator(String base58, long value) {
     }
-}
\ No newline at end of file
+}
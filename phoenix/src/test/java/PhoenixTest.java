@@ -1,16 +1,33 @@
 import com.google.common.io.Files;
 import com.google.common.io.Resources;
 import com.mmorrell.metaplex.manager.MetaplexManager;
+import com.mmorrell.phoenix.feed.PhoenixEventStream;
+import com.mmorrell.phoenix.feed.PhoenixMarketFeed;
+import com.mmorrell.phoenix.manager.PhoenixLadderManager;
 import com.mmorrell.phoenix.manager.PhoenixManager;
 import com.mmorrell.phoenix.model.CondensedPhoenixOrder;
 import com.mmorrell.phoenix.model.ImmediateOrCancelOrderPacketRecord;
 import com.mmorrell.phoenix.model.LimitOrderPacketRecord;
+import com.mmorrell.phoenix.model.PhoenixLadder;
 import com.mmorrell.phoenix.model.MultipleOrderPacketRecord;
 import com.mmorrell.phoenix.model.PhoenixMarket;
+import com.mmorrell.phoenix.model.PhoenixL3Book;
+import com.mmorrell.phoenix.model.PhoenixLevel;
+import com.mmorrell.phoenix.model.PhoenixMarketEvent;
+import com.mmorrell.phoenix.model.PhoenixMarketEventType;
 import com.mmorrell.phoenix.model.PhoenixMarketHeader;
+import com.mmorrell.phoenix.model.PhoenixMarketScale;
+import com.mmorrell.phoenix.model.PhoenixOrderBook;
+import com.mmorrell.phoenix.model.PhoenixOrderBookSide;
+import com.mmorrell.phoenix.model.PhoenixTraderOrder;
+import com.mmorrell.phoenix.model.PhoenixTraderTable;
+import com.mmorrell.phoenix.model.PhoenixTraderState;
 import com.mmorrell.phoenix.program.PhoenixProgram;
 import com.mmorrell.phoenix.program.PhoenixSeatManagerProgram;
 import com.mmorrell.phoenix.util.Keccak;
+import com.mmorrell.phoenix.util.PhoenixUtil;
+import com.mmorrell.testing.StubRpcClient;
+import kotlin.Pair;
 import lombok.extern.slf4j.Slf4j;
 import org.bitcoinj.core.Base58;
 import org.bitcoinj.core.Utils;
@@ -18,28 +35,46 @@ import org.junit.jupiter.api.*;
 import org.p2p.solanaj.core.Account;
 import org.p2p.solanaj.core.PublicKey;
 import org.p2p.solanaj.core.Transaction;
+import org.p2p.solanaj.core.TransactionInstruction;
 import org.p2p.solanaj.programs.ComputeBudgetProgram;
 import org.p2p.solanaj.rpc.Cluster;
 import org.p2p.solanaj.rpc.RpcClient;
 import org.p2p.solanaj.rpc.RpcException;
 import org.p2p.solanaj.rpc.types.AccountInfo;
+import org.p2p.solanaj.rpc.types.ConfirmedTransaction;
 import org.p2p.solanaj.rpc.types.ProgramAccount;
 import org.p2p.solanaj.rpc.types.config.Commitment;
 import org.p2p.solanaj.ws.SubscriptionWebSocketClient;
+import org.p2p.solanaj.ws.listeners.NotificationEventListener;
 
 import java.io.File;
 import java.io.IOException;
+import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Slf4j
 public class PhoenixTest {
@@ -399,23 +434,23 @@ public class PhoenixTest {
         PhoenixMarket phoenixMarket = PhoenixMarket.readPhoenixMarket(data);
 
         var asks = phoenixMarket.getAskListSanitized().stream().sorted(
-                (o1, o2) -> Math.toIntExact(o2.component1().getPriceInTicks() - o1.getFirst().getPriceInTicks())
+                (o1, o2) -> Long.compare(o2.getFirst().getPriceInTicks(), o1.getFirst().getPriceInTicks())
         ).toList();
         asks.forEach(fifoOrderIdFIFORestingOrderPair -> {
             log.info(String.format("Ask: %.4f, Size: %.2f SOL, Trader: %s",
                     (double) fifoOrderIdFIFORestingOrderPair.getFirst().getPriceInTicks() / phoenixMarket.getPhoenixMarketHeader().getBaseLotSize(),
                     (double) fifoOrderIdFIFORestingOrderPair.getSecond().getNumBaseLots() / phoenixMarket.getBaseLotsPerBaseUnit(),
-                    phoenixMarket.getTradersSanitized().get((int) (fifoOrderIdFIFORestingOrderPair.getSecond().getTraderIndex() - 1)).getFirst().toBase58()));
+                    phoenixMarket.getTraderTable().getTrader(fifoOrderIdFIFORestingOrderPair.getSecond().getTraderIndex()).toBase58()));
         });
 
         var bids = phoenixMarket.getBidListSanitized().stream().sorted(
-                (o1, o2) -> Math.toIntExact(o2.component1().getPriceInTicks() - o1.getFirst().getPriceInTicks())
+                (o1, o2) -> Long.compare(o2.getFirst().getPriceInTicks(), o1.getFirst().getPriceInTicks())
         ).toList();
         bids.forEach(fifoOrderIdFIFORestingOrderPair -> {
             log.info(String.format("Bid: %.4f, Size: %.2f SOL, Trader: %s",
                     (double) fifoOrderIdFIFORestingOrderPair.getFirst().getPriceInTicks() / phoenixMarket.getPhoenixMarketHeader().getBaseLotSize(),
                     (double) fifoOrderIdFIFORestingOrderPair.getSecond().getNumBaseLots() / phoenixMarket.getBaseLotsPerBaseUnit(),
-                    phoenixMarket.getTradersSanitized().get((int) (fifoOrderIdFIFORestingOrderPair.getSecond().getTraderIndex() - 1)).getFirst().toBase58()));
+                    phoenixMarket.getTraderTable().getTrader(fifoOrderIdFIFORestingOrderPair.getSecond().getTraderIndex()).toBase58()));
         });
     }
 
@@ -438,18 +473,18 @@ public class PhoenixTest {
                     );
 
                     var bids = phoenixMarket.getBidListSanitized().stream().sorted(
-                            (o1, o2) -> Math.toIntExact(o2.component1().getPriceInTicks() - o1.getFirst().getPriceInTicks())
+                            (o1, o2) -> Long.compare(o2.getFirst().getPriceInTicks(), o1.getFirst().getPriceInTicks())
                     ).toList();
                     bids = bids.subList(0, 3);
                     bids.forEach(fifoOrderIdFIFORestingOrderPair -> {
                         log.info(String.format("Bid: $%.4f, Size: %.2f SOL, Trader: %s",
                                 (double) fifoOrderIdFIFORestingOrderPair.getFirst().getPriceInTicks() / phoenixMarket.getBaseLotsPerBaseUnit(),
                                 (double) fifoOrderIdFIFORestingOrderPair.getSecond().getNumBaseLots() / phoenixMarket.getTickSizeInQuoteLotsPerBaseUnit(),
-                                phoenixMarket.getTradersSanitized().get((int) (fifoOrderIdFIFORestingOrderPair.getSecond().getTraderIndex() - 1)).getFirst().toBase58()));
+                                phoenixMarket.getTraderTable().getTrader(fifoOrderIdFIFORestingOrderPair.getSecond().getTraderIndex()).toBase58()));
                     });
 
                     var asks = phoenixMarket.getAskListSanitized().stream().sorted(
-                            (o1, o2) -> Math.toIntExact(o1.component1().getPriceInTicks() - o2.getFirst().getPriceInTicks())
+                            (o1, o2) -> Long.compare(o1.getFirst().getPriceInTicks(), o2.getFirst().getPriceInTicks())
                     ).toList();
                     asks = asks.subList(0, 3);
 
@@ -457,7 +492,7 @@ public class PhoenixTest {
                         log.info(String.format("Ask: $%.4f, Size: %.2f SOL, Trader: %s",
                                 (double) fifoOrderIdFIFORestingOrderPair.getFirst().getPriceInTicks() / phoenixMarket.getBaseLotsPerBaseUnit(),
                                 (double) fifoOrderIdFIFORestingOrderPair.getSecond().getNumBaseLots() / phoenixMarket.getTickSizeInQuoteLotsPerBaseUnit(),
-                                phoenixMarket.getTradersSanitized().get((int) (fifoOrderIdFIFORestingOrderPair.getSecond().getTraderIndex() - 1)).getFirst().toBase58()));
+                                phoenixMarket.getTraderTable().getTrader(fifoOrderIdFIFORestingOrderPair.getSecond().getTraderIndex()).toBase58()));
                     });
                 }
         );
@@ -501,23 +536,23 @@ public class PhoenixTest {
                 phoenixMarket.getPhoenixMarketHeader().getNumSeats());
 
         var asks = phoenixMarket.getAskListSanitized().stream().sorted(
-                (o1, o2) -> Math.toIntExact(o2.component1().getPriceInTicks() - o1.getFirst().getPriceInTicks())
+                (o1, o2) -> Long.compare(o2.getFirst().getPriceInTicks(), o1.getFirst().getPriceInTicks())
         ).toList();
         asks.forEach(fifoOrderIdFIFORestingOrderPair -> {
             log.info(String.format("Ask: $%.2f, Size: %.2f SOL, Trader: %s",
                     (double) fifoOrderIdFIFORestingOrderPair.getFirst().getPriceInTicks() / phoenixMarket.getTickSizeInQuoteLotsPerBaseUnit(),
                     (double) fifoOrderIdFIFORestingOrderPair.getSecond().getNumBaseLots() / phoenixMarket.getBaseLotsPerBaseUnit(),
-                    phoenixMarket.getTradersSanitized().get((int) (fifoOrderIdFIFORestingOrderPair.getSecond().getTraderIndex() - 1)).getFirst().toBase58()));
+                    phoenixMarket.getTraderTable().getTrader(fifoOrderIdFIFORestingOrderPair.getSecond().getTraderIndex()).toBase58()));
         });
 
         var bids = phoenixMarket.getBidListSanitized().stream().sorted(
-                (o1, o2) -> Math.toIntExact(o2.component1().getPriceInTicks() - o1.getFirst().getPriceInTicks())
+                (o1, o2) -> Long.compare(o2.getFirst().getPriceInTicks(), o1.getFirst().getPriceInTicks())
         ).toList();
         bids.forEach(fifoOrderIdFIFORestingOrderPair -> {
             log.info(String.format("Bid: $%.2f, Size: %.2f SOL, Trader: %s",
                     (double) fifoOrderIdFIFORestingOrderPair.getFirst().getPriceInTicks() / phoenixMarket.getTickSizeInQuoteLotsPerBaseUnit(),
                     (double) fifoOrderIdFIFORestingOrderPair.getSecond().getNumBaseLots() / phoenixMarket.getBaseLotsPerBaseUnit(),
-                    phoenixMarket.getTradersSanitized().get((int) (fifoOrderIdFIFORestingOrderPair.getSecond().getTraderIndex() - 1)).getFirst().toBase58()));
+                    phoenixMarket.getTraderTable().getTrader(fifoOrderIdFIFORestingOrderPair.getSecond().getTraderIndex()).toBase58()));
         });
 
         var traders = phoenixMarket.getTradersSanitized();
@@ -693,6 +728,1023 @@ public class PhoenixTest {
         log.info("OB: {}", market.getBidListSanitized());
     }
 
+    @Test
+    public void orderBookSideDecodesInPlaceTest() {
+        PublicKey traderA = new PublicKey("JB3443UaUDA3z47AYdK4AUG8pgFgLfJVyyitHYkqC17L");
+        PublicKey traderB = new PublicKey("Avs5RSYyecvLnt9iFYNQX5EMUun3egh3UNPw8P6ULbNS");
+
+        // Slot 1 of the bids is on the free list
+        byte[] data = buildPhoenixMarket(
+                4,
+                new long[][]{{58_300, 1, 1, 4_000}, null, {58_200, 3, 2, 1_500}},
+                2,
+                new long[][]{{58_400, 4, 2, 2_000}},
+                2,
+                new PublicKey[]{traderA, traderB}
+        );
+
+        PhoenixOrderBookSide bids = new PhoenixOrderBookSide();
+        PhoenixOrderBookSide asks = new PhoenixOrderBookSide();
+        PhoenixMarket.readOrderBook(data, bids, asks);
+
+        assertEquals(3, bids.getNumSlots());
+        assertEquals(2, bids.getLiveCount());
+        assertFalse(bids.isFree(0));
+        assertTrue(bids.isFree(1));
+        assertFalse(bids.isFree(2));
+        assertEquals(0, bids.getLiveNodes()[0]);
+        assertEquals(2, bids.getLiveNodes()[1]);
+        assertEquals(58_200, bids.getPriceInTicks(2));
+        assertEquals(3, bids.getOrderSequenceNumber(2));
+        assertEquals(2, bids.getTraderIndex(2));
+        assertEquals(1_500, bids.getNumBaseLots(2));
+
+        assertEquals(1, asks.getLiveCount());
+        assertEquals(58_400, asks.getPriceInTicks(0));
+
+        // Decoding again reuses the arrays
+        long[] prices = bids.getPriceInTicks();
+        PhoenixMarket.readOrderBook(data, bids, asks);
+        assertSame(prices, bids.getPriceInTicks());
+        assertEquals(2, bids.getLiveCount());
+
+        PhoenixMarket market = PhoenixMarket.readPhoenixMarket(data);
+        assertEquals(3, market.getBidList().size());
+        assertEquals(2, market.getBidListSanitized().size());
+        assertEquals(1, market.getAskListSanitized().size());
+        assertEquals(2, market.getBidListNormalized().size());
+        assertEquals(58.2, market.getBidListNormalized().get(0).getPrice(), 1e-9);
+        assertEquals(1.5, market.getBidListNormalized().get(0).getSize(), 1e-9);
+        assertEquals(traderB, market.getBidListNormalized().get(0).getTrader());
+        assertEquals(58.3, market.getBidListNormalized().get(1).getPrice(), 1e-9);
+        assertEquals(traderA, market.getBidListNormalized().get(1).getTrader());
+    }
+
+    @Test
+    public void orderBookTreeTraversalTest() {
+        PublicKey trader = new PublicKey("JB3443UaUDA3z47AYdK4AUG8pgFgLfJVyyitHYkqC17L");
+
+        // Slots are out of price order; slot 2 is free
+        byte[] data = buildPhoenixMarket(
+                8,
+                new long[][]{
+                        {58_200, ~1, 1, 1_000},
+                        {58_400, ~2, 1, 2_000},
+                        null,
+                        {58_300, ~4, 1, 3_000},
+                        {58_400, ~5, 1, 500},
+                        {58_100, ~6, 1, 700}
+                },
+                8,
+                new long[][]{{58_700, 7, 1, 100}, {58_500, 8, 1, 200}, {58_600, 9, 1, 300}},
+                1,
+                new PublicKey[]{trader}
+        );
+
+        PhoenixMarket market = PhoenixMarket.readPhoenixMarket(data);
+        PhoenixOrderBookSide bids = market.getBids();
+
+        assertEquals(58_400, bids.getBestPriceInTicks().getAsLong());
+        assertEquals(58_500, market.getAsks().getBestPriceInTicks().getAsLong());
+        assertEquals(58_400, market.getBestBid().get().getFirst().getPriceInTicks());
+        assertEquals(~2, market.getBestBid().get().getFirst().getOrderSequenceNumber());
+        assertEquals(58_500, market.getBestAsk().get().getFirst().getPriceInTicks());
+
+        int[] slots = new int[8];
+        assertEquals(5, bids.readOrderedNodes(slots));
+        assertEquals(1, slots[0]);
+        assertEquals(4, slots[1]);
+        assertEquals(3, slots[2]);
+        assertEquals(0, slots[3]);
+        assertEquals(5, slots[4]);
+
+        List<PhoenixLevel> bidLevels = market.getBidLevels(3);
+        assertEquals(3, bidLevels.size());
+        assertEquals(58_400, bidLevels.get(0).getPriceInTicks());
+        assertEquals(2_500, bidLevels.get(0).getNumBaseLots());
+        assertEquals(58.4, bidLevels.get(0).getPrice(), 1e-9);
+        assertEquals(2.5, bidLevels.get(0).getSize(), 1e-9);
+        assertEquals(58_300, bidLevels.get(1).getPriceInTicks());
+        assertEquals(58_200, bidLevels.get(2).getPriceInTicks());
+
+        List<PhoenixLevel> askLevels = market.getAskLevels(10);
+        assertEquals(3, askLevels.size());
+        assertEquals(58_500, askLevels.get(0).getPriceInTicks());
+        assertEquals(58_600, askLevels.get(1).getPriceInTicks());
+        assertEquals(58_700, askLevels.get(2).getPriceInTicks());
+
+        // Empty side
+        byte[] emptyData = buildPhoenixMarket(2, new long[][]{}, 2, new long[][]{}, 1, new PublicKey[]{trader});
+        PhoenixMarket emptyMarket = PhoenixMarket.readPhoenixMarket(emptyData);
+        assertTrue(emptyMarket.getBestBid().isEmpty());
+        assertTrue(emptyMarket.getBids().getBestPriceInTicks().isEmpty());
+        assertTrue(emptyMarket.getAskLevels(5).isEmpty());
+    }
+
+    @Test
+    public void traderTableIndexesOrdersTest() {
+        PublicKey traderA = new PublicKey("JB3443UaUDA3z47AYdK4AUG8pgFgLfJVyyitHYkqC17L");
+        PublicKey traderB = new PublicKey("Avs5RSYyecvLnt9iFYNQX5EMUun3egh3UNPw8P6ULbNS");
+        PublicKey unseated = new PublicKey("A6Jcj1XV6QqDpdimmL7jm1gQtSP62j8BWbyqkdhe4eLe");
+
+        byte[] data = buildPhoenixMarket(
+                8,
+                new long[][]{
+                        {58_400, ~1, 2, 1_000},
+                        {58_400, ~2, 1, 2_000},
+                        {58_400, ~3, 2, 500},
+                        {58_300, ~4, 1, 700}
+                },
+                8,
+                new long[][]{{58_500, 5, 2, 300}},
+                4,
+                new PublicKey[]{traderA, traderB}
+        );
+
+        // Give trader B some locked and free lots
+        int traderStateOffset = 880 + (2 * PhoenixOrderBookSide.getSize(8)) + PhoenixTraderTable.HEADER_SIZE
+                + PhoenixTraderTable.TRADER_NODE_SIZE + 16 + 32;
+        ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN)
+                .putLong(traderStateOffset, 87_600L)
+                .putLong(traderStateOffset + 8, 10L)
+                .putLong(traderStateOffset + 16, 300L)
+                .putLong(traderStateOffset + 24, 20L);
+
+        PhoenixMarket market = PhoenixMarket.readPhoenixMarket(data);
+        PhoenixTraderTable traderTable = market.getTraderTable();
+
+        assertEquals(2, traderTable.getLiveCount());
+        assertEquals(1, traderTable.getTraderIndex(traderA));
+        assertEquals(2, traderTable.getTraderIndex(traderB));
+        assertEquals(0, traderTable.getTraderIndex(unseated));
+        assertEquals(traderB, traderTable.getTrader(2));
+        assertEquals(null, traderTable.getTrader(3));
+
+        PhoenixTraderState stateB = market.getTraderState(traderB).get();
+        assertEquals(87_600L, stateB.getQuoteLotsLocked());
+        assertEquals(10L, stateB.getQuoteLotsFree());
+        assertEquals(300L, stateB.getBaseLotsLocked());
+        assertEquals(20L, stateB.getBaseLotsFree());
+        assertTrue(market.getTraderState(unseated).isEmpty());
+
+        List<PhoenixTraderOrder> ordersB = market.getTraderOrders(traderB);
+        assertEquals(3, ordersB.size());
+        assertEquals(PhoenixTraderTable.SIDE_BID, ordersB.get(0).getSide());
+        assertEquals(~1, ordersB.get(0).getOrderSequenceNumber());
+        assertEquals(0, ordersB.get(0).getQueuePosition());
+        assertEquals(0, ordersB.get(0).getBaseLotsAhead());
+        assertEquals(~3, ordersB.get(1).getOrderSequenceNumber());
+        assertEquals(2, ordersB.get(1).getQueuePosition());
+        assertEquals(3_000, ordersB.get(1).getBaseLotsAhead());
+        assertEquals(PhoenixTraderTable.SIDE_ASK, ordersB.get(2).getSide());
+        assertEquals(58.5, ordersB.get(2).getPrice(), 1e-9);
+
+        List<PhoenixTraderOrder> ordersA = market.getTraderOrders(traderA);
+        assertEquals(2, ordersA.size());
+        assertEquals(1, ordersA.get(0).getQueuePosition());
+        assertEquals(58_300, ordersA.get(1).getPriceInTicks());
+        assertEquals(0, ordersA.get(1).getQueuePosition());
+        assertTrue(market.getTraderOrders(unseated).isEmpty());
+
+        // Re-reading the same data keeps the trader keys
+        PublicKey[] traders = traderTable.getTraders();
+        PublicKey keyA = traders[0];
+        traderTable.read(data, 880 + (2 * PhoenixOrderBookSide.getSize(8)), 4);
+        assertSame(keyA, traderTable.getTraders()[0]);
+
+        // Every seat is listed with a key; only the slots mark the freed seat
+        assertEquals(List.of(traderA, traderB), market.getTraders().stream().map(Pair::getFirst).toList());
+        assertEquals(market.getTraders(), market.getTraderSlots());
+
+        byte[] freed = data.clone();
+        int tradersOffset = 880 + (2 * PhoenixOrderBookSide.getSize(8));
+        ByteBuffer.wrap(freed).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(tradersOffset + 28, 1)
+                .putInt(tradersOffset + PhoenixTraderTable.HEADER_SIZE, 0);
+        PhoenixMarket freedMarket = PhoenixMarket.readPhoenixMarket(freed);
+        assertEquals(List.of(traderA, traderB), freedMarket.getTraders().stream().map(Pair::getFirst).toList());
+        assertNull(freedMarket.getTraderSlots().get(0));
+        assertEquals(traderB, freedMarket.getTraderSlots().get(1).getFirst());
+        assertEquals(List.of(traderB), freedMarket.getTradersSanitized().stream().map(Pair::getFirst).toList());
+    }
+
+    @Test
+    public void marketFeedPublishesConsistentBooksTest() throws InterruptedException {
+        PublicKey trader = new PublicKey("JB3443UaUDA3z47AYdK4AUG8pgFgLfJVyyitHYkqC17L");
+        byte[] marketA = buildPhoenixMarket(
+                8,
+                new long[][]{{58_300, 1, 1, 1_000}, {58_200, 2, 1, 2_000}},
+                8,
+                new long[][]{{58_400, 3, 1, 100}},
+                1,
+                new PublicKey[]{trader}
+        );
+        byte[] marketB = buildPhoenixMarket(
+                8,
+                new long[][]{{58_500, 4, 1, 1_000}, {58_450, 5, 1, 2_000}, {58_400, 6, 1, 3_000}},
+                8,
+                new long[][]{{58_600, 7, 1, 100}},
+                1,
+                new PublicKey[]{trader}
+        );
+
+        // Local stand-in for the websocket client
+        List<NotificationEventListener> subscribers = new ArrayList<>();
+        PhoenixMarketFeed feed = new PhoenixMarketFeed(SOL_USDC_MARKET);
+        subscribers.add(feed);
+
+        List<Long> updates = new ArrayList<>();
+        feed.addListener((marketId, book) -> updates.add(book.getUpdateCount()));
+
+        assertTrue(feed.read(book -> book.getBids().getLiveCount()).isEmpty());
+
+        notify(subscribers, marketA);
+        assertEquals(2, feed.read(book -> book.getBids().getLiveCount()).get());
+        assertEquals(58_300L, feed.read(book -> book.getBids().getBestPriceInTicks().getAsLong()).get());
+
+        notify(subscribers, marketB);
+        assertEquals(3, feed.read(book -> book.getBids().getLiveCount()).get());
+        assertEquals(58_500L, feed.read(book -> book.getBids().getBestPriceInTicks().getAsLong()).get());
+        assertEquals(2, feed.getUpdateCount());
+        assertEquals(List.of(1L, 1L), updates);
+
+        // Malformed notifications are logged and do not replace the book
+        feed.onNotificationEvent(Map.of("data", List.of("AAAA", "base64")));
+        assertEquals(3, feed.read(book -> book.getBids().getLiveCount()).get());
+        assertEquals(2, feed.getUpdateCount());
+
+        // The buffer the failed decode used is still usable
+        notify(subscribers, marketA);
+        assertEquals(2, feed.read(book -> book.getBids().getLiveCount()).get());
+
+        // Readers on another thread only ever see one of the two complete books
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                notify(subscribers, i % 2 == 0 ? marketA : marketB);
+            }
+        });
+        writer.start();
+
+        int inconsistent = 0;
+        while (writer.isAlive()) {
+            long[] snapshot = feed.read(book -> new long[]{
+                    book.getBids().getLiveCount(),
+                    book.getBids().getBestPriceInTicks().orElse(-1),
+                    book.getAsks().getBestPriceInTicks().orElse(-1)
+            }).get();
+
+            boolean isA = snapshot[0] == 2 && snapshot[1] == 58_300 && snapshot[2] == 58_400;
+            boolean isB = snapshot[0] == 3 && snapshot[1] == 58_500 && snapshot[2] == 58_600;
+            if (!isA && !isB) {
+                inconsistent++;
+            }
+        }
+        writer.join();
+
+        assertEquals(0, inconsistent);
+        assertEquals(2_003, feed.getUpdateCount());
+
+        // Data older than the last update is ignored, by slot when known and by market sequence number
+        byte[] older = marketA.clone();
+        byte[] newer = marketB.clone();
+        byte[] next = marketA.clone();
+        int sequenceNumberOffset = PhoenixMarketHeader.MARKET_SEQUENCE_NUMBER_OFFSET;
+        ByteBuffer.wrap(older).order(ByteOrder.LITTLE_ENDIAN).putLong(sequenceNumberOffset, 10);
+        ByteBuffer.wrap(newer).order(ByteOrder.LITTLE_ENDIAN).putLong(sequenceNumberOffset, 11);
+        ByteBuffer.wrap(next).order(ByteOrder.LITTLE_ENDIAN).putLong(sequenceNumberOffset, 12);
+
+        PhoenixMarketFeed seeded = new PhoenixMarketFeed(SOL_USDC_MARKET);
+        assertTrue(seeded.onAccountData(101, newer));
+        assertFalse(seeded.onAccountData(100, older));
+        seeded.onNotificationEvent(Map.of("data", List.of(Base64.getEncoder().encodeToString(older), "base64")));
+        assertEquals(58_500L, seeded.read(book -> book.getBids().getBestPriceInTicks().getAsLong()).get());
+        assertEquals(1, seeded.getUpdateCount());
+
+        assertFalse(seeded.onAccountData(100, next));
+        assertTrue(seeded.onAccountData(next));
+        assertEquals(58_300L, seeded.read(book -> book.getBids().getBestPriceInTicks().getAsLong()).get());
+    }
+
+    private static void notify(List<NotificationEventListener> subscribers, byte[] data) {
+        Map<String, Object> notification = Map.of(
+                "data", List.of(Base64.getEncoder().encodeToString(data), "base64")
+        );
+        subscribers.forEach(listener -> listener.onNotificationEvent(notification));
+    }
+
+    @Test
+    public void marketHeaderRegistryTest() {
+        PhoenixManager phoenixManager = new PhoenixManager(client, true);
+        phoenixManager.getMarketHeaders().clear();
+        phoenixManager.getMarketCache().clear();
+
+        List<PublicKey> discovered = new ArrayList<>();
+        phoenixManager.addNewMarketListener(discovered::add);
+
+        byte[] market = buildPhoenixMarket(4, new long[][]{}, 4, new long[][]{}, 1, new PublicKey[]{SOL_USDC_SEAT_MANAGER});
+        byte[] header = Arrays.copyOfRange(market, 0, PhoenixMarketHeader.MARKET_HEADER_SIZE);
+
+        List<PublicKey> newMarkets = phoenixManager.registerMarketHeaders(List.of(buildProgramAccount(SOL_USDC_MARKET, header)));
+        assertEquals(List.of(SOL_USDC_MARKET), newMarkets);
+        assertEquals(List.of(SOL_USDC_MARKET), discovered);
+        assertEquals(4, phoenixManager.getMarketHeaders().get(SOL_USDC_MARKET).getBidsSize());
+        assertEquals(1_000_000L, phoenixManager.getMarketHeaders().get(SOL_USDC_MARKET).getBaseLotSize());
+
+        // Known markets are refreshed, not reported again
+        assertTrue(phoenixManager.registerMarketHeaders(List.of(buildProgramAccount(SOL_USDC_MARKET, header))).isEmpty());
+        assertEquals(1, discovered.size());
+
+        // Books are not loaded until requested, and unknown markets are not fetched
+        assertTrue(phoenixManager.getPhoenixMarkets().isEmpty());
+        assertTrue(phoenixManager.getMarket(SOL_USDC_SEAT_MANAGER, true).isEmpty());
+
+        // The refresh can be stopped and restarted
+        phoenixManager.startRegistryRefresh(1, TimeUnit.HOURS);
+        phoenixManager.startRegistryRefresh(1, TimeUnit.HOURS);
+        assertTrue(phoenixManager.isRegistryRefreshRunning());
+        phoenixManager.stopRegistryRefresh();
+        assertFalse(phoenixManager.isRegistryRefreshRunning());
+        phoenixManager.startRegistryRefresh(1, TimeUnit.HOURS);
+        assertTrue(phoenixManager.isRegistryRefreshRunning());
+        phoenixManager.stopRegistryRefresh();
+        assertFalse(phoenixManager.isRegistryRefreshRunning());
+    }
+
+    @Test
+    public void marketHeaderRegistryLoadsBookOnceTest() throws Exception {
+        byte[] market = buildPhoenixMarket(4, new long[][]{}, 4, new long[][]{}, 1, new PublicKey[]{SOL_USDC_SEAT_MANAGER});
+        byte[] header = Arrays.copyOfRange(market, 0, PhoenixMarketHeader.MARKET_HEADER_SIZE);
+
+        // The first book fetch waits for a second caller, which must not fetch again
+        List<String> methods = new ArrayList<>();
+        CountDownLatch secondFetch = new CountDownLatch(1);
+        AtomicInteger fetches = new AtomicInteger();
+        RpcClient rpcClient = StubRpcClient.create(methods, (method, params) -> {
+            if (method.equals("getProgramAccounts")) {
+                return "[]";
+            }
+            if (fetches.incrementAndGet() == 1) {
+                try {
+                    secondFetch.await(500, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                secondFetch.countDown();
+            }
+            return "{\"context\":{\"slot\":1},\"value\":"
+                    + StubRpcClient.toAccountJson(market, PhoenixProgram.PHOENIX_PROGRAM_ID) + "}";
+        });
+
+        PhoenixManager phoenixManager = new PhoenixManager(rpcClient, true);
+        phoenixManager.registerMarketHeaders(List.of(buildProgramAccount(SOL_USDC_MARKET, header)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Optional<PhoenixMarket>> first =
+                    executor.submit(() -> phoenixManager.getMarket(SOL_USDC_MARKET, true));
+            Future<Optional<PhoenixMarket>> second =
+                    executor.submit(() -> phoenixManager.getMarket(SOL_USDC_MARKET, true));
+            assertSame(first.get().orElseThrow(), second.get().orElseThrow());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, fetches.get());
+    }
+
+    private static ProgramAccount buildProgramAccount(PublicKey publicKey, byte[] data) {
+        HashMap<String, Object> account = new HashMap<>();
+        account.put("data", List.of(Base64.getEncoder().encodeToString(data), "base64"));
+        account.put("executable", false);
+        account.put("lamports", 1.0);
+        account.put("owner", PhoenixProgram.PHOENIX_PROGRAM_ID.toBase58());
+        account.put("rentEpoch", 0.0);
+
+        HashMap<String, Object> programAccount = new HashMap<>();
+        programAccount.put("pubkey", publicKey.toBase58());
+        programAccount.put("account", account);
+        return new ProgramAccount(programAccount);
+    }
+
+    @Test
+    public void ladderPackingTest() {
+        Account trader = new Account();
+        PhoenixLadder.PhoenixLadderBuilder ladderBuilder = PhoenixLadder.builder()
+                .market(SOL_USDC_MARKET)
+                .trader(trader.getPublicKey())
+                .baseAccount(BASE_WSOL_WALLET)
+                .quoteAccount(QUOTE_USDC_WALLET)
+                .baseVault(SOL_USDC_SEAT_MANAGER)
+                .quoteVault(PhoenixSeatManagerProgram.PHOENIX_LOG_AUTHORITY_ID);
+
+        // 50 levels: 25 bids and 25 asks
+        List<CondensedPhoenixOrder> bids = new ArrayList<>();
+        List<CondensedPhoenixOrder> asks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            bids.add(CondensedPhoenixOrder.builder().priceInTicks(58_000 - i).sizeInBaseLots(100).build());
+            asks.add(CondensedPhoenixOrder.builder().priceInTicks(58_100 + i).sizeInBaseLots(100).build());
+        }
+
+        List<List<TransactionInstruction>> packed = PhoenixLadderManager.packLadder(
+                ladderBuilder.bids(bids.subList(0, 25)).asks(asks.subList(0, 25)).build()
+        );
+        assertEquals(2, packed.size());
+
+        int placed = 0;
+        for (List<TransactionInstruction> instructions : packed) {
+            Transaction transaction = new Transaction();
+            instructions.forEach(transaction::addInstruction);
+            transaction.setRecentBlockHash(SOL_USDC_MARKET.toBase58());
+            transaction.sign(trader);
+            int size = transaction.serialize().length;
+
+            assertEquals(size, PhoenixLadderManager.getTransactionSize(instructions, trader.getPublicKey()));
+            assertTrue(size <= PhoenixLadderManager.PACKET_DATA_SIZE);
+            placed += (instructions.get(0).getData().length - 11) / 18;
+        }
+        assertEquals(50, placed);
+
+        // The best levels go out in the first transaction
+        byte[] firstData = packed.get(0).get(0).getData();
+        assertEquals(58_000, ByteBuffer.wrap(firstData).order(ByteOrder.LITTLE_ENDIAN).getLong(5));
+
+        // Cancel-replace: the cancel is first, in the same transaction as the first levels
+        List<List<TransactionInstruction>> cancelReplace = PhoenixLadderManager.packLadder(
+                ladderBuilder.bids(bids.subList(0, 5)).asks(asks.subList(0, 5)).cancelAllFirst(true).build()
+        );
+        assertEquals(1, cancelReplace.size());
+        assertEquals(2, cancelReplace.get(0).size());
+        assertEquals(7, cancelReplace.get(0).get(0).getData()[0]);
+        assertEquals(16, cancelReplace.get(0).get(1).getData()[0]);
+
+        // 100 levels need 3 transactions
+        assertEquals(3, PhoenixLadderManager.packLadder(ladderBuilder.bids(bids).asks(asks).build()).size());
+
+        // Nothing to place
+        assertTrue(PhoenixLadderManager.packLadder(
+                ladderBuilder.bids(List.of()).asks(List.of()).cancelAllFirst(false).build()
+        ).isEmpty());
+
+        // Seat addresses are deterministic
+        assertEquals(
+                PhoenixProgram.getSeatAddress(SOL_USDC_MARKET, trader.getPublicKey()),
+                PhoenixProgram.getSeatAddress(SOL_USDC_MARKET, trader.getPublicKey())
+        );
+    }
+
+    @Test
+    public void ladderCancelReplaceWaitsForSuccessfulCancelTest() {
+        Account trader = new Account();
+        List<CondensedPhoenixOrder> bids = new ArrayList<>();
+        List<CondensedPhoenixOrder> asks = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            bids.add(CondensedPhoenixOrder.builder().priceInTicks(58_000 - i).sizeInBaseLots(100).build());
+            asks.add(CondensedPhoenixOrder.builder().priceInTicks(58_100 + i).sizeInBaseLots(100).build());
+        }
+        PhoenixLadder ladder = PhoenixLadder.builder()
+                .market(SOL_USDC_MARKET)
+                .trader(trader.getPublicKey())
+                .baseAccount(BASE_WSOL_WALLET)
+                .quoteAccount(QUOTE_USDC_WALLET)
+                .baseVault(SOL_USDC_SEAT_MANAGER)
+                .quoteVault(PhoenixSeatManagerProgram.PHOENIX_LOG_AUTHORITY_ID)
+                .bids(bids)
+                .asks(asks)
+                .cancelAllFirst(true)
+                .build();
+        int transactions = PhoenixLadderManager.packLadder(ladder).size();
+        assertTrue(transactions > 1);
+
+        // The cancel lands but fails: the replacement levels are not sent
+        List<String> methods = new ArrayList<>();
+        PhoenixLadderManager failedCancel = new PhoenixLadderManager(
+                stubRpcClient(methods, signatureStatus("{\"InstructionError\":[0,{\"Custom\":1}]}", "confirmed")),
+                Runnable::run
+        );
+        List<Optional<String>> signatures = failedCancel.placeLadder(ladder, trader);
+        assertEquals(transactions, signatures.size());
+        assertTrue(signatures.get(0).isPresent());
+        assertTrue(signatures.subList(1, transactions).stream().allMatch(Optional::isEmpty));
+        assertEquals(1, methods.stream().filter("sendTransaction"::equals).count());
+
+        // Once the cancel is confirmed without error, the remaining levels go out
+        methods.clear();
+        PhoenixLadderManager confirmedCancel = new PhoenixLadderManager(
+                stubRpcClient(methods, signatureStatus("null", "confirmed")),
+                Runnable::run
+        );
+        signatures = confirmedCancel.placeLadder(ladder, trader);
+        assertTrue(signatures.stream().allMatch(Optional::isPresent));
+        assertEquals(transactions, methods.stream().filter("sendTransaction"::equals).count());
+    }
+
+    @Test
+    public void eventStreamDecodesLogInstructionsTest() throws IOException {
+        PublicKey maker = new Account().getPublicKey();
+        PublicKey taker = new Account().getPublicKey();
+
+        PhoenixEventStream eventStream = new PhoenixEventStream();
+        List<PhoenixMarketEvent> events = new ArrayList<>();
+        List<long[]> gaps = new ArrayList<>();
+        eventStream.addListener(events::add);
+        eventStream.addGapListener((marketId, from, to) -> gaps.add(new long[]{from, to}));
+
+        // Instruction 100: a taker fills 5 lots against a maker, then places the remainder
+        byte[] first = buildLogInstruction(100, taker, maker);
+        assertEquals(4, eventStream.onLogInstruction(first));
+
+        PhoenixMarketEvent fill = events.get(0);
+        assertEquals(PhoenixMarketEventType.FILL, fill.getType());
+        assertTrue(fill.isFill());
+        assertEquals(SOL_USDC_MARKET, fill.getMarket());
+        assertEquals(taker, fill.getSigner());
+        assertEquals(100, fill.getSequenceNumber());
+        assertEquals(2, fill.getInstruction());
+        assertEquals(maker, fill.getMakerId());
+        assertEquals(77, fill.getOrderSequenceNumber());
+        assertEquals(150_000, fill.getPriceInTicks());
+        assertEquals(5, fill.getBaseLots());
+        assertEquals(3, fill.getBaseLotsRemaining());
+
+        PhoenixMarketEvent place = events.get(1);
+        assertEquals(PhoenixMarketEventType.PLACE, place.getType());
+        assertEquals(1, place.getIndex());
+        assertEquals(78, place.getOrderSequenceNumber());
+        assertEquals(new BigInteger("340282366920938463463374607431768211455"), place.getClientOrderId());
+        assertEquals(149_000, place.getPriceInTicks());
+        assertEquals(2, place.getBaseLots());
+
+        assertEquals(PhoenixMarketEventType.FILL_SUMMARY, events.get(2).getType());
+        assertEquals(5, events.get(2).getBaseLots());
+        assertEquals(750, events.get(2).getQuoteLots());
+        assertEquals(1, events.get(2).getFeeInQuoteLots());
+        assertEquals(PhoenixMarketEventType.FEE, events.get(3).getType());
+        assertEquals(1, events.get(3).getQuoteLots());
+
+        // Replays are dropped, skipped instructions are reported
+        assertEquals(0, eventStream.onLogInstruction(first));
+        assertEquals(4, eventStream.onLogInstruction(buildLogInstruction(103, taker, maker)));
+        assertEquals(1, gaps.size());
+        assertEquals(101, gaps.get(0)[0]);
+        assertEquals(102, gaps.get(0)[1]);
+        assertEquals(103, eventStream.getLastSequenceNumber(SOL_USDC_MARKET));
+
+        // Non-log data is ignored
+        assertTrue(PhoenixMarketEvent.readPhoenixMarketEvents(new byte[]{2, 0, 0, 0, 0}).isEmpty());
+
+        // Recorded file of base58 log instructions
+        File recording = File.createTempFile("phoenix-events", ".txt");
+        recording.deleteOnExit();
+        Files.asCharSink(recording, Charset.defaultCharset()).write(
+                "# recorded log instructions\n"
+                        + Base58.encode(buildLogInstruction(104, taker, maker)) + "\n\n"
+                        + Base58.encode(buildLogInstruction(104, taker, maker)) + "\n"
+                        + Base58.encode(buildLogInstruction(105, taker, maker)) + "\n"
+        );
+        assertEquals(8, eventStream.replay(recording.toPath()));
+        assertEquals(105, eventStream.getLastSequenceNumber(SOL_USDC_MARKET));
+        assertEquals(16, eventStream.getEventCount());
+        assertEquals(1, gaps.size());
+    }
+
+    @Test
+    public void eventStreamKeepsHeadersPerInstructionTest() {
+        PublicKey maker = new Account().getPublicKey();
+        PublicKey taker = new Account().getPublicKey();
+        PublicKey otherMarket = new Account().getPublicKey();
+
+        PhoenixEventStream eventStream = new PhoenixEventStream();
+        List<PhoenixMarketEvent> events = new ArrayList<>();
+        eventStream.addListener(events::add);
+
+        // Two outer instructions on different markets, each continued by a batch without a header
+        ConfirmedTransaction transaction = buildLogTransaction(List.of(
+                List.of(
+                        buildLogInstruction(SOL_USDC_MARKET, 100, taker, maker),
+                        buildLogContinuation(4, maker)
+                ),
+                List.of(
+                        buildLogInstruction(otherMarket, 7, taker, maker),
+                        buildLogContinuation(4, maker)
+                )
+        ));
+        assertEquals(10, eventStream.onTransaction(transaction));
+        assertEquals(SOL_USDC_MARKET, events.get(4).getMarket());
+        assertEquals(100, events.get(4).getSequenceNumber());
+        assertEquals(otherMarket, events.get(9).getMarket());
+        assertEquals(7, events.get(9).getSequenceNumber());
+
+        // A continuation never picks up the header of another instruction or transaction
+        events.clear();
+        transaction = buildLogTransaction(List.of(
+                List.of(buildLogInstruction(SOL_USDC_MARKET, 101, taker, maker)),
+                List.of(buildLogContinuation(5, maker))
+        ));
+        assertEquals(4, eventStream.onTransaction(transaction));
+        transaction = buildLogTransaction(List.of(List.of(buildLogContinuation(6, maker))));
+        assertEquals(0, eventStream.onTransaction(transaction));
+        assertTrue(events.stream().allMatch(event -> event.getSequenceNumber() == 101));
+        assertEquals(7, eventStream.getLastSequenceNumber(otherMarket));
+    }
+
+    @Test
+    public void discriminatorRegistryAndKeccakTest() {
+        // Registry matches a fresh hash, as the ByteBuffer path computes it
+        assertEquals(
+                getDiscriminator(PhoenixUtil.MARKET_HEADER),
+                PhoenixUtil.getDiscriminator(PhoenixUtil.MARKET_HEADER)
+        );
+        assertEquals(getDiscriminator(PhoenixUtil.SEAT), PhoenixUtil.getDiscriminator(PhoenixUtil.SEAT));
+        assertEquals(getDiscriminator("custom::Type"), PhoenixUtil.getDiscriminator("custom::Type"));
+
+        byte[] marketData = new byte[16];
+        System.arraycopy(Base58.decode(getDiscriminator(PhoenixUtil.MARKET_HEADER)), 0, marketData, 0, 8);
+        assertTrue(PhoenixUtil.hasDiscriminator(marketData, PhoenixUtil.MARKET_HEADER));
+        assertFalse(PhoenixUtil.hasDiscriminator(marketData, PhoenixUtil.SEAT));
+        assertFalse(PhoenixUtil.hasDiscriminator(new byte[4], PhoenixUtil.MARKET_HEADER));
+
+        // Array path matches the ByteBuffer path across rate boundaries (136 bytes) and split updates
+        byte[] input = new byte[600];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (byte) (i * 31 + 7);
+        }
+        byte[] hash = new byte[32];
+        for (int length : new int[]{0, 1, 7, 8, 9, 135, 136, 137, 271, 272, 273, 600}) {
+            Keccak expected = new Keccak(256);
+            expected.update(ByteBuffer.wrap(input, 0, length));
+            byte[] expectedHash = new byte[32];
+            expected.digest(ByteBuffer.wrap(expectedHash));
+
+            PhoenixUtil.keccak256(input, 0, length, hash);
+            assertTrue(Arrays.equals(expectedHash, hash), "length " + length);
+
+            Keccak split = new Keccak(256);
+            split.update(input, 0, length / 3);
+            split.update(input, length / 3, length - (length / 3));
+            assertTrue(Arrays.equals(expectedHash, split.digestArray()), "split length " + length);
+        }
+
+        // Discriminators are computed once per type
+        assertSame(
+                PhoenixUtil.getDiscriminator(PhoenixUtil.MARKET_HEADER),
+                PhoenixUtil.getDiscriminator(PhoenixUtil.MARKET_HEADER)
+        );
+    }
+
+    @Test
+    public void l3BookQueuePositionTest() {
+        PublicKey trader = new PublicKey("JB3443UaUDA3z47AYdK4AUG8pgFgLfJVyyitHYkqC17L");
+        PhoenixOrderBookSide bids = new PhoenixOrderBookSide();
+        PhoenixOrderBookSide asks = new PhoenixOrderBookSide();
+        PhoenixL3Book l3Book = new PhoenixL3Book();
+
+        PhoenixMarket.readOrderBook(buildPhoenixMarket(
+                8,
+                new long[][]{{150_000, ~1, 1, 10}, {150_000, ~2, 1, 20}, {149_000, ~3, 1, 5}, {150_000, ~4, 1, 7}},
+                8,
+                new long[][]{{151_000, 5, 1, 3}, {151_000, 6, 1, 4}},
+                1,
+                new PublicKey[]{trader}
+        ), bids, asks);
+        assertEquals(6, l3Book.update(bids, asks));
+
+        byte bid = PhoenixTraderTable.SIDE_BID;
+        byte ask = PhoenixTraderTable.SIDE_ASK;
+        // Bids rank by time priority within a level: ~1, then ~2, then ~4
+        assertEquals(0, l3Book.getQueuePosition(bid, ~1));
+        assertEquals(0, l3Book.getSizeAhead(bid, ~1));
+        assertEquals(1, l3Book.getQueuePosition(bid, ~2));
+        assertEquals(10, l3Book.getSizeAhead(bid, ~2));
+        assertEquals(30, l3Book.getSizeAhead(bid, ~4));
+        assertEquals(2, l3Book.getQueuePosition(bid, ~4));
+        assertEquals(0, l3Book.getSizeAhead(bid, ~3));
+        assertEquals(37, l3Book.getTotalSizeAhead(bid, ~3));
+        assertEquals(37, l3Book.getLevelSize(bid, 150_000));
+        assertEquals(3, l3Book.getLevelOrderCount(bid, 150_000));
+        assertEquals(3, l3Book.getSizeAhead(ask, 6));
+        assertEquals(1, l3Book.getTraderIndex(ask, 6));
+
+        // Order 1 is partly filled, order 2 is cancelled and order 7 joins the back of the queue
+        PhoenixMarket.readOrderBook(buildPhoenixMarket(
+                8,
+                new long[][]{{150_000, ~1, 1, 6}, null, {149_000, ~3, 1, 5}, {150_000, ~4, 1, 7}, {150_000, ~7, 1, 9}},
+                8,
+                new long[][]{{151_000, 5, 1, 3}, {151_000, 6, 1, 4}},
+                1,
+                new PublicKey[]{trader}
+        ), bids, asks);
+        assertEquals(3, l3Book.update(bids, asks));
+        assertEquals(0, l3Book.update(bids, asks));
+
+        assertEquals(-1, l3Book.getSizeAhead(bid, ~2));
+        assertEquals(6, l3Book.getSizeAhead(bid, ~4));
+        assertEquals(13, l3Book.getSizeAhead(bid, ~7));
+        assertEquals(2, l3Book.getQueuePosition(bid, ~7));
+        assertEquals(22, l3Book.getLevelSize(bid, 150_000));
+        assertEquals(4, l3Book.getOrderCount(bid));
+        assertEquals(27, l3Book.getTotalSize(bid));
+
+        // Random snapshots (fills, cancels and new orders) against a brute force count
+        Random random = new Random(7);
+        long nextSequenceNumber = 100;
+        long[][] orders = new long[40][];
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < orders.length; i++) {
+                int action = random.nextInt(10);
+                if (orders[i] == null || action < 2) {
+                    orders[i] = action % 2 == 0
+                            ? null
+                            : new long[]{150_000 - random.nextInt(5) * 100, ~nextSequenceNumber++, 1,
+                            1 + random.nextInt(50)};
+                } else if (action < 5) {
+                    orders[i] = new long[]{orders[i][0], orders[i][1], 1, 1 + random.nextInt(50)};
+                }
+            }
+            PhoenixMarket.readOrderBook(
+                    buildPhoenixMarket(40, orders, 8, new long[0][], 1, new PublicKey[]{trader}), bids, asks
+            );
+            l3Book.update(bids, asks);
+
+            for (long[] order : orders) {
+                if (order == null) {
+                    continue;
+                }
+                long ahead = 0;
+                long totalAhead = 0;
+                for (long[] other : orders) {
+                    if (other == null) {
+                        continue;
+                    }
+                    if (other[0] == order[0] && ~other[1] < ~order[1]) {
+                        ahead += other[3];
+                    }
+                    if (other[0] > order[0] || (other[0] == order[0] && ~other[1] < ~order[1])) {
+                        totalAhead += other[3];
+                    }
+                }
+                assertEquals(ahead, l3Book.getSizeAhead(bid, order[1]));
+                assertEquals(totalAhead, l3Book.getTotalSizeAhead(bid, order[1]));
+            }
+        }
+    }
+
+    @Test
+    public void marketScaleExactConversionsTest() {
+        // SOL/USDC-like: 9 base decimals, 6 quote decimals, 1000 ticks per 1 USDC, 1000 lots per SOL
+        PhoenixMarketScale scale = new PhoenixMarketScale(9, 6, 1_000_000, 1, 1_000, 1);
+        assertEquals(6, scale.getPriceDecimals());
+        assertEquals(150_123_000, scale.ticksToPriceMantissa(150_123));
+        assertEquals(150_123, scale.priceMantissaToTicks(150_123_499));
+        assertEquals(150_124, scale.priceMantissaToTicks(150_123_500));
+        assertTrue(scale.isOnTick(150_123_000));
+        assertFalse(scale.isOnTick(150_123_001));
+        assertEquals(1_500_000_000, scale.baseLotsToAtoms(1_500));
+        assertEquals(1_500, scale.baseAtomsToLots(1_500_999_999));
+        assertEquals(150.123, scale.ticksToPrice(150_123));
+        assertEquals(1.5, scale.baseLotsToSize(1_500));
+        assertEquals(150_123, scale.priceToTicks(150.123));
+        assertEquals(1_500, scale.sizeToBaseLots(1.5));
+        assertEquals(25_000_000, scale.sizeToQuoteLots(25.0));
+
+        // Raw base units (e.g. 1000 BONK per base unit) move the price's decimal point instead of dividing
+        PhoenixMarketScale rawScale = new PhoenixMarketScale(5, 6, 1_000, 1, 1, 1_000);
+        assertEquals(9, rawScale.getPriceDecimals());
+        assertEquals(17, rawScale.ticksToPriceMantissa(17));
+
+        // Same results as the Math.pow formula, and prices read from the book round trip to the same tick
+        for (long ticks = 1; ticks < 200_000; ticks += 997) {
+            double expected = ((double) ticks * 1 * 1) / (Math.pow(10, 6) * 1_000);
+            assertEquals(expected, rawScale.ticksToPrice(ticks));
+            assertEquals(ticks, rawScale.priceToTicks(rawScale.ticksToPrice(ticks)));
+            assertEquals(ticks, scale.priceToTicks(scale.ticksToPrice(ticks)));
+        }
+
+        // Products past Long.MAX_VALUE stay positive instead of wrapping
+        long huge = Long.MAX_VALUE / 100;
+        assertEquals(huge * 1_000.0 / 1_000_000, scale.ticksToPrice(huge));
+        assertEquals(huge * 1_000_000.0 / 1_000_000_000, scale.baseLotsToSize(huge));
+
+        LimitOrderPacketRecord order = LimitOrderPacketRecord.builderFor(scale, (byte) 0, 150.123, 1.5)
+                .selfTradeBehavior((byte) 1)
+                .matchLimit(0)
+                .clientOrderId(new byte[16])
+                .build();
+        assertEquals(150_123, order.getPriceInTicks());
+        assertEquals(1_500, order.getNumBaseLots());
+
+        CondensedPhoenixOrder condensedOrder = CondensedPhoenixOrder.of(scale, 150.123, 1.5);
+        assertEquals(150_123, condensedOrder.getPriceInTicks());
+        assertEquals(1_500, condensedOrder.getSizeInBaseLots());
+
+        // Decoded markets and books share the scale
+        byte[] data = buildPhoenixMarket(8, new long[][]{{150_123, 1, 1, 1_500}}, 8, new long[0][], 1,
+                new PublicKey[]{new PublicKey("JB3443UaUDA3z47AYdK4AUG8pgFgLfJVyyitHYkqC17L")});
+        PhoenixMarket market = PhoenixMarket.readPhoenixMarket(data);
+        assertEquals(150.123, market.getBidLevels(1).get(0).getPrice());
+        assertEquals(1.5, market.getBidLevels(1).get(0).getSize());
+        assertEquals(150_123, market.convertPriceToPriceInTicks(150.123));
+
+        PhoenixOrderBook book = new PhoenixOrderBook();
+        book.read(data);
+        PhoenixMarketScale bookScale = book.getScale();
+        book.read(data);
+        assertSame(bookScale, book.getScale());
+        assertEquals(150_123_000, bookScale.ticksToPriceMantissa(150_123));
+    }
+
+    /**
+     * Builds a Phoenix log instruction for a limit order that fills 5 lots and places 2: a header, a fill, a place, a
+     * fill summary and a fee event.
+     */
+    private static byte[] buildLogInstruction(long sequenceNumber, PublicKey signer, PublicKey maker) {
+        return buildLogInstruction(SOL_USDC_MARKET, sequenceNumber, signer, maker);
+    }
+
+    private static byte[] buildLogInstruction(PublicKey market, long sequenceNumber, PublicKey signer,
+                                              PublicKey maker) {
+        ByteBuffer buffer = ByteBuffer.allocate(512).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte) 15);
+        buffer.putInt(5);
+
+        // Header
+        buffer.put((byte) 1);
+        buffer.put((byte) 2);
+        buffer.putLong(sequenceNumber);
+        buffer.putLong(1_700_000_000L);
+        buffer.putLong(250_000_000L);
+        buffer.put(market.toByteArray());
+        buffer.put(signer.toByteArray());
+        buffer.putShort((short) 4);
+
+        // Fill
+        buffer.put((byte) 2);
+        buffer.putShort((short) 0);
+        buffer.put(maker.toByteArray());
+        buffer.putLong(77);
+        buffer.putLong(150_000);
+        buffer.putLong(5);
+        buffer.putLong(3);
+
+        // Place, with a u128::MAX client order id
+        buffer.put((byte) 3);
+        buffer.putShort((short) 1);
+        buffer.putLong(78);
+        buffer.putLong(-1L);
+        buffer.putLong(-1L);
+        buffer.putLong(149_000);
+        buffer.putLong(2);
+
+        // FillSummary
+        buffer.put((byte) 6);
+        buffer.putShort((short) 2);
+        buffer.putLong(0);
+        buffer.putLong(0);
+        buffer.putLong(5);
+        buffer.putLong(750);
+        buffer.putLong(1);
+
+        // Fee
+        buffer.put((byte) 7);
+        buffer.putShort((short) 3);
+        buffer.putLong(1);
+
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    // A log batch without a header: a single fill at the given event index
+    private static byte[] buildLogContinuation(int index, PublicKey maker) {
+        ByteBuffer buffer = ByteBuffer.allocate(128).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte) 15);
+        buffer.putInt(1);
+        buffer.put((byte) 2);
+        buffer.putShort((short) index);
+        buffer.put(maker.toByteArray());
+        buffer.putLong(79);
+        buffer.putLong(150_000);
+        buffer.putLong(1);
+        buffer.putLong(0);
+
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    // One inner instruction set per outer instruction, each holding Phoenix log instructions, as getTransaction
+    // returns them
+    private static ConfirmedTransaction buildLogTransaction(List<List<byte[]>> logInstructions) {
+        StringBuilder innerInstructions = new StringBuilder();
+        for (int i = 0; i < logInstructions.size(); i++) {
+            String instructions = logInstructions.get(i).stream()
+                    .map(data -> "{\"programIdIndex\":0,\"accounts\":[1],\"data\":\"" + Base58.encode(data) + "\"}")
+                    .collect(Collectors.joining(","));
+            innerInstructions.append(i == 0 ? "" : ",")
+                    .append("{\"index\":").append(i).append(",\"instructions\":[").append(instructions).append("]}");
+        }
+        String transaction = "{\"slot\":1,\"meta\":{\"innerInstructions\":[" + innerInstructions + "]},"
+                + "\"transaction\":{\"signatures\":[],\"message\":{\"accountKeys\":[\""
+                + PhoenixProgram.PHOENIX_PROGRAM_ID.toBase58() + "\",\""
+                + PhoenixSeatManagerProgram.PHOENIX_LOG_AUTHORITY_ID.toBase58() + "\"]}}}";
+
+        try {
+            return StubRpcClient.create(new ArrayList<>(), (method, params) -> transaction)
+                    .getApi()
+                    .getTransaction("stub");
+        } catch (RpcException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Builds a SOL/USDC-like Phoenix market account (9 base decimals, 6 quote decimals, 1000 ticks per 1 USDC).
+     * Orders are {priceInTicks, orderSequenceNumber, traderIndex, numBaseLots}, one per node slot; a null entry is a
+     * slot on the free list. Live orders are linked into a (plain, unbalanced) binary search tree in slot order.
+     */
+    private static byte[] buildPhoenixMarket(int bidsCapacity, long[][] bids, int asksCapacity, long[][] asks,
+                                             int numSeats, PublicKey[] traders) {
+        int bidsSize = PhoenixOrderBookSide.getSize(bidsCapacity);
+        int asksSize = PhoenixOrderBookSide.getSize(asksCapacity);
+        int traderNodeSize = 16 + 32 + PhoenixTraderState.PHOENIX_TRADER_STATE_SIZE;
+        int tradersSize = 32 + (traderNodeSize * numSeats);
+
+        ByteBuffer buffer = ByteBuffer.allocate(880 + bidsSize + asksSize + tradersSize);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putLong(16, bidsCapacity);
+        buffer.putLong(24, asksCapacity);
+        buffer.putLong(32, numSeats);
+        buffer.putInt(40, 9);
+        buffer.putLong(112, 1_000_000L);
+        buffer.putInt(120, 6);
+        buffer.putLong(192, 1L);
+        buffer.putLong(200, 1_000L);
+        buffer.putInt(312, 1);
+
+        buffer.putLong(832, 1_000L);
+        buffer.putLong(840, 1_000L);
+
+        writeOrderBookSide(buffer, 880, bids, true);
+        writeOrderBookSide(buffer, 880 + bidsSize, asks, false);
+
+        int tradersOffset = 880 + bidsSize + asksSize;
+        buffer.putInt(tradersOffset + 24, traders.length + 1);
+        for (int i = 0; i < traders.length; i++) {
+            int nodeOffset = tradersOffset + 32 + (i * traderNodeSize);
+            buffer.put(nodeOffset + 16, traders[i].toByteArray());
+        }
+
+        return buffer.array();
+    }
+
+    private static void writeOrderBookSide(ByteBuffer buffer, int offset, long[][] orders, boolean bid) {
+        int nodesOffset = offset + PhoenixOrderBookSide.HEADER_SIZE;
+        buffer.putInt(offset + 24, orders.length + 1);
+
+        int freeListHead = 0;
+        for (int slot = orders.length - 1; slot >= 0; slot--) {
+            int nodeOffset = nodesOffset + (slot * PhoenixOrderBookSide.NODE_SIZE);
+            if (orders[slot] == null) {
+                buffer.putInt(nodeOffset, freeListHead);
+                freeListHead = slot + 1;
+                continue;
+            }
+
+            for (int i = 0; i < 4; i++) {
+                buffer.putLong(nodeOffset + PhoenixOrderBookSide.REGISTERS_SIZE + (i * 8), orders[slot][i]);
+            }
+        }
+        buffer.putInt(offset + 28, freeListHead);
+
+        // Best first: bids by descending price, asks by ascending price, then by time priority (bids store !seq)
+        Comparator<long[]> bestFirst = Comparator.comparingLong(order -> bid ? -order[0] : order[0]);
+        bestFirst = bestFirst.thenComparingLong(order -> bid ? ~order[1] : order[1]);
+
+        int root = 0;
+        for (int slot = 0; slot < orders.length; slot++) {
+            if (orders[slot] == null) {
+                continue;
+            }
+            if (root == 0) {
+                root = slot + 1;
+                continue;
+            }
+
+            int parent = root;
+            while (true) {
+                int parentOffset = nodesOffset + ((parent - 1) * PhoenixOrderBookSide.NODE_SIZE);
+                int register = bestFirst.compare(orders[slot], orders[parent - 1]) < 0
+                        ? PhoenixOrderBookSide.LEFT
+                        : PhoenixOrderBookSide.RIGHT;
+                int child = buffer.getInt(parentOffset + (register * 4));
+                if (child == 0) {
+                    buffer.putInt(parentOffset + (register * 4), slot + 1);
+                    buffer.putInt(nodesOffset + (slot * PhoenixOrderBookSide.NODE_SIZE)
+                            + (PhoenixOrderBookSide.PARENT * 4), parent);
+                    break;
+                }
+                parent = child;
+            }
+        }
+        buffer.putInt(offset, root);
+    }
+
     private String getDiscriminator(String input) {
         Keccak keccak = new Keccak(256);
         keccak.update(PhoenixProgram.PHOENIX_PROGRAM_ID.toByteArray());
@@ -704,4 +1756,21 @@ public class PhoenixTest {
 
         return Base58.encode(Arrays.copyOfRange(keccakBytes, 0, 8));
     }
-}
\ No newline at end of file
+
+    private static String signatureStatus(String err, String confirmationStatus) {
+        return "{\"context\":{\"slot\":1},\"value\":[{\"slot\":1,\"confirmations\":null,\"err\":" + err
+                + ",\"confirmationStatus\":\"" + confirmationStatus + "\"}]}";
+    }
+
+    // Answers the ladder's RPC calls: a blockhash, a signature per sent transaction and the given signature status
+    private static RpcClient stubRpcClient(List<String> methods, String signatureStatuses) {
+        AtomicInteger sent = new AtomicInteger();
+        return StubRpcClient.create(methods, (method, params) -> switch (method) {
+            case "getLatestBlockhash" -> "{\"context\":{\"slot\":1},\"value\":{\"blockhash\":\""
+                    + SOL_USDC_MARKET.toBase58() + "\",\"lastValidBlockHeight\":1}}";
+            case "sendTransaction" -> "\"" + Base58.encode(new byte[]{(byte) sent.incrementAndGet(), 1, 2, 3}) + "\"";
+            case "getSignatureStatuses" -> signatureStatuses;
+            default -> "null";
+        });
+    }
+}
@@ -1,6 +1,8 @@
 package com.mmorrell.pyth.listener;
 
 import com.mmorrell.pyth.model.PriceDataAccount;
+import com.mmorrell.pyth.model.PriceDataFields;
+import com.mmorrell.pyth.model.PythPriceHistory;
 import lombok.AllArgsConstructor;
 import org.p2p.solanaj.ws.listeners.NotificationEventListener;
 
@@ -16,6 +18,13 @@ public class PriceDataAccountListener implements NotificationEventListener {
     private final Map<String, Float> currentPriceMap;
     private final String productName;
 
+    // Optional rolling window fed with every update
+    private final PythPriceHistory priceHistory;
+
+    public PriceDataAccountListener(Map<String, Float> currentPriceMap, String productName) {
+        this(currentPriceMap, productName, null);
+    }
+
     @Override
     public void onNotificationEvent(Object data) {
         if (data != null) {
@@ -23,11 +32,15 @@ public class PriceDataAccountListener implements NotificationEventListener {
             final String base64 = (String)((List) objectMap.get("data")).get(0);
 
             final PriceDataAccount streamedPriceDataAccount = PriceDataAccount.readPriceDataAccount(
-                    Base64.getDecoder().decode(base64)
+                    Base64.getDecoder().decode(base64),
+                    PriceDataFields.AGGREGATE
             );
 
             currentPriceMap.put(productName, streamedPriceDataAccount.getAggregatePriceInfo().getPrice());
-            LOGGER.info(currentPriceMap.toString());
+            if (priceHistory != null) {
+                priceHistory.record(streamedPriceDataAccount);
+            }
+            LOGGER.fine(currentPriceMap::toString);
         }
     }
 }
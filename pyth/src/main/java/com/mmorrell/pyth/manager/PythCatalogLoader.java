@@ -0,0 +1,218 @@
+package com.mmorrell.pyth.manager;
+
+import com.mmorrell.pyth.model.MappingAccount;
+import com.mmorrell.pyth.model.PriceDataAccount;
+import com.mmorrell.pyth.model.ProductAccount;
+import com.mmorrell.pyth.model.ProductAttributes;
+import com.mmorrell.pyth.model.PythCatalog;
+import com.mmorrell.pyth.model.PythCatalogEntry;
+import com.mmorrell.pyth.utils.PythUtils;
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.rpc.RpcClient;
+import org.p2p.solanaj.rpc.RpcException;
+import org.p2p.solanaj.rpc.types.AccountInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Loads the whole Pyth catalog: follows the mapping account chain, then fetches every product account and every
+ * price account with chunked getMultipleAccounts calls, several chunks at a time.
+ */
+public class PythCatalogLoader {
+
+    private static final Logger LOGGER = Logger.getLogger(PythCatalogLoader.class.getName());
+    private static final int MULTIPLE_ACCOUNTS_CHUNK_SIZE = 100;
+    private static final int DEFAULT_PARALLELISM = 8;
+    private static final PublicKey EMPTY_PUBKEY = new PublicKey(PythUtils.EMPTY_PUBKEY);
+
+    private final RpcClient client;
+    private final int parallelism;
+
+    // Product attributes to decode, always including the symbol; null for all of them
+    private final String[] productAttributes;
+
+    public PythCatalogLoader(RpcClient client) {
+        this(client, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Creates a catalog loader.
+     *
+     * @param client      the RPC client
+     * @param parallelism the number of getMultipleAccounts calls in flight at once
+     */
+    public PythCatalogLoader(RpcClient client, int parallelism) {
+        this(client, parallelism, (String[]) null);
+    }
+
+    /**
+     * Creates a catalog loader that only decodes some product attributes.
+     *
+     * @param client            the RPC client
+     * @param parallelism       the number of getMultipleAccounts calls in flight at once
+     * @param productAttributes the product attributes to keep; the symbol is always kept
+     */
+    public PythCatalogLoader(RpcClient client, int parallelism, String... productAttributes) {
+        this.client = client;
+        this.parallelism = Math.max(1, parallelism);
+
+        if (productAttributes == null || Arrays.asList(productAttributes).contains(ProductAttributes.SYMBOL)) {
+            this.productAttributes = productAttributes;
+        } else {
+            this.productAttributes = Arrays.copyOf(productAttributes, productAttributes.length + 1);
+            this.productAttributes[productAttributes.length] = ProductAttributes.SYMBOL;
+        }
+    }
+
+    /**
+     * Loads every product reachable from a mapping account, with its first price account.
+     *
+     * @param mappingAccountKey the first mapping account of the chain
+     * @return the catalog; products or price accounts that fail to load are left out or have no price data
+     */
+    public PythCatalog load(PublicKey mappingAccountKey) {
+        List<PublicKey> mappingAccountKeys = new ArrayList<>();
+        List<PublicKey> productAccountKeys = new ArrayList<>();
+
+        // Each mapping account names the next one, so the chain itself is walked one account at a time
+        Set<PublicKey> visited = new HashSet<>();
+        PublicKey next = mappingAccountKey;
+        while (next != null && visited.add(next)) {
+            byte[] data = getAccountData(next);
+            if (data == null) {
+                break;
+            }
+
+            MappingAccount mappingAccount = MappingAccount.readMappingAccount(data);
+            mappingAccountKeys.add(next);
+            productAccountKeys.addAll(mappingAccount.getProductAccountKeys());
+            next = mappingAccount.getNextMappingAccount();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "pyth-catalog-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            Map<PublicKey, byte[]> productData = getMultipleAccountData(productAccountKeys, executor);
+
+            List<PublicKey> loadedProductKeys = new ArrayList<>(productData.size());
+            List<ProductAccount> productAccounts = new ArrayList<>(productData.size());
+            List<PublicKey> priceAccountKeys = new ArrayList<>(productData.size());
+            for (PublicKey productAccountKey : productAccountKeys) {
+                byte[] data = productData.get(productAccountKey);
+                if (data == null) {
+                    continue;
+                }
+
+                ProductAccount productAccount = ProductAccount.readProductAccount(data, productAttributes);
+                if (productAccount.getPriceAccountKey() == null
+                        || productAccount.getPriceAccountKey().equals(EMPTY_PUBKEY)) {
+                    continue;
+                }
+
+                loadedProductKeys.add(productAccountKey);
+                productAccounts.add(productAccount);
+                priceAccountKeys.add(productAccount.getPriceAccountKey());
+            }
+
+            Map<PublicKey, byte[]> priceData = getMultipleAccountData(priceAccountKeys, executor);
+
+            // The indexes are filled as entries are built, rather than in a second pass
+            List<PythCatalogEntry> entries = new ArrayList<>(productAccounts.size());
+            Map<String, PythCatalogEntry> entriesBySymbol = new HashMap<>(productAccounts.size() * 2);
+            Map<PublicKey, PythCatalogEntry> entriesByPriceAccount = new HashMap<>(productAccounts.size() * 2);
+            for (int i = 0; i < productAccounts.size(); i++) {
+                ProductAccount productAccount = productAccounts.get(i);
+                PublicKey priceAccountKey = priceAccountKeys.get(i);
+                byte[] data = priceData.get(priceAccountKey);
+                String symbol = productAccount.getProductAttributes().get(ProductAttributes.SYMBOL);
+
+                PythCatalogEntry entry = PythCatalogEntry.builder()
+                        .feedId(entries.size())
+                        .symbol(symbol != null ? symbol : loadedProductKeys.get(i).toBase58())
+                        .productAccountKey(loadedProductKeys.get(i))
+                        .productAccount(productAccount)
+                        .priceAccountKey(priceAccountKey)
+                        .priceDataAccount(data == null ? null : PriceDataAccount.readPriceDataAccount(data))
+                        .build();
+                entries.add(entry);
+                entriesBySymbol.putIfAbsent(entry.getSymbol(), entry);
+                entriesByPriceAccount.putIfAbsent(priceAccountKey, entry);
+            }
+
+            return new PythCatalog(mappingAccountKeys, entries, entriesBySymbol, entriesByPriceAccount);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Fetches the given accounts in chunks, with up to `parallelism` chunks in flight
+    private Map<PublicKey, byte[]> getMultipleAccountData(List<PublicKey> publicKeys, ExecutorService executor) {
+        List<CompletableFuture<Map<PublicKey, byte[]>>> futures = new ArrayList<>();
+        for (int i = 0; i < publicKeys.size(); i += MULTIPLE_ACCOUNTS_CHUNK_SIZE) {
+            List<PublicKey> chunk = publicKeys.subList(
+                    i,
+                    Math.min(i + MULTIPLE_ACCOUNTS_CHUNK_SIZE, publicKeys.size())
+            );
+            futures.add(CompletableFuture.supplyAsync(() -> getChunkData(chunk), executor));
+        }
+
+        Map<PublicKey, byte[]> results = new HashMap<>(publicKeys.size() * 2);
+        for (CompletableFuture<Map<PublicKey, byte[]>> future : futures) {
+            results.putAll(future.join());
+        }
+
+        return results;
+    }
+
+    private Map<PublicKey, byte[]> getChunkData(List<PublicKey> chunk) {
+        Map<PublicKey, byte[]> results = new HashMap<>(chunk.size() * 2);
+
+        Map<PublicKey, Optional<AccountInfo.Value>> accountInfos;
+        try {
+            accountInfos = client.getApi().getMultipleAccountsMap(chunk);
+        } catch (RpcException e) {
+            LOGGER.warning("Error getting Pyth accounts chunk starting at " + chunk.get(0) + ": " + e.getMessage());
+            return results;
+        }
+
+        for (PublicKey publicKey : chunk) {
+            Optional<AccountInfo.Value> value = accountInfos.getOrDefault(publicKey, Optional.empty());
+            value.ifPresent(accountInfo -> results.put(
+                    publicKey,
+                    Base64.getDecoder().decode(accountInfo.getData().get(0))
+            ));
+        }
+
+        return results;
+    }
+
+    private byte[] getAccountData(PublicKey publicKey) {
+        try {
+            AccountInfo accountInfo = client.getApi().getAccountInfo(publicKey);
+            if (accountInfo == null || accountInfo.getValue() == null) {
+                return null;
+            }
+
+            return Base64.getDecoder().decode(accountInfo.getValue().getData().get(0));
+        } catch (RpcException e) {
+            LOGGER.warning("Error getting Pyth mapping account " + publicKey + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
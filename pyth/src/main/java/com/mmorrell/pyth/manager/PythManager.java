@@ -2,7 +2,10 @@ package com.mmorrell.pyth.manager;
 
 import com.mmorrell.pyth.model.MappingAccount;
 import com.mmorrell.pyth.model.PriceDataAccount;
+import com.mmorrell.pyth.model.PriceDataFields;
 import com.mmorrell.pyth.model.ProductAccount;
+import com.mmorrell.pyth.model.PythCatalog;
+import com.mmorrell.pyth.model.PythPriceHistory;
 import lombok.RequiredArgsConstructor;
 import org.p2p.solanaj.core.PublicKey;
 import org.p2p.solanaj.rpc.RpcClient;
@@ -33,6 +36,35 @@ public class PythManager {
         return PriceDataAccount.readPriceDataAccount(data);
     }
 
+    public PriceDataAccount getPriceDataAccount(final PublicKey publicKey, final PriceDataFields fields) {
+        byte[] data = getAccountData(publicKey);
+        return PriceDataAccount.readPriceDataAccount(data, fields);
+    }
+
+    /**
+     * Polls a price account and records its aggregate price in a history. Polls that return an update the history
+     * already holds are not recorded twice.
+     *
+     * @param publicKey    the price account
+     * @param priceHistory the history to feed
+     * @return the polled account
+     */
+    public PriceDataAccount pollPriceDataAccount(final PublicKey publicKey, final PythPriceHistory priceHistory) {
+        PriceDataAccount priceDataAccount = getPriceDataAccount(publicKey, PriceDataFields.AGGREGATE);
+        priceHistory.record(priceDataAccount);
+        return priceDataAccount;
+    }
+
+    /**
+     * Loads every product reachable from a mapping account, with batched fetches.
+     *
+     * @param mappingAccountKey the first mapping account of the chain
+     * @return the catalog, indexed by symbol and price account
+     */
+    public PythCatalog getCatalog(final PublicKey mappingAccountKey) {
+        return new PythCatalogLoader(client).load(mappingAccountKey);
+    }
+
     // TODO Deduplicate this with MangoManager
     private byte[] getAccountData(final PublicKey publicKey) {
         AccountInfo accountInfo = null;
@@ -0,0 +1,168 @@
+package com.mmorrell.pyth.manager;
+
+import com.mmorrell.pyth.model.PriceDataAccount;
+import com.mmorrell.pyth.model.PriceInfo;
+import com.mmorrell.pyth.model.PythCatalog;
+import com.mmorrell.pyth.model.PythCatalogEntry;
+import com.mmorrell.pyth.model.PythPriceTable;
+import com.mmorrell.pyth.utils.PythUtils;
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.rpc.types.config.Commitment;
+import org.p2p.solanaj.ws.SubscriptionWebSocketClient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Streams many Pyth price accounts into one {@link PythPriceTable}.
+ * <p>
+ * Notifications are handled on the websocket thread, which decodes only the front of the account (exponent and
+ * aggregate price, confidence, status and publish slot) into a reused scratch array and publishes it to the table.
+ * Strategy threads read the table directly.
+ */
+public class PythPriceHub {
+
+    private static final Logger LOGGER = Logger.getLogger(PythPriceHub.class.getName());
+
+    // Bytes needed to reach the end of the aggregate price info, rounded up to a whole base64 quantum
+    private static final int PREFIX_LENGTH = ((PriceDataAccount.PRICE_COMPONENTS_OFFSET + 2) / 3) * 3;
+
+    private final PythPriceTable table;
+    private final Map<PublicKey, Integer> feedIds = new ConcurrentHashMap<>();
+    private final List<PublicKey> priceAccountKeys = Collections.synchronizedList(new ArrayList<>());
+
+    // Scratch buffer per notification thread
+    private final ThreadLocal<byte[]> scratch = ThreadLocal.withInitial(() -> new byte[PREFIX_LENGTH]);
+
+    public PythPriceHub(int capacity) {
+        this.table = new PythPriceTable(capacity);
+    }
+
+    /**
+     * Assigns a feed id to a price account, or returns the one it already has.
+     *
+     * @param priceAccountKey the price account
+     * @return the feed id
+     */
+    public synchronized int register(PublicKey priceAccountKey) {
+        Integer feedId = feedIds.get(priceAccountKey);
+        if (feedId != null) {
+            return feedId;
+        }
+
+        if (priceAccountKeys.size() == table.getCapacity()) {
+            throw new IllegalStateException("Price hub is full: " + table.getCapacity() + " feeds");
+        }
+
+        int newFeedId = priceAccountKeys.size();
+        priceAccountKeys.add(priceAccountKey);
+        feedIds.put(priceAccountKey, newFeedId);
+        return newFeedId;
+    }
+
+    /**
+     * Registers a price account and subscribes to its updates.
+     *
+     * @param webSocketClient the websocket client
+     * @param priceAccountKey the price account
+     * @return the feed id
+     */
+    public int subscribe(SubscriptionWebSocketClient webSocketClient, PublicKey priceAccountKey) {
+        int feedId = register(priceAccountKey);
+        webSocketClient.accountSubscribe(
+                priceAccountKey.toBase58(),
+                data -> onNotificationEvent(feedId, data),
+                Commitment.CONFIRMED
+        );
+        return feedId;
+    }
+
+    /**
+     * Subscribes to every price account of a catalog, in catalog order.
+     *
+     * @param webSocketClient the websocket client
+     * @param catalog         the catalog
+     */
+    public void subscribeAll(SubscriptionWebSocketClient webSocketClient, PythCatalog catalog) {
+        for (PythCatalogEntry entry : catalog.getEntries()) {
+            subscribe(webSocketClient, entry.getPriceAccountKey());
+        }
+    }
+
+    /**
+     * Handles an account notification for a feed.
+     *
+     * @param feedId the feed
+     * @param data   the notification's account value
+     */
+    @SuppressWarnings("unchecked")
+    public void onNotificationEvent(int feedId, Object data) {
+        if (!(data instanceof Map)) {
+            return;
+        }
+
+        try {
+            Object accountData = ((Map<String, Object>) data).get("data");
+            if (!(accountData instanceof List) || ((List<?>) accountData).isEmpty()) {
+                return;
+            }
+
+            byte[] buffer = scratch.get();
+            int length = PythUtils.decodeBase64Prefix((String) ((List<?>) accountData).get(0), buffer, buffer.length);
+            onAccountData(feedId, buffer, length);
+        } catch (RuntimeException e) {
+            LOGGER.warning("Error reading Pyth price notification for feed " + feedId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes the aggregate price of a price account's data.
+     *
+     * @param feedId the feed
+     * @param data   the account data, or at least its first {@link PriceDataAccount#PRICE_COMPONENTS_OFFSET} bytes
+     * @param length the number of valid bytes in {@code data}
+     */
+    public void onAccountData(int feedId, byte[] data, int length) {
+        if (length < PriceDataAccount.PRICE_COMPONENTS_OFFSET) {
+            LOGGER.warning("Truncated Pyth price account for feed " + feedId + ": " + length + " bytes");
+            return;
+        }
+
+        int aggregate = PriceDataAccount.AGGREGATE_PRICE_INFO_OFFSET;
+        table.publish(
+                feedId,
+                PythUtils.readInt64Fast(data, aggregate + PriceInfo.PRICE_COMPONENT_OFFSET),
+                PythUtils.readInt64Fast(data, aggregate + PriceInfo.CONFIDENCE_COMPONENT_OFFSET),
+                PythUtils.readInt32Fast(data, PriceDataAccount.EXPONENT_OFFSET),
+                PythUtils.readInt32Fast(data, aggregate + PriceInfo.STATUS_OFFSET),
+                PythUtils.readInt64Fast(data, aggregate + PriceInfo.PUBLISH_SLOT_OFFSET)
+        );
+    }
+
+    /**
+     * Returns the feed id of a price account.
+     *
+     * @param priceAccountKey the price account
+     * @return the feed id, or -1 if the account is not registered
+     */
+    public int getFeedId(PublicKey priceAccountKey) {
+        Integer feedId = feedIds.get(priceAccountKey);
+        return feedId == null ? -1 : feedId;
+    }
+
+    public PublicKey getPriceAccountKey(int feedId) {
+        return priceAccountKeys.get(feedId);
+    }
+
+    public int getFeedCount() {
+        return priceAccountKeys.size();
+    }
+
+    public PythPriceTable getTable() {
+        return table;
+    }
+}
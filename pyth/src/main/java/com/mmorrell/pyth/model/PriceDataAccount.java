@@ -5,11 +5,9 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
-import org.bitcoinj.core.Utils;
 import org.p2p.solanaj.core.PublicKey;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 @Builder
@@ -24,10 +22,10 @@ public class PriceDataAccount {
     private static final int TYPE_OFFSET = VERSION_OFFSET + PythUtils.INT32_SIZE;
     private static final int SIZE_OFFSET = TYPE_OFFSET + PythUtils.INT32_SIZE;
     private static final int PRICE_TYPE_OFFSET = SIZE_OFFSET + PythUtils.INT32_SIZE;
-    private static final int EXPONENT_OFFSET = PRICE_TYPE_OFFSET + PythUtils.INT32_SIZE;
+    public static final int EXPONENT_OFFSET = PRICE_TYPE_OFFSET + PythUtils.INT32_SIZE;
     private static final int NUM_COMPONENT_PRICES_OFFSET = EXPONENT_OFFSET + PythUtils.INT32_SIZE;
-    private static final int LAST_SLOT_OFFSET = NUM_COMPONENT_PRICES_OFFSET + (2 * PythUtils.INT32_SIZE);
-    private static final int VALID_SLOT_OFFSET = LAST_SLOT_OFFSET + PythUtils.INT64_SIZE;
+    public static final int LAST_SLOT_OFFSET = NUM_COMPONENT_PRICES_OFFSET + (2 * PythUtils.INT32_SIZE);
+    public static final int VALID_SLOT_OFFSET = LAST_SLOT_OFFSET + PythUtils.INT64_SIZE;
     private static final int TWAP_OFFSET = VALID_SLOT_OFFSET + PythUtils.INT64_SIZE;
     private static final int TWAC_OFFSET = TWAP_OFFSET + PriceEma.SIZE;
     private static final int DRV_1_COMPONENT_OFFSET = TWAC_OFFSET + PriceEma.SIZE;
@@ -38,8 +36,9 @@ public class PriceDataAccount {
     private static final int PREVIOUS_PRICE_COMPONENT_OFFSET = PREVIOUS_SLOT_OFFSET + PythUtils.INT64_SIZE;
     private static final int PREVIOUS_CONFIDENCE_COMPONENT = PREVIOUS_PRICE_COMPONENT_OFFSET + PythUtils.INT64_SIZE;
     private static final int DRV_3_COMPONENT_OFFSET = PREVIOUS_CONFIDENCE_COMPONENT + PythUtils.INT64_SIZE;
-    private static final int AGGREGATE_PRICE_INFO_OFFSET = DRV_3_COMPONENT_OFFSET + PythUtils.INT64_SIZE;
-    private static final int PRICE_COMPONENTS_OFFSET = AGGREGATE_PRICE_INFO_OFFSET + PythUtils.PRICE_INFO_SIZE;
+    public static final int AGGREGATE_PRICE_INFO_OFFSET = DRV_3_COMPONENT_OFFSET + PythUtils.INT64_SIZE;
+    public static final int PRICE_COMPONENTS_OFFSET = AGGREGATE_PRICE_INFO_OFFSET + PythUtils.PRICE_INFO_SIZE;
+    public static final int PRICE_COMPONENT_SIZE = PublicKey.PUBLIC_KEY_LENGTH + (2 * PythUtils.PRICE_INFO_SIZE);
 
     // Variables
     private int magicNumber;
@@ -77,127 +76,153 @@ public class PriceDataAccount {
     private List<PriceComponent> priceComponents; // Up to 32 elements
 
     public static PriceDataAccount readPriceDataAccount(byte[] data) {
+        return readPriceDataAccount(data, PriceDataFields.FULL);
+    }
+
+    /**
+     * Decodes the selected fields of a price account. Fields outside the selection are left unset. Every selection
+     * still allocates the returned account and its aggregate {@link PriceInfo}; only
+     * {@link #readPriceDataAccount(byte[], PriceDataFields, PythPriceSnapshot)} decodes without allocating.
+     *
+     * @param data   the account data
+     * @param fields the fields to decode
+     * @return the decoded account
+     */
+    public static PriceDataAccount readPriceDataAccount(byte[] data, PriceDataFields fields) {
+        final int exponent = PythUtils.readInt32Fast(data, EXPONENT_OFFSET);
+        // One scale per account, shared by every field
+        final float scale = (float) PythUtils.pow10(exponent);
+
         final PriceDataAccount priceDataAccount = PriceDataAccount.builder()
-                .magicNumber(PythUtils.readInt32(data, MAGIC_NUMBER_OFFSET))
-                .version(PythUtils.readInt32(data, VERSION_OFFSET))
-                .type(PythUtils.readInt32(data, TYPE_OFFSET))
-                .size(PythUtils.readInt32(data, SIZE_OFFSET))
-                .priceType(PythUtils.readInt32(data, PRICE_TYPE_OFFSET))
-                .exponent(PythUtils.readInt32(data, EXPONENT_OFFSET))
-                .numComponentPrices(PythUtils.readInt32(data, NUM_COMPONENT_PRICES_OFFSET))
-                .lastSlot(Utils.readInt64(data, LAST_SLOT_OFFSET))
-                .validSlot(Utils.readInt64(data, VALID_SLOT_OFFSET))
+                .magicNumber(PythUtils.readInt32Fast(data, MAGIC_NUMBER_OFFSET))
+                .version(PythUtils.readInt32Fast(data, VERSION_OFFSET))
+                .type(PythUtils.readInt32Fast(data, TYPE_OFFSET))
+                .size(PythUtils.readInt32Fast(data, SIZE_OFFSET))
+                .priceType(PythUtils.readInt32Fast(data, PRICE_TYPE_OFFSET))
+                .exponent(exponent)
+                .numComponentPrices(PythUtils.readInt32Fast(data, NUM_COMPONENT_PRICES_OFFSET))
+                .lastSlot(PythUtils.readInt64Fast(data, LAST_SLOT_OFFSET))
+                .validSlot(PythUtils.readInt64Fast(data, VALID_SLOT_OFFSET))
+                .aggregatePriceInfo(PriceInfo.readPriceInfo(data, AGGREGATE_PRICE_INFO_OFFSET, scale))
                 .build();
 
-        priceDataAccount.setEmaPrice(
-                PriceEma.readPriceEma(
-                        Arrays.copyOfRange(data, TWAP_OFFSET, TWAP_OFFSET + PriceEma.SIZE),
-                        priceDataAccount.getExponent()
-                )
-        );
+        if (fields.includesEma()) {
+            priceDataAccount.setEmaPrice(PriceEma.readPriceEma(data, TWAP_OFFSET, scale));
+            priceDataAccount.setEmaConfidence(PriceEma.readPriceEma(data, TWAC_OFFSET, scale));
+        }
 
-        priceDataAccount.setEmaConfidence(
-                PriceEma.readPriceEma(
-                        Arrays.copyOfRange(data, TWAC_OFFSET, TWAC_OFFSET + PriceEma.SIZE),
-                        priceDataAccount.getExponent()
-                )
+        if (fields.includesAll()) {
+            readDerivedFields(data, scale, priceDataAccount);
+            priceDataAccount.setPriceComponents(readPriceComponents(data, scale));
+        }
+
+        return priceDataAccount;
+    }
+
+    /**
+     * Decodes the aggregate price (and optionally the EMA) into a reusable holder, without allocating. The holder's
+     * scale is only recomputed when the feed's exponent changes.
+     *
+     * @param data     the account data, or at least its first {@link #PRICE_COMPONENTS_OFFSET} bytes
+     * @param fields   {@link PriceDataFields#AGGREGATE} or {@link PriceDataFields#AGGREGATE_AND_EMA}; {@code FULL}
+     *                 decodes the same fields as {@code AGGREGATE_AND_EMA}
+     * @param snapshot the holder to fill
+     */
+    public static void readPriceDataAccount(byte[] data, PriceDataFields fields, PythPriceSnapshot snapshot) {
+        final int exponent = PythUtils.readInt32Fast(data, EXPONENT_OFFSET);
+        if (exponent != snapshot.getExponent() || snapshot.getScale() == 0) {
+            snapshot.setExponent(exponent);
+            snapshot.setScale(PythUtils.pow10(exponent));
+        }
+        final double scale = snapshot.getScale();
+
+        final long priceComponent = PythUtils.readInt64Fast(
+                data,
+                AGGREGATE_PRICE_INFO_OFFSET + PriceInfo.PRICE_COMPONENT_OFFSET
+        );
+        final long confidenceComponent = PythUtils.readInt64Fast(
+                data,
+                AGGREGATE_PRICE_INFO_OFFSET + PriceInfo.CONFIDENCE_COMPONENT_OFFSET
+        );
+        snapshot.setPriceComponent(priceComponent);
+        snapshot.setPrice(priceComponent * scale);
+        snapshot.setConfidenceComponent(confidenceComponent);
+        snapshot.setConfidence(confidenceComponent * scale);
+        snapshot.setStatus(PythUtils.readInt32Fast(data, AGGREGATE_PRICE_INFO_OFFSET + PriceInfo.STATUS_OFFSET));
+        snapshot.setPublishSlot(
+                PythUtils.readInt64Fast(data, AGGREGATE_PRICE_INFO_OFFSET + PriceInfo.PUBLISH_SLOT_OFFSET)
         );
+        snapshot.setLastSlot(PythUtils.readInt64Fast(data, LAST_SLOT_OFFSET));
+        snapshot.setValidSlot(PythUtils.readInt64Fast(data, VALID_SLOT_OFFSET));
+
+        if (fields.includesEma()) {
+            final long emaPriceComponent = PythUtils.readInt64Fast(data, TWAP_OFFSET);
+            final long emaConfidenceComponent = PythUtils.readInt64Fast(data, TWAC_OFFSET);
+            snapshot.setEmaPriceComponent(emaPriceComponent);
+            snapshot.setEmaPrice(emaPriceComponent * scale);
+            snapshot.setEmaConfidenceComponent(emaConfidenceComponent);
+            snapshot.setEmaConfidence(emaConfidenceComponent * scale);
+        }
+
+        snapshot.setUpdateCount(snapshot.getUpdateCount() + 1);
+    }
 
-        long drv1Component = Utils.readInt64(data, DRV_1_COMPONENT_OFFSET);
-        float drv1 = (float) drv1Component * (float) Math.pow(10, priceDataAccount.getExponent());
+    private static void readDerivedFields(byte[] data, float scale, PriceDataAccount priceDataAccount) {
+        long drv1Component = PythUtils.readInt64Fast(data, DRV_1_COMPONENT_OFFSET);
         priceDataAccount.setDrv1Component(drv1Component);
-        priceDataAccount.setDrv1(drv1);
+        priceDataAccount.setDrv1((float) drv1Component * scale);
 
         // minimum number of publishers for status to be TRADING
-        byte minPublishers = Arrays.copyOfRange(data, DRV_2_COMPONENT_OFFSET, DRV_2_COMPONENT_OFFSET + 1)[0];
-        priceDataAccount.setMinPublishers(minPublishers);
+        priceDataAccount.setMinPublishers(data[DRV_2_COMPONENT_OFFSET]);
 
         final int DRV_2_BYTE_OFFSET = DRV_2_COMPONENT_OFFSET + 1;
-        byte drv2 = Arrays.copyOfRange(data, DRV_2_BYTE_OFFSET, DRV_2_BYTE_OFFSET + 1)[0];
-        priceDataAccount.setDrv2(drv2);
+        priceDataAccount.setDrv2(data[DRV_2_BYTE_OFFSET]);
 
         final int DRV_3_SHORT_OFFSET = DRV_2_BYTE_OFFSET + 1;
-        short drv3 = PythUtils.readInt16(data, DRV_3_SHORT_OFFSET);
-        priceDataAccount.setDrv3(drv3);
+        priceDataAccount.setDrv3(PythUtils.readInt16(data, DRV_3_SHORT_OFFSET));
 
         final int DRV_4_INT_OFFSET = DRV_3_SHORT_OFFSET + 2;
-        int drv4 = PythUtils.readInt32(data, DRV_4_INT_OFFSET);
-        priceDataAccount.setDrv4(drv4);
+        priceDataAccount.setDrv4(PythUtils.readInt32Fast(data, DRV_4_INT_OFFSET));
 
-        long drv5Component = Utils.readInt64(data, DRV_3_COMPONENT_OFFSET);
-        float drv5 = (float) drv5Component * (float) Math.pow(10, priceDataAccount.getExponent());
+        long drv5Component = PythUtils.readInt64Fast(data, DRV_3_COMPONENT_OFFSET);
         priceDataAccount.setDrv5Component(drv5Component);
-        priceDataAccount.setDrv5(drv5);
+        priceDataAccount.setDrv5((float) drv5Component * scale);
 
         priceDataAccount.setProductAccountKey(PublicKey.readPubkey(data, PRODUCT_ACCOUNT_KEY_OFFSET));
-        final PublicKey nextPriceAccountKey = PublicKey.readPubkey(data, NEXT_PRICE_ACCOUNT_KEY_OFFSET);
-        if (!nextPriceAccountKey.toBase58().equalsIgnoreCase(PythUtils.EMPTY_PUBKEY)){
-            priceDataAccount.setNextPriceAccountKey(nextPriceAccountKey);
+        if (!PythUtils.isZero(data, NEXT_PRICE_ACCOUNT_KEY_OFFSET, PublicKey.PUBLIC_KEY_LENGTH)) {
+            priceDataAccount.setNextPriceAccountKey(PublicKey.readPubkey(data, NEXT_PRICE_ACCOUNT_KEY_OFFSET));
         }
 
-        long previousSlot = Utils.readInt64(data, PREVIOUS_SLOT_OFFSET);
-        priceDataAccount.setPreviousSlot(previousSlot);
+        priceDataAccount.setPreviousSlot(PythUtils.readInt64Fast(data, PREVIOUS_SLOT_OFFSET));
 
-        long previousPriceComponent = Utils.readInt64(data, PREVIOUS_PRICE_COMPONENT_OFFSET);
-        float previousPrice = (float) previousPriceComponent * (float) Math.pow(10, priceDataAccount.getExponent());
+        long previousPriceComponent = PythUtils.readInt64Fast(data, PREVIOUS_PRICE_COMPONENT_OFFSET);
         priceDataAccount.setPreviousPriceComponent(previousPriceComponent);
-        priceDataAccount.setPreviousPrice(previousPrice);
+        priceDataAccount.setPreviousPrice((float) previousPriceComponent * scale);
 
-        long previousConfidenceComponent = Utils.readInt64(data, PREVIOUS_CONFIDENCE_COMPONENT);
-        float previousConfidence = (float) previousConfidenceComponent * (float) Math.pow(10, priceDataAccount.getExponent());
+        long previousConfidenceComponent = PythUtils.readInt64Fast(data, PREVIOUS_CONFIDENCE_COMPONENT);
         priceDataAccount.setPreviousConfidenceComponent(previousConfidenceComponent);
-        priceDataAccount.setPreviousConfidence(previousConfidence);
-
-        final PriceInfo aggregatePriceInfo = PriceInfo.readPriceInfo(
-                Arrays.copyOfRange(
-                        data,
-                        AGGREGATE_PRICE_INFO_OFFSET,
-                        AGGREGATE_PRICE_INFO_OFFSET + PythUtils.PRICE_INFO_SIZE
-                ),
-                priceDataAccount.getExponent()
-        );
-        priceDataAccount.setAggregatePriceInfo(aggregatePriceInfo);
+        priceDataAccount.setPreviousConfidence((float) previousConfidenceComponent * scale);
+    }
 
-        priceDataAccount.setPriceComponents(new ArrayList<>());
+    private static List<PriceComponent> readPriceComponents(byte[] data, float scale) {
+        final List<PriceComponent> priceComponents = new ArrayList<>();
         int offset = PRICE_COMPONENTS_OFFSET;
-        boolean shouldContinue = true;
-        while (offset < data.length && shouldContinue) {
-            final PublicKey publisher = PublicKey.readPubkey(data, offset);
-            offset += 32;
-
-            if (!publisher.toBase58().equalsIgnoreCase(PythUtils.EMPTY_PUBKEY)) {
-                final PriceInfo aggregate = PriceInfo.readPriceInfo(
-                        Arrays.copyOfRange(
-                                data,
-                                offset,
-                                offset + PublicKey.PUBLIC_KEY_LENGTH
-                        ),
-                        priceDataAccount.getExponent()
-                );
-                offset += 32;
-
-                final PriceInfo latest = PriceInfo.readPriceInfo(
-                        Arrays.copyOfRange(
-                                data,
-                                offset,
-                                offset + PublicKey.PUBLIC_KEY_LENGTH
-                        ),
-                        priceDataAccount.getExponent()
-                );
-                offset += 32;
-                priceDataAccount.getPriceComponents().add(
-                        PriceComponent.builder()
-                                .publisher(publisher)
-                                .aggregate(aggregate)
-                                .latest(latest)
-                                .build()
-                );
-            } else {
-                shouldContinue = false;
-            }
-
+        while (offset + PRICE_COMPONENT_SIZE <= data.length
+                && !PythUtils.isZero(data, offset, PublicKey.PUBLIC_KEY_LENGTH)) {
+            priceComponents.add(
+                    PriceComponent.builder()
+                            .publisher(PublicKey.readPubkey(data, offset))
+                            .aggregate(PriceInfo.readPriceInfo(data, offset + PublicKey.PUBLIC_KEY_LENGTH, scale))
+                            .latest(PriceInfo.readPriceInfo(
+                                    data,
+                                    offset + PublicKey.PUBLIC_KEY_LENGTH + PythUtils.PRICE_INFO_SIZE,
+                                    scale
+                            ))
+                            .build()
+            );
+            offset += PRICE_COMPONENT_SIZE;
         }
 
-        return priceDataAccount;
+        return priceComponents;
     }
 }
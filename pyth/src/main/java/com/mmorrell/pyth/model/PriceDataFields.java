@@ -0,0 +1,30 @@
+package com.mmorrell.pyth.model;
+
+/**
+ * The fields of a price account to decode. Each mode includes the ones before it.
+ */
+public enum PriceDataFields {
+
+    /**
+     * Header, exponent, slots and the aggregate price info.
+     */
+    AGGREGATE,
+
+    /**
+     * {@link #AGGREGATE}, plus the EMA price and confidence.
+     */
+    AGGREGATE_AND_EMA,
+
+    /**
+     * Every field, including the derived values, previous price and all publisher components.
+     */
+    FULL;
+
+    public boolean includesEma() {
+        return this != AGGREGATE;
+    }
+
+    public boolean includesAll() {
+        return this == FULL;
+    }
+}
@@ -5,7 +5,6 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
-import org.bitcoinj.core.Utils;
 
 @Builder
 @Getter
@@ -25,13 +24,25 @@ public class PriceEma {
     private long denominator;
 
     public static PriceEma readPriceEma(byte[] data, int exponent) {
-        final PriceEma priceEma = PriceEma.builder()
-                .valueComponent(Utils.readInt64(data, VALUE_COMPONENT_OFFSET))
-                .numerator(Utils.readInt64(data, NUMERATOR_OFFSET))
-                .denominator(Utils.readInt64(data, DENOMINATOR_OFFSET))
-                .build();
+        return readPriceEma(data, 0, (float) Math.pow(10, exponent));
+    }
 
-        priceEma.setValue((float) priceEma.getValueComponent() * (float) Math.pow(10, exponent));
-        return priceEma;
+    /**
+     * Reads a PriceEma in place, scaling with a precomputed 10^exponent.
+     *
+     * @param data   the account data
+     * @param offset the offset of the PriceEma within the data
+     * @param scale  10^exponent of the feed
+     * @return the PriceEma
+     */
+    public static PriceEma readPriceEma(byte[] data, int offset, float scale) {
+        final long valueComponent = PythUtils.readInt64Fast(data, offset + VALUE_COMPONENT_OFFSET);
+
+        return PriceEma.builder()
+                .valueComponent(valueComponent)
+                .value((float) valueComponent * scale)
+                .numerator(PythUtils.readInt64Fast(data, offset + NUMERATOR_OFFSET))
+                .denominator(PythUtils.readInt64Fast(data, offset + DENOMINATOR_OFFSET))
+                .build();
     }
 }
@@ -5,7 +5,6 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
-import org.bitcoinj.core.Utils;
 
 @Builder
 @Getter
@@ -13,11 +12,11 @@ import org.bitcoinj.core.Utils;
 @ToString
 public class PriceInfo {
 
-    private static final int PRICE_COMPONENT_OFFSET = 0;
-    private static final int CONFIDENCE_COMPONENT_OFFSET = PRICE_COMPONENT_OFFSET + PythUtils.INT64_SIZE;
-    private static final int STATUS_OFFSET = CONFIDENCE_COMPONENT_OFFSET + PythUtils.INT64_SIZE;
-    private static final int CORPORATE_ACTION_OFFSET = STATUS_OFFSET + PythUtils.INT32_SIZE;
-    private static final int PUBLISH_SLOT_OFFSET = CORPORATE_ACTION_OFFSET + PythUtils.INT32_SIZE;
+    public static final int PRICE_COMPONENT_OFFSET = 0;
+    public static final int CONFIDENCE_COMPONENT_OFFSET = PRICE_COMPONENT_OFFSET + PythUtils.INT64_SIZE;
+    public static final int STATUS_OFFSET = CONFIDENCE_COMPONENT_OFFSET + PythUtils.INT64_SIZE;
+    public static final int CORPORATE_ACTION_OFFSET = STATUS_OFFSET + PythUtils.INT32_SIZE;
+    public static final int PUBLISH_SLOT_OFFSET = CORPORATE_ACTION_OFFSET + PythUtils.INT32_SIZE;
 
     private long priceComponent;
     private float price;
@@ -28,19 +27,30 @@ public class PriceInfo {
     private long publishSlot;
 
     public static PriceInfo readPriceInfo(byte[] data, int exponent) {
-        final PriceInfo priceInfo = PriceInfo.builder()
-                .priceComponent(Utils.readInt64(data, PRICE_COMPONENT_OFFSET))
-                .confidenceComponent(Utils.readInt64(data, CONFIDENCE_COMPONENT_OFFSET))
-                .status(PythUtils.readInt32(data, STATUS_OFFSET))
-                .corporateAction(PythUtils.readInt32(data, CORPORATE_ACTION_OFFSET))
-                .publishSlot(Utils.readInt64(data, PUBLISH_SLOT_OFFSET))
-                .build();
-
-        // Calculate necessary values for setters
-        priceInfo.setPrice(((float) priceInfo.getPriceComponent()) * (float) Math.pow(10, exponent));
-        priceInfo.setConfidence(((float) priceInfo.getConfidenceComponent()) * (float) Math.pow(10, exponent));
+        return readPriceInfo(data, 0, (float) Math.pow(10, exponent));
+    }
 
-        return priceInfo;
+    /**
+     * Reads a PriceInfo in place, scaling with a precomputed 10^exponent.
+     *
+     * @param data   the account data
+     * @param offset the offset of the PriceInfo within the data
+     * @param scale  10^exponent of the feed
+     * @return the PriceInfo
+     */
+    public static PriceInfo readPriceInfo(byte[] data, int offset, float scale) {
+        final long priceComponent = PythUtils.readInt64Fast(data, offset + PRICE_COMPONENT_OFFSET);
+        final long confidenceComponent = PythUtils.readInt64Fast(data, offset + CONFIDENCE_COMPONENT_OFFSET);
+
+        return PriceInfo.builder()
+                .priceComponent(priceComponent)
+                .price((float) priceComponent * scale)
+                .confidenceComponent(confidenceComponent)
+                .confidence((float) confidenceComponent * scale)
+                .status(PythUtils.readInt32Fast(data, offset + STATUS_OFFSET))
+                .corporateAction(PythUtils.readInt32Fast(data, offset + CORPORATE_ACTION_OFFSET))
+                .publishSlot(PythUtils.readInt64Fast(data, offset + PUBLISH_SLOT_OFFSET))
+                .build();
     }
 
 }
@@ -7,9 +7,6 @@ import lombok.Setter;
 import lombok.ToString;
 import org.p2p.solanaj.core.PublicKey;
 
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
 
 @Builder
@@ -35,39 +32,28 @@ public class ProductAccount {
     private Map<String, String> productAttributes;
 
     public static ProductAccount readProductAccount(byte[] data) {
-        final ProductAccount productAccount = ProductAccount.builder()
-                .magicNumber(PythUtils.readInt32(data, MAGIC_NUMBER_OFFSET))
-                .version(PythUtils.readInt32(data, VERSION_OFFSET))
-                .type(PythUtils.readInt32(data, TYPE_OFFSET))
-                .size(PythUtils.readInt32(data, SIZE_OFFSET))
+        return readProductAccount(data, (String[]) null);
+    }
+
+    /**
+     * Decodes a product account, extracting only the requested attributes.
+     *
+     * @param data       the product account data
+     * @param attributes the attribute keys to extract, e.g. {@link ProductAttributes#SYMBOL}; null for all of them
+     * @return the product account
+     */
+    public static ProductAccount readProductAccount(byte[] data, String... attributes) {
+        final int size = PythUtils.readInt32Fast(data, SIZE_OFFSET);
+
+        return ProductAccount.builder()
+                .magicNumber(PythUtils.readInt32Fast(data, MAGIC_NUMBER_OFFSET))
+                .version(PythUtils.readInt32Fast(data, VERSION_OFFSET))
+                .type(PythUtils.readInt32Fast(data, TYPE_OFFSET))
+                .size(size)
                 .priceAccountKey(PublicKey.readPubkey(data, PRICE_ACCOUNT_KEY_OFFSET))
+                .productAttributes(
+                        ProductAttributes.readProductAttributes(data, PRODUCT_ATTRIBUTES_OFFSET, size, attributes)
+                )
                 .build();
-
-        productAccount.setProductAttributes(new HashMap<>());
-        int index = PRODUCT_ATTRIBUTES_OFFSET;
-        while (index < productAccount.getSize()) {
-            int keyLength = data[index];
-            index++;
-            if (keyLength > 0) {
-                String key = new String(
-                        Arrays.copyOfRange(data, index, index + keyLength),
-                        StandardCharsets.UTF_8
-                );
-                index += keyLength;
-
-                int valueLength = data[index];
-                index++;
-
-                String value = new String(
-                        Arrays.copyOfRange(data, index, index + valueLength),
-                        StandardCharsets.UTF_8
-                );
-                index+= valueLength;
-
-                productAccount.getProductAttributes().put(key, value);
-            }
-        }
-
-        return productAccount;
     }
 }
@@ -0,0 +1,304 @@
+package com.mmorrell.pyth.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A product account's attributes, stored as flat key and value arrays.
+ * <p>
+ * Products carry a handful of attributes, and the same keys repeat across every product of the catalog. Known keys
+ * are matched against their bytes and shared as constants, so only values (and unknown keys) allocate strings.
+ * Lookups scan the arrays, which beats hashing for this many entries. Null keys are not supported: they are never
+ * present, and putting one throws.
+ */
+public class ProductAttributes extends AbstractMap<String, String> {
+
+    public static final String SYMBOL = "symbol";
+    public static final String ASSET_TYPE = "asset_type";
+    public static final String BASE = "base";
+    public static final String QUOTE_CURRENCY = "quote_currency";
+    public static final String GENERIC_SYMBOL = "generic_symbol";
+    public static final String DESCRIPTION = "description";
+
+    private static final String[] KNOWN_KEYS = {
+            SYMBOL,
+            ASSET_TYPE,
+            BASE,
+            QUOTE_CURRENCY,
+            GENERIC_SYMBOL,
+            DESCRIPTION,
+            "quote",
+            "country",
+            "tenor",
+            "cms_symbol",
+            "cqs_symbol",
+            "nasdaq_symbol",
+            "schedule",
+            "weekly_schedule",
+            "contract_id"
+    };
+    private static final byte[][] KNOWN_KEY_BYTES = new byte[KNOWN_KEYS.length][];
+
+    static {
+        for (int i = 0; i < KNOWN_KEYS.length; i++) {
+            KNOWN_KEY_BYTES[i] = KNOWN_KEYS[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private String[] keys;
+    private String[] values;
+    private int size;
+
+    public ProductAttributes() {
+        this(8);
+    }
+
+    public ProductAttributes(int initialCapacity) {
+        this.keys = new String[Math.max(1, initialCapacity)];
+        this.values = new String[Math.max(1, initialCapacity)];
+    }
+
+    /**
+     * Decodes every attribute of a product account.
+     *
+     * @param data   the product account data
+     * @param offset the offset of the first attribute
+     * @param end    the end of the attributes, from the account's size field
+     * @return the attributes
+     */
+    public static ProductAttributes readProductAttributes(byte[] data, int offset, int end) {
+        return readProductAttributes(data, offset, end, null);
+    }
+
+    /**
+     * Decodes only the requested attributes of a product account. Other attributes are skipped without allocating.
+     *
+     * @param data       the product account data
+     * @param offset     the offset of the first attribute
+     * @param end        the end of the attributes, from the account's size field
+     * @param attributes the keys to extract, or null for all of them
+     * @return the attributes
+     */
+    public static ProductAttributes readProductAttributes(byte[] data, int offset, int end, String[] attributes) {
+        byte[][] requested = null;
+        if (attributes != null) {
+            requested = new byte[attributes.length][];
+            for (int i = 0; i < attributes.length; i++) {
+                requested[i] = getKeyBytes(attributes[i]);
+            }
+        }
+
+        final ProductAttributes productAttributes = new ProductAttributes(
+                attributes == null ? 8 : attributes.length
+        );
+        final int limit = Math.min(end, data.length);
+        int index = offset;
+        while (index < limit) {
+            final int keyLength = data[index++] & 0xFF;
+            if (keyLength == 0) {
+                continue;
+            }
+            if (index + keyLength >= limit) {
+                break;
+            }
+
+            final int keyOffset = index;
+            index += keyLength;
+            final int valueLength = data[index++] & 0xFF;
+            if (index + valueLength > limit) {
+                break;
+            }
+
+            final String key = requested == null
+                    ? readKey(data, keyOffset, keyLength)
+                    : findKey(data, keyOffset, keyLength, attributes, requested);
+            if (key != null) {
+                productAttributes.put(key, new String(data, index, valueLength, StandardCharsets.UTF_8));
+            }
+            index += valueLength;
+        }
+
+        return productAttributes;
+    }
+
+    @Override
+    public String get(Object key) {
+        final int index = indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String put(String key, String value) {
+        Objects.requireNonNull(key, "key");
+        final int index = indexOf(key);
+        if (index >= 0) {
+            final String previous = values[index];
+            values[index] = value;
+            return previous;
+        }
+
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        return null;
+    }
+
+    @Override
+    public String remove(Object key) {
+        final int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+
+        final String previous = values[index];
+        removeAt(index);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    public String getValue(int index) {
+        return values[index];
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+                    private int last = -1;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (next >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        last = next++;
+                        return new SimpleImmutableEntry<>(keys[last], values[last]);
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last < 0) {
+                            throw new IllegalStateException();
+                        }
+                        removeAt(last);
+                        next = last;
+                        last = -1;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                ProductAttributes.this.clear();
+            }
+        };
+    }
+
+    private int indexOf(Object key) {
+        if (key == null) {
+            return -1;
+        }
+
+        // Decoded known keys are the shared constants, so most lookups match by identity
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    // Shifts the later entries down, keeping the decode order
+    private void removeAt(int index) {
+        final int moved = size - index - 1;
+        System.arraycopy(keys, index + 1, keys, index, moved);
+        System.arraycopy(values, index + 1, values, index, moved);
+        size--;
+        keys[size] = null;
+        values[size] = null;
+    }
+
+    // Returns the shared constant for a known key, or a new string otherwise
+    private static String readKey(byte[] data, int offset, int length) {
+        for (int i = 0; i < KNOWN_KEYS.length; i++) {
+            if (matches(data, offset, length, KNOWN_KEY_BYTES[i])) {
+                return KNOWN_KEYS[i];
+            }
+        }
+
+        return new String(data, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private static String findKey(byte[] data, int offset, int length, String[] attributes, byte[][] requested) {
+        for (int i = 0; i < requested.length; i++) {
+            if (matches(data, offset, length, requested[i])) {
+                return attributes[i];
+            }
+        }
+
+        return null;
+    }
+
+    private static byte[] getKeyBytes(String key) {
+        for (int i = 0; i < KNOWN_KEYS.length; i++) {
+            if (KNOWN_KEYS[i].equals(key)) {
+                return KNOWN_KEY_BYTES[i];
+            }
+        }
+
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean matches(byte[] data, int offset, int length, byte[] key) {
+        return key.length == length && Arrays.equals(data, offset, offset + length, key, 0, length);
+    }
+}
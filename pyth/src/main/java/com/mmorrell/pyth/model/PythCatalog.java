@@ -0,0 +1,93 @@
+package com.mmorrell.pyth.model;
+
+import lombok.Getter;
+import org.p2p.solanaj.core.PublicKey;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Pyth products reachable from a mapping account, indexed by feed id, symbol and price account.
+ */
+@Getter
+public class PythCatalog {
+
+    private final List<PublicKey> mappingAccountKeys;
+    private final List<PythCatalogEntry> entries;
+    private final Map<String, PythCatalogEntry> entriesBySymbol;
+    private final Map<PublicKey, PythCatalogEntry> entriesByPriceAccount;
+
+    public PythCatalog(List<PublicKey> mappingAccountKeys, List<PythCatalogEntry> entries) {
+        this(mappingAccountKeys, entries, indexBySymbol(entries), indexByPriceAccount(entries));
+    }
+
+    /**
+     * Creates a catalog from indexes built by the caller, e.g. while the entries were loaded.
+     *
+     * @param mappingAccountKeys    the mapping accounts, in chain order
+     * @param entries               the entries, in feed id order
+     * @param entriesBySymbol       the entries by symbol
+     * @param entriesByPriceAccount the entries by price account
+     */
+    public PythCatalog(List<PublicKey> mappingAccountKeys, List<PythCatalogEntry> entries,
+                       Map<String, PythCatalogEntry> entriesBySymbol,
+                       Map<PublicKey, PythCatalogEntry> entriesByPriceAccount) {
+        this.mappingAccountKeys = Collections.unmodifiableList(new ArrayList<>(mappingAccountKeys));
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+        this.entriesBySymbol = Collections.unmodifiableMap(entriesBySymbol);
+        this.entriesByPriceAccount = Collections.unmodifiableMap(entriesByPriceAccount);
+    }
+
+    /**
+     * Returns the price account of a symbol, e.g. "Crypto.SOL/USD".
+     *
+     * @param symbol the product's symbol attribute
+     * @return the price account, or null if the symbol is not in the catalog
+     */
+    public PublicKey getPriceAccountKey(String symbol) {
+        PythCatalogEntry entry = entriesBySymbol.get(symbol);
+        return entry == null ? null : entry.getPriceAccountKey();
+    }
+
+    /**
+     * Returns the feed id of a symbol.
+     *
+     * @param symbol the product's symbol attribute
+     * @return the feed id, or -1 if the symbol is not in the catalog
+     */
+    public int getFeedId(String symbol) {
+        PythCatalogEntry entry = entriesBySymbol.get(symbol);
+        return entry == null ? -1 : entry.getFeedId();
+    }
+
+    public PythCatalogEntry getEntry(String symbol) {
+        return entriesBySymbol.get(symbol);
+    }
+
+    public PythCatalogEntry getEntry(int feedId) {
+        return entries.get(feedId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static Map<String, PythCatalogEntry> indexBySymbol(List<PythCatalogEntry> entries) {
+        Map<String, PythCatalogEntry> bySymbol = new HashMap<>(entries.size() * 2);
+        for (PythCatalogEntry entry : entries) {
+            bySymbol.putIfAbsent(entry.getSymbol(), entry);
+        }
+        return bySymbol;
+    }
+
+    private static Map<PublicKey, PythCatalogEntry> indexByPriceAccount(List<PythCatalogEntry> entries) {
+        Map<PublicKey, PythCatalogEntry> byPriceAccount = new HashMap<>(entries.size() * 2);
+        for (PythCatalogEntry entry : entries) {
+            byPriceAccount.putIfAbsent(entry.getPriceAccountKey(), entry);
+        }
+        return byPriceAccount;
+    }
+}
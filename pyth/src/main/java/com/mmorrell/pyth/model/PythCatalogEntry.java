@@ -0,0 +1,26 @@
+package com.mmorrell.pyth.model;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.p2p.solanaj.core.PublicKey;
+
+/**
+ * One product of the Pyth catalog, with its first price account.
+ */
+@Builder
+@Getter
+@ToString
+public class PythCatalogEntry {
+
+    // Position of the entry in the catalog, stable for the lifetime of the catalog
+    private final int feedId;
+    private final String symbol;
+    private final PublicKey productAccountKey;
+    private final ProductAccount productAccount;
+    private final PublicKey priceAccountKey;
+
+    // Null if the price account could not be fetched
+    private final PriceDataAccount priceDataAccount;
+
+}
@@ -0,0 +1,292 @@
+package com.mmorrell.pyth.model;
+
+import com.mmorrell.pyth.utils.PythUtils;
+
+/**
+ * A rolling window of one feed's updates, held in preallocated primitive arrays.
+ * <p>
+ * Each update is a (slot, price, confidence) sample. Every statistic is maintained as samples arrive, in O(1) per
+ * update (amortized), so queries never scan the history:
+ * <ul>
+ *     <li>TWAP, from a running integral of price over slots. The window TWAP uses a binary search for its start.</li>
+ *     <li>EWMA variance of log returns, normalized per slot.</li>
+ *     <li>Maximum staleness in the window, from a monotonic queue. A sample's staleness is how many slots its
+ *     aggregate was published after the last valid (trading) aggregate.</li>
+ * </ul>
+ * Updates must arrive in slot order; repeated or older slots are ignored, so polling and streaming can feed the same
+ * history.
+ */
+public class PythPriceHistory {
+
+    private final int capacity;
+    private final double alpha;
+
+    private final long[] slots;
+    private final double[] prices;
+    private final double[] confidences;
+    private final long[] staleness;
+
+    // Integral of price over slots, from an arbitrary base up to each sample's slot
+    private final double[] integrals;
+
+    // Sequence numbers of the samples that can still be the window's maximum staleness, in decreasing staleness
+    private final long[] stalenessQueue;
+    private long stalenessQueueHead;
+    private long stalenessQueueTail;
+
+    // Sequence numbers of the oldest retained sample and of the next sample
+    private long first;
+    private long next;
+
+    private long lastValidSlot;
+    private double ewmaVariance;
+    private boolean hasVariance;
+
+    /**
+     * @param capacity the number of samples to keep, at least 2
+     * @param alpha    the weight of each new return in the EWMA variance, in (0, 1]
+     */
+    public PythPriceHistory(int capacity, double alpha) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2: " + capacity);
+        }
+        if (!(alpha > 0 && alpha <= 1)) {
+            throw new IllegalArgumentException("alpha must be in (0, 1]: " + alpha);
+        }
+
+        this.capacity = capacity;
+        this.alpha = alpha;
+        this.slots = new long[capacity];
+        this.prices = new double[capacity];
+        this.confidences = new double[capacity];
+        this.staleness = new long[capacity];
+        this.integrals = new double[capacity];
+        this.stalenessQueue = new long[capacity];
+    }
+
+    /**
+     * Records the aggregate price of a decoded price account.
+     *
+     * @param priceDataAccount the account, decoded with at least {@link PriceDataFields#AGGREGATE}
+     * @return false if the update was not newer than the latest sample
+     */
+    public boolean record(PriceDataAccount priceDataAccount) {
+        PriceInfo aggregate = priceDataAccount.getAggregatePriceInfo();
+        double scale = PythUtils.pow10(priceDataAccount.getExponent());
+        return record(
+                aggregate.getPublishSlot(),
+                priceDataAccount.getLastSlot(),
+                aggregate.getPriceComponent() * scale,
+                aggregate.getConfidenceComponent() * scale
+        );
+    }
+
+    /**
+     * Records the aggregate price held in a snapshot.
+     *
+     * @param snapshot a snapshot filled from a price account
+     * @return false if the update was not newer than the latest sample
+     */
+    public boolean record(PythPriceSnapshot snapshot) {
+        return record(snapshot.getPublishSlot(), snapshot.getLastSlot(), snapshot.getPrice(),
+                snapshot.getConfidence());
+    }
+
+    /**
+     * Records an update.
+     *
+     * @param slot          the slot the aggregate was published in
+     * @param lastValidSlot the slot of the last valid (trading) aggregate
+     * @param price         the aggregate price
+     * @param confidence    the aggregate confidence
+     * @return false if the update was not newer than the latest sample
+     */
+    public synchronized boolean record(long slot, long lastValidSlot, double price, double confidence) {
+        boolean hasPrevious = next > first;
+        int previous = index(next - 1);
+        if (hasPrevious && slot <= slots[previous]) {
+            return false;
+        }
+
+        if (next - first == capacity) {
+            evictOldest();
+        }
+
+        double integral = 0;
+        if (hasPrevious) {
+            long elapsed = slot - slots[previous];
+            integral = integrals[previous] + (prices[previous] * elapsed);
+            updateVariance(prices[previous], price, elapsed);
+        }
+
+        int current = index(next);
+        slots[current] = slot;
+        prices[current] = price;
+        confidences[current] = confidence;
+        staleness[current] = Math.max(0, slot - lastValidSlot);
+        integrals[current] = integral;
+        this.lastValidSlot = lastValidSlot;
+
+        while (stalenessQueueTail > stalenessQueueHead
+                && staleness[index(stalenessQueue[index(stalenessQueueTail - 1)])] <= staleness[current]) {
+            stalenessQueueTail--;
+        }
+        stalenessQueue[index(stalenessQueueTail++)] = next;
+
+        next++;
+
+        // Keep the integrals small so their differences stay precise; O(capacity) once every capacity updates
+        if (next % capacity == 0) {
+            rebaseIntegrals();
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the time-weighted average price from the oldest retained sample up to the latest one.
+     *
+     * @return the TWAP, the latest price if the window spans a single slot, or NaN if empty
+     */
+    public synchronized double getTwap() {
+        if (next == first) {
+            return Double.NaN;
+        }
+
+        int oldest = index(first);
+        int latest = index(next - 1);
+        long elapsed = slots[latest] - slots[oldest];
+        return elapsed == 0 ? prices[latest] : (integrals[latest] - integrals[oldest]) / elapsed;
+    }
+
+    /**
+     * Returns the time-weighted average price over the last slots up to the latest sample. If the history does not
+     * reach back that far, the TWAP of the whole history is returned.
+     *
+     * @param windowSlots the length of the window, in slots
+     * @return the TWAP, or NaN if empty
+     */
+    public synchronized double getTwap(long windowSlots) {
+        if (next == first) {
+            return Double.NaN;
+        }
+
+        int latest = index(next - 1);
+        long start = slots[latest] - windowSlots;
+        if (windowSlots <= 0 || start <= slots[index(first)]) {
+            return getTwap();
+        }
+
+        // First sample at or after the start; the sample before it covers the window's leading slots
+        long low = first + 1;
+        long high = next - 1;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (slots[index(mid)] >= start) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        int after = index(low);
+        int before = index(low - 1);
+        double integral = (integrals[latest] - integrals[after]) + (prices[before] * (slots[after] - start));
+        return integral / windowSlots;
+    }
+
+    /**
+     * Returns the EWMA of squared log returns, normalized per slot.
+     *
+     * @return the variance per slot, or NaN before the second update
+     */
+    public synchronized double getEwmaVariance() {
+        return hasVariance ? ewmaVariance : Double.NaN;
+    }
+
+    /**
+     * Returns the EWMA volatility of log returns scaled to a horizon.
+     *
+     * @param slots the horizon, in slots
+     * @return the volatility over the horizon, or NaN before the second update
+     */
+    public synchronized double getVolatility(long slots) {
+        return hasVariance ? Math.sqrt(ewmaVariance * slots) : Double.NaN;
+    }
+
+    /**
+     * Returns the largest staleness of the retained samples.
+     *
+     * @return the maximum staleness in slots, or 0 if empty
+     */
+    public synchronized long getMaxStaleness() {
+        if (stalenessQueueTail == stalenessQueueHead) {
+            return 0;
+        }
+
+        return staleness[index(stalenessQueue[index(stalenessQueueHead)])];
+    }
+
+    /**
+     * Returns how many slots have passed since the feed's last valid aggregate.
+     *
+     * @param currentSlot the current slot
+     * @return the staleness in slots, or -1 if empty
+     */
+    public synchronized long getStaleness(long currentSlot) {
+        return next == first ? -1 : Math.max(0, currentSlot - lastValidSlot);
+    }
+
+    public synchronized int size() {
+        return (int) (next - first);
+    }
+
+    public synchronized long getLatestSlot() {
+        return next == first ? 0 : slots[index(next - 1)];
+    }
+
+    public synchronized double getLatestPrice() {
+        return next == first ? Double.NaN : prices[index(next - 1)];
+    }
+
+    public synchronized double getLatestConfidence() {
+        return next == first ? Double.NaN : confidences[index(next - 1)];
+    }
+
+    public synchronized long getOldestSlot() {
+        return next == first ? 0 : slots[index(first)];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void evictOldest() {
+        if (stalenessQueueTail > stalenessQueueHead && stalenessQueue[index(stalenessQueueHead)] == first) {
+            stalenessQueueHead++;
+        }
+        first++;
+    }
+
+    private void updateVariance(double previousPrice, double price, long elapsed) {
+        if (previousPrice <= 0 || price <= 0) {
+            return;
+        }
+
+        double logReturn = Math.log(price / previousPrice);
+        double variance = (logReturn * logReturn) / elapsed;
+        ewmaVariance = hasVariance ? ewmaVariance + (alpha * (variance - ewmaVariance)) : variance;
+        hasVariance = true;
+    }
+
+    private void rebaseIntegrals() {
+        double base = integrals[index(first)];
+        for (long sequence = first; sequence < next; sequence++) {
+            integrals[index(sequence)] -= base;
+        }
+    }
+
+    private int index(long sequence) {
+        return (int) Math.floorMod(sequence, (long) capacity);
+    }
+}
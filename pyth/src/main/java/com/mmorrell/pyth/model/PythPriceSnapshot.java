@@ -0,0 +1,36 @@
+package com.mmorrell.pyth.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * A reusable holder for one consistent read of a feed in a {@link PythPriceTable}, or for the fields decoded by
+ * {@link PriceDataAccount#readPriceDataAccount(byte[], PriceDataFields, PythPriceSnapshot)}.
+ */
+@Getter
+@Setter
+@ToString
+public class PythPriceSnapshot {
+
+    private long priceComponent;
+    private long confidenceComponent;
+    private int exponent;
+    private int status;
+    private long publishSlot;
+    private long updateCount;
+    private double price;
+    private double confidence;
+
+    // 10^exponent, kept while the exponent is unchanged
+    private double scale;
+
+    // Only set when decoding a price account
+    private long lastSlot;
+    private long validSlot;
+    private long emaPriceComponent;
+    private long emaConfidenceComponent;
+    private double emaPrice;
+    private double emaConfidence;
+
+}
@@ -0,0 +1,144 @@
+package com.mmorrell.pyth.model;
+
+import com.mmorrell.pyth.utils.PythUtils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A fixed-size table of the latest aggregate price of many Pyth feeds, indexed by feed id.
+ * <p>
+ * Each feed owns a 64 byte stripe of one preallocated long array: a sequence counter followed by the price,
+ * confidence, status, publish slot, exponent and update count. Each feed has a single writer, which makes the counter
+ * odd while it writes; readers never lock or allocate. Single fields are read with {@link #getPrice(int)} and friends,
+ * and {@link #read(int, PythPriceSnapshot)} retries until it sees all fields from the same update.
+ */
+public class PythPriceTable {
+
+    public static final int STATUS_UNKNOWN = 0;
+    public static final int STATUS_TRADING = 1;
+
+    private static final int STRIDE = 8;
+    private static final int SEQUENCE = 0;
+    private static final int PRICE = 1;
+    private static final int CONFIDENCE = 2;
+    private static final int STATUS = 3;
+    private static final int PUBLISH_SLOT = 4;
+    private static final int EXPONENT = 5;
+    private static final int UPDATE_COUNT = 6;
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int capacity;
+    private final long[] table;
+
+    public PythPriceTable(int capacity) {
+        this.capacity = capacity;
+        this.table = new long[capacity * STRIDE];
+    }
+
+    /**
+     * Publishes a new aggregate price for a feed. Must only be called by the feed's writer thread.
+     *
+     * @param feedId              the feed
+     * @param priceComponent      the aggregate price, in units of 10^exponent
+     * @param confidenceComponent the aggregate confidence, in units of 10^exponent
+     * @param exponent            the feed's exponent
+     * @param status              the aggregate status (1 = trading)
+     * @param publishSlot         the slot the aggregate was published in
+     */
+    public void publish(int feedId, long priceComponent, long confidenceComponent, int exponent, int status,
+                        long publishSlot) {
+        int base = feedId * STRIDE;
+        long sequence = (long) LONGS.getOpaque(table, base + SEQUENCE);
+
+        LONGS.setOpaque(table, base + SEQUENCE, sequence + 1);
+        VarHandle.storeStoreFence();
+
+        LONGS.setOpaque(table, base + PRICE, priceComponent);
+        LONGS.setOpaque(table, base + CONFIDENCE, confidenceComponent);
+        LONGS.setOpaque(table, base + STATUS, status);
+        LONGS.setOpaque(table, base + PUBLISH_SLOT, publishSlot);
+        LONGS.setOpaque(table, base + EXPONENT, exponent);
+        LONGS.setOpaque(table, base + UPDATE_COUNT, (long) LONGS.getOpaque(table, base + UPDATE_COUNT) + 1);
+
+        LONGS.setRelease(table, base + SEQUENCE, sequence + 2);
+    }
+
+    /**
+     * Reads all fields of a feed from the same update into the given holder.
+     *
+     * @param feedId   the feed
+     * @param snapshot the holder to fill
+     * @return false if the feed has never been published
+     */
+    public boolean read(int feedId, PythPriceSnapshot snapshot) {
+        int base = feedId * STRIDE;
+        while (true) {
+            long sequence = (long) LONGS.getAcquire(table, base + SEQUENCE);
+            if ((sequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            long price = (long) LONGS.getOpaque(table, base + PRICE);
+            long confidence = (long) LONGS.getOpaque(table, base + CONFIDENCE);
+            long status = (long) LONGS.getOpaque(table, base + STATUS);
+            long publishSlot = (long) LONGS.getOpaque(table, base + PUBLISH_SLOT);
+            long exponent = (long) LONGS.getOpaque(table, base + EXPONENT);
+            long updateCount = (long) LONGS.getOpaque(table, base + UPDATE_COUNT);
+
+            VarHandle.loadLoadFence();
+            if ((long) LONGS.getOpaque(table, base + SEQUENCE) != sequence) {
+                continue;
+            }
+
+            double scale = PythUtils.pow10((int) exponent);
+            snapshot.setPriceComponent(price);
+            snapshot.setConfidenceComponent(confidence);
+            snapshot.setExponent((int) exponent);
+            snapshot.setScale(scale);
+            snapshot.setStatus((int) status);
+            snapshot.setPublishSlot(publishSlot);
+            snapshot.setUpdateCount(updateCount);
+            snapshot.setPrice(price * scale);
+            snapshot.setConfidence(confidence * scale);
+            return updateCount > 0;
+        }
+    }
+
+    /**
+     * Returns the latest aggregate price of a feed. The price and exponent may come from consecutive updates if the
+     * exponent changes, which Pyth does not do for a live feed.
+     *
+     * @param feedId the feed
+     * @return the price, or 0 if the feed has never been published
+     */
+    public double getPrice(int feedId) {
+        int base = feedId * STRIDE;
+        return (long) LONGS.getAcquire(table, base + PRICE)
+                * PythUtils.pow10((int) (long) LONGS.getOpaque(table, base + EXPONENT));
+    }
+
+    public double getConfidence(int feedId) {
+        int base = feedId * STRIDE;
+        return (long) LONGS.getAcquire(table, base + CONFIDENCE)
+                * PythUtils.pow10((int) (long) LONGS.getOpaque(table, base + EXPONENT));
+    }
+
+    public int getStatus(int feedId) {
+        return (int) (long) LONGS.getAcquire(table, (feedId * STRIDE) + STATUS);
+    }
+
+    public long getPublishSlot(int feedId) {
+        return (long) LONGS.getAcquire(table, (feedId * STRIDE) + PUBLISH_SLOT);
+    }
+
+    public long getUpdateCount(int feedId) {
+        return (long) LONGS.getAcquire(table, (feedId * STRIDE) + UPDATE_COUNT);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
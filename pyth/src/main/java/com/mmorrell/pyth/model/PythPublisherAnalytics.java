@@ -0,0 +1,355 @@
+package com.mmorrell.pyth.model;
+
+import com.mmorrell.pyth.utils.PythUtils;
+import org.p2p.solanaj.core.PublicKey;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * Publisher dispersion and accuracy across many feeds, computed straight from price account data.
+ * <p>
+ * Each {@link #analyze(int, byte[], int)} walks a feed's publisher components once, without building
+ * {@link PriceComponent}s, and leaves its results in preallocated primitive arrays indexed by feed and component:
+ * the median and interquartile range of the contributing prices, each publisher's deviation from the median and its
+ * contribution status. Publishers are interned to dense ids, which index rolling (EWMA) scores of how often each
+ * publisher contributes and how often its price falls within the aggregate's confidence interval.
+ * <p>
+ * Not thread-safe: feed it from a single thread, e.g. the one receiving the account updates.
+ */
+public class PythPublisherAnalytics {
+
+    private static final Logger LOGGER = Logger.getLogger(PythPublisherAnalytics.class.getName());
+
+    public static final int MAX_COMPONENTS = 32;
+
+    // Contribution status of a component
+    public static final int ABSENT = 0;
+    public static final int CONTRIBUTING = 1;
+    public static final int STALE = 2;
+    public static final int NOT_TRADING = 3;
+
+    private static final int TRADING = 1;
+    private static final int LATEST_PRICE_INFO_OFFSET = PublicKey.PUBLIC_KEY_LENGTH + PythUtils.PRICE_INFO_SIZE;
+
+    private final int maxFeeds;
+    private final int maxPublishers;
+    private final long maxSlotLag;
+    private final double alpha;
+
+    // Per feed
+    private final double[] medians;
+    private final double[] interquartileRanges;
+    private final int[] componentCounts;
+    private final int[] contributingCounts;
+    private final long[] analyzedSlots;
+
+    // Per feed and component, at feedId * MAX_COMPONENTS + component
+    private final int[] publisherIds;
+    private final double[] prices;
+    private final double[] confidences;
+    private final double[] deviations;
+    private final int[] contributionStatuses;
+
+    // Per publisher
+    private final byte[] publisherKeys;
+    private final double[] accuracyScores;
+    private final double[] uptimeScores;
+    private final long[] observationCounts;
+    private int publisherCount;
+    private boolean publisherTableFullLogged;
+
+    // Open addressing table of publisher id + 1, keyed by the publisher's bytes
+    private final int[] publisherTable;
+
+    // Scratch for sorting one feed's contributing prices
+    private final long[] sortedPrices = new long[MAX_COMPONENTS];
+
+    /**
+     * @param maxFeeds      the number of feeds, ids 0 to maxFeeds - 1
+     * @param maxPublishers the number of distinct publishers to track
+     * @param maxSlotLag    how many slots a publisher's price may trail the aggregate and still count as contributing
+     * @param alpha         the weight of each new observation in the rolling scores, in (0, 1]
+     */
+    public PythPublisherAnalytics(int maxFeeds, int maxPublishers, long maxSlotLag, double alpha) {
+        if (!(alpha > 0 && alpha <= 1)) {
+            throw new IllegalArgumentException("alpha must be in (0, 1]: " + alpha);
+        }
+
+        this.maxFeeds = maxFeeds;
+        this.maxPublishers = maxPublishers;
+        this.maxSlotLag = maxSlotLag;
+        this.alpha = alpha;
+
+        this.medians = new double[maxFeeds];
+        this.interquartileRanges = new double[maxFeeds];
+        this.componentCounts = new int[maxFeeds];
+        this.contributingCounts = new int[maxFeeds];
+        this.analyzedSlots = new long[maxFeeds];
+
+        this.publisherIds = new int[maxFeeds * MAX_COMPONENTS];
+        this.prices = new double[maxFeeds * MAX_COMPONENTS];
+        this.confidences = new double[maxFeeds * MAX_COMPONENTS];
+        this.deviations = new double[maxFeeds * MAX_COMPONENTS];
+        this.contributionStatuses = new int[maxFeeds * MAX_COMPONENTS];
+
+        this.publisherKeys = new byte[maxPublishers * PublicKey.PUBLIC_KEY_LENGTH];
+        this.accuracyScores = new double[maxPublishers];
+        this.uptimeScores = new double[maxPublishers];
+        this.observationCounts = new long[maxPublishers];
+        this.publisherTable = new int[Integer.highestOneBit(Math.max(1, maxPublishers) * 2) << 1];
+    }
+
+    /**
+     * Analyzes the publisher components of one feed's price account.
+     *
+     * @param feedId the feed
+     * @param data   the price account data
+     * @param length the number of valid bytes in {@code data}
+     * @return the number of contributing publishers
+     */
+    public int analyze(int feedId, byte[] data, int length) {
+        final double scale = PythUtils.pow10(PythUtils.readInt32Fast(data, PriceDataAccount.EXPONENT_OFFSET));
+        final int aggregate = PriceDataAccount.AGGREGATE_PRICE_INFO_OFFSET;
+        final long aggregatePrice = PythUtils.readInt64Fast(data, aggregate + PriceInfo.PRICE_COMPONENT_OFFSET);
+        final long aggregateConfidence =
+                PythUtils.readInt64Fast(data, aggregate + PriceInfo.CONFIDENCE_COMPONENT_OFFSET);
+        final long aggregateSlot = PythUtils.readInt64Fast(data, aggregate + PriceInfo.PUBLISH_SLOT_OFFSET);
+
+        final int base = feedId * MAX_COMPONENTS;
+        int count = 0;
+        int contributing = 0;
+        for (int offset = PriceDataAccount.PRICE_COMPONENTS_OFFSET;
+             offset + PriceDataAccount.PRICE_COMPONENT_SIZE <= length && count < MAX_COMPONENTS;
+             offset += PriceDataAccount.PRICE_COMPONENT_SIZE) {
+            if (PythUtils.isZero(data, offset, PublicKey.PUBLIC_KEY_LENGTH)) {
+                break;
+            }
+
+            final int latest = offset + LATEST_PRICE_INFO_OFFSET;
+            final long price = PythUtils.readInt64Fast(data, latest + PriceInfo.PRICE_COMPONENT_OFFSET);
+            final int status = PythUtils.readInt32Fast(data, latest + PriceInfo.STATUS_OFFSET);
+            final long publishSlot = PythUtils.readInt64Fast(data, latest + PriceInfo.PUBLISH_SLOT_OFFSET);
+
+            final int contribution;
+            if (status != TRADING) {
+                contribution = NOT_TRADING;
+            } else if (aggregateSlot - publishSlot > maxSlotLag) {
+                contribution = STALE;
+            } else {
+                contribution = CONTRIBUTING;
+                sortedPrices[contributing++] = price;
+            }
+
+            final int component = base + count;
+            publisherIds[component] = internPublisher(data, offset);
+            prices[component] = price * scale;
+            confidences[component] = PythUtils.readInt64Fast(data, latest + PriceInfo.CONFIDENCE_COMPONENT_OFFSET)
+                    * scale;
+            contributionStatuses[component] = contribution;
+            count++;
+        }
+
+        Arrays.sort(sortedPrices, 0, contributing);
+        final double median = percentile(contributing, 0.5) * scale;
+        medians[feedId] = median;
+        interquartileRanges[feedId] = (percentile(contributing, 0.75) - percentile(contributing, 0.25)) * scale;
+        componentCounts[feedId] = count;
+        contributingCounts[feedId] = contributing;
+        analyzedSlots[feedId] = aggregateSlot;
+
+        final double low = (aggregatePrice - aggregateConfidence) * scale;
+        final double high = (aggregatePrice + aggregateConfidence) * scale;
+        for (int component = base; component < base + count; component++) {
+            final boolean isContributing = contributionStatuses[component] == CONTRIBUTING;
+            deviations[component] = isContributing ? prices[component] - median : Double.NaN;
+
+            final int publisherId = publisherIds[component];
+            if (publisherId >= 0) {
+                final double accurate = isContributing && prices[component] >= low && prices[component] <= high
+                        ? 1.0
+                        : 0.0;
+                updateScores(publisherId, isContributing ? 1.0 : 0.0, accurate);
+            }
+        }
+
+        for (int component = base + count; component < base + MAX_COMPONENTS; component++) {
+            contributionStatuses[component] = ABSENT;
+        }
+
+        return contributing;
+    }
+
+    /**
+     * Returns true if a contributing component deviates from its feed's median by more than a multiple of the
+     * feed's interquartile range.
+     *
+     * @param feedId     the feed
+     * @param component  the component, in account order
+     * @param multiplier the allowed deviation, in interquartile ranges
+     * @return true if the component is an outlier
+     */
+    public boolean isOutlier(int feedId, int component, double multiplier) {
+        final int index = (feedId * MAX_COMPONENTS) + component;
+        return contributionStatuses[index] == CONTRIBUTING
+                && Math.abs(deviations[index]) > multiplier * interquartileRanges[feedId];
+    }
+
+    /**
+     * Returns the dense id assigned to a publisher.
+     *
+     * @param publisher the publisher's key
+     * @return the publisher id, or -1 if the publisher has not been seen
+     */
+    public int getPublisherId(PublicKey publisher) {
+        return findPublisher(publisher.toByteArray(), 0, false);
+    }
+
+    public PublicKey getPublisher(int publisherId) {
+        return PublicKey.readPubkey(publisherKeys, publisherId * PublicKey.PUBLIC_KEY_LENGTH);
+    }
+
+    public double getMedian(int feedId) {
+        return medians[feedId];
+    }
+
+    public double getInterquartileRange(int feedId) {
+        return interquartileRanges[feedId];
+    }
+
+    public int getComponentCount(int feedId) {
+        return componentCounts[feedId];
+    }
+
+    public int getContributingCount(int feedId) {
+        return contributingCounts[feedId];
+    }
+
+    public long getAnalyzedSlot(int feedId) {
+        return analyzedSlots[feedId];
+    }
+
+    public int getPublisherId(int feedId, int component) {
+        return publisherIds[(feedId * MAX_COMPONENTS) + component];
+    }
+
+    public double getPrice(int feedId, int component) {
+        return prices[(feedId * MAX_COMPONENTS) + component];
+    }
+
+    public double getConfidence(int feedId, int component) {
+        return confidences[(feedId * MAX_COMPONENTS) + component];
+    }
+
+    /**
+     * Returns a component's price minus its feed's median.
+     *
+     * @param feedId    the feed
+     * @param component the component, in account order
+     * @return the deviation, or NaN if the component is not contributing
+     */
+    public double getDeviation(int feedId, int component) {
+        return deviations[(feedId * MAX_COMPONENTS) + component];
+    }
+
+    public int getContributionStatus(int feedId, int component) {
+        return contributionStatuses[(feedId * MAX_COMPONENTS) + component];
+    }
+
+    /**
+     * Returns the rolling fraction of a publisher's observations that contributed a price within the aggregate's
+     * confidence interval.
+     *
+     * @param publisherId the publisher
+     * @return the score in [0, 1]
+     */
+    public double getAccuracyScore(int publisherId) {
+        return accuracyScores[publisherId];
+    }
+
+    /**
+     * Returns the rolling fraction of a publisher's observations that contributed to the aggregate.
+     *
+     * @param publisherId the publisher
+     * @return the score in [0, 1]
+     */
+    public double getUptimeScore(int publisherId) {
+        return uptimeScores[publisherId];
+    }
+
+    public long getObservationCount(int publisherId) {
+        return observationCounts[publisherId];
+    }
+
+    public int getPublisherCount() {
+        return publisherCount;
+    }
+
+    public int getMaxFeeds() {
+        return maxFeeds;
+    }
+
+    // Linear interpolation between the sorted contributing prices
+    private double percentile(int count, double fraction) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        final double position = fraction * (count - 1);
+        final int lower = (int) position;
+        final int upper = Math.min(lower + 1, count - 1);
+        return sortedPrices[lower] + ((position - lower) * (sortedPrices[upper] - sortedPrices[lower]));
+    }
+
+    private void updateScores(int publisherId, double uptime, double accuracy) {
+        if (observationCounts[publisherId]++ == 0) {
+            uptimeScores[publisherId] = uptime;
+            accuracyScores[publisherId] = accuracy;
+            return;
+        }
+
+        uptimeScores[publisherId] += alpha * (uptime - uptimeScores[publisherId]);
+        accuracyScores[publisherId] += alpha * (accuracy - accuracyScores[publisherId]);
+    }
+
+    private int internPublisher(byte[] data, int offset) {
+        return findPublisher(data, offset, true);
+    }
+
+    // Looks a publisher up by its bytes, optionally adding it; -1 if absent or the table is full
+    private int findPublisher(byte[] key, int offset, boolean add) {
+        final int mask = publisherTable.length - 1;
+        long hash = PythUtils.readInt64Fast(key, offset) ^ PythUtils.readInt64Fast(key, offset + 8);
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+
+        while (true) {
+            final int entry = publisherTable[slot];
+            if (entry == 0) {
+                break;
+            }
+            if (Arrays.equals(
+                    publisherKeys, (entry - 1) * PublicKey.PUBLIC_KEY_LENGTH, entry * PublicKey.PUBLIC_KEY_LENGTH,
+                    key, offset, offset + PublicKey.PUBLIC_KEY_LENGTH)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (!add) {
+            return -1;
+        }
+        if (publisherCount == maxPublishers) {
+            if (!publisherTableFullLogged) {
+                LOGGER.warning("Publisher table is full (" + maxPublishers + "), new publishers are not scored");
+                publisherTableFullLogged = true;
+            }
+            return -1;
+        }
+
+        final int publisherId = publisherCount++;
+        System.arraycopy(key, offset, publisherKeys, publisherId * PublicKey.PUBLIC_KEY_LENGTH,
+                PublicKey.PUBLIC_KEY_LENGTH);
+        publisherTable[slot] = publisherId + 1;
+        return publisherId;
+    }
+}
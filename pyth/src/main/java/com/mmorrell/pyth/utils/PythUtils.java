@@ -1,11 +1,37 @@
 package com.mmorrell.pyth.utils;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
 
 public class PythUtils {
 
+    private static final VarHandle INT32_LE =
+            MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT64_LE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    // Base64 alphabet value of each ASCII character, -1 for characters outside it
+    private static final byte[] BASE64_VALUES = new byte[128];
+
+    // 10^e for e in [-MAX_EXPONENT, MAX_EXPONENT]
+    private static final int MAX_EXPONENT = 40;
+    private static final double[] POWERS_OF_TEN = new double[(2 * MAX_EXPONENT) + 1];
+
+    static {
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = Math.pow(10, i - MAX_EXPONENT);
+        }
+
+        Arrays.fill(BASE64_VALUES, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_VALUES[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
     public static final int INT32_SIZE = 4;
     public static final int INT64_SIZE = 8;
     public static final int PRICE_INFO_SIZE = 32;
@@ -33,6 +59,81 @@ public class PythUtils {
         return bb.getInt(0);
     }
 
+    /**
+     * Reads a little-endian i32 in place, without copying.
+     */
+    public static int readInt32Fast(byte[] data, int offset) {
+        return (int) INT32_LE.get(data, offset);
+    }
+
+    /**
+     * Reads a little-endian i64 in place, without copying.
+     */
+    public static long readInt64Fast(byte[] data, int offset) {
+        return (long) INT64_LE.get(data, offset);
+    }
+
+    /**
+     * Returns 10^exponent, from a table for the exponents Pyth uses.
+     */
+    public static double pow10(int exponent) {
+        return exponent >= -MAX_EXPONENT && exponent <= MAX_EXPONENT
+                ? POWERS_OF_TEN[exponent + MAX_EXPONENT]
+                : Math.pow(10, exponent);
+    }
+
+    /**
+     * Returns true if the given range holds only zero bytes, e.g. an unset public key, without encoding it.
+     */
+    public static boolean isZero(byte[] data, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (data[i] != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Decodes only the first bytes of a base64 string into a caller-owned array, without allocating. Account
+     * notifications carry the whole account, but the fields most consumers need sit at the front of it.
+     *
+     * @param base64 the base64 string
+     * @param out    receives the decoded bytes
+     * @param length the number of bytes to decode, a multiple of 3
+     * @return the number of bytes decoded, less than {@code length} if the string is shorter
+     */
+    public static int decodeBase64Prefix(String base64, byte[] out, int length) {
+        int decoded = 0;
+        int chars = Math.min(base64.length(), (length / 3) * 4);
+        for (int i = 0; i + 3 < chars; i += 4) {
+            int c0 = base64Value(base64.charAt(i));
+            int c1 = base64Value(base64.charAt(i + 1));
+            int c2 = base64Value(base64.charAt(i + 2));
+            int c3 = base64Value(base64.charAt(i + 3));
+            if (c0 < 0 || c1 < 0) {
+                break;
+            }
+
+            out[decoded++] = (byte) ((c0 << 2) | (c1 >> 4));
+            if (c2 < 0) {
+                break;
+            }
+            out[decoded++] = (byte) ((c1 << 4) | (c2 >> 2));
+            if (c3 < 0) {
+                break;
+            }
+            out[decoded++] = (byte) ((c2 << 6) | c3);
+        }
+
+        return decoded;
+    }
+
+    private static int base64Value(char c) {
+        return c < 128 ? BASE64_VALUES[c] : -1;
+    }
+
     public static short readInt16(byte[] data, int offset) {
         ByteBuffer bb = ByteBuffer.wrap(
                 Arrays.copyOfRange(
@@ -2,15 +2,35 @@ import com.mmorrell.pyth.listener.PriceDataAccountListener;
 import com.mmorrell.pyth.manager.PythManager;
 import com.mmorrell.pyth.model.MappingAccount;
 import com.mmorrell.pyth.model.PriceDataAccount;
+import com.mmorrell.pyth.model.PriceDataFields;
+import com.mmorrell.pyth.manager.PythCatalogLoader;
+import com.mmorrell.pyth.manager.PythPriceHub;
 import com.mmorrell.pyth.model.ProductAccount;
+import com.mmorrell.pyth.model.ProductAttributes;
+import com.mmorrell.pyth.model.PythCatalog;
+import com.mmorrell.pyth.model.PythPriceHistory;
+import com.mmorrell.pyth.model.PythPriceSnapshot;
+import com.mmorrell.pyth.model.PythPublisherAnalytics;
+import com.mmorrell.pyth.model.PythPriceTable;
+import com.mmorrell.pyth.utils.PythUtils;
+import com.mmorrell.testing.StubRpcClient;
 import org.junit.jupiter.api.*;
+import org.p2p.solanaj.core.Account;
 import org.p2p.solanaj.core.PublicKey;
 import org.p2p.solanaj.rpc.Cluster;
 import org.p2p.solanaj.rpc.RpcClient;
 import org.p2p.solanaj.ws.SubscriptionWebSocketClient;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
@@ -25,6 +45,8 @@ public class PythTest {
     private static final int PYTH_MAGIC_NUMBER = (int) Long.parseLong("a1b2c3d4", 16);
     private static final int EXPECTED_PYTH_VERSION = 2;
     private static final int EXPECTED_EXPONENT = -8;
+    private static final PublicKey PYTH_PROGRAM_ID =
+            PublicKey.valueOf("FsJ3A3u2vn5cTVofAjvy6y5kwABJAqYWpe4975bi2epH");
     private static final PublicKey MAPPING_ACCOUNT = PublicKey.valueOf("AHtgzX45WTKfkPG53L6WYhGEXwQkN1BVknET3sVsLL8J");
 
     @Test
@@ -208,4 +230,418 @@ public class PythTest {
             );
         }
     }
+
+    @Test
+    public void catalogLoaderBatchesFetchesTest() {
+        Map<PublicKey, byte[]> accounts = new HashMap<>();
+        List<PublicKey> productKeys = new ArrayList<>();
+        List<PublicKey> priceKeys = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            PublicKey productKey = new Account().getPublicKey();
+            PublicKey priceKey = new Account().getPublicKey();
+            productKeys.add(productKey);
+            priceKeys.add(priceKey);
+            accounts.put(productKey, buildProductAccount(priceKey, "Crypto.T" + i + "/USD"));
+
+            // The last price account is missing
+            if (i < 149) {
+                accounts.put(priceKey, buildPriceDataAccount(-8, 100_000_000L * (i + 1), 5_000, 1, 1_000 + i));
+            }
+        }
+
+        // Two mapping accounts in a chain
+        PublicKey secondMapping = new Account().getPublicKey();
+        accounts.put(MAPPING_ACCOUNT, buildMappingAccount(secondMapping, productKeys.subList(0, 100)));
+        accounts.put(secondMapping, buildMappingAccount(null, productKeys.subList(100, 150)));
+
+        List<String> methods = new ArrayList<>();
+        PythCatalog catalog = new PythCatalogLoader(StubRpcClient.accounts(accounts, PYTH_PROGRAM_ID, methods), 4)
+                .load(MAPPING_ACCOUNT);
+
+        assertEquals(List.of(MAPPING_ACCOUNT, secondMapping), catalog.getMappingAccountKeys());
+        assertEquals(150, catalog.size());
+        assertEquals(priceKeys.get(42), catalog.getPriceAccountKey("Crypto.T42/USD"));
+        assertEquals(42, catalog.getEntry("Crypto.T42/USD").getFeedId());
+        assertEquals(43.0f, catalog.getEntry(42).getPriceDataAccount().getAggregatePriceInfo().getPrice(), 1e-4);
+        assertEquals("Crypto.T120/USD", catalog.getEntriesByPriceAccount().get(priceKeys.get(120)).getSymbol());
+        assertNull(catalog.getEntry("Crypto.T149/USD").getPriceDataAccount());
+        assertNull(catalog.getPriceAccountKey("Crypto.NONE/USD"));
+
+        // 2 mapping accounts, then 2 chunks of products and 2 chunks of prices
+        assertEquals(6, methods.size());
+        assertEquals(2, methods.stream().filter("getAccountInfo"::equals).count());
+        assertEquals(4, methods.stream().filter("getMultipleAccounts"::equals).count());
+    }
+
+    @Test
+    public void priceHubPublishesNotificationsTest() {
+        PythPriceHub hub = new PythPriceHub(4);
+        PublicKey btc = new Account().getPublicKey();
+        PublicKey eth = new Account().getPublicKey();
+        int btcFeed = hub.register(btc);
+        int ethFeed = hub.register(eth);
+        assertEquals(btcFeed, hub.register(btc));
+        assertEquals(1, hub.getFeedId(eth));
+        assertEquals(-1, hub.getFeedId(new Account().getPublicKey()));
+
+        // Notifications carry the whole account as base64
+        byte[] btcData = buildPriceDataAccount(-8, 6_512_345_000_000L, 2_500_000_000L, 1, 250_000_000L);
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("data", List.of(Base64.getEncoder().encodeToString(btcData), "base64"));
+        hub.onNotificationEvent(btcFeed, notification);
+
+        PythPriceTable table = hub.getTable();
+        assertEquals(65_123.45, table.getPrice(btcFeed), 1e-6);
+        assertEquals(25.0, table.getConfidence(btcFeed), 1e-9);
+        assertEquals(PythPriceTable.STATUS_TRADING, table.getStatus(btcFeed));
+        assertEquals(250_000_000L, table.getPublishSlot(btcFeed));
+        assertEquals(1, table.getUpdateCount(btcFeed));
+
+        PythPriceSnapshot snapshot = new PythPriceSnapshot();
+        assertFalse(table.read(ethFeed, snapshot));
+        hub.onAccountData(ethFeed, buildPriceDataAccount(-5, 312_000_000L, 150_000L, 0, 7L), 240);
+        assertTrue(table.read(ethFeed, snapshot));
+        assertEquals(3_120.0, snapshot.getPrice(), 1e-9);
+        assertEquals(1.5, snapshot.getConfidence(), 1e-9);
+        assertEquals(-5, snapshot.getExponent());
+        assertEquals(PythPriceTable.STATUS_UNKNOWN, snapshot.getStatus());
+
+        // Truncated and malformed notifications leave the table untouched
+        hub.onAccountData(btcFeed, new byte[100], 100);
+        hub.onNotificationEvent(btcFeed, Map.of("data", List.of()));
+        assertEquals(1, table.getUpdateCount(btcFeed));
+
+        // The prefix decoder agrees with the JDK decoder
+        byte[] prefix = new byte[240];
+        assertEquals(240, PythUtils.decodeBase64Prefix(Base64.getEncoder().encodeToString(btcData), prefix, 240));
+        assertArrayEquals(Arrays.copyOf(btcData, 240), prefix);
+        assertEquals(4, PythUtils.decodeBase64Prefix("AQIDBA==", prefix, 240));
+        assertArrayEquals(new byte[]{1, 2, 3, 4}, Arrays.copyOf(prefix, 4));
+    }
+
+    @Test
+    public void priceDataAccountFieldSelectionTest() {
+        byte[] data = buildPriceDataAccount(-8, 15_000_000_000L, 7_500_000L, 1, 300L);
+        PublicKey publisher = new Account().getPublicKey();
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(48, 14_900_000_000L);
+        buffer.putLong(72, 8_000_000L);
+        buffer.put(104, (byte) 3);
+        buffer.put(240, publisher.toByteArray());
+        buffer.putLong(272, 15_010_000_000L);
+        buffer.putLong(304, 15_020_000_000L);
+
+        PriceDataAccount aggregate = PriceDataAccount.readPriceDataAccount(data, PriceDataFields.AGGREGATE);
+        assertEquals(150.0f, aggregate.getAggregatePriceInfo().getPrice(), 1e-4);
+        assertEquals(0.075f, aggregate.getAggregatePriceInfo().getConfidence(), 1e-6);
+        assertEquals(300L, aggregate.getLastSlot());
+        assertNull(aggregate.getEmaPrice());
+        assertNull(aggregate.getPriceComponents());
+
+        PriceDataAccount ema = PriceDataAccount.readPriceDataAccount(data, PriceDataFields.AGGREGATE_AND_EMA);
+        assertEquals(149.0f, ema.getEmaPrice().getValue(), 1e-4);
+        assertEquals(0.08f, ema.getEmaConfidence().getValue(), 1e-6);
+        assertNull(ema.getPriceComponents());
+
+        PriceDataAccount full = PriceDataAccount.readPriceDataAccount(data);
+        assertEquals(3, full.getMinPublishers());
+        assertNull(full.getNextPriceAccountKey());
+        assertEquals(1, full.getPriceComponents().size());
+        assertEquals(publisher, full.getPriceComponents().get(0).getPublisher());
+        assertEquals(150.1f, full.getPriceComponents().get(0).getAggregate().getPrice(), 1e-4);
+        assertEquals(150.2f, full.getPriceComponents().get(0).getLatest().getPrice(), 1e-4);
+
+        // The allocation-free path fills a reusable holder
+        PythPriceSnapshot snapshot = new PythPriceSnapshot();
+        PriceDataAccount.readPriceDataAccount(data, PriceDataFields.AGGREGATE_AND_EMA, snapshot);
+        assertEquals(150.0, snapshot.getPrice(), 1e-9);
+        assertEquals(0.075, snapshot.getConfidence(), 1e-12);
+        assertEquals(149.0, snapshot.getEmaPrice(), 1e-9);
+        assertEquals(1e-8, snapshot.getScale(), 1e-20);
+        assertEquals(300L, snapshot.getPublishSlot());
+    }
+
+    @Test
+    public void priceHistoryRollingMetricsTest() {
+        PythPriceHistory history = new PythPriceHistory(4, 0.5);
+        assertTrue(Double.isNaN(history.getTwap()));
+
+        assertTrue(history.record(100, 100, 10.0, 0.1));
+        assertTrue(history.record(110, 110, 20.0, 0.1));
+        assertFalse(history.record(110, 110, 99.0, 0.1));
+        assertTrue(history.record(130, 120, 10.0, 0.1));
+        assertTrue(history.record(140, 140, 40.0, 0.1));
+
+        // 10 for 10 slots, 20 for 20 slots, 10 for 10 slots
+        assertEquals(600.0 / 40, history.getTwap(), 1e-9);
+        // Last 15 slots: 20 for 5 slots, then 10 for 10 slots
+        assertEquals(200.0 / 15, history.getTwap(15), 1e-9);
+        assertEquals(history.getTwap(), history.getTwap(1_000), 1e-9);
+        assertEquals(10, history.getMaxStaleness());
+        assertEquals(5, history.getStaleness(145));
+
+        // Variance per slot of each log return, blended with alpha = 0.5
+        double r1 = Math.pow(Math.log(2), 2) / 10;
+        double r2 = Math.pow(Math.log(0.5), 2) / 20;
+        double r3 = Math.pow(Math.log(4), 2) / 10;
+        double expected = ((r1 + r2) / 2 + r3) / 2;
+        assertEquals(expected, history.getEwmaVariance(), 1e-12);
+        assertEquals(Math.sqrt(expected * 100), history.getVolatility(100), 1e-12);
+
+        // The stale sample leaves the window after 3 more updates
+        history.record(150, 150, 40.0, 0.1);
+        history.record(160, 160, 40.0, 0.1);
+        assertEquals(10, history.getMaxStaleness());
+        history.record(170, 170, 40.0, 0.1);
+        assertEquals(0, history.getMaxStaleness());
+        assertEquals(4, history.size());
+        assertEquals(140, history.getOldestSlot());
+        assertEquals(40.0, history.getTwap(), 1e-9);
+
+        // Windowed TWAPs match a brute force walk over many wraps
+        Random random = new Random(7);
+        PythPriceHistory randomHistory = new PythPriceHistory(16, 0.1);
+        long[] slots = new long[1_000];
+        double[] prices = new double[1_000];
+        long slot = 1_000;
+        for (int i = 0; i < slots.length; i++) {
+            slot += 1 + random.nextInt(5);
+            slots[i] = slot;
+            prices[i] = 100 + random.nextGaussian();
+            randomHistory.record(slot, slot, prices[i], 0.01);
+        }
+
+        long window = 30;
+        long start = slots[slots.length - 1] - window;
+        double integral = 0;
+        for (int i = slots.length - 16; i < slots.length - 1; i++) {
+            long from = Math.max(slots[i], start);
+            if (slots[i + 1] > from) {
+                integral += prices[i] * (slots[i + 1] - from);
+            }
+        }
+        assertEquals(integral / window, randomHistory.getTwap(window), 1e-9);
+
+        // Streaming and polling feed the same history, without duplicates
+        PythPriceHistory fed = new PythPriceHistory(8, 0.2);
+        byte[] data = buildPriceDataAccount(-8, 15_000_000_000L, 7_500_000L, 1, 300L);
+        new PriceDataAccountListener(new ConcurrentHashMap<>(), "Crypto.T/USD", fed).onNotificationEvent(
+                Map.of("data", List.of(Base64.getEncoder().encodeToString(data), "base64"))
+        );
+        PublicKey priceAccount = new Account().getPublicKey();
+        PythManager stubManager = new PythManager(
+                StubRpcClient.accounts(Map.of(priceAccount, data), PYTH_PROGRAM_ID, new ArrayList<>())
+        );
+        stubManager.pollPriceDataAccount(priceAccount, fed);
+        assertEquals(1, fed.size());
+        assertEquals(150.0, fed.getLatestPrice(), 1e-9);
+        assertEquals(300L, fed.getLatestSlot());
+    }
+
+    @Test
+    public void publisherAnalyticsTest() {
+        PythPublisherAnalytics analytics = new PythPublisherAnalytics(4, 8, 25, 0.5);
+        PublicKey[] publishers = new PublicKey[6];
+        for (int i = 0; i < publishers.length; i++) {
+            publishers[i] = new Account().getPublicKey();
+        }
+
+        // Aggregate 101.5 +/- 1.0; two publishers do not contribute
+        long[] componentPrices = {10_000, 10_100, 10_200, 11_000, 9_500, 30_000};
+        int[] statuses = {1, 1, 1, 1, 1, 0};
+        long[] publishSlots = {1_000, 999, 1_000, 990, 900, 1_000};
+        byte[] data = buildPriceDataAccount(-2, 10_150, 100, 1, 1_000, publishers, componentPrices, statuses,
+                publishSlots);
+
+        assertEquals(4, analytics.analyze(2, data, data.length));
+        assertEquals(6, analytics.getComponentCount(2));
+        assertEquals(101.5, analytics.getMedian(2), 1e-9);
+        // Quartiles of 100, 101, 102, 110 at positions 0.75 and 2.25
+        assertEquals(104.0 - 100.75, analytics.getInterquartileRange(2), 1e-9);
+        assertEquals(PythPublisherAnalytics.CONTRIBUTING, analytics.getContributionStatus(2, 0));
+        assertEquals(PythPublisherAnalytics.STALE, analytics.getContributionStatus(2, 4));
+        assertEquals(PythPublisherAnalytics.NOT_TRADING, analytics.getContributionStatus(2, 5));
+        assertEquals(PythPublisherAnalytics.ABSENT, analytics.getContributionStatus(2, 6));
+        assertEquals(8.5, analytics.getDeviation(2, 3), 1e-9);
+        assertTrue(Double.isNaN(analytics.getDeviation(2, 5)));
+        assertTrue(analytics.isOutlier(2, 3, 1.5));
+        assertFalse(analytics.isOutlier(2, 0, 1.5));
+
+        // Publishers are interned once, across feeds
+        analytics.analyze(0, data, data.length);
+        assertEquals(6, analytics.getPublisherCount());
+        int outlier = analytics.getPublisherId(publishers[3]);
+        assertEquals(publishers[3], analytics.getPublisher(outlier));
+        assertEquals(outlier, analytics.getPublisherId(2, 3));
+        assertEquals(-1, analytics.getPublisherId(new Account().getPublicKey()));
+
+        int accurate = analytics.getPublisherId(publishers[1]);
+        int stale = analytics.getPublisherId(publishers[4]);
+        assertEquals(2, analytics.getObservationCount(accurate));
+        assertEquals(1.0, analytics.getAccuracyScore(accurate), 1e-12);
+        assertEquals(0.0, analytics.getAccuracyScore(outlier), 1e-12);
+        assertEquals(1.0, analytics.getUptimeScore(outlier), 1e-12);
+        assertEquals(0.0, analytics.getUptimeScore(stale), 1e-12);
+
+        // The stale publisher catches up and its scores roll towards 1
+        publishSlots[4] = 1_000;
+        componentPrices[4] = 10_100;
+        data = buildPriceDataAccount(-2, 10_150, 100, 1, 1_000, publishers, componentPrices, statuses, publishSlots);
+        assertEquals(5, analytics.analyze(2, data, data.length));
+        assertEquals(0.5, analytics.getUptimeScore(stale), 1e-12);
+        assertEquals(0.5, analytics.getAccuracyScore(stale), 1e-12);
+        assertEquals(101.0, analytics.getMedian(2), 1e-9);
+    }
+
+    @Test
+    public void productAttributesTest() {
+        String description = "A description longer than one hundred and twenty seven bytes, so its length prefix "
+                + "only reads correctly as an unsigned byte.";
+        PublicKey priceKey = new Account().getPublicKey();
+        byte[] data = buildProductAccount(priceKey, new String[][]{
+                {"symbol", "Crypto.SOL/USD"},
+                {"asset_type", "Crypto"},
+                {"custom_key", "custom"},
+                {"description", description}
+        });
+
+        ProductAccount full = ProductAccount.readProductAccount(data);
+        Map<String, String> attributes = full.getProductAttributes();
+        assertEquals(priceKey, full.getPriceAccountKey());
+        assertEquals(4, attributes.size());
+        assertEquals("Crypto.SOL/USD", attributes.get("symbol"));
+        assertEquals("custom", attributes.get("custom_key"));
+        assertEquals(description, attributes.get(ProductAttributes.DESCRIPTION));
+        assertEquals(
+                Map.of("symbol", "Crypto.SOL/USD", "asset_type", "Crypto", "custom_key", "custom",
+                        "description", description),
+                new HashMap<>(attributes)
+        );
+
+        // Known keys are shared across products
+        ProductAttributes productAttributes = (ProductAttributes) attributes;
+        ProductAttributes other = (ProductAttributes) ProductAccount.readProductAccount(
+                buildProductAccount(priceKey, "Crypto.BTC/USD")
+        ).getProductAttributes();
+        assertSame(productAttributes.getKey(0), other.getKey(0));
+        assertSame(ProductAttributes.ASSET_TYPE, productAttributes.getKey(1));
+
+        // Selective decoding keeps only the requested attributes
+        Map<String, String> selected = ProductAccount.readProductAccount(data, ProductAttributes.SYMBOL, "custom_key")
+                .getProductAttributes();
+        assertEquals(Map.of("symbol", "Crypto.SOL/USD", "custom_key", "custom"), new HashMap<>(selected));
+        assertNull(selected.get("description"));
+
+        // Null keys are absent, and removal keeps the remaining attributes in order
+        assertNull(attributes.get(null));
+        assertFalse(attributes.containsKey(null));
+        assertThrows(NullPointerException.class, () -> attributes.put(null, "value"));
+        assertEquals("custom", attributes.remove("custom_key"));
+        assertNull(attributes.remove("custom_key"));
+        assertEquals(ProductAttributes.DESCRIPTION, productAttributes.getKey(2));
+        attributes.entrySet().removeIf(entry -> entry.getKey().equals(ProductAttributes.ASSET_TYPE));
+        attributes.keySet().remove(ProductAttributes.SYMBOL);
+        assertEquals(Map.of("description", description), new HashMap<>(attributes));
+        attributes.clear();
+        assertTrue(attributes.isEmpty());
+        assertNull(attributes.get(ProductAttributes.DESCRIPTION));
+        selected.entrySet().clear();
+        assertTrue(selected.isEmpty());
+
+        // The catalog loader decodes the symbol even when it is not requested
+        PublicKey productKey = new Account().getPublicKey();
+        Map<PublicKey, byte[]> accounts = new HashMap<>();
+        accounts.put(MAPPING_ACCOUNT, buildMappingAccount(null, List.of(productKey)));
+        accounts.put(productKey, data);
+        accounts.put(priceKey, buildPriceDataAccount(-8, 100_000_000L, 5_000, 1, 1_000));
+        RpcClient stubClient = StubRpcClient.accounts(accounts, PYTH_PROGRAM_ID, new ArrayList<>());
+        PythCatalog catalog = new PythCatalogLoader(stubClient, 1, ProductAttributes.ASSET_TYPE).load(MAPPING_ACCOUNT);
+        assertEquals(0, catalog.getFeedId("Crypto.SOL/USD"));
+        assertEquals(-1, catalog.getFeedId("Crypto.NONE/USD"));
+        assertEquals(
+                Map.of("asset_type", "Crypto", "symbol", "Crypto.SOL/USD"),
+                new HashMap<>(catalog.getEntry(0).getProductAccount().getProductAttributes())
+        );
+    }
+
+    private static byte[] buildMappingAccount(PublicKey nextMappingAccount, List<PublicKey> productKeys) {
+        ByteBuffer buffer = ByteBuffer.allocate(56 + (32 * productKeys.size())).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, PYTH_MAGIC_NUMBER);
+        buffer.putInt(4, EXPECTED_PYTH_VERSION);
+        buffer.putInt(8, 1);
+        buffer.putInt(12, buffer.capacity());
+        buffer.putInt(16, productKeys.size());
+        if (nextMappingAccount != null) {
+            buffer.put(24, nextMappingAccount.toByteArray());
+        }
+        for (int i = 0; i < productKeys.size(); i++) {
+            buffer.put(56 + (32 * i), productKeys.get(i).toByteArray());
+        }
+        return buffer.array();
+    }
+
+    private static byte[] buildProductAccount(PublicKey priceAccountKey, String symbol) {
+        return buildProductAccount(
+                priceAccountKey,
+                new String[][]{{"symbol", symbol}, {"asset_type", "Crypto"}, {"quote_currency", "USD"}}
+        );
+    }
+
+    private static byte[] buildProductAccount(PublicKey priceAccountKey, String[][] attributes) {
+        ByteBuffer buffer = ByteBuffer.allocate(512).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(PYTH_MAGIC_NUMBER);
+        buffer.putInt(EXPECTED_PYTH_VERSION);
+        buffer.putInt(2);
+        buffer.putInt(0);
+        buffer.put(priceAccountKey.toByteArray());
+        for (String[] attribute : attributes) {
+            for (String part : attribute) {
+                byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+                buffer.put((byte) bytes.length);
+                buffer.put(bytes);
+            }
+        }
+        buffer.putInt(12, buffer.position());
+        return buffer.array();
+    }
+
+    /**
+     * Builds a price account with an aggregate price and no publishers.
+     */
+    private static byte[] buildPriceDataAccount(int exponent, long price, long confidence, int status,
+                                                long publishSlot) {
+        ByteBuffer buffer = ByteBuffer.allocate(240 + 96).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, PYTH_MAGIC_NUMBER);
+        buffer.putInt(4, EXPECTED_PYTH_VERSION);
+        buffer.putInt(8, 3);
+        buffer.putInt(12, buffer.capacity());
+        buffer.putInt(16, 1);
+        buffer.putInt(20, exponent);
+        buffer.putLong(32, publishSlot);
+        buffer.putLong(40, publishSlot - 1);
+        buffer.putLong(208, price);
+        buffer.putLong(216, confidence);
+        buffer.putInt(224, status);
+        buffer.putLong(232, publishSlot);
+        return buffer.array();
+    }
+
+    private static byte[] buildPriceDataAccount(int exponent, long price, long confidence, int status,
+                                                long publishSlot, PublicKey[] publishers, long[] componentPrices,
+                                                int[] componentStatuses, long[] componentPublishSlots) {
+        byte[] header = buildPriceDataAccount(exponent, price, confidence, status, publishSlot);
+        ByteBuffer buffer = ByteBuffer.allocate(240 + (32 * 96)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(header, 0, 240);
+        for (int i = 0; i < publishers.length; i++) {
+            int offset = 240 + (i * 96);
+            buffer.put(offset, publishers[i].toByteArray());
+            for (int priceInfo = offset + 32; priceInfo <= offset + 64; priceInfo += 32) {
+                buffer.putLong(priceInfo, componentPrices[i]);
+                buffer.putLong(priceInfo + 8, 1);
+                buffer.putInt(priceInfo + 16, componentStatuses[i]);
+                buffer.putLong(priceInfo + 24, componentPublishSlots[i]);
+            }
+        }
+        return buffer.array();
+    }
 }
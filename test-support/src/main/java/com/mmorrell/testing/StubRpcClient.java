@@ -0,0 +1,143 @@
+package com.mmorrell.testing;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.rpc.RpcClient;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Builds {@link RpcClient}s that answer JSON-RPC requests in process, so tests never reach the network.
+ */
+public final class StubRpcClient {
+
+    private static final Pattern METHOD = Pattern.compile("\"method\":\"(\\w+)\"");
+    private static final Pattern ID = Pattern.compile("\"id\":(\"[^\"]*\"|\\d+)");
+    private static final Pattern PUBLIC_KEY = Pattern.compile("\"([1-9A-HJ-NP-Za-km-z]{32,44})\"");
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private StubRpcClient() {
+    }
+
+    /**
+     * Answers every request with the result the handler returns, recording the methods called.
+     *
+     * @param methods receives each method name in call order; the handler sees its own call already recorded
+     * @param handler maps the method name and the request's params JSON to the JSON result
+     * @return the client
+     */
+    public static RpcClient create(List<String> methods, BiFunction<String, String, String> handler) {
+        OkHttpClient httpClient = new OkHttpClient.Builder().addInterceptor(chain -> {
+            Buffer requestBody = new Buffer();
+            chain.request().body().writeTo(requestBody);
+            String request = requestBody.readUtf8();
+
+            Matcher methodMatcher = METHOD.matcher(request);
+            String method = methodMatcher.find() ? methodMatcher.group(1) : "";
+            Matcher idMatcher = ID.matcher(request);
+            String id = idMatcher.find() ? idMatcher.group(1) : "1";
+            int paramsStart = request.indexOf("\"params\"");
+            String params = paramsStart < 0 ? "" : request.substring(paramsStart);
+            synchronized (methods) {
+                methods.add(method);
+            }
+
+            String json = "{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"result\":" + handler.apply(method, params) + "}";
+            return new Response.Builder()
+                    .request(chain.request())
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .message("OK")
+                    .body(ResponseBody.create(json, JSON))
+                    .build();
+        }).build();
+
+        return new RpcClient("http://localhost", httpClient);
+    }
+
+    /**
+     * Answers getAccountInfo, getMultipleAccounts and getProgramAccounts from a fixed set of accounts, all owned by
+     * one program. Unknown keys are returned as null accounts.
+     *
+     * @param accounts the account data by key; getProgramAccounts returns them in iteration order
+     * @param owner    the owner of every account
+     * @param methods  receives each method name in call order
+     * @return the client
+     */
+    public static RpcClient accounts(Map<PublicKey, byte[]> accounts, PublicKey owner, List<String> methods) {
+        return accounts(accounts, key -> owner, methods);
+    }
+
+    /**
+     * Answers getAccountInfo, getMultipleAccounts and getProgramAccounts from a fixed set of accounts.
+     *
+     * @param accounts the account data by key; getProgramAccounts returns them in iteration order
+     * @param owners   the owner of each account
+     * @param methods  receives each method name in call order
+     * @return the client
+     */
+    public static RpcClient accounts(Map<PublicKey, byte[]> accounts, Function<PublicKey, PublicKey> owners,
+                                     List<String> methods) {
+        return create(methods, (method, params) -> {
+            if (method.equals("getProgramAccounts")) {
+                return accounts.entrySet().stream()
+                        .map(entry -> "{\"pubkey\":\"" + entry.getKey().toBase58() + "\",\"account\":"
+                                + toAccountJson(entry.getValue(), owners.apply(entry.getKey())) + "}")
+                        .collect(Collectors.joining(",", "[", "]"));
+            }
+
+            List<String> values = readPublicKeys(params).stream()
+                    .map(key -> toAccountJson(accounts.get(key), owners.apply(key)))
+                    .collect(Collectors.toList());
+            String value = method.equals("getMultipleAccounts")
+                    ? "[" + String.join(",", values) + "]"
+                    : (values.isEmpty() ? "null" : values.get(0));
+            return "{\"context\":{\"slot\":1},\"value\":" + value + "}";
+        });
+    }
+
+    /**
+     * Returns the base58 public keys quoted in a request's params, in order.
+     *
+     * @param params the params JSON
+     * @return the keys
+     */
+    public static List<PublicKey> readPublicKeys(String params) {
+        Matcher keyMatcher = PUBLIC_KEY.matcher(params);
+        List<PublicKey> keys = new ArrayList<>();
+        while (keyMatcher.find()) {
+            keys.add(new PublicKey(keyMatcher.group(1)));
+        }
+
+        return keys;
+    }
+
+    /**
+     * Encodes an account the way the RPC returns it with base64 encoding.
+     *
+     * @param data  the account data, or null for a missing account
+     * @param owner the owning program
+     * @return the account JSON, or {@code null}
+     */
+    public static String toAccountJson(byte[] data, PublicKey owner) {
+        if (data == null) {
+            return "null";
+        }
+
+        return "{\"data\":[\"" + Base64.getEncoder().encodeToString(data) + "\",\"base64\"],"
+                + "\"executable\":false,\"lamports\":1,\"owner\":\"" + owner.toBase58() + "\",\"rentEpoch\":0}";
+    }
+}